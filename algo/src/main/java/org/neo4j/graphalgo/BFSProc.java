@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.IntArray;
+import org.neo4j.graphalgo.core.utils.traverse.HugeDirectionOptimizingBFS;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.HugeOptionalIntArrayTranslator;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.graphalgo.results.BFSResult;
+import org.neo4j.graphalgo.results.BFSStreamResult;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Level synchronous, direction optimizing breadth first search
+ * from a single start node.
+ * <p>
+ * The graph is always loaded as huge graph in both directions
+ * since bottom-up steps traverse the reverse direction.
+ */
+public class BFSProc {
+
+    public static final String DEFAULT_TARGET_PROPERTY = "level";
+    public static final String CONFIG_PARENT_PROPERTY = "parentProperty";
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Context
+    public KernelTransaction transaction;
+
+    @Procedure("algo.bfs.stream")
+    @Description("CALL algo.bfs.stream(startNode:Node, label:String, relationship:String, " +
+            "{direction:'OUTGOING', concurrency:4}) " +
+            "YIELD nodeId, level, parentId - yields level and parent of every node reachable from the start node")
+    public Stream<BFSStreamResult> bfsStream(
+            @Name("startNode") Node startNode,
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        final AllocationTracker tracker = AllocationTracker.create();
+
+        final HugeGraph graph = load(label, relationship, configuration, tracker);
+        final HugeDirectionOptimizingBFS bfs = compute(graph, startNode, configuration, tracker);
+        graph.release();
+
+        final List<BFSStreamResult> results = LongStream.range(0L, graph.nodeCount())
+                .filter(node -> bfs.level(node) != HugeDirectionOptimizingBFS.NOT_VISITED)
+                .mapToObj(node -> new BFSStreamResult(
+                        graph.toOriginalNodeId(node),
+                        bfs.level(node),
+                        graph.toOriginalNodeId(bfs.parent(node))))
+                .collect(Collectors.toList());
+        bfs.release();
+
+        return results.stream();
+    }
+
+    @Procedure(value = "algo.bfs", mode = Mode.WRITE)
+    @Description("CALL algo.bfs(startNode:Node, label:String, relationship:String, " +
+            "{direction:'OUTGOING', write:true, writeProperty:'level', parentProperty:'parent', concurrency:4}) " +
+            "YIELD loadMillis, computeMillis, writeMillis, nodes, visitedNodes, maxLevel - yields evaluation details")
+    public Stream<BFSResult> bfs(
+            @Name("startNode") Node startNode,
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        final BFSResult.Builder builder = BFSResult.builder();
+        final AllocationTracker tracker = AllocationTracker.create();
+        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+
+        final HugeGraph graph;
+        try (ProgressTimer timer = builder.timeLoad()) {
+            graph = load(label, relationship, configuration, tracker);
+        }
+        builder.withNodeCount(graph.nodeCount());
+
+        final HugeDirectionOptimizingBFS bfs;
+        try (ProgressTimer timer = builder.timeEval()) {
+            bfs = compute(graph, startNode, configuration, tracker);
+        }
+        builder.withVisitedNodes(bfs.visitedNodes())
+                .withMaxLevel(bfs.maxLevel());
+
+        if (configuration.isWriteFlag()) {
+            graph.release();
+            final Exporter.NodeProperty<IntArray> levels = Exporter.NodeProperty.of(
+                    configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY),
+                    bfs.levels(),
+                    HugeOptionalIntArrayTranslator.INSTANCE);
+            final Optional<String> parentProperty = configuration.getString(CONFIG_PARENT_PROPERTY);
+            builder.timeWrite(() -> {
+                final Exporter exporter = Exporter.of(api, graph)
+                        .withLog(log)
+                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                        .build();
+                if (parentProperty.isPresent()) {
+                    exporter.write(levels, Exporter.NodeProperty.of(
+                            parentProperty.get(),
+                            bfs,
+                            (PropertyTranslator.OfOptionalLong<HugeDirectionOptimizingBFS>) (data, nodeId) -> {
+                                final long parent = data.parent(nodeId);
+                                return parent == HugeDirectionOptimizingBFS.NOT_VISITED
+                                        ? -1L
+                                        : graph.toOriginalNodeId(parent);
+                            }));
+                } else {
+                    exporter.write(levels);
+                }
+            });
+        }
+        bfs.release();
+
+        return Stream.of(builder.build());
+    }
+
+    private HugeGraph load(
+            String label,
+            String relationship,
+            ProcedureConfiguration configuration,
+            AllocationTracker tracker) {
+        return (HugeGraph) new GraphLoader(api, Pools.DEFAULT)
+                .init(log, label, relationship, configuration)
+                .withoutNodeProperties()
+                .withDirection(Direction.BOTH)
+                .withAllocationTracker(tracker)
+                .load(HugeGraphFactory.class);
+    }
+
+    private HugeDirectionOptimizingBFS compute(
+            HugeGraph graph,
+            Node startNode,
+            ProcedureConfiguration configuration,
+            AllocationTracker tracker) {
+        final long start = graph.toHugeMappedNodeId(startNode.getId());
+        if (start == -1L) {
+            throw new IllegalArgumentException("Start node " + startNode.getId() + " is not part of the graph");
+        }
+        return new HugeDirectionOptimizingBFS(graph, Pools.DEFAULT, configuration.getConcurrency(), tracker)
+                .compute(
+                        start,
+                        configuration.getDirection(Direction.OUTGOING),
+                        TerminationFlag.wrap(transaction));
+    }
+}
@@ -19,12 +19,19 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.*;
-import org.neo4j.graphalgo.core.write.AtomicDoubleArrayTranslator;
+import org.neo4j.graphalgo.core.utils.checkpoint.Checkpoint;
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+import org.neo4j.graphalgo.core.utils.jobs.JobScheduler;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeDoubleAccumulator;
+import org.neo4j.graphalgo.core.utils.queue.TopKHeap;
 import org.neo4j.graphalgo.core.write.DoubleArrayTranslator;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.HugeDoubleAccumulatorTranslator;
 import org.neo4j.graphalgo.impl.betweenness.*;
 import org.neo4j.graphalgo.results.BetweennessCentralityProcResult;
 import org.neo4j.graphdb.Direction;
@@ -33,7 +40,10 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.function.LongToDoubleFunction;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -47,6 +57,7 @@ public class BetweennessCentralityProc {
 
     public static final String DEFAULT_TARGET_PROPERTY = "centrality";
     public static final Direction DEFAULT_DIRECTION = Direction.OUTGOING;
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
 
     @Context
     public GraphDatabaseAPI api;
@@ -67,7 +78,7 @@ public class BetweennessCentralityProc {
      *                      or use log10(nodeCount) / e^2 as default
      */
     @Procedure(value = "algo.betweenness.sampled.stream")
-    @Description("CALL algo.betweenness.sampled.stream(label:String, relationship:String, {strategy:{'random', 'degree'}, probability:double, maxDepth:int, direction:String, concurrency:int}) YIELD nodeId, centrality - yields centrality for each node")
+    @Description("CALL algo.betweenness.sampled.stream(label:String, relationship:String, {strategy:{'random', 'degree'}, probability:double, maxDepth:int, direction:String, concurrency:int, top:int}) YIELD nodeId, centrality - yields centrality for each node")
     public Stream<BetweennessCentrality.Result> betweennessRABrandes(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -75,31 +86,45 @@ public class BetweennessCentralityProc {
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
 
-        final Graph graph = new GraphLoader(api, Pools.DEFAULT)
-                .init(log, label, relationship, configuration)
-                .withoutNodeProperties()
-                .withDirection(configuration.getDirection(Direction.OUTGOING))
-                .load(configuration.getGraphImpl());
-
-        final RABrandesBetweennessCentrality algo =
-                new RABrandesBetweennessCentrality(graph, Pools.DEFAULT, configuration.getConcurrency(), strategy(configuration, graph))
-                        .withTerminationFlag(TerminationFlag.wrap(transaction))
-                        .withProgressLogger(ProgressLogger.wrap(log, "Randomized Approximate Brandes: BetweennessCentrality(parallel)"))
-                        .withDirection(configuration.getDirection(Direction.OUTGOING))
-                        .withMaxDepth(configuration.getNumber("maxDepth", Integer.MAX_VALUE).intValue())
-                        .compute();
+        final AllocationTracker tracker = AllocationTracker.create();
+
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.betweenness.sampled.stream",
+                configuration,
+                estimateSampledMemoryUsage(loader(label, relationship, configuration, tracker), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            final Graph graph = loader(label, relationship, configuration, tracker).load(configuration.getGraphImpl());
+
+            final RABrandesBetweennessCentrality algo =
+                    new RABrandesBetweennessCentrality(graph, Pools.DEFAULT, configuration.getConcurrency(), strategy(configuration, graph))
+                            .withTerminationFlag(job.terminationFlag())
+                            .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "Randomized Approximate Brandes: BetweennessCentrality(parallel)")))
+                            .withDirection(configuration.getDirection(Direction.OUTGOING))
+                            .withMaxDepth(configuration.getNumber("maxDepth", Integer.MAX_VALUE).intValue())
+                            .compute();
 
-        graph.release();
+            graph.release();
 
-        return algo.resultStream();
+            final int top = configuration.getTop();
+            if (top > 0) {
+                final HugeDoubleAccumulator centrality = algo.getCentrality();
+                return topStream(graph, top, centrality::get, configuration.getConcurrency());
+            }
+            return algo.resultStream();
+        }
     }
 
     /**
      * Brandes Betweenness Centrality Algorithm
      *
+     * optional Arguments:
+     *  checkpoint:'name'       write the centrality after every checkpointInterval source nodes
+     *  resumeFrom:'name'       continue with the sources that were not processed when the checkpoint was written
      */
     @Procedure(value = "algo.betweenness.stream")
-    @Description("CALL algo.betweenness.stream(label:String, relationship:String, {direction:'out', concurrency :4})" +
+    @Description("CALL algo.betweenness.stream(label:String, relationship:String, {direction:'out', concurrency :4, top:100, " +
+                 "checkpoint:'betweenness.ckpt', checkpointInterval:10000, resumeFrom:'betweenness.ckpt'})" +
                  "YIELD nodeId, centrality - yields centrality for each node")
     public Stream<BetweennessCentrality.Result> betweennessStream(
             @Name(value = "label", defaultValue = "") String label,
@@ -108,33 +133,124 @@ public class BetweennessCentralityProc {
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
 
-        final Graph graph = new GraphLoader(api, Pools.DEFAULT)
-                .init(log, label, relationship, configuration)
-                .withoutNodeProperties()
-                .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
-                .load(configuration.getGraphImpl());
-
-        final int concurrency = configuration.getConcurrency();
-        if (concurrency > 1) {
-            final ParallelBetweennessCentrality algo =
-                    new ParallelBetweennessCentrality(graph, Pools.DEFAULT, concurrency)
-                            .withProgressLogger(ProgressLogger.wrap(log, "BetweennessCentrality"))
-                            .withTerminationFlag(TerminationFlag.wrap(transaction))
-                            .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
-                            .compute();
+        final AllocationTracker tracker = AllocationTracker.create();
+
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.betweenness.stream",
+                configuration,
+                estimateMemoryUsage(loader(label, relationship, configuration, tracker), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            final Graph graph = loader(label, relationship, configuration, tracker).load(configuration.getGraphImpl());
+
+            final int concurrency = configuration.getConcurrency();
+            final int top = configuration.getTop();
+            if (parallel(configuration)) {
+                final ParallelBetweennessCentrality algo = withCheckpoints(
+                        new ParallelBetweennessCentrality(graph, Pools.DEFAULT, concurrency)
+                                .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "BetweennessCentrality")))
+                                .withTerminationFlag(job.terminationFlag())
+                                .withDirection(configuration.getDirection(DEFAULT_DIRECTION)),
+                        configuration)
+                        .compute();
+                graph.release();
+                if (top > 0) {
+                    final HugeDoubleAccumulator centrality = algo.getCentrality();
+                    return topStream(graph, top, centrality::get, concurrency);
+                }
+                return algo.resultStream();
+            }
+
+            final BetweennessCentrality compute = new BetweennessCentrality(graph)
+                    .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
+                    .compute();
             graph.release();
-            return algo.resultStream();
+            if (top > 0) {
+                final double[] centrality = compute.getCentrality();
+                return topStream(graph, top, node -> centrality[(int) node], 1);
+            }
+            return compute.resultStream();
         }
+    }
 
-        final BetweennessCentrality compute = new BetweennessCentrality(graph)
+    /**
+     * only the parallel algorithm processes the source nodes in ranges that can be checkpointed
+     */
+    private static boolean parallel(ProcedureConfiguration configuration) {
+        return configuration.getConcurrency() > 1
+                || configuration.getCheckpoint().isPresent()
+                || configuration.getResumeFrom().isPresent();
+    }
+
+    private ParallelBetweennessCentrality withCheckpoints(
+            ParallelBetweennessCentrality algo,
+            ProcedureConfiguration configuration) {
+        configuration.getCheckpoint().ifPresent(name -> algo.withCheckpoint(
+                checkpoint(name),
+                configuration.getCheckpointInterval(DEFAULT_CHECKPOINT_INTERVAL)));
+        configuration.getResumeFrom().ifPresent(name -> algo.resumeFrom(checkpoint(name)));
+        return algo;
+    }
+
+    /**
+     * checkpoints are only named by the caller, they are always kept in the checkpoint directory of the database
+     */
+    private Path checkpoint(String name) {
+        return Checkpoint.resolve(Checkpoint.directory(api.getStoreDir()), name);
+    }
+
+    private GraphLoader loader(
+            String label,
+            String relationship,
+            ProcedureConfiguration configuration,
+            AllocationTracker tracker) {
+        return new GraphLoader(api, Pools.DEFAULT)
+                .init(log, label, relationship, configuration)
+                .withoutNodeProperties()
                 .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
-                .compute();
-        graph.release();
-        return compute.resultStream();
+                .withAllocationTracker(tracker);
+    }
+
+    /**
+     * the graph and the centrality of all nodes, with the threads the job will be granted
+     */
+    private static long estimateMemoryUsage(GraphLoader graphLoader, ProcedureConfiguration configuration) {
+        final GraphDimensions dimensions = graphLoader.dimensions();
+        final int concurrency = JobScheduler.GLOBAL.threadsFor(configuration.getConcurrency());
+        final long algorithm = parallel(configuration)
+                ? ParallelBetweennessCentrality.estimateMemoryUsage(dimensions.nodeCount(), concurrency)
+                : BetweennessCentrality.estimateMemoryUsage(dimensions.nodeCount());
+        return graphLoader.estimateMemoryUsage(configuration.getGraphImpl(), dimensions) + algorithm;
+    }
+
+    /**
+     * the graph and the centrality of all nodes for the randomized approximation
+     */
+    private static long estimateSampledMemoryUsage(GraphLoader graphLoader, ProcedureConfiguration configuration) {
+        final GraphDimensions dimensions = graphLoader.dimensions();
+        final int concurrency = JobScheduler.GLOBAL.threadsFor(configuration.getConcurrency());
+        return graphLoader.estimateMemoryUsage(configuration.getGraphImpl(), dimensions)
+                + RABrandesBetweennessCentrality.estimateMemoryUsage(dimensions.nodeCount(), concurrency);
+    }
+
+    /**
+     * streams only the {@code top} nodes with the highest centrality, in descending order
+     */
+    private static Stream<BetweennessCentrality.Result> topStream(
+            Graph graph,
+            int top,
+            LongToDoubleFunction centrality,
+            int concurrency) {
+        final long[] topNodes = TopKHeap.select(graph.nodeCount(), top, centrality, concurrency, Pools.DEFAULT);
+        return LongStream.of(topNodes)
+                .mapToObj(node -> new BetweennessCentrality.Result(
+                        graph.toOriginalNodeId((int) node),
+                        centrality.applyAsDouble(node)));
     }
 
     @Procedure(value = "algo.betweenness", mode = Mode.WRITE)
-    @Description("CALL algo.betweenness(label:String, relationship:String, {direction:'out',write:true, writeProperty:'centrality', stats:true, concurrency:4}) YIELD " +
+    @Description("CALL algo.betweenness(label:String, relationship:String, {direction:'out',write:true, writeProperty:'centrality', stats:true, concurrency:4, " +
+            "checkpoint:'betweenness.ckpt', checkpointInterval:10000, resumeFrom:'betweenness.ckpt'}) YIELD " +
             "loadMillis, computeMillis, writeMillis, nodes, minCentrality, maxCentrality, sumCentrality - yields status of evaluation")
     public Stream<BetweennessCentralityProcResult> betweenness(
             @Name(value = "label", defaultValue = "") String label,
@@ -143,10 +259,19 @@ public class BetweennessCentralityProc {
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
 
-        if (configuration.getConcurrency() > 1) {
-            return computeBetweennessParallel(label, relationship, configuration);
-        } else {
-            return computeBetweenness(label, relationship, configuration);
+        final AllocationTracker tracker = AllocationTracker.create();
+
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.betweenness",
+                configuration,
+                estimateMemoryUsage(loader(label, relationship, configuration, tracker), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            if (parallel(configuration)) {
+                return computeBetweennessParallel(label, relationship, configuration, job);
+            } else {
+                return computeBetweenness(label, relationship, configuration, job);
+            }
         }
     }
 
@@ -170,76 +295,76 @@ public class BetweennessCentralityProc {
 
         ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
 
-        final BetweennessCentralityProcResult.Builder builder =
-                BetweennessCentralityProcResult.builder();
-
-        Graph graph;
-        try (ProgressTimer timer = builder.timeLoad()) {
-            graph = new GraphLoader(api, Pools.DEFAULT)
-                    .init(log, label, relationship, configuration)
-                    .withOptionalLabel(label)
-                    .withOptionalRelationshipType(relationship)
-                    .withoutNodeProperties()
-                    .withDirection(configuration.getDirection(Direction.OUTGOING))
-                    .load(configuration.getGraphImpl());
-        }
+        final AllocationTracker tracker = AllocationTracker.create();
 
-        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        final RABrandesBetweennessCentrality.SelectionStrategy strategy = strategy(configuration, graph);
-        final RABrandesBetweennessCentrality bc =
-                new RABrandesBetweennessCentrality(graph, Pools.DEFAULT, configuration.getConcurrency(), strategy)
-                        .withProgressLogger(ProgressLogger.wrap(log, "Randomized Approximate Brandes: BetweennessCentrality(parallel)"))
-                        .withTerminationFlag(terminationFlag)
-                        .withDirection(configuration.getDirection(Direction.OUTGOING))
-                        .withMaxDepth(configuration.getNumber("maxDepth", Integer.MAX_VALUE).intValue());
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.betweenness.sampled",
+                configuration,
+                estimateSampledMemoryUsage(loader(label, relationship, configuration, tracker), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            final BetweennessCentralityProcResult.Builder builder =
+                    BetweennessCentralityProcResult.builder();
 
-        builder.timeEval(() -> {
-            bc.compute();
-            if (configuration.isStatsFlag()) {
-                computeStats(builder, bc.getCentrality());
-                builder.withNodeCount(strategy.size());
+            Graph graph;
+            try (ProgressTimer timer = builder.timeLoad()) {
+                graph = loader(label, relationship, configuration, tracker).load(configuration.getGraphImpl());
             }
-        });
 
-        graph.release();
-        if (configuration.isWriteFlag()) {
-            builder.timeWrite(() -> {
-                final AtomicDoubleArray centrality = bc.getCentrality();
-                final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
-                Exporter.of(api, graph)
-                        .withLog(log)
-                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
-                        .build()
-                        .write(writeProperty, centrality, AtomicDoubleArrayTranslator.INSTANCE);
+            final TerminationFlag terminationFlag = job.terminationFlag();
+            final RABrandesBetweennessCentrality.SelectionStrategy strategy = strategy(configuration, graph);
+            final RABrandesBetweennessCentrality bc =
+                    new RABrandesBetweennessCentrality(graph, Pools.DEFAULT, configuration.getConcurrency(), strategy)
+                            .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "Randomized Approximate Brandes: BetweennessCentrality(parallel)")))
+                            .withTerminationFlag(terminationFlag)
+                            .withDirection(configuration.getDirection(Direction.OUTGOING))
+                            .withMaxDepth(configuration.getNumber("maxDepth", Integer.MAX_VALUE).intValue());
+
+            builder.timeEval(() -> {
+                bc.compute();
+                if (configuration.isStatsFlag()) {
+                    computeStats(builder, bc.getCentrality());
+                    builder.withNodeCount(strategy.size());
+                }
             });
-        }
-        bc.release();
 
-        return Stream.of(builder.build());
+            graph.release();
+            if (configuration.isWriteFlag()) {
+                builder.timeWrite(() -> {
+                    final HugeDoubleAccumulator centrality = bc.getCentrality();
+                    final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
+                    Exporter.of(api, graph)
+                            .withLog(log)
+                            .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                            .build()
+                            .write(writeProperty, centrality, HugeDoubleAccumulatorTranslator.INSTANCE);
+                });
+            }
+            bc.release();
+
+            return Stream.of(builder.build());
+        }
     }
 
     public Stream<BetweennessCentralityProcResult> computeBetweenness(
             String label,
             String relationship,
-            ProcedureConfiguration configuration) {
+            ProcedureConfiguration configuration,
+            Job job) {
 
         final BetweennessCentralityProcResult.Builder builder =
                 BetweennessCentralityProcResult.builder();
 
         Graph graph;
         try (ProgressTimer timer = builder.timeLoad()) {
-            graph = new GraphLoader(api, Pools.DEFAULT)
-                    .init(log, label, relationship, configuration)
-                    .withoutNodeProperties()
-                    .withDirection(configuration.getDirection(Direction.OUTGOING))
-                    .load(configuration.getGraphImpl());
+            graph = loader(label, relationship, configuration, job.tracker()).load(configuration.getGraphImpl());
         }
 
         builder.withNodeCount(graph.nodeCount());
-        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        final TerminationFlag terminationFlag = job.terminationFlag();
         final BetweennessCentrality bc = new BetweennessCentrality(graph)
                 .withTerminationFlag(terminationFlag)
-                .withProgressLogger(ProgressLogger.wrap(log, "BetweennessCentrality(sequential)"))
+                .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "BetweennessCentrality(sequential)")))
                 .withDirection(configuration.getDirection(Direction.OUTGOING));
 
         builder.timeEval(() -> {
@@ -273,30 +398,26 @@ public class BetweennessCentralityProc {
     public Stream<BetweennessCentralityProcResult> computeBetweennessParallel(
             String label,
             String relationship,
-            ProcedureConfiguration configuration) {
+            ProcedureConfiguration configuration,
+            Job job) {
 
         final BetweennessCentralityProcResult.Builder builder =
                 BetweennessCentralityProcResult.builder();
 
         Graph graph;
         try (ProgressTimer timer = builder.timeLoad()) {
-            graph = new GraphLoader(api, Pools.DEFAULT)
-                    .init(log, label, relationship, configuration)
-                    .withOptionalLabel(label)
-                    .withOptionalRelationshipType(relationship)
-                    .withoutNodeProperties()
-                    .withDirection(configuration.getDirection(Direction.OUTGOING))
-                    .load(configuration.getGraphImpl());
+            graph = loader(label, relationship, configuration, job.tracker()).load(configuration.getGraphImpl());
         }
 
         builder.withNodeCount(graph.nodeCount());
 
-        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        final ParallelBetweennessCentrality bc =
+        final TerminationFlag terminationFlag = job.terminationFlag();
+        final ParallelBetweennessCentrality bc = withCheckpoints(
                 new ParallelBetweennessCentrality(graph, Pools.DEFAULT, configuration.getConcurrency())
-                        .withProgressLogger(ProgressLogger.wrap(log, "BetweennessCentrality(parallel)"))
+                        .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "BetweennessCentrality(parallel)")))
                         .withTerminationFlag(terminationFlag)
-                        .withDirection(configuration.getDirection(Direction.OUTGOING));
+                        .withDirection(configuration.getDirection(Direction.OUTGOING)),
+                configuration);
 
         builder.timeEval(() -> {
             bc.compute();
@@ -308,13 +429,13 @@ public class BetweennessCentralityProc {
         graph.release();
         if (configuration.isWriteFlag()) {
             builder.timeWrite(() -> {
-                final AtomicDoubleArray centrality = bc.getCentrality();
+                final HugeDoubleAccumulator centrality = bc.getCentrality();
                 final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
                 Exporter.of(api, graph)
                         .withLog(log)
                         .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
                         .build()
-                        .write(writeProperty, centrality, AtomicDoubleArrayTranslator.INSTANCE);
+                        .write(writeProperty, centrality, HugeDoubleAccumulatorTranslator.INSTANCE);
             });
         }
         bc.release();
@@ -341,11 +462,11 @@ public class BetweennessCentralityProc {
                 .withCentralitySum(sum);
     }
 
-    private void computeStats(BetweennessCentralityProcResult.Builder builder, AtomicDoubleArray centrality) {
+    private void computeStats(BetweennessCentralityProcResult.Builder builder, HugeDoubleAccumulator centrality) {
         double min = Double.MAX_VALUE;
         double max = Double.MIN_VALUE;
         double sum = 0.0;
-        for (int i = centrality.length() - 1; i >= 0; i--) {
+        for (long i = centrality.size() - 1; i >= 0; i--) {
             final double c = centrality.get(i);
             if (c < min) {
                 min = c;
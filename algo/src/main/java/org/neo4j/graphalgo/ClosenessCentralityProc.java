@@ -20,13 +20,18 @@ package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.checkpoint.Checkpoint;
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+import org.neo4j.graphalgo.core.utils.jobs.JobScheduler;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.queue.TopKHeap;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.*;
 import org.neo4j.graphalgo.results.ClosenessCentralityProcResult;
@@ -36,7 +41,10 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.function.LongToIntFunction;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -46,6 +54,7 @@ public class ClosenessCentralityProc {
 
 
     public static final String DEFAULT_TARGET_PROPERTY = "centrality";
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
 
 
     @Context
@@ -58,7 +67,8 @@ public class ClosenessCentralityProc {
     public KernelTransaction transaction;
 
     @Procedure(value = "algo.closeness.stream")
-    @Description("CALL algo.closeness.stream(label:String, relationship:String{concurrency:4}) YIELD nodeId, centrality - yields centrality for each node")
+    @Description("CALL algo.closeness.stream(label:String, relationship:String{concurrency:4, top:100, " +
+            "checkpoint:'closeness.ckpt', checkpointInterval:10000, resumeFrom:'closeness.ckpt'}) YIELD nodeId, centrality - yields centrality for each node")
     public Stream<MSClosenessCentrality.Result> closenessStream(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -67,35 +77,86 @@ public class ClosenessCentralityProc {
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
         AllocationTracker tracker = AllocationTracker.create();
 
-        final Graph graph = new GraphLoader(api, Pools.DEFAULT)
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.closeness.stream",
+                configuration,
+                estimateMemoryUsage(loader(label, relationship, configuration, tracker), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            final Graph graph = loader(label, relationship, configuration, tracker).load(configuration.getGraphImpl());
+
+            final MSBFSCCAlgorithm<?> algo = newAlgo(tracker, graph, configuration.getConcurrency(), configuration);
+            algo
+                    .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)")))
+                    .withTerminationFlag(job.terminationFlag());
+            algo.compute();
+            graph.release();
+
+            final int top = configuration.getTop();
+            if (top > 0) {
+                final double k = graph.nodeCount() - 1;
+                final LongToIntFunction farness = algo.farness();
+                final long[] topNodes = TopKHeap.select(
+                        graph.nodeCount(),
+                        top,
+                        node -> MSBFSCCAlgorithm.centrality(farness.applyAsInt(node), k),
+                        configuration.getConcurrency(),
+                        Pools.DEFAULT);
+                return LongStream.of(topNodes)
+                        .mapToObj(node -> new MSClosenessCentrality.Result(
+                                graph instanceof HugeGraph
+                                        ? ((HugeGraph) graph).toOriginalNodeId(node)
+                                        : graph.toOriginalNodeId((int) node),
+                                MSBFSCCAlgorithm.centrality(farness.applyAsInt(node), k)));
+            }
+            return algo.resultStream();
+        }
+    }
+
+    private GraphLoader loader(
+            String label,
+            String relationship,
+            ProcedureConfiguration configuration,
+            AllocationTracker tracker) {
+        return new GraphLoader(api, Pools.DEFAULT)
                 .init(log, label, relationship, configuration)
                 .withoutNodeProperties()
                 .withDirection(Direction.OUTGOING)
-                .withAllocationTracker(tracker)
-                .load(configuration.getGraphImpl());
-
-        final MSBFSCCAlgorithm<?> algo = newAlgo(tracker, graph, configuration.getConcurrency());
-        algo
-                .withProgressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction));
-        algo.compute();
-        graph.release();
-        return algo.resultStream();
+                .withAllocationTracker(tracker);
+    }
+
+    /**
+     * the graph and the farness of all nodes, with the threads the job will be granted
+     */
+    private static long estimateMemoryUsage(GraphLoader graphLoader, ProcedureConfiguration configuration) {
+        final GraphDimensions dimensions = graphLoader.dimensions();
+        final int concurrency = JobScheduler.GLOBAL.threadsFor(configuration.getConcurrency());
+        return graphLoader.estimateMemoryUsage(configuration.getGraphImpl(), dimensions)
+                + HugeMSClosenessCentrality.estimateMemoryUsage(dimensions.hugeNodeCount(), concurrency);
     }
 
     private MSBFSCCAlgorithm<?> newAlgo(
             final AllocationTracker tracker,
             final Graph graph,
-            final int concurrency) {
+            final int concurrency,
+            final ProcedureConfiguration configuration) {
         final MSBFSCCAlgorithm<?> algo;
         if (graph instanceof HugeGraph) {
             HugeGraph hugeGraph = (HugeGraph) graph;
-            algo = new HugeMSClosenessCentrality(
+            HugeMSClosenessCentrality hugeAlgo = new HugeMSClosenessCentrality(
                     hugeGraph,
                     tracker,
                     concurrency,
                     Pools.DEFAULT);
+            configuration.getCheckpoint().ifPresent(name -> hugeAlgo.withCheckpoint(
+                    checkpoint(name),
+                    configuration.getCheckpointInterval(DEFAULT_CHECKPOINT_INTERVAL)));
+            configuration.getResumeFrom().ifPresent(name -> hugeAlgo.resumeFrom(checkpoint(name)));
+            algo = hugeAlgo;
         } else {
+            if (configuration.getCheckpoint().isPresent() || configuration.getResumeFrom().isPresent()) {
+                throw new IllegalArgumentException("Checkpoints are only supported for closeness centrality on the huge graph");
+            }
             algo = new MSClosenessCentrality(
                     graph,
                     concurrency,
@@ -104,8 +165,16 @@ public class ClosenessCentralityProc {
         return algo;
     }
 
+    /**
+     * checkpoints are only named by the caller, they are always kept in the checkpoint directory of the database
+     */
+    private Path checkpoint(String name) {
+        return Checkpoint.resolve(Checkpoint.directory(api.getStoreDir()), name);
+    }
+
     @Procedure(value = "algo.closeness", mode = Mode.WRITE)
-    @Description("CALL algo.closeness(label:String, relationship:String, {write:true, writeProperty:'centrality, concurrency:4'}) YIELD " +
+    @Description("CALL algo.closeness(label:String, relationship:String, {write:true, writeProperty:'centrality, concurrency:4', " +
+            "checkpoint:'closeness.ckpt', checkpointInterval:10000, resumeFrom:'closeness.ckpt'}) YIELD " +
             "loadMillis, computeMillis, writeMillis, nodes] - yields evaluation details")
     public Stream<ClosenessCentralityProcResult> closeness(
             @Name(value = "label", defaultValue = "") String label,
@@ -113,45 +182,47 @@ public class ClosenessCentralityProc {
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
-
-        final ClosenessCentralityProcResult.Builder builder = ClosenessCentralityProcResult.builder();
-
         AllocationTracker tracker = AllocationTracker.create();
-        int concurrency = configuration.getConcurrency();
-        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-
-        Graph graph;
-        try (ProgressTimer timer = builder.timeLoad()) {
-            graph = new GraphLoader(api, Pools.DEFAULT)
-                    .init(log, label, relationship, configuration)
-                    .withoutNodeProperties()
-                    .withDirection(Direction.OUTGOING)
-                    .withAllocationTracker(tracker)
-                    .load(configuration.getGraphImpl());
-        }
-
-        builder.withNodeCount(graph.nodeCount());
 
-        final MSBFSCCAlgorithm<?> algo = newAlgo(tracker, graph, concurrency);
-        algo
-                .withProgressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)"))
-                .withTerminationFlag(terminationFlag);
-
-        builder.timeEval(algo::compute);
-
-        if (configuration.isWriteFlag()) {
-            graph.release();
-            final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
-            builder.timeWrite(() -> {
-                Exporter exporter = Exporter.of(api, graph)
-                        .withLog(log)
-                        .parallel(Pools.DEFAULT, concurrency, terminationFlag)
-                        .build();
-                algo.export(writeProperty, exporter);
-            });
-            algo.release();
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.closeness",
+                configuration,
+                estimateMemoryUsage(loader(label, relationship, configuration, tracker), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            final ClosenessCentralityProcResult.Builder builder = ClosenessCentralityProcResult.builder();
+
+            int concurrency = configuration.getConcurrency();
+            TerminationFlag terminationFlag = job.terminationFlag();
+
+            Graph graph;
+            try (ProgressTimer timer = builder.timeLoad()) {
+                graph = loader(label, relationship, configuration, tracker).load(configuration.getGraphImpl());
+            }
+
+            builder.withNodeCount(graph.nodeCount());
+
+            final MSBFSCCAlgorithm<?> algo = newAlgo(tracker, graph, concurrency, configuration);
+            algo
+                    .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)")))
+                    .withTerminationFlag(terminationFlag);
+
+            builder.timeEval(algo::compute);
+
+            if (configuration.isWriteFlag()) {
+                graph.release();
+                final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
+                builder.timeWrite(() -> {
+                    Exporter exporter = Exporter.of(api, graph)
+                            .withLog(log)
+                            .parallel(Pools.DEFAULT, concurrency, terminationFlag)
+                            .build();
+                    algo.export(writeProperty, exporter);
+                });
+                algo.release();
+            }
+
+            return Stream.of(builder.build());
         }
-
-        return Stream.of(builder.build());
     }
 }
@@ -20,12 +20,15 @@ package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+import org.neo4j.graphalgo.core.utils.jobs.JobScheduler;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.HugeMSClosenessCentrality;
@@ -68,22 +71,23 @@ public class HarmonicCentralityProc {
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
         final AllocationTracker tracker = AllocationTracker.create();
 
-        final Graph graph = new GraphLoader(api, Pools.DEFAULT)
-                .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
-                .withoutNodeProperties()
-                .withConcurrency(configuration.getConcurrency())
-                .withDirection(Direction.BOTH)
-                .withAllocationTracker(tracker)
-                .load(configuration.getGraphImpl());
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.harmonic.stream",
+                configuration,
+                estimateMemoryUsage(loader(configuration, tracker), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            final Graph graph = loader(configuration, tracker).load(configuration.getGraphImpl());
 
-        final MSHarmonicCentrality algo = new MSHarmonicCentrality(graph, configuration.getConcurrency(), Pools.DEFAULT)
-                .withProgressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction))
-                .compute();
+            final MSHarmonicCentrality algo = new MSHarmonicCentrality(graph, configuration.getConcurrency(), Pools.DEFAULT)
+                    .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)")))
+                    .withTerminationFlag(job.terminationFlag())
+                    .compute();
 
-        graph.release();
+            graph.release();
 
-        return algo.resultStream();
+            return algo.resultStream();
+        }
     }
 
     @Procedure(value = "algo.harmonic", mode = Mode.WRITE)
@@ -97,45 +101,65 @@ public class HarmonicCentralityProc {
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config)
                 .overrideNodeLabelOrQuery(label)
                 .overrideRelationshipTypeOrQuery(relationship);
-
-        final ClosenessCentralityProcResult.Builder builder = ClosenessCentralityProcResult.builder();
-
         final AllocationTracker tracker = AllocationTracker.create();
-        final int concurrency = configuration.getConcurrency();
-        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-
-        final Graph graph;
-        try (ProgressTimer timer = builder.timeLoad()) {
-            graph = new GraphLoader(api, Pools.DEFAULT)
-                    .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
-                    .withoutNodeProperties()
-                    .withConcurrency(concurrency)
-                    .withDirection(Direction.BOTH)
-                    .withAllocationTracker(tracker)
-                    .load(configuration.getGraphImpl());
-        }
-
-        builder.withNodeCount(graph.nodeCount());
 
-        final MSHarmonicCentrality algo = new MSHarmonicCentrality(graph, configuration.getConcurrency(), Pools.DEFAULT)
-                .withProgressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction));
-
-        builder.timeEval(algo::compute);
-
-        if (configuration.isWriteFlag()) {
-            graph.release();
-            final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
-            builder.timeWrite(() -> {
-                Exporter exporter = Exporter.of(api, graph)
-                        .withLog(log)
-                        .parallel(Pools.DEFAULT, concurrency, terminationFlag)
-                        .build();
-                algo.export(writeProperty, exporter);
-            });
-            algo.release();
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.harmonic",
+                configuration,
+                estimateMemoryUsage(loader(configuration, tracker), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            final ClosenessCentralityProcResult.Builder builder = ClosenessCentralityProcResult.builder();
+
+            final int concurrency = configuration.getConcurrency();
+            final TerminationFlag terminationFlag = job.terminationFlag();
+
+            final Graph graph;
+            try (ProgressTimer timer = builder.timeLoad()) {
+                graph = loader(configuration, tracker).load(configuration.getGraphImpl());
+            }
+
+            builder.withNodeCount(graph.nodeCount());
+
+            final MSHarmonicCentrality algo = new MSHarmonicCentrality(graph, configuration.getConcurrency(), Pools.DEFAULT)
+                    .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)")))
+                    .withTerminationFlag(job.terminationFlag());
+
+            builder.timeEval(algo::compute);
+
+            if (configuration.isWriteFlag()) {
+                graph.release();
+                final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
+                builder.timeWrite(() -> {
+                    Exporter exporter = Exporter.of(api, graph)
+                            .withLog(log)
+                            .parallel(Pools.DEFAULT, concurrency, terminationFlag)
+                            .build();
+                    algo.export(writeProperty, exporter);
+                });
+                algo.release();
+            }
+
+            return Stream.of(builder.build());
         }
+    }
+
+    private GraphLoader loader(ProcedureConfiguration configuration, AllocationTracker tracker) {
+        return new GraphLoader(api, Pools.DEFAULT)
+                .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
+                .withoutNodeProperties()
+                .withConcurrency(configuration.getConcurrency())
+                .withDirection(Direction.BOTH)
+                .withAllocationTracker(tracker);
+    }
 
-        return Stream.of(builder.build());
+    /**
+     * the graph and the inverse farness of all nodes, with the threads the job will be granted
+     */
+    private static long estimateMemoryUsage(GraphLoader graphLoader, ProcedureConfiguration configuration) {
+        final GraphDimensions dimensions = graphLoader.dimensions();
+        final int concurrency = JobScheduler.GLOBAL.threadsFor(configuration.getConcurrency());
+        return graphLoader.estimateMemoryUsage(configuration.getGraphImpl(), dimensions)
+                + MSHarmonicCentrality.estimateMemoryUsage(dimensions.nodeCount(), concurrency);
     }
 }
@@ -0,0 +1,353 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.ProcedureConstants;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.impl.DSSResult;
+import org.neo4j.graphalgo.impl.HugeIncrementalUnionFind;
+import org.neo4j.graphalgo.impl.UnionFindAlgo;
+import org.neo4j.graphalgo.impl.UnionFindProcExec;
+import org.neo4j.graphalgo.results.IncrementalUnionFindResult;
+import org.neo4j.graphalgo.results.UnionFindResult;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.event.ErrorState;
+import org.neo4j.graphdb.event.KernelEventHandler;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.IdType;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * UnionFind that keeps its struct in memory under a name, so that
+ * relationships which have been added after the initial computation
+ * can be absorbed and only changed partitions have to be written.
+ * The weight property and threshold given at initialization are kept
+ * with the struct and applied to every update. Structs are kept per
+ * database and released when that database shuts down.
+ */
+public class IncrementalUnionFindProc {
+
+    private static final String CONFIG_THRESHOLD = "threshold";
+    private static final String CONFIG_CLUSTER_PROPERTY = "partitionProperty";
+    private static final String DEFAULT_CLUSTER_PROPERTY = "partition";
+    private static final String CONFIG_MIN_RELATIONSHIP_ID = "minRelationshipId";
+    private static final String CONFIG_MAX_RELATIONSHIP_ID = "maxRelationshipId";
+
+    private static final ConcurrentMap<GraphDatabaseAPI, Structs> DATABASES = new ConcurrentHashMap<>();
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Context
+    public KernelTransaction transaction;
+
+    @Procedure(value = "algo.unionFind.incremental.init", mode = Mode.WRITE)
+    @Description("CALL algo.unionFind.incremental.init(name:String, label:String, relationship:String, " +
+            "{weightProperty:'weight', threshold:0.42, defaultValue:1.0, write: true, partitionProperty:'partition', concurrency:4}) " +
+            "YIELD nodes, setCount, loadMillis, computeMillis, writeMillis " +
+            "- computes UnionFind and keeps the result under the given name")
+    public Stream<UnionFindResult> init(
+            @Name(value = "name") String name,
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final Map<String, Object> hugeConfig = new HashMap<>(config);
+        hugeConfig.put(ProcedureConstants.GRAPH_IMPL_PARAM, "huge");
+        ProcedureConfiguration configuration = ProcedureConfiguration
+                .create(hugeConfig)
+                .overrideNodeLabelOrQuery(label)
+                .overrideRelationshipTypeOrQuery(relationship);
+
+        AllocationTracker tracker = AllocationTracker.create();
+        UnionFindResult.Builder builder = UnionFindResult.builder();
+        UnionFindProcExec uf = new UnionFindProcExec(
+                api,
+                log,
+                transaction,
+                UnionFindAlgo.SEQ,
+                UnionFindAlgo.FJ_MERGE);
+
+        final HugeGraph graph = (HugeGraph) uf.load(builder::timeLoad, configuration, tracker);
+        final int concurrency = configuration.getConcurrency();
+        final HugeIncrementalUnionFind struct;
+        try (ProgressTimer ignored = builder.timeEval()) {
+            final DSSResult result = (concurrency > 1 ? UnionFindAlgo.FJ_MERGE : UnionFindAlgo.SEQ).runAny(
+                    graph,
+                    Pools.DEFAULT,
+                    tracker,
+                    configuration.getBatchSize(),
+                    concurrency,
+                    configuration.get(CONFIG_THRESHOLD, Double.NaN),
+                    uf);
+            graph.release();
+            struct = new HugeIncrementalUnionFind(graph, result.hugeStruct, tracker);
+            struct.compress();
+        }
+
+        if (configuration.isWriteFlag()) {
+            builder.timeWrite(() -> write(struct, configuration));
+        }
+
+        final Entry previous = structs(api).put(name, new Entry(struct, configuration, concurrency > 1));
+        if (previous != null) {
+            previous.struct.release();
+        }
+
+        return Stream.of(builder
+                .withNodeCount(graph.nodeCount())
+                .withSetCount(struct.getSetCount())
+                .build());
+    }
+
+    @Procedure(value = "algo.unionFind.incremental", mode = Mode.WRITE)
+    @Description("CALL algo.unionFind.incremental(name:String, relationship:String, " +
+            "{minRelationshipId:0, maxRelationshipId:1000, graph:'heavy', params:{}, write: true, partitionProperty:'partition', concurrency:4}) " +
+            "YIELD relationships, skippedRelationships, changedNodes, setCount, loadMillis, computeMillis, writeMillis " +
+            "- adds relationships to a named UnionFind result and writes only the nodes whose set has changed. " +
+            "Either all relationships of the type within the id range are added or, using graph:'cypher', " +
+            "all rows of the relationship query returning source, target and optionally weight. " +
+            "The weight property and threshold of the initialization apply")
+    public Stream<IncrementalUnionFindResult> update(
+            @Name(value = "name") String name,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final Entry entry = structs(api).get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("No UnionFind with name `" + name + "` found, " +
+                    "please initialize it using algo.unionFind.incremental.init");
+        }
+        final HugeIncrementalUnionFind struct = entry.struct;
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        IncrementalUnionFindResult.Builder builder = IncrementalUnionFindResult.builder();
+
+        final long[] counts = new long[2];
+        final long changed;
+        // unions are not thread-safe, concurrent updates of the same struct must not interleave
+        synchronized (struct) {
+            try (ProgressTimer ignored = builder.timeLoad()) {
+                if ("cypher".equals(configuration.getString(ProcedureConstants.GRAPH_IMPL_PARAM, ""))) {
+                    unionQuery(entry, relationship, configuration, counts);
+                } else {
+                    unionRange(entry, relationship, configuration, counts);
+                }
+            }
+            try (ProgressTimer ignored = builder.timeEval()) {
+                changed = struct.compress();
+            }
+            if (configuration.isWriteFlag() && changed > 0L) {
+                builder.timeWrite(() -> write(struct, configuration));
+            }
+        }
+
+        return Stream.of(builder
+                .withRelationships(counts[0])
+                .withSkippedRelationships(counts[1])
+                .withChangedNodes(changed)
+                .withSetCount(struct.getSetCount())
+                .build());
+    }
+
+    @Procedure(value = "algo.unionFind.incremental.drop")
+    @Description("CALL algo.unionFind.incremental.drop(name:String) " +
+            "YIELD nodes, setCount - releases a named UnionFind result")
+    public Stream<UnionFindResult> drop(@Name(value = "name") String name) {
+        final Entry entry = structs(api).remove(name);
+        if (entry == null) {
+            return Stream.empty();
+        }
+        final HugeIncrementalUnionFind struct = entry.struct;
+        final UnionFindResult result = UnionFindResult.builder()
+                .withNodeCount(struct.nodeCount())
+                .withSetCount(struct.getSetCount())
+                .build();
+        struct.release();
+        return Stream.of(result);
+    }
+
+    private void unionQuery(
+            Entry entry,
+            String query,
+            ProcedureConfiguration configuration,
+            long[] counts) {
+        final Result result = api.execute(query, configuration.getParams());
+        final boolean hasWeights = result.columns().contains("weight");
+        result.accept((Result.ResultVisitor<RuntimeException>) row -> {
+            if (!entry.accepts(hasWeights ? row.get("weight") : null)) {
+                ++counts[1];
+                return true;
+            }
+            final long source = row.getNumber("source").longValue();
+            final long target = row.getNumber("target").longValue();
+            ++counts[entry.struct.union(source, target) ? 0 : 1];
+            return true;
+        });
+    }
+
+    private void unionRange(
+            Entry entry,
+            String relationshipType,
+            ProcedureConfiguration configuration,
+            long[] counts) {
+        final long highId = api.getDependencyResolver()
+                .resolveDependency(IdGeneratorFactory.class)
+                .get(IdType.RELATIONSHIP)
+                .getHighId();
+        final long minId = configuration.getNumber(CONFIG_MIN_RELATIONSHIP_ID, 0L).longValue();
+        final long maxId = Math.min(
+                configuration.getNumber(CONFIG_MAX_RELATIONSHIP_ID, highId).longValue(),
+                highId);
+        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        for (long id = minId; id < maxId && terminationFlag.running(); id++) {
+            final Relationship rel;
+            try {
+                rel = api.getRelationshipById(id);
+            } catch (NotFoundException e) {
+                continue;
+            }
+            if (!relationshipType.isEmpty() && !rel.getType().name().equals(relationshipType)) {
+                continue;
+            }
+            if (!entry.accepts(rel)) {
+                ++counts[1];
+                continue;
+            }
+            ++counts[entry.struct.union(rel.getStartNode().getId(), rel.getEndNode().getId()) ? 0 : 1];
+        }
+    }
+
+    private void write(HugeIncrementalUnionFind struct, ProcedureConfiguration configuration) {
+        log.debug("Writing results");
+        Exporter.of(api, struct.idMapping())
+                .withLog(log)
+                .parallel(
+                        Pools.DEFAULT,
+                        configuration.getConcurrency(),
+                        TerminationFlag.wrap(transaction))
+                .build()
+                .write(
+                        configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY),
+                        struct,
+                        HugeIncrementalUnionFind.TRANSLATOR);
+        struct.written();
+    }
+
+    private static Structs structs(GraphDatabaseAPI api) {
+        return DATABASES.computeIfAbsent(api, db -> {
+            final Structs structs = new Structs(db);
+            db.registerKernelEventHandler(structs);
+            return structs;
+        });
+    }
+
+    /**
+     * The named structs of one database, released before it shuts down.
+     */
+    private static final class Structs extends ConcurrentHashMap<String, Entry> implements KernelEventHandler {
+        private final GraphDatabaseAPI api;
+
+        private Structs(GraphDatabaseAPI api) {
+            this.api = api;
+        }
+
+        @Override
+        public void beforeShutdown() {
+            DATABASES.remove(api, this);
+            values().forEach(entry -> entry.struct.release());
+            clear();
+        }
+
+        @Override
+        public void kernelPanic(ErrorState error) {
+        }
+
+        @Override
+        public Object getResource() {
+            return null;
+        }
+
+        @Override
+        public ExecutionOrder orderComparedTo(KernelEventHandler other) {
+            return ExecutionOrder.DOESNT_MATTER;
+        }
+    }
+
+    /**
+     * A struct together with the weight property and threshold it has been
+     * computed with, so that updates only add relationships the initial
+     * computation would have added.
+     */
+    private static final class Entry {
+        private final HugeIncrementalUnionFind struct;
+        private final String weightProperty;
+        private final double defaultWeight;
+        private final double threshold;
+        // FJ_MERGE only unions weights above the threshold, SEQ also those equal to it
+        private final boolean exclusive;
+
+        private Entry(HugeIncrementalUnionFind struct, ProcedureConfiguration configuration, boolean exclusive) {
+            this.struct = struct;
+            this.weightProperty = configuration.getWeightProperty();
+            this.defaultWeight = configuration.getWeightPropertyDefaultValue(1.0);
+            this.threshold = configuration.get(CONFIG_THRESHOLD, Double.NaN);
+            this.exclusive = exclusive;
+        }
+
+        private boolean accepts(Relationship rel) {
+            return !Double.isFinite(threshold) || accepts(weightProperty == null
+                    ? null
+                    : rel.getProperty(weightProperty, null));
+        }
+
+        private boolean accepts(Object weight) {
+            if (!Double.isFinite(threshold)) {
+                return true;
+            }
+            final double value = weight instanceof Number
+                    ? ((Number) weight).doubleValue()
+                    : defaultWeight;
+            return exclusive ? value > threshold : value >= threshold;
+        }
+    }
+}
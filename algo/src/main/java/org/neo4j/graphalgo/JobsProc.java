@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+import org.neo4j.graphalgo.core.utils.jobs.JobScheduler;
+import org.neo4j.graphalgo.results.JobResult;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.stream.Stream;
+
+public class JobsProc {
+
+    @Procedure("algo.jobs")
+    @Description("CALL algo.jobs() YIELD id, name, state, requestedConcurrency, concurrency, estimatedMemory, trackedMemory, queuedAt, startedAt, progress, timeout, cancelled " +
+            "- lists running and queued algorithm jobs with their granted threads and memory in bytes")
+    public Stream<JobResult> jobs() {
+        return list();
+    }
+
+    @Procedure("algo.jobs.list")
+    @Description("CALL algo.jobs.list() YIELD id, name, state, requestedConcurrency, concurrency, estimatedMemory, trackedMemory, queuedAt, startedAt, progress, timeout, cancelled " +
+            "- lists running and queued algorithm jobs with their progress, granted threads and memory in bytes")
+    public Stream<JobResult> list() {
+        return JobScheduler.GLOBAL.jobs().stream().map(JobResult::new);
+    }
+
+    @Procedure("algo.jobs.cancel")
+    @Description("CALL algo.jobs.cancel(id:Number) YIELD id, name, state, cancelled " +
+            "- cancels a running or queued algorithm job, yields nothing if no such job exists")
+    public Stream<JobResult> cancel(@Name("id") long id) {
+        final Job job = JobScheduler.GLOBAL.cancel(id);
+        return job == null ? Stream.empty() : Stream.of(new JobResult(job));
+    }
+}
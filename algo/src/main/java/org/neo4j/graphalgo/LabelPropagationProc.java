@@ -28,6 +28,9 @@ import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+import org.neo4j.graphalgo.core.utils.jobs.JobScheduler;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.IntArrayTranslator;
 import org.neo4j.graphalgo.impl.LabelPropagation;
@@ -82,57 +85,75 @@ public final class LabelPropagationProc {
                 .overrideDirection(directionName);
 
         final Direction direction = configuration.getDirection(Direction.OUTGOING);
-        final int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
-        final int batchSize = configuration.getBatchSize();
-        final int concurrency = configuration.getConcurrency();
         final String partitionProperty = configuration.getString(CONFIG_PARTITION_KEY, DEFAULT_PARTITION_KEY);
-        final String weightProperty = configuration.getString(CONFIG_WEIGHT_KEY, DEFAULT_WEIGHT_KEY);
+        final AllocationTracker tracker = AllocationTracker.create();
 
-        LabelPropagationStats.Builder stats = new LabelPropagationStats.Builder()
-                .iterations(iterations)
-                .partitionProperty(partitionProperty)
-                .weightProperty(weightProperty);
-
-        HeavyGraph graph = load(
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.labelPropagation",
                 configuration,
-                direction,
-                partitionProperty,
-                batchSize,
-                concurrency,
-                stats);
-
-        int[] labels = compute(direction, iterations, batchSize, concurrency, graph, stats);
-        if (configuration.isWriteFlag(DEFAULT_WRITE) && partitionProperty != null) {
-            write(concurrency, partitionProperty, graph, labels, stats);
+                estimateMemoryUsage(loader(configuration, direction, partitionProperty, tracker)),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            final int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
+            final int batchSize = configuration.getBatchSize();
+            final int concurrency = configuration.getConcurrency();
+            final String weightProperty = configuration.getString(CONFIG_WEIGHT_KEY, DEFAULT_WEIGHT_KEY);
+
+            LabelPropagationStats.Builder stats = new LabelPropagationStats.Builder()
+                    .iterations(iterations)
+                    .partitionProperty(partitionProperty)
+                    .weightProperty(weightProperty);
+
+            HeavyGraph graph = load(
+                    configuration,
+                    loader(configuration, direction, partitionProperty, tracker),
+                    stats);
+
+            int[] labels = compute(direction, iterations, batchSize, concurrency, graph, stats, job);
+            if (configuration.isWriteFlag(DEFAULT_WRITE) && partitionProperty != null) {
+                write(concurrency, partitionProperty, graph, labels, stats, job);
+            }
+
+            return Stream.of(stats.build());
         }
-
-        return Stream.of(stats.build());
     }
 
     private HeavyGraph load(
+            ProcedureConfiguration config,
+            GraphLoader loader,
+            LabelPropagationStats.Builder stats) {
+        try (ProgressTimer timer = stats.timeLoad()) {
+            return (HeavyGraph) loader.load(graphImpl(config));
+        }
+    }
+
+    private GraphLoader loader(
             ProcedureConfiguration config,
             Direction direction,
             String partitionKey,
-            int batchSize,
-            int concurrency,
-            LabelPropagationStats.Builder stats) {
+            AllocationTracker tracker) {
+        final String weightKey = config.getString(CONFIG_WEIGHT_KEY, DEFAULT_WEIGHT_KEY);
+
+        return new GraphLoader(dbAPI, Pools.DEFAULT)
+                .init(log, config.getNodeLabelOrQuery(), config.getRelationshipOrQuery(), config)
+                .withOptionalRelationshipWeightsFromProperty(weightKey, 1.0d)
+                .withOptionalNodeWeightsFromProperty(weightKey, 1.0d)
+                .withOptionalNodeProperty(partitionKey, 0.0d)
+                .withDirection(direction)
+                .withAllocationTracker(tracker);
+    }
 
-        try (ProgressTimer timer = stats.timeLoad()) {
+    /**
+     * the labels of all nodes, the heavy graph has no estimate
+     */
+    private static long estimateMemoryUsage(GraphLoader loader) {
+        return LabelPropagation.estimateMemoryUsage(loader.dimensions().nodeCount());
+    }
 
-            Class<? extends GraphFactory> graphImpl = config.getGraphImpl(
+    private static Class<? extends GraphFactory> graphImpl(ProcedureConfiguration config) {
+        return config.getGraphImpl(
                 HeavyGraphFactory.class,
                 HeavyCypherGraphFactory.class);
-
-            final String weightKey = config.getString(CONFIG_WEIGHT_KEY, DEFAULT_WEIGHT_KEY);
-
-            return (HeavyGraph) new GraphLoader(dbAPI, Pools.DEFAULT)
-                    .init(log, config.getNodeLabelOrQuery(), config.getRelationshipOrQuery(), config)
-                    .withOptionalRelationshipWeightsFromProperty(weightKey, 1.0d)
-                    .withOptionalNodeWeightsFromProperty(weightKey, 1.0d)
-                    .withOptionalNodeProperty(partitionKey, 0.0d)
-                    .withDirection(direction)
-                    .load(graphImpl);
-        }
     }
 
     private int[] compute(
@@ -141,16 +162,17 @@ public final class LabelPropagationProc {
             int batchSize,
             int concurrency,
             HeavyGraph graph,
-            LabelPropagationStats.Builder stats) {
+            LabelPropagationStats.Builder stats,
+            Job job) {
         try (ProgressTimer timer = stats.timeEval()) {
             ExecutorService pool = batchSize > 0 ? Pools.DEFAULT : null;
             batchSize = Math.max(1, batchSize);
             final LabelPropagation labelPropagation = new LabelPropagation(graph, batchSize, concurrency, pool);
             labelPropagation
-                    .withProgressLogger(ProgressLogger.wrap(
+                    .withProgressLogger(job.progressLogger(ProgressLogger.wrap(
                             log,
-                            "LabelPropagation"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+                            "LabelPropagation")))
+                    .withTerminationFlag(job.terminationFlag())
                     .compute(direction, iterations);
             final int[] result = labelPropagation.labels();
 
@@ -169,12 +191,13 @@ public final class LabelPropagationProc {
             String partitionKey,
             HeavyGraph graph,
             int[] labels,
-            LabelPropagationStats.Builder stats) {
+            LabelPropagationStats.Builder stats,
+            Job job) {
         stats.write(true);
         try (ProgressTimer timer = stats.timeWrite()) {
             Exporter.of(dbAPI, graph)
                     .withLog(log)
-                    .parallel(Pools.DEFAULT, concurrency, TerminationFlag.wrap(transaction))
+                    .parallel(Pools.DEFAULT, concurrency, job.terminationFlag())
                     .build()
                     .write(
                             partitionKey,
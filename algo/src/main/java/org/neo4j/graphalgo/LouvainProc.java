@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.*;
+import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
@@ -29,6 +30,9 @@ import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+import org.neo4j.graphalgo.core.utils.jobs.JobScheduler;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.IntArrayTranslator;
 import org.neo4j.graphalgo.impl.louvain.*;
@@ -75,31 +79,40 @@ public class LouvainProc {
                 .overrideNodeLabelOrQuery(label)
                 .overrideRelationshipTypeOrQuery(relationship);
 
-        LouvainResult.Builder builder = LouvainResult.builder();
+        final AllocationTracker tracker = AllocationTracker.create();
 
-        final Graph graph;
-        try (ProgressTimer timer = builder.timeLoad()) {
-            graph = graph(configuration);
-        }
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.louvain",
+                configuration,
+                estimateMemoryUsage(configuration, tracker),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            LouvainResult.Builder builder = LouvainResult.builder();
 
-        builder.withNodeCount(graph.nodeCount());
+            final Graph graph;
+            try (ProgressTimer timer = builder.timeLoad()) {
+                graph = graph(configuration, tracker);
+            }
 
-        final LouvainAlgorithm louvain = louvain(graph, configuration);
+            builder.withNodeCount(graph.nodeCount());
 
-        // evaluation
-        try (ProgressTimer timer = builder.timeEval()) {
-            louvain.compute();
-            builder.withIterations(louvain.getIterations())
-                    .withCommunityCount(louvain.getCommunityCount());
-        }
+            final LouvainAlgorithm louvain = louvain(graph, configuration, job);
 
-        if (configuration.isWriteFlag()) {
-            // write back
-            builder.timeWrite(() ->
-                    write(graph, louvain.getCommunityIds(), configuration));
-        }
+            // evaluation
+            try (ProgressTimer timer = builder.timeEval()) {
+                louvain.compute();
+                builder.withIterations(louvain.getIterations())
+                        .withCommunityCount(louvain.getCommunityCount());
+            }
+
+            if (configuration.isWriteFlag()) {
+                // write back
+                builder.timeWrite(() ->
+                        write(graph, louvain.getCommunityIds(), configuration, job));
+            }
 
-        return Stream.of(builder.build());
+            return Stream.of(builder.build());
+        }
     }
 
     @Procedure(value = "algo.louvain.stream")
@@ -115,51 +128,72 @@ public class LouvainProc {
                 .overrideNodeLabelOrQuery(label)
                 .overrideRelationshipTypeOrQuery(relationship);
 
-        // evaluation
-        return louvain(graph(configuration), configuration)
-                .compute()
-                .resultStream();
-
+        final AllocationTracker tracker = AllocationTracker.create();
+
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.louvain.stream",
+                configuration,
+                estimateMemoryUsage(configuration, tracker),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            // evaluation
+            return louvain(graph(configuration, tracker), configuration, job)
+                    .compute()
+                    .resultStream();
+        }
     }
 
-    public Graph graph(ProcedureConfiguration config) {
+    public Graph graph(ProcedureConfiguration config, AllocationTracker tracker) {
+        return loader(config, tracker).load(graphImpl(config));
+    }
 
-        final Class<? extends GraphFactory> graphImpl =
-                config.getGraphImplDefault("huge",
-                        HeavyGraphFactory.class,
-                        HeavyCypherGraphFactory.class,
-                        HugeGraphFactory.class);
+    /**
+     * the graph and the communities of all nodes
+     */
+    private long estimateMemoryUsage(ProcedureConfiguration config, AllocationTracker tracker) {
+        final GraphLoader loader = loader(config, tracker);
+        final GraphDimensions dimensions = loader.dimensions();
+        return loader.estimateMemoryUsage(graphImpl(config), dimensions)
+                + LouvainAlgorithm.estimateMemoryUsage(dimensions.nodeCount());
+    }
 
+    private GraphLoader loader(ProcedureConfiguration config, AllocationTracker tracker) {
         final GraphLoader loader = new GraphLoader(api, Pools.DEFAULT)
                 .init(log, config.getNodeLabelOrQuery(), config.getRelationshipOrQuery(), config)
+                .withAllocationTracker(tracker)
                 .asUndirected(true);
 
         if (config.hasWeightProperty()) {
             return loader
                     .withOptionalRelationshipWeightsFromProperty(
                             config.getWeightProperty(),
-                            config.getWeightPropertyDefaultValue(1.0))
-                    .load(graphImpl);
+                            config.getWeightPropertyDefaultValue(1.0));
         }
 
         return loader
                 .withoutRelationshipWeights()
                 .withoutNodeWeights()
-                .withoutNodeProperties()
-                .load(graphImpl);
+                .withoutNodeProperties();
+    }
+
+    private static Class<? extends GraphFactory> graphImpl(ProcedureConfiguration config) {
+        return config.getGraphImplDefault("huge",
+                HeavyGraphFactory.class,
+                HeavyCypherGraphFactory.class,
+                HugeGraphFactory.class);
     }
 
-    public LouvainAlgorithm louvain(Graph graph, ProcedureConfiguration config) {
+    public LouvainAlgorithm louvain(Graph graph, ProcedureConfiguration config, Job job) {
 
         if (graph instanceof HugeGraph) {
             if (config.hasWeightProperty()) {
                 return new WeightedLouvain(graph, Pools.DEFAULT, config.getConcurrency(), config.getIterations(DEFAULT_ITERATIONS))
-                        .withProgressLogger(ProgressLogger.wrap(log, "ModularityCommunityDetection"))
-                        .withTerminationFlag(TerminationFlag.wrap(transaction));
+                        .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "ModularityCommunityDetection")))
+                        .withTerminationFlag(job.terminationFlag());
             }
             return new Louvain(graph, Pools.DEFAULT, config.getConcurrency(), config.getIterations(DEFAULT_ITERATIONS))
-                    .withProgressLogger(ProgressLogger.wrap(log, "Louvain"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction));
+                    .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "Louvain")))
+                    .withTerminationFlag(job.terminationFlag());
         }
 
         return new ParallelLouvain(graph,
@@ -168,15 +202,15 @@ public class LouvainProc {
                 Pools.DEFAULT,
                 config.getConcurrency(),
                 config.getIterations(DEFAULT_ITERATIONS))
-                .withProgressLogger(ProgressLogger.wrap(log, "Louvain(deprecated)"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction));
+                .withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, "Louvain(deprecated)")))
+                .withTerminationFlag(job.terminationFlag());
     }
 
-    private void write(Graph graph, int[] communities, ProcedureConfiguration configuration) {
+    private void write(Graph graph, int[] communities, ProcedureConfiguration configuration, Job job) {
         log.debug("Writing results");
         Exporter.of(api, graph)
                 .withLog(log)
-                .parallel(Pools.DEFAULT, configuration.getConcurrency(), TerminationFlag.wrap(transaction))
+                .parallel(Pools.DEFAULT, configuration.getConcurrency(), job.terminationFlag())
                 .build()
                 .write(
                         configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY),
@@ -18,26 +18,27 @@
  */
 package org.neo4j.graphalgo;
 
-import org.neo4j.graphalgo.api.IdMapping;
-import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
-import org.neo4j.graphalgo.core.neo4jview.DirectIdMapping;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.sources.BothRelationshipAdapter;
 import org.neo4j.graphalgo.core.sources.BufferedWeightMap;
 import org.neo4j.graphalgo.core.sources.LazyIdMapper;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.container.RelationshipContainer;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.impl.HugeMSFBoruvka;
 import org.neo4j.graphalgo.impl.MSTPrim;
 import org.neo4j.graphalgo.results.MSTPrimResult;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
-import org.neo4j.helpers.Exceptions;
-import org.neo4j.kernel.api.DataWriteOperations;
 import org.neo4j.kernel.api.KernelTransaction;
-import org.neo4j.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
@@ -127,12 +128,17 @@ public class MSTPrimProc {
             weightMap = null;
             relationshipContainer = null;
             builder.timeWrite(() -> {
-                Exporter.of(new DirectIdMapping(1), api)
+                Exporter.of(idMapper, api)
                         .withLog(log)
+                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), TerminationFlag.wrap(transaction))
                         .build()
                         .writeRelationships(
                                 configuration.get(CONFIG_WRITE_RELATIONSHIP, CONFIG_WRITE_RELATIONSHIP_DEFAULT),
-                                (ops, typeId) -> minimumSpanningTree.forEachBFS(writeBack((int) typeId, idMapper, ops))
+                                null,
+                                consumer -> minimumSpanningTree.forEachBFS((source, target, rid) -> {
+                                    consumer.accept(source, target, 0.0);
+                                    return true;
+                                })
                         );
             });
         }
@@ -140,18 +146,68 @@ public class MSTPrimProc {
         return Stream.of(builder.build());
     }
 
-    private static RelationshipConsumer writeBack(int typeId, IdMapping mapping, DataWriteOperations ops) {
-        return (source, target, rid) -> {
-            try {
-                ops.relationshipCreate(
-                        typeId,
-                        mapping.toOriginalNodeId(source),
-                        mapping.toOriginalNodeId(target)
-                );
-            } catch (KernelException e) {
-                throw Exceptions.launderedException(e);
+    @Procedure(value = "algo.msf", mode = Mode.WRITE)
+    @Description("CALL algo.msf(weightProperty:String, {label:String, relationship:String, " +
+            "write:boolean, writeProperty:String, stats:boolean, concurrency:int}) " +
+            "YIELD loadMillis, computeMillis, writeMillis, weightSum, weightMin, weightMax, relationshipCount")
+    public Stream<MSTPrimResult> msf(
+            @Name(value = "weightProperty") String weightProperty,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        final MSTPrimResult.Builder builder = MSTPrimResult.builder();
+        final AllocationTracker tracker = AllocationTracker.create();
+        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+
+        final Graph graph;
+        try (ProgressTimer timer = builder.timeLoad()) {
+            graph = new GraphLoader(api, Pools.DEFAULT)
+                    .withOptionalLabel(configuration.getNodeLabelOrQuery())
+                    .withOptionalRelationshipType(configuration.getRelationshipOrQuery())
+                    .withRelationshipWeightsFromProperty(weightProperty, 1.0)
+                    .withoutNodeWeights()
+                    .withSort(true)
+                    .asUndirected(true)
+                    .withAllocationTracker(tracker)
+                    .withLog(log)
+                    .load(HugeGraphFactory.class);
+        }
+
+        final HugeMSFBoruvka msf = new HugeMSFBoruvka(
+                (HugeGraph) graph,
+                Pools.DEFAULT,
+                configuration.getConcurrency(),
+                tracker)
+                .withProgressLogger(ProgressLogger.wrap(log, "MSF(Boruvka)"))
+                .withTerminationFlag(terminationFlag);
+
+        builder.timeEval(() -> {
+            msf.compute();
+            if (configuration.isStatsFlag()) {
+                final HugeMSFBoruvka.Aggregator aggregator = msf.aggregate();
+                builder.withWeightMax(aggregator.getMax())
+                        .withWeightMin(aggregator.getMin())
+                        .withWeightSum(aggregator.getSum())
+                        .withRelationshipCount(aggregator.getCount());
             }
-            return true;
-        };
+        });
+
+        if (configuration.isWriteFlag()) {
+            builder.timeWrite(() -> Exporter.of(api, graph)
+                    .withLog(log)
+                    .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                    .build()
+                    .writeRelationships(
+                            configuration.get(CONFIG_WRITE_RELATIONSHIP, CONFIG_WRITE_RELATIONSHIP_DEFAULT),
+                            null,
+                            consumer -> msf.forEachRelationship((source, target, weight) -> {
+                                consumer.accept(source, target, weight);
+                                return true;
+                            })));
+        }
+
+        msf.release();
+        graph.release();
+        return Stream.of(builder.build());
     }
 }
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.core.utils.metrics.Metrics;
+import org.neo4j.graphalgo.results.MetricsResult;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.stream.Stream;
+
+public class MetricsProc {
+
+    @Procedure("algo.metrics")
+    @Description("CALL algo.metrics(name:String) YIELD name, type, count, sum, min, max, mean, p50, p99, rate " +
+            "- lists load, compute and write metrics, timers in ms and their rate in nodes or relationships per second")
+    public Stream<MetricsResult> metrics(@Name(value = "name", defaultValue = "") String name) {
+        return Metrics.GLOBAL.snapshot()
+                .entrySet()
+                .stream()
+                .filter(e -> e.getKey().contains(name))
+                .map(e -> new MetricsResult(e.getKey(), e.getValue()));
+    }
+
+    @Procedure("algo.metrics.reset")
+    @Description("CALL algo.metrics.reset() - resets all metrics")
+    public void reset() {
+        Metrics.GLOBAL.reset();
+    }
+}
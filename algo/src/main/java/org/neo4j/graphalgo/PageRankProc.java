@@ -21,15 +21,22 @@ package org.neo4j.graphalgo;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.checkpoint.Checkpoint;
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+import org.neo4j.graphalgo.core.utils.jobs.JobScheduler;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.queue.TopKHeap;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.PageRankResult;
 import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphalgo.impl.HugePageRank;
 import org.neo4j.graphalgo.impl.PageRankAlgorithm;
 import org.neo4j.graphalgo.results.PageRankScore;
 import org.neo4j.graphdb.Direction;
@@ -42,6 +49,7 @@ import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -54,6 +62,7 @@ public final class PageRankProc {
     public static final Double DEFAULT_DAMPING = 0.85;
     public static final Integer DEFAULT_ITERATIONS = 20;
     public static final String DEFAULT_SCORE_PROPERTY = "pagerank";
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 5;
 
     @Context
     public GraphDatabaseAPI api;
@@ -66,7 +75,8 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank", mode = Mode.WRITE)
     @Description("CALL algo.pageRank(label:String, relationship:String, " +
-            "{iterations:5, dampingFactor:0.85, write: true, writeProperty:'pagerank', concurrency:4}) " +
+            "{iterations:5, dampingFactor:0.85, write: true, writeProperty:'pagerank', concurrency:4, " +
+            "checkpoint:'pagerank.ckpt', checkpointInterval:5, resumeFrom:'pagerank.ckpt'}) " +
             "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, write, writeProperty" +
             " - calculates page rank and potentially writes back")
     public Stream<PageRankScore.Stats> pageRank(
@@ -75,45 +85,86 @@ public final class PageRankProc {
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
         ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
-
-        PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
         AllocationTracker tracker = AllocationTracker.create();
-        final Graph graph = load(label, relationship, tracker, configuration.getGraphImpl(), statsBuilder, configuration);
-        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder);
 
-        log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.pageRank",
+                configuration,
+                estimateMemoryUsage(loader(label, relationship, tracker, configuration), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
+            final Graph graph = load(loader(label, relationship, tracker, configuration), configuration.getGraphImpl(), statsBuilder);
+            Exporter exporter = exporter(graph, job.terminationFlag(), configuration);
+            evaluate(graph, tracker, job, configuration, statsBuilder, exporter);
 
-        write(graph, terminationFlag, scores, configuration, statsBuilder);
+            log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
 
-        return Stream.of(statsBuilder.build());
+            return Stream.of(statsBuilder.build());
+        }
     }
 
     @Procedure(value = "algo.pageRank.stream", mode = Mode.READ)
     @Description("CALL algo.pageRank.stream(label:String, relationship:String, " +
-            "{iterations:20, dampingFactor:0.85, concurrency:4}) " +
-            "YIELD node, score - calculates page rank and streams results")
+            "{iterations:20, dampingFactor:0.85, concurrency:4, top:100}) " +
+            "YIELD node, score - calculates page rank and streams results, only the top nodes if top is set")
     public Stream<PageRankScore> pageRankStream(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
         ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
-
-        PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
         AllocationTracker tracker = AllocationTracker.create();
-        final Graph graph = load(label, relationship, tracker, configuration.getGraphImpl(), statsBuilder, configuration);
 
-        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder);
+        try (Job job = JobScheduler.GLOBAL.admit(
+                "algo.pageRank.stream",
+                configuration,
+                estimateMemoryUsage(loader(label, relationship, tracker, configuration), configuration),
+                tracker,
+                TerminationFlag.wrap(transaction))) {
+            PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
+            final Graph graph = load(loader(label, relationship, tracker, configuration), configuration.getGraphImpl(), statsBuilder);
+            PageRankResult scores = evaluate(graph, tracker, job, configuration, statsBuilder, null);
 
-        log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
+            log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
 
-        if (graph instanceof HugeGraph) {
-            HugeGraph hugeGraph = (HugeGraph) graph;
-            return LongStream.range(0, hugeGraph.nodeCount())
+            final int top = configuration.getTop();
+            if (top > 0) {
+                final long[] topNodes = TopKHeap.select(
+                        graph.nodeCount(),
+                        top,
+                        scores::score,
+                        configuration.getConcurrency(),
+                        Pools.DEFAULT);
+                return LongStream.of(topNodes)
+                        .mapToObj(i -> {
+                            final long nodeId = graph instanceof HugeGraph
+                                    ? ((HugeGraph) graph).toOriginalNodeId(i)
+                                    : graph.toOriginalNodeId((int) i);
+                            return new PageRankScore(
+                                    nodeId,
+                                    api.getNodeById(nodeId),
+                                    scores.score(i)
+                            );
+                        });
+            }
+
+            if (graph instanceof HugeGraph) {
+                HugeGraph hugeGraph = (HugeGraph) graph;
+                return LongStream.range(0, hugeGraph.nodeCount())
+                        .mapToObj(i -> {
+                            final long nodeId = hugeGraph.toOriginalNodeId(i);
+                            return new PageRankScore(
+                                    nodeId,
+                                    api.getNodeById(nodeId),
+                                    scores.score(i)
+                            );
+                        });
+            }
+
+            return IntStream.range(0, Math.toIntExact(graph.nodeCount()))
                     .mapToObj(i -> {
-                        final long nodeId = hugeGraph.toOriginalNodeId(i);
+                        final long nodeId = graph.toOriginalNodeId(i);
                         return new PageRankScore(
                                 nodeId,
                                 api.getNodeById(nodeId),
@@ -121,31 +172,34 @@ public final class PageRankProc {
                         );
                     });
         }
-
-        return IntStream.range(0, Math.toIntExact(graph.nodeCount()))
-                .mapToObj(i -> {
-                    final long nodeId = graph.toOriginalNodeId(i);
-                    return new PageRankScore(
-                            nodeId,
-                            api.getNodeById(nodeId),
-                            scores.score(i)
-                    );
-                });
     }
 
-    private Graph load(
+    private GraphLoader loader(
             String label,
             String relationship,
             AllocationTracker tracker,
-            Class<? extends GraphFactory> graphFactory,
-            PageRankScore.Stats.Builder statsBuilder, ProcedureConfiguration configuration) {
-
-        GraphLoader graphLoader = new GraphLoader(api, Pools.DEFAULT)
+            ProcedureConfiguration configuration) {
+        return new GraphLoader(api, Pools.DEFAULT)
                 .init(log, label, relationship, configuration)
                 .withAllocationTracker(tracker)
                 .withDirection(Direction.OUTGOING)
                 .withoutRelationshipWeights();
+    }
 
+    /**
+     * the graph and the scores of all nodes, with the threads the job will be granted
+     */
+    private static long estimateMemoryUsage(GraphLoader graphLoader, ProcedureConfiguration configuration) {
+        final GraphDimensions dimensions = graphLoader.dimensions();
+        final int concurrency = JobScheduler.GLOBAL.threadsFor(configuration.getConcurrency());
+        return graphLoader.estimateMemoryUsage(configuration.getGraphImpl(), dimensions)
+                + HugePageRank.estimateMemoryUsage(dimensions.hugeNodeCount(), concurrency);
+    }
+
+    private Graph load(
+            GraphLoader graphLoader,
+            Class<? extends GraphFactory> graphFactory,
+            PageRankScore.Stats.Builder statsBuilder) {
         try (ProgressTimer timer = statsBuilder.timeLoad()) {
             Graph graph = graphLoader.load(graphFactory);
             statsBuilder.withNodes(graph.nodeCount());
@@ -156,9 +210,10 @@ public final class PageRankProc {
     private PageRankResult evaluate(
             Graph graph,
             AllocationTracker tracker,
-            TerminationFlag terminationFlag,
+            Job job,
             ProcedureConfiguration configuration,
-            PageRankScore.Stats.Builder statsBuilder) {
+            PageRankScore.Stats.Builder statsBuilder,
+            Exporter exporter) {
 
         double dampingFactor = configuration.get(CONFIG_DAMPING, DEFAULT_DAMPING);
         int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
@@ -173,12 +228,29 @@ public final class PageRankProc {
                 Pools.DEFAULT,
                 concurrency,
                 batchSize);
-        Algorithm<?> algo = prAlgo
-                .algorithm()
-                .withLog(log)
-                .withTerminationFlag(terminationFlag);
+        configuration.getCheckpoint().ifPresent(name -> prAlgo.withCheckpoint(
+                checkpoint(name),
+                configuration.getCheckpointInterval(DEFAULT_CHECKPOINT_INTERVAL)));
+        configuration.getResumeFrom().ifPresent(name -> prAlgo.resumeFrom(checkpoint(name)));
+        Algorithm<?> algo = prAlgo.algorithm();
+        algo.withProgressLogger(job.progressLogger(ProgressLogger.wrap(log, algo.getClass().getSimpleName())))
+                .withTerminationFlag(job.terminationFlag());
 
-        statsBuilder.timeEval(() -> prAlgo.compute(iterations));
+        if (exporter == null) {
+            statsBuilder.timeEval(() -> prAlgo.compute(iterations));
+        } else {
+            // the scores are written while the last iteration is still running
+            log.debug("Writing results");
+            String propertyName = configuration.getWriteProperty(DEFAULT_SCORE_PROPERTY);
+            final Exporter.AsyncWriter[] writer = {null};
+            statsBuilder.timeEval(() -> writer[0] = prAlgo.compute(iterations, propertyName, exporter));
+            try (ProgressTimer timer = statsBuilder.timeWrite()) {
+                writer[0].close();
+            }
+            statsBuilder
+                    .withWrite(true)
+                    .withProperty(propertyName);
+        }
 
         statsBuilder
                 .withIterations(iterations)
@@ -190,28 +262,24 @@ public final class PageRankProc {
         return pageRank;
     }
 
-    private void write(
+    /**
+     * checkpoints are only named by the caller, they are always kept in the checkpoint directory of the database
+     */
+    private Path checkpoint(String name) {
+        return Checkpoint.resolve(Checkpoint.directory(api.getStoreDir()), name);
+    }
+
+    private Exporter exporter(
             Graph graph,
             TerminationFlag terminationFlag,
-            PageRankResult result,
-            ProcedureConfiguration configuration,
-            final PageRankScore.Stats.Builder statsBuilder) {
-        if (configuration.isWriteFlag(true)) {
-            log.debug("Writing results");
-            String propertyName = configuration.getWriteProperty(DEFAULT_SCORE_PROPERTY);
-            try (ProgressTimer timer = statsBuilder.timeWrite()) {
-                Exporter exporter = Exporter
-                        .of(api, graph)
-                        .withLog(log)
-                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
-                        .build();
-                result.export(propertyName, exporter);
-            }
-            statsBuilder
-                    .withWrite(true)
-                    .withProperty(propertyName);
-        } else {
-            statsBuilder.withWrite(false);
+            ProcedureConfiguration configuration) {
+        if (!configuration.isWriteFlag(true)) {
+            return null;
         }
+        return Exporter
+                .of(api, graph)
+                .withLog(log)
+                .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                .build();
     }
 }
@@ -22,6 +22,7 @@ import com.carrotsearch.hppc.IntSet;
 import com.carrotsearch.hppc.ObjectArrayList;
 import com.carrotsearch.hppc.cursors.IntCursor;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.neo4jview.DirectIdMapping;
@@ -29,9 +30,12 @@ import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.HugeLongArrayTranslator;
 import org.neo4j.graphalgo.core.write.OptionalIntArrayTranslator;
 import org.neo4j.graphalgo.impl.*;
+import org.neo4j.graphalgo.impl.multistepscc.HugeMultistepSCC;
 import org.neo4j.graphalgo.impl.multistepscc.MultistepSCC;
 import org.neo4j.graphalgo.results.SCCResult;
 import org.neo4j.graphalgo.results.SCCStreamResult;
@@ -311,14 +315,20 @@ public class StronglyConnectedComponentsProc {
 
         SCCResult.Builder builder = SCCResult.builder();
 
+        final AllocationTracker tracker = AllocationTracker.create();
         ProgressTimer loadTimer = builder.timeLoad();
         Graph graph = new GraphLoader(api, Pools.DEFAULT)
                 .init(log, label, relationship, configuration)
                 .withoutRelationshipWeights()
+                .withAllocationTracker(tracker)
                 .load(configuration.getGraphImpl());
         loadTimer.stop();
 
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        if (graph instanceof HugeGraph) {
+            return hugeMultistep((HugeGraph) graph, tracker, configuration, terminationFlag, builder);
+        }
+
         final MultistepSCC multistep = new MultistepSCC(graph, org.neo4j.graphalgo.core.utils.Pools.DEFAULT,
                 configuration.getConcurrency(),
                 configuration.getNumber("cutoff", 100_000).intValue())
@@ -350,6 +360,45 @@ public class StronglyConnectedComponentsProc {
         return Stream.of(builder.build());
     }
 
+    private Stream<SCCResult> hugeMultistep(
+            HugeGraph graph,
+            AllocationTracker tracker,
+            ProcedureConfiguration configuration,
+            TerminationFlag terminationFlag,
+            SCCResult.Builder builder) {
+
+        final HugeMultistepSCC multistep = new HugeMultistepSCC(
+                graph,
+                Pools.DEFAULT,
+                configuration.getConcurrency(),
+                tracker)
+                .withProgressLogger(ProgressLogger.wrap(log, "SCC(MultiStep)"))
+                .withTerminationFlag(terminationFlag);
+
+        builder.timeEval(multistep::compute);
+
+        builder.withMaxSetSize(multistep.getMaxSetSize())
+                .withMinSetSize(multistep.getMinSetSize())
+                .withSetCount(multistep.getSetCount());
+
+        if (configuration.isWriteFlag()) {
+            builder.timeWrite(() -> Exporter
+                    .of(api, graph)
+                    .withLog(log)
+                    .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                    .build()
+                    .write(
+                            configuration.get(CONFIG_WRITE_PROPERTY, CONFIG_CLUSTER),
+                            multistep.getConnectedComponents(),
+                            HugeLongArrayTranslator.INSTANCE
+                    ));
+        }
+
+        multistep.release();
+        graph.release();
+        return Stream.of(builder.build());
+    }
+
     // algo.scc.multistep.stream
     @Procedure(value = "algo.scc.multistep.stream")
     @Description("CALL algo.scc.multistep.stream(label:String, relationship:String, {write:true, concurrency:4, cutoff:100000}) YIELD " +
@@ -361,11 +410,25 @@ public class StronglyConnectedComponentsProc {
 
         ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
 
+        final AllocationTracker tracker = AllocationTracker.create();
         Graph graph = new GraphLoader(api, Pools.DEFAULT)
                 .init(log, label, relationship, configuration)
                 .withoutRelationshipWeights()
+                .withAllocationTracker(tracker)
                 .load(configuration.getGraphImpl());
 
+        if (graph instanceof HugeGraph) {
+            final HugeMultistepSCC multistep = new HugeMultistepSCC(
+                    (HugeGraph) graph,
+                    Pools.DEFAULT,
+                    configuration.getConcurrency(),
+                    tracker)
+                    .withProgressLogger(ProgressLogger.wrap(log, "SCC(MultiStep)"))
+                    .withTerminationFlag(TerminationFlag.wrap(transaction));
+            multistep.compute();
+            return multistep.resultStream();
+        }
+
         final MultistepSCC multistep = new MultistepSCC(graph, org.neo4j.graphalgo.core.utils.Pools.DEFAULT,
                 configuration.getConcurrency(),
                 configuration.getNumber("cutoff", 100_000).intValue())
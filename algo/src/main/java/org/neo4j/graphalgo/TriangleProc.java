@@ -19,13 +19,17 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.*;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.AtomicDoubleArrayTranslator;
-import org.neo4j.graphalgo.core.write.AtomicIntArrayTranslator;
+import org.neo4j.graphalgo.core.write.AtomicLongArrayTranslator;
 import org.neo4j.graphalgo.core.write.DoubleArrayTranslator;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.HugeAtomicLongArrayTranslator;
+import org.neo4j.graphalgo.core.write.HugeDoubleArrayTranslator;
 import org.neo4j.graphalgo.impl.*;
 import org.neo4j.graphalgo.results.AbstractResultBuilder;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -95,6 +99,7 @@ public class TriangleProc {
                 .overrideNodeLabelOrQuery(label)
                 .overrideRelationshipTypeOrQuery(relationship);
 
+        final AllocationTracker tracker = AllocationTracker.create();
         final Graph graph = new GraphLoader(api, Pools.DEFAULT)
                 .withOptionalLabel(configuration.getNodeLabelOrQuery())
                 .withOptionalRelationshipType(configuration.getRelationshipOrQuery())
@@ -102,10 +107,19 @@ public class TriangleProc {
                 .withoutNodeWeights()
                 .withSort(true)
                 .asUndirected(true)
+                .withAllocationTracker(tracker)
                 .init(log, label, relationship, configuration)
                 .withDirection(TriangleCountBase.D)
                 .load(configuration.getGraphImpl());
 
+        if (graph instanceof HugeGraph) {
+            return new HugeTriangleCount((HugeGraph) graph, Pools.DEFAULT, configuration.getConcurrency(), tracker)
+                    .withProgressLogger(ProgressLogger.wrap(log, "triangleCount"))
+                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+                    .compute()
+                    .resultStream();
+        }
+
         return new TriangleCountQueue(graph, Pools.DEFAULT, configuration.getConcurrency())
                 .withProgressLogger(ProgressLogger.wrap(log, "triangleCount"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction))
@@ -166,6 +180,7 @@ public class TriangleProc {
                 .overrideRelationshipTypeOrQuery(relationship);
         final TriangleCountResultBuilder builder = new TriangleCountResultBuilder();
 
+        final AllocationTracker tracker = AllocationTracker.create();
         try (ProgressTimer timer = builder.timeLoad()) {
             graph = new GraphLoader(api, Pools.DEFAULT)
                     .withOptionalLabel(configuration.getNodeLabelOrQuery())
@@ -174,12 +189,17 @@ public class TriangleProc {
                     .withoutNodeWeights()
                     .withSort(true)
                     .asUndirected(true)
+                    .withAllocationTracker(tracker)
                     .init(log, label, relationship, configuration)
                     .withDirection(TriangleCountBase.D)
                     .load(configuration.getGraphImpl());
         }
 
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        if (graph instanceof HugeGraph) {
+            return hugeTriangleCount((HugeGraph) graph, tracker, configuration, terminationFlag, builder);
+        }
+
         try (ProgressTimer timer = builder.timeEval()) {
             triangleCount = new TriangleCountQueue(graph, Pools.DEFAULT, configuration.getConcurrency())
                     .withProgressLogger(ProgressLogger.wrap(log, "triangleCount"))
@@ -199,7 +219,7 @@ public class TriangleProc {
                     exporter.write(
                             configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
                             triangleCount.getTriangles(),
-                            AtomicIntArrayTranslator.INSTANCE,
+                            AtomicLongArrayTranslator.INSTANCE,
                             coefficientProperty.get(),
                             clusteringCoefficients,
                             DoubleArrayTranslator.INSTANCE
@@ -208,7 +228,55 @@ public class TriangleProc {
                     exporter.write(
                             configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
                             triangleCount.getTriangles(),
-                            AtomicIntArrayTranslator.INSTANCE
+                            AtomicLongArrayTranslator.INSTANCE
+                    );
+                }
+            }
+        }
+
+        builder.withNodeCount(graph.nodeCount())
+                .withTriangleCount(triangleCount.getTriangleCount())
+                .withAverageClusteringCoefficient(triangleCount.getAverageClusteringCoefficient());
+
+        return Stream.of(builder.build());
+    }
+
+    private Stream<Result> hugeTriangleCount(
+            HugeGraph graph,
+            AllocationTracker tracker,
+            ProcedureConfiguration configuration,
+            TerminationFlag terminationFlag,
+            TriangleCountResultBuilder builder) {
+
+        final HugeTriangleCount triangleCount;
+        try (ProgressTimer timer = builder.timeEval()) {
+            triangleCount = new HugeTriangleCount(graph, Pools.DEFAULT, configuration.getConcurrency(), tracker)
+                    .withProgressLogger(ProgressLogger.wrap(log, "triangleCount"))
+                    .withTerminationFlag(terminationFlag)
+                    .compute();
+        }
+
+        if (configuration.isWriteFlag()) {
+            try (ProgressTimer timer = builder.timeWrite()) {
+                final Optional<String> coefficientProperty = configuration.getString(COEFFICIENT_WRITE_PROPERTY_VALUE);
+                final Exporter exporter = Exporter.of(api, graph)
+                        .withLog(log)
+                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                        .build();
+                if (coefficientProperty.isPresent()) {
+                    exporter.write(
+                            configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
+                            triangleCount.getTriangles(),
+                            HugeAtomicLongArrayTranslator.INSTANCE,
+                            coefficientProperty.get(),
+                            triangleCount.getClusteringCoefficients(),
+                            HugeDoubleArrayTranslator.INSTANCE
+                    );
+                } else {
+                    exporter.write(
+                            configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
+                            triangleCount.getTriangles(),
+                            HugeAtomicLongArrayTranslator.INSTANCE
                     );
                 }
             }
@@ -217,6 +285,7 @@ public class TriangleProc {
         builder.withNodeCount(graph.nodeCount())
                 .withTriangleCount(triangleCount.getTriangleCount())
                 .withAverageClusteringCoefficient(triangleCount.getAverageClusteringCoefficient());
+        triangleCount.release();
 
         return Stream.of(builder.build());
     }
@@ -275,7 +344,7 @@ public class TriangleProc {
                     exporter.write(
                             configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
                             triangleCount.getTriangles(),
-                            AtomicIntArrayTranslator.INSTANCE,
+                            AtomicLongArrayTranslator.INSTANCE,
                             coefficientProperty.get(),
                             clusteringCoefficients,
                             AtomicDoubleArrayTranslator.INSTANCE
@@ -284,7 +353,7 @@ public class TriangleProc {
                     exporter.write(
                             configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
                             triangleCount.getTriangles(),
-                            AtomicIntArrayTranslator.INSTANCE
+                            AtomicLongArrayTranslator.INSTANCE
                     );
                 }
             }
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.impl.UnionFindAlgo;
+import org.neo4j.graphalgo.impl.UnionFindProcExec;
+import org.neo4j.graphalgo.results.UnionFindResult;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class UnionFindProc5 {
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Context
+    public KernelTransaction transaction;
+
+    @Procedure(value = "algo.unionFind.afforest", mode = Mode.WRITE)
+    @Description("CALL algo.unionFind.afforest(label:String, relationship:String, " +
+            "{property:'weight', threshold:0.42, defaultValue:1.0, write: true, partitionProperty:'partition',concurrency:4}) " +
+            "YIELD nodes, setCount, loadMillis, computeMillis, writeMillis")
+    public Stream<UnionFindResult> unionFind(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        return UnionFindProcExec.run(
+                config,
+                label,
+                relationship,
+                this::ufExec);
+    }
+
+    @Procedure(value = "algo.unionFind.afforest.stream")
+    @Description("CALL algo.unionFind.afforest.stream(label:String, relationship:String, " +
+            "{property:'propertyName', threshold:0.42, defaultValue:1.0,concurrency:4}) " +
+            "YIELD nodeId, setId - yields a setId to each node id")
+    public Stream<DisjointSetStruct.Result> unionFindStream(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        return UnionFindProcExec.stream(
+                config,
+                label,
+                relationship,
+                this::ufExec);
+    }
+
+    private UnionFindProcExec ufExec() {
+        return new UnionFindProcExec(
+                api,
+                log,
+                transaction,
+                UnionFindAlgo.AFFOREST,
+                UnionFindAlgo.AFFOREST
+        );
+    }
+}
@@ -19,14 +19,15 @@
 package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.queue.BatchedTupleQueue;
 import org.neo4j.graphalgo.core.utils.queue.IntMinPriorityQueue;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Arrays;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -44,9 +45,12 @@ import java.util.stream.Stream;
  * that should be spawned.
  * <p>
  * Due to the high memory footprint the result set would have we emit each result into
- * a blocking queue. The result stream takes elements from the queue while the workers
- * add elements to it. The result stream is limited by N^2. If the stream gets closed
- * prematurely the workers get closed too.
+ * a bounded {@link BatchedTupleQueue}. Workers write chunks of primitive
+ * (source, target, distance) tuples and block if the consumer falls behind.
+ * The result stream takes chunks from the queue while the workers add chunks to it.
+ * The workers are submitted from a dedicated thread, so that the consuming caller
+ * never blocks on a saturated pool. Unreachable targets are not emitted. If the stream gets closed prematurely the
+ * workers stop too.
  */
 public class AllShortestPaths extends MSBFSASPAlgorithm<AllShortestPaths> {
 
@@ -63,9 +67,7 @@ public class AllShortestPaths extends MSBFSASPAlgorithm<AllShortestPaths> {
      */
     private AtomicInteger counter;
     private ExecutorService executorService;
-    private BlockingQueue<Result> resultQueue;
-
-    private volatile boolean outputStreamOpen;
+    private BatchedTupleQueue resultQueue;
 
     public AllShortestPaths(Graph graph, ExecutorService executorService, int concurrency) {
         this.graph = graph;
@@ -76,7 +78,6 @@ public class AllShortestPaths extends MSBFSASPAlgorithm<AllShortestPaths> {
         }
         this.concurrency = concurrency;
         this.counter = new AtomicInteger();
-        this.resultQueue = new LinkedBlockingQueue<>(); // TODO limit size?
     }
 
     /**
@@ -89,23 +90,23 @@ public class AllShortestPaths extends MSBFSASPAlgorithm<AllShortestPaths> {
     public Stream<Result> resultStream() {
 
         counter.set(0);
-        outputStreamOpen = true;
+        resultQueue = new BatchedTupleQueue(3, getTerminationFlag());
 
+        final AtomicInteger runningTasks = new AtomicInteger(concurrency);
+        final ShortestPathTask[] tasks = new ShortestPathTask[concurrency];
         for (int i = 0; i < concurrency; i++) {
-            executorService.submit(new ShortestPathTask());
+            tasks[i] = new ShortestPathTask(resultQueue, runningTasks);
         }
+        final BatchedTupleQueue queue = resultQueue;
+        startProducer(() -> {
+            try {
+                ParallelUtil.run(Arrays.asList(tasks), executorService);
+            } catch (Throwable t) {
+                queue.finish(t);
+            }
+        });
 
-        long end = (long) nodeCount * nodeCount;
-
-        return LongStream.range(0, end)
-                .onClose(() -> outputStreamOpen = false)
-                .mapToObj(i -> {
-                    try {
-                        return resultQueue.take();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                }).filter(result -> result.distance != Double.POSITIVE_INFINITY);
+        return resultQueue.stream(Result::fromTuple);
     }
 
     @Override
@@ -117,7 +118,10 @@ public class AllShortestPaths extends MSBFSASPAlgorithm<AllShortestPaths> {
     public AllShortestPaths release() {
         graph = null;
         counter = null;
-        resultQueue = null;
+        if (resultQueue != null) {
+            resultQueue.close();
+            resultQueue = null;
+        }
         return this;
     }
 
@@ -125,33 +129,50 @@ public class AllShortestPaths extends MSBFSASPAlgorithm<AllShortestPaths> {
      * Dijkstra Task. Takes one element of the counter at a time
      * and starts dijkstra on it. It starts emitting results to the
      * queue once all reachable nodes have been visited.
+     * The last task to finish signals the end of the result stream.
      */
     private class ShortestPathTask implements Runnable {
 
         private final IntMinPriorityQueue queue;
         private final double[] distance;
-
-        private ShortestPathTask() {
+        private final BatchedTupleQueue resultQueue;
+        private final BatchedTupleQueue.Writer writer;
+        private final AtomicInteger runningTasks;
+
+        private ShortestPathTask(BatchedTupleQueue resultQueue, AtomicInteger runningTasks) {
+            this.resultQueue = resultQueue;
+            this.runningTasks = runningTasks;
+            writer = resultQueue.newWriter();
             distance = new double[nodeCount];
             queue = new IntMinPriorityQueue();
         }
 
         @Override
         public void run() {
+            Throwable error = null;
+            try {
+                emitAll();
+                writer.flush();
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                if (runningTasks.decrementAndGet() == 0 || error != null) {
+                    resultQueue.finish(error);
+                }
+            }
+        }
+
+        private void emitAll() {
             final ProgressLogger progressLogger = getProgressLogger();
             int startNode;
-            while (outputStreamOpen && running() && (startNode = counter.getAndIncrement()) < nodeCount) {
+            while (resultQueue.isOpen() && (startNode = counter.getAndIncrement()) < nodeCount) {
                 compute(startNode);
+                final long source = graph.toOriginalNodeId(startNode);
                 for (int i = 0; i < nodeCount; i++) {
-                    final Result result = new Result(
-                            graph.toOriginalNodeId(startNode),
-                            graph.toOriginalNodeId(i),
-                            distance[i]);
-
-                    try {
-                        resultQueue.put(result);
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
+                    final double d = distance[i];
+                    if (d != Double.POSITIVE_INFINITY &&
+                            !writer.addWeighted(source, graph.toOriginalNodeId(i), d)) {
+                        return;
                     }
                 }
                 progressLogger.logProgress((double) startNode / (nodeCount - 1));
@@ -162,7 +183,7 @@ public class AllShortestPaths extends MSBFSASPAlgorithm<AllShortestPaths> {
             Arrays.fill(distance, Double.POSITIVE_INFINITY);
             distance[startNode] = 0d;
             queue.add(startNode, 0d);
-            while (outputStreamOpen && !queue.isEmpty()) {
+            while (resultQueue.isOpen() && !queue.isEmpty()) {
                 final int node = queue.pop();
                 final double sourceDistance = distance[node];
                 // scan relationships
@@ -179,6 +200,7 @@ public class AllShortestPaths extends MSBFSASPAlgorithm<AllShortestPaths> {
                             return true;
                         });
             }
+            queue.clear();
         }
     }
 
@@ -206,6 +228,16 @@ public class AllShortestPaths extends MSBFSASPAlgorithm<AllShortestPaths> {
             this.distance = distance;
         }
 
+        /**
+         * creates a Result from a (source, target, rawDistanceBits) tuple
+         */
+        static Result fromTuple(long[] chunk, int offset) {
+            return new Result(
+                    chunk[offset],
+                    chunk[offset + 1],
+                    Double.longBitsToDouble(chunk[offset + 2]));
+        }
+
         @Override
         public String toString() {
             return "Result{" +
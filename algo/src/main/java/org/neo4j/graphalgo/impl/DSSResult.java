@@ -25,6 +25,7 @@ import org.neo4j.graphalgo.api.HugeNodeIterator;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.NodeIterator;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.HugeDisjointSetStruct;
 
 import java.util.stream.Stream;
@@ -32,42 +33,61 @@ import java.util.stream.Stream;
 public final class DSSResult {
     public final DisjointSetStruct struct;
     public final HugeDisjointSetStruct hugeStruct;
+    public final HugeAtomicDisjointSetStruct atomicStruct;
 
     public DSSResult(final DisjointSetStruct struct) {
-        this(struct, null);
+        this(struct, null, null);
     }
 
     public DSSResult(final HugeDisjointSetStruct hugeStruct) {
-        this(null, hugeStruct);
+        this(null, hugeStruct, null);
     }
 
-    private DSSResult(DisjointSetStruct struct, HugeDisjointSetStruct hugeStruct) {
-        assert (struct != null && hugeStruct == null) || (struct == null && hugeStruct != null);
+    public DSSResult(final HugeAtomicDisjointSetStruct atomicStruct) {
+        this(null, null, atomicStruct);
+    }
+
+    private DSSResult(
+            DisjointSetStruct struct,
+            HugeDisjointSetStruct hugeStruct,
+            HugeAtomicDisjointSetStruct atomicStruct) {
+        assert (struct != null ? 1 : 0) + (hugeStruct != null ? 1 : 0) + (atomicStruct != null ? 1 : 0) == 1;
         this.struct = struct;
         this.hugeStruct = hugeStruct;
+        this.atomicStruct = atomicStruct;
     }
 
     public int getSetCount() {
-        return struct != null ? struct.getSetCount() : hugeStruct.getSetCount();
+        if (struct != null) {
+            return struct.getSetCount();
+        }
+        return hugeStruct != null ? hugeStruct.getSetCount() : atomicStruct.getSetCount();
     }
 
     public Stream<DisjointSetStruct.Result> resultStream(IdMapping idMapping) {
-        return struct != null
-                ? struct.resultStream(idMapping)
-                : hugeStruct.resultStream(((HugeIdMapping) idMapping));
+        if (struct != null) {
+            return struct.resultStream(idMapping);
+        }
+        return hugeStruct != null
+                ? hugeStruct.resultStream(((HugeIdMapping) idMapping))
+                : atomicStruct.resultStream(((HugeIdMapping) idMapping));
     }
 
     public void forEach(NodeIterator nodes, IntIntPredicate consumer) {
         if (struct != null) {
             nodes.forEachNode(nodeId -> consumer.apply(nodeId, struct.find(nodeId)));
-        } else {
+        } else if (hugeStruct != null) {
             nodes.forEachNode(nodeId -> consumer.apply(nodeId, (int) hugeStruct.find(nodeId)));
+        } else {
+            nodes.forEachNode(nodeId -> consumer.apply(nodeId, (int) atomicStruct.setIdOf(nodeId)));
         }
     }
 
     public void forEach(HugeNodeIterator nodes, LongLongPredicate consumer) {
         if (hugeStruct != null) {
             nodes.forEachNode(nodeId -> consumer.apply(nodeId, hugeStruct.find(nodeId)));
+        } else if (atomicStruct != null) {
+            nodes.forEachNode(nodeId -> consumer.apply(nodeId, atomicStruct.setIdOf(nodeId)));
         } else {
             nodes.forEachNode(nodeId -> consumer.apply((int) nodeId, struct.find((int) nodeId)));
         }
@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.impl;
 
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
@@ -46,6 +47,7 @@ public class HugeGraphUnionFind extends GraphUnionFindAlgo<HugeGraph, HugeDisjoi
     private HugeDisjointSetStruct dss;
     private final long nodeCount;
     private HugeRelationshipConsumer unrestricted;
+    private HugeAdjacencyCursor adjacency;
 
     HugeGraphUnionFind(
             HugeGraph graph,
@@ -54,6 +56,7 @@ public class HugeGraphUnionFind extends GraphUnionFindAlgo<HugeGraph, HugeDisjoi
         this.graph = graph;
         nodeCount = graph.nodeCount();
         this.dss = new HugeDisjointSetStruct(nodeCount, tracker);
+        this.adjacency = graph.adjacencyCursor();
         unrestricted = (source, target) -> {
             dss.union(source, target);
             return true;
@@ -85,6 +88,7 @@ public class HugeGraphUnionFind extends GraphUnionFindAlgo<HugeGraph, HugeDisjoi
     public HugeGraphUnionFind release() {
         dss = null;
         unrestricted = null;
+        adjacency = null;
         return super.release();
     }
 
@@ -95,7 +99,14 @@ public class HugeGraphUnionFind extends GraphUnionFindAlgo<HugeGraph, HugeDisjoi
             if (!running()) {
                 return false;
             }
-            graph.forEachRelationship(node, Direction.OUTGOING, consumer);
+            adjacency.init(node, Direction.OUTGOING);
+            int length;
+            while ((length = adjacency.next()) > 0) {
+                final long[] targets = adjacency.buffer();
+                for (int i = 0; i < length; i++) {
+                    consumer.accept(node, targets[i]);
+                }
+            }
             progressLogger.logProgress((double) node / (nodeCount - 1));
             return true;
         });
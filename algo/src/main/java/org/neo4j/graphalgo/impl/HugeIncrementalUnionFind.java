@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+
+/**
+ * Keeps the result of a huge UnionFind alive between procedure calls so that
+ * new relationships can be absorbed without recomputing all components.
+ * <p>
+ * Only additions are supported; a deleted relationship could split a set,
+ * which cannot be detected from the struct alone. Nodes that were not part of
+ * the initial graph are not tracked and their relationships are skipped.
+ * <p>
+ * The set id that has last been written is remembered for every node, so that
+ * {@link #TRANSLATOR} only emits properties for nodes whose root has changed.
+ * The translator itself does not record anything, since the transaction of a
+ * batch can still roll back; {@link #written()} has to be called once the
+ * export has completed.
+ */
+public final class HugeIncrementalUnionFind {
+
+    private static final long NOT_WRITTEN = -1L;
+
+    /**
+     * writes the current set id for every node whose set id differs
+     * from the last written one and skips all others
+     */
+    public static final PropertyTranslator<HugeIncrementalUnionFind> TRANSLATOR =
+            (propertyId, data, nodeId) -> {
+                final long setId = data.dss.findNoOpt(nodeId);
+                if (setId == data.writtenSetIds.get(nodeId)) {
+                    return null;
+                }
+                return DefinedProperty.longProperty(propertyId, setId);
+            };
+
+    private final HugeGraph idMapping;
+    private final HugeDisjointSetStruct dss;
+    private final LongArray writtenSetIds;
+    private final long nodeCount;
+    private final AllocationTracker tracker;
+
+    /**
+     * @param idMapping the (released) graph the struct has been computed on
+     * @param dss       the result of any huge UnionFind on that graph
+     */
+    public HugeIncrementalUnionFind(
+            HugeGraph idMapping,
+            HugeDisjointSetStruct dss,
+            AllocationTracker tracker) {
+        this.idMapping = idMapping;
+        this.dss = dss;
+        this.nodeCount = idMapping.nodeCount();
+        this.tracker = tracker;
+        this.writtenSetIds = LongArray.newArray(nodeCount, tracker);
+        writtenSetIds.fill(NOT_WRITTEN);
+    }
+
+    public HugeGraph idMapping() {
+        return idMapping;
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * union the sets of both nodes
+     *
+     * @param sourceNodeId original neo4j id of the source node
+     * @param targetNodeId original neo4j id of the target node
+     * @return false if one of the nodes is not part of the tracked graph
+     */
+    public boolean union(long sourceNodeId, long targetNodeId) {
+        if (!idMapping.contains(sourceNodeId) || !idMapping.contains(targetNodeId)) {
+            return false;
+        }
+        dss.union(
+                idMapping.toHugeMappedNodeId(sourceNodeId),
+                idMapping.toHugeMappedNodeId(targetNodeId));
+        return true;
+    }
+
+    /**
+     * compresses all paths so that the set id of every node can be looked up
+     * without writing into the struct, which allows a parallel write-back.
+     *
+     * @return number of nodes whose set id differs from the last written one
+     */
+    public long compress() {
+        long changed = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            if (dss.find(node) != writtenSetIds.get(node)) {
+                ++changed;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * records the current set ids as written, must only be called after all
+     * properties emitted by {@link #TRANSLATOR} have been committed. If the
+     * export fails, the changed nodes are emitted again by the next export.
+     */
+    public void written() {
+        for (long node = 0L; node < nodeCount; node++) {
+            writtenSetIds.set(node, dss.findNoOpt(node));
+        }
+    }
+
+    public int getSetCount() {
+        return dss.getSetCount();
+    }
+
+    public void release() {
+        tracker.remove(writtenSetIds.release());
+    }
+}
@@ -18,21 +18,16 @@
  */
 package org.neo4j.graphalgo.impl;
 
-import com.carrotsearch.hppc.AbstractIterator;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.queue.BatchedTupleQueue;
 import org.neo4j.graphalgo.impl.AllShortestPaths.Result;
 import org.neo4j.graphalgo.impl.msbfs.HugeMultiSourceBFS;
 import org.neo4j.graphdb.Direction;
 
-import java.util.Iterator;
-import java.util.Spliterators;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * AllShortestPaths:
@@ -40,13 +35,16 @@ import java.util.stream.StreamSupport;
  * multi-source parallel shortest path between each pair of nodes.
  * <p>
  * Due to the high memory footprint the result set would have we emit each result into
- * a blocking queue. The result stream takes elements from the queue while the workers
- * add elements to it.
+ * a bounded {@link BatchedTupleQueue}. Every BFS thread writes chunks of primitive
+ * (source, target, distance) tuples and blocks if the consumer falls behind.
+ * The result stream takes chunks from the queue while the workers add chunks to it.
+ * The BFS is started from a dedicated thread, so that the consuming caller never
+ * blocks on a saturated pool. If the stream gets closed prematurely no further BFS instances are started.
  */
 public class HugeMSBFSAllShortestPaths extends MSBFSASPAlgorithm<HugeMSBFSAllShortestPaths> {
 
     private HugeGraph graph;
-    private BlockingQueue<Result> resultQueue;
+    private BatchedTupleQueue resultQueue;
     private final AllocationTracker tracker;
     private final int concurrency;
     private final ExecutorService executorService;
@@ -62,7 +60,6 @@ public class HugeMSBFSAllShortestPaths extends MSBFSASPAlgorithm<HugeMSBFSAllSho
         this.tracker = tracker;
         this.concurrency = concurrency;
         this.executorService = executorService;
-        this.resultQueue = new LinkedBlockingQueue<>(); // TODO limit size?
     }
 
     /**
@@ -73,24 +70,9 @@ public class HugeMSBFSAllShortestPaths extends MSBFSASPAlgorithm<HugeMSBFSAllSho
      */
     @Override
     public Stream<Result> resultStream() {
-        executorService.submit(new ShortestPathTask(concurrency, executorService));
-        Iterator<Result> iterator = new AbstractIterator<Result>() {
-            @Override
-            protected Result fetch() {
-                try {
-                    Result result = resultQueue.take();
-                    if (result.sourceNodeId == -1) {
-                        return done();
-                    }
-                    return result;
-                } catch (InterruptedException e1) {
-                    throw new RuntimeException(e1);
-                }
-            }
-        };
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
-                iterator,
-                0), false);
+        resultQueue = new BatchedTupleQueue(3, getTerminationFlag());
+        startProducer(new ShortestPathTask(resultQueue, concurrency, executorService));
+        return resultQueue.stream(Result::fromTuple);
     }
 
     @Override
@@ -101,23 +83,28 @@ public class HugeMSBFSAllShortestPaths extends MSBFSASPAlgorithm<HugeMSBFSAllSho
     @Override
     public HugeMSBFSAllShortestPaths release() {
         graph = null;
-        resultQueue = null;
+        if (resultQueue != null) {
+            resultQueue.close();
+            resultQueue = null;
+        }
         return this;
     }
 
     /**
-     * Dijkstra Task. Takes one element of the counter at a time
-     * and starts dijkstra on it. It starts emitting results to the
-     * queue once all reachable nodes have been visited.
+     * Runs the MS-BFS and signals the end of the result stream
+     * once all sources have been traversed.
      */
     private class ShortestPathTask implements Runnable {
 
+        private final BatchedTupleQueue resultQueue;
         private final int concurrency;
         private final ExecutorService executorService;
 
         private ShortestPathTask(
+                BatchedTupleQueue resultQueue,
                 int concurrency,
                 ExecutorService executorService) {
+            this.resultQueue = resultQueue;
             this.concurrency = concurrency;
             this.executorService = executorService;
         }
@@ -127,29 +114,30 @@ public class HugeMSBFSAllShortestPaths extends MSBFSASPAlgorithm<HugeMSBFSAllSho
 
             final ProgressLogger progressLogger = getProgressLogger();
             final double maxNodeId = nodeCount - 1;
-            new HugeMultiSourceBFS(
-                    graph,
-                    graph,
-                    Direction.OUTGOING,
-                    (target, distance, sources) -> {
-                        while (sources.hasNext()) {
-                            long source = sources.next();
-                            final Result result = new Result(
-                                    graph.toOriginalNodeId(source),
-                                    graph.toOriginalNodeId(target),
-                                    distance);
-                            try {
-                                resultQueue.put(result);
-                            } catch (InterruptedException e) {
-                                throw new RuntimeException(e);
+            Throwable error = null;
+            try {
+                new HugeMultiSourceBFS(
+                        graph,
+                        graph,
+                        Direction.OUTGOING,
+                        (target, distance, sources) -> {
+                            final BatchedTupleQueue.Writer writer = resultQueue.threadLocalWriter();
+                            final long targetId = graph.toOriginalNodeId(target);
+                            while (sources.hasNext()) {
+                                long source = sources.next();
+                                if (!writer.addWeighted(graph.toOriginalNodeId(source), targetId, distance)) {
+                                    return;
+                                }
                             }
-                        }
-                        progressLogger.logProgress(target, maxNodeId);
-                    },
-                    tracker
-            ).run(concurrency, executorService);
-
-            resultQueue.add(new Result(-1, -1, -1));
+                            progressLogger.logProgress(target, maxNodeId);
+                        },
+                        tracker
+                ).run(concurrency, resultQueue::isOpen, executorService);
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                resultQueue.finish(error);
+            }
         }
     }
 }
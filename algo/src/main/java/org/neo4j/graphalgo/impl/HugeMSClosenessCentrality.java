@@ -20,6 +20,7 @@ package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.checkpoint.Checkpoint;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.AtomicIntArray;
 import org.neo4j.graphalgo.core.write.Exporter;
@@ -27,7 +28,9 @@ import org.neo4j.graphalgo.core.write.PropertyTranslator;
 import org.neo4j.graphalgo.impl.msbfs.HugeBfsConsumer;
 import org.neo4j.graphalgo.impl.msbfs.HugeMultiSourceBFS;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.logging.Log;
 
+import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.function.LongToIntFunction;
 import java.util.stream.LongStream;
@@ -35,11 +38,18 @@ import java.util.stream.Stream;
 
 /**
  * Normalized Closeness Centrality
+ * <p>
+ * The MS-BFS traverses from the source nodes in ranges of {@code interval} nodes.
+ * After every range the accumulated farness and the number of processed sources can
+ * be written to a {@link Checkpoint}, so that a run that was stopped can be
+ * {@link #resumeFrom(Path) resumed} with the next unprocessed source.
  *
  * @author mknblch
  */
 public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessCentrality> {
 
+    private static final String CHECKPOINT_NAME = "closeness";
+
     private HugeGraph graph;
     private AtomicIntArray farness;
 
@@ -48,6 +58,20 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
     private final long nodeCount;
     private final AllocationTracker tracker;
 
+    private Log log;
+    private Path checkpointFile;
+    private int checkpointInterval;
+    private Path resumeFile;
+    private long fingerprint;
+
+    /**
+     * @return the number of bytes the farness and the BFS state of {@code concurrency} threads occupy
+     */
+    public static long estimateMemoryUsage(long nodeCount, int concurrency) {
+        return AtomicIntArray.estimateMemoryUsage(nodeCount)
+                + HugeMultiSourceBFS.estimateMemoryUsagePerThread(nodeCount) * concurrency;
+    }
+
     public HugeMSClosenessCentrality(
             HugeGraph graph,
             AllocationTracker tracker,
@@ -61,6 +85,33 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
         farness = AtomicIntArray.newArray(nodeCount, this.tracker);
     }
 
+    /**
+     * write a checkpoint after every {@code interval} source nodes and after the last one
+     */
+    public HugeMSClosenessCentrality withCheckpoint(Path file, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive but was " + interval);
+        }
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+        return this;
+    }
+
+    /**
+     * continue with the first source node that was not processed when the checkpoint was written
+     */
+    public HugeMSClosenessCentrality resumeFrom(Path file) {
+        this.resumeFile = file;
+        return this;
+    }
+
+    @Override
+    public HugeMSClosenessCentrality withLog(Log log) {
+        super.withLog(log);
+        this.log = log;
+        return this;
+    }
+
     @Override
     public HugeMSClosenessCentrality compute() {
 
@@ -72,17 +123,70 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
             progressLogger.logProgress((double) nodeId / (nodeCount - 1));
         };
 
-        new HugeMultiSourceBFS(
+        final HugeMultiSourceBFS bfs = new HugeMultiSourceBFS(
                 graph,
                 graph,
                 Direction.OUTGOING,
                 consumer,
-                tracker)
-                .run(concurrency, executorService);
+                tracker);
+
+        final long start = resumeFile == null ? 0L : restore(resumeFile);
+        final long interval = checkpointFile == null ? nodeCount : checkpointInterval;
+        for (long from = start, to; from < nodeCount && running(); from = to) {
+            to = Math.min(from + interval, nodeCount);
+            bfs.run(from, to, concurrency, getTerminationFlag(), executorService);
+            // a stopped range leaves the distances of some of its sources behind
+            if (checkpointFile != null && running()) {
+                checkpoint(checkpointFile, to);
+            }
+        }
 
         return this;
     }
 
+    private void checkpoint(Path file, long sources) {
+        try (Checkpoint.Writer writer = Checkpoint.write(
+                file,
+                CHECKPOINT_NAME,
+                nodeCount,
+                fingerprint(),
+                sources)) {
+            writer.writeDoubles(nodeCount, farness::get);
+        }
+        if (log != null) {
+            log.debug("Closeness: wrote checkpoint after %d source nodes to %s", sources, file);
+        }
+    }
+
+    private long restore(Path file) {
+        try (Checkpoint.Reader reader = Checkpoint.read(
+                file,
+                CHECKPOINT_NAME,
+                nodeCount,
+                fingerprint())) {
+            reader.readDoubles(nodeCount, (nodeId, value) -> farness.set(nodeId, (int) value)).verifyEnd();
+            if (log != null) {
+                log.info("Closeness: resuming after %d source nodes from %s", reader.progress(), file);
+            }
+            return reader.progress();
+        }
+    }
+
+    /**
+     * identifies the graph a checkpoint belongs to
+     */
+    private long fingerprint() {
+        if (fingerprint == 0L) {
+            long hash = 0L;
+            for (long nodeId = 0L; nodeId < nodeCount; ++nodeId) {
+                hash = 31L * hash + graph.toOriginalNodeId(nodeId);
+                hash = 31L * hash + graph.degree(nodeId, Direction.OUTGOING);
+            }
+            fingerprint = hash;
+        }
+        return fingerprint;
+    }
+
     @Override
     public void export(final String propertyName, final Exporter exporter) {
         final double k = nodeCount - 1;
@@ -0,0 +1,398 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicLongArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.IntArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel minimum weight spanning forest algorithm (Borůvka) for {@link HugeGraph}s.
+ * <p>
+ * Every round consists of a parallel and a sequential step. In parallel,
+ * each node looks up its cheapest relationship that leaves its component
+ * and offers it to the component using a CAS on a shared array, so that
+ * each component ends up with its cheapest outgoing relationship.
+ * The coordinating thread then merges the components along these
+ * relationships in a {@link HugeDisjointSetStruct} and adds them to the forest.
+ * The number of components at least halves with every round, the algorithm
+ * terminates once no component has an outgoing relationship left.
+ * <p>
+ * Ties are broken by the ids of the relationship's nodes, which keeps the
+ * chosen relationships consistent and the result free of cycles.
+ * Nodes without relationships to other components are remembered and
+ * skipped in subsequent rounds.
+ * <p>
+ * Unlike {@link MSTPrim} the result spans every component of the graph.
+ * The graph must be loaded undirected ({@code asUndirected(true)})
+ * and is traversed using {@link Direction#OUTGOING}.
+ */
+public final class HugeMSFBoruvka extends Algorithm<HugeMSFBoruvka> {
+
+    private static final int MIN_BATCH_SIZE = 10_000;
+    private static final long NO_NODE = -1L;
+
+    public interface ForestRelationshipConsumer {
+        /**
+         * @return true to continue the iteration, false to stop
+         */
+        boolean accept(long sourceNodeId, long targetNodeId, double weight);
+    }
+
+    private HugeGraph graph;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+
+    private HugeDisjointSetStruct dss;
+    private LongArray components;
+    private IntArray exhausted;
+    private LongArray bestTarget;
+    private DoubleArray bestWeight;
+    private HugeAtomicLongArray bestNode;
+
+    private LongArray forestSources;
+    private LongArray forestTargets;
+    private DoubleArray forestWeights;
+    private long relationshipCount;
+    private int rounds;
+
+    public HugeMSFBoruvka(
+            HugeGraph graph,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+    }
+
+    public HugeMSFBoruvka compute() {
+        dss = new HugeDisjointSetStruct(nodeCount, tracker).reset();
+        components = LongArray.newArray(nodeCount, tracker);
+        exhausted = IntArray.newArray(nodeCount, tracker);
+        bestTarget = LongArray.newArray(nodeCount, tracker);
+        bestWeight = DoubleArray.newArray(nodeCount, tracker);
+        bestNode = HugeAtomicLongArray.newArray(nodeCount, tracker);
+        forestSources = LongArray.newArray(nodeCount, tracker);
+        forestTargets = LongArray.newArray(nodeCount, tracker);
+        forestWeights = DoubleArray.newArray(nodeCount, tracker);
+        relationshipCount = 0L;
+        rounds = 0;
+
+        long merged;
+        do {
+            run(batches((start, length) -> new PrepareTask(start, length)));
+            run(batches((start, length) -> new CheapestRelationshipTask(start, length)));
+            merged = merge();
+            rounds++;
+            getProgressLogger().logProgress(relationshipCount, Math.max(1L, nodeCount - 1L));
+        } while (merged > 0L && running());
+
+        releaseWorkingSet();
+        return this;
+    }
+
+    /**
+     * @return the number of relationships in the spanning forest
+     */
+    public long relationshipCount() {
+        return relationshipCount;
+    }
+
+    /**
+     * @return the number of Borůvka rounds of the last computation
+     */
+    public int rounds() {
+        return rounds;
+    }
+
+    /**
+     * @return the component id of every node, components are the trees of the forest
+     */
+    public HugeDisjointSetStruct getComponents() {
+        return dss;
+    }
+
+    public void forEachRelationship(ForestRelationshipConsumer consumer) {
+        forEachRelationship(0L, relationshipCount, consumer);
+    }
+
+    /**
+     * iterate over the forest relationships in {@code [start, end)}
+     */
+    public void forEachRelationship(long start, long end, ForestRelationshipConsumer consumer) {
+        for (long i = start; i < end; i++) {
+            if (!consumer.accept(forestSources.get(i), forestTargets.get(i), forestWeights.get(i))) {
+                return;
+            }
+        }
+    }
+
+    public Aggregator aggregate() {
+        final Aggregator aggregator = new Aggregator();
+        forEachRelationship(aggregator);
+        return aggregator;
+    }
+
+    @Override
+    public HugeMSFBoruvka me() {
+        return this;
+    }
+
+    @Override
+    public HugeMSFBoruvka release() {
+        releaseWorkingSet();
+        if (forestSources != null) {
+            tracker.remove(forestSources.release());
+            tracker.remove(forestTargets.release());
+            tracker.remove(forestWeights.release());
+            forestSources = null;
+            forestTargets = null;
+            forestWeights = null;
+        }
+        dss = null;
+        graph = null;
+        return this;
+    }
+
+    /**
+     * merge all components along their cheapest outgoing relationship
+     *
+     * @return the number of relationships added to the forest
+     */
+    private long merge() {
+        long merged = 0L;
+        for (long component = 0L; component < nodeCount; component++) {
+            if (components.get(component) != component) {
+                continue;
+            }
+            final long node = bestNode.get(component);
+            if (node == NO_NODE) {
+                continue;
+            }
+            final long target = bestTarget.get(node);
+            // both components might have chosen the same relationship
+            if (dss.find(node) == dss.find(target)) {
+                continue;
+            }
+            dss.union(node, target);
+            forestSources.set(relationshipCount, node);
+            forestTargets.set(relationshipCount, target);
+            forestWeights.set(relationshipCount, bestWeight.get(node));
+            ++relationshipCount;
+            ++merged;
+        }
+        return merged;
+    }
+
+    private void releaseWorkingSet() {
+        if (components != null) {
+            tracker.remove(components.release());
+            tracker.remove(exhausted.release());
+            tracker.remove(bestTarget.release());
+            tracker.remove(bestWeight.release());
+            tracker.remove(bestNode.release());
+            components = null;
+            exhausted = null;
+            bestTarget = null;
+            bestWeight = null;
+            bestNode = null;
+        }
+    }
+
+    private Collection<Runnable> batches(LazyBatchCollection.BatchSupplier<Runnable> supplier) {
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        return LazyBatchCollection.of(nodeCount, batchSize, supplier);
+    }
+
+    private void run(Collection<? extends Runnable> tasks) {
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                Integer.MAX_VALUE,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                executor);
+    }
+
+    /**
+     * total order of relationships by weight and node ids
+     */
+    private static boolean isLighter(
+            double weight,
+            long source,
+            long target,
+            double otherWeight,
+            long otherSource,
+            long otherTarget) {
+        if (weight != otherWeight) {
+            return weight < otherWeight;
+        }
+        final long min = Math.min(source, target), otherMin = Math.min(otherSource, otherTarget);
+        if (min != otherMin) {
+            return min < otherMin;
+        }
+        return Math.max(source, target) < Math.max(otherSource, otherTarget);
+    }
+
+    /**
+     * resolves the component of every node and resets the per component state
+     */
+    private final class PrepareTask implements Runnable {
+        private final long start;
+        private final long end;
+
+        private PrepareTask(long start, long length) {
+            this.start = start;
+            this.end = start + length;
+        }
+
+        @Override
+        public void run() {
+            for (long node = start; node < end; node++) {
+                components.set(node, dss.findNoOpt(node));
+                bestNode.set(node, NO_NODE);
+            }
+        }
+    }
+
+    private final class CheapestRelationshipTask implements Runnable, HugeRelationshipConsumer {
+        private final long start;
+        private final long end;
+        private final HugeRelationshipIterator rels;
+        private long component;
+        private long target;
+        private double weight;
+
+        private CheapestRelationshipTask(long start, long length) {
+            this.start = start;
+            this.end = start + length;
+            this.rels = graph.concurrentCopy();
+        }
+
+        @Override
+        public void run() {
+            for (long node = start; node < end; node++) {
+                if (exhausted.get(node) != 0) {
+                    continue;
+                }
+                component = components.get(node);
+                target = NO_NODE;
+                weight = Double.MAX_VALUE;
+                rels.forEachRelationship(node, Direction.OUTGOING, this);
+                if (target == NO_NODE) {
+                    // all neighbours are in the same component, which will not change anymore
+                    exhausted.set(node, 1);
+                    continue;
+                }
+                bestTarget.set(node, target);
+                bestWeight.set(node, weight);
+                offer(node);
+            }
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId) {
+            if (components.get(targetNodeId) == component) {
+                return true;
+            }
+            final double w = graph.weightOf(sourceNodeId, targetNodeId);
+            if (target == NO_NODE || isLighter(w, sourceNodeId, targetNodeId, weight, sourceNodeId, target)) {
+                target = targetNodeId;
+                weight = w;
+            }
+            return true;
+        }
+
+        /**
+         * offer the cheapest relationship of {@code node} to its component
+         */
+        private void offer(long node) {
+            while (true) {
+                final long current = bestNode.get(component);
+                if (current != NO_NODE && !isLighter(
+                        weight,
+                        node,
+                        target,
+                        bestWeight.get(current),
+                        current,
+                        bestTarget.get(current))) {
+                    return;
+                }
+                if (bestNode.cas(component, current, node)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public static final class Aggregator implements ForestRelationshipConsumer {
+
+        private double sum = 0.0;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private long count;
+
+        private Aggregator() {
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId, double weight) {
+            min = Math.min(min, weight);
+            max = Math.max(max, weight);
+            sum += weight;
+            count++;
+            return true;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getMin() {
+            return count == 0L ? 0.0 : min;
+        }
+
+        public double getMax() {
+            return count == 0L ? 0.0 : max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -21,12 +21,15 @@ package org.neo4j.graphalgo.impl;
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.LongArrayList;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeDegrees;
 import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.HugeNodeIterator;
-import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.checkpoint.Checkpoint;
+import org.neo4j.graphalgo.core.utils.metrics.Metrics;
+import org.neo4j.graphalgo.core.utils.metrics.Timer;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.DoubleArrayTranslator;
 import org.neo4j.graphalgo.core.write.Exporter;
@@ -34,11 +37,14 @@ import org.neo4j.graphalgo.core.write.PropertyTranslator;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.logging.Log;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.neo4j.graphalgo.core.utils.ArrayUtil.binaryLookup;
 import static org.neo4j.graphalgo.core.utils.paged.AllocationTracker.humanReadable;
@@ -94,6 +100,11 @@ import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfObjectArray
  * Every partition should have about the same number of relationships to operate on.
  * This is done to avoid having one partition with super nodes and instead have
  * all partitions run in approximately equal time.
+ * <p>
+ * Between two iterations, the state of the computation is fully described by the
+ * page rank scores and the deltas of the last iteration. These can be written to a
+ * {@link Checkpoint} every few iterations, so that a run that was stopped can be
+ * {@link #resumeFrom(Path) resumed} on the same graph, regardless of its partitioning.
  * Smaller partitions are merged down until we have at most {@code concurrency} partitions,
  * in order to batch partitions and keep the number of threads in use predictable/configurable.
  * <p>
@@ -102,6 +113,9 @@ import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfObjectArray
  */
 public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlgorithm {
 
+    private static final Timer ITERATIONS = Metrics.GLOBAL.timer("pagerank.iteration");
+    private static final String CHECKPOINT_NAME = "pageRank";
+
     private final ExecutorService executor;
     private final int concurrency;
     private final int batchSize;
@@ -113,6 +127,9 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
     private final double dampingFactor;
 
     private Log log;
+    private Path checkpointFile;
+    private int checkpointInterval;
+    private Path resumeFile;
     private ComputeSteps computeSteps;
 
     /**
@@ -175,11 +192,46 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         return this;
     }
 
+    /**
+     * compute pageRank for n iterations and write the scores of every partition
+     * as soon as it has been combined in the last iteration, while the
+     * other partitions are still being combined
+     */
+    @Override
+    public Exporter.AsyncWriter compute(int iterations, String propertyName, Exporter exporter) {
+        assert iterations >= 1;
+        initializeSteps();
+        return computeSteps.run(iterations, propertyName, exporter);
+    }
+
     @Override
     public PageRankResult result() {
         return computeSteps.getPageRank();
     }
 
+    /**
+     * write a checkpoint after every {@code interval} iterations and after the last one
+     */
+    @Override
+    public HugePageRank withCheckpoint(Path file, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive but was " + interval);
+        }
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+        return this;
+    }
+
+    /**
+     * continue from the iteration stored in a checkpoint, the given iterations
+     * include the ones that were completed before the checkpoint was written
+     */
+    @Override
+    public HugePageRank resumeFrom(Path file) {
+        this.resumeFile = file;
+        return this;
+    }
+
     @Override
     public Algorithm<?> algorithm() {
         return this;
@@ -368,6 +420,15 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         return max - total + free;
     }
 
+    /**
+     * Estimates the number of bytes a run over {@code nodeCount} nodes allocates,
+     * the shared scores and deltas as well as the messages that every thread keeps for each partition.
+     */
+    public static long estimateMemoryUsage(long nodeCount, int concurrency) {
+        long shared = (nodeCount * Double.BYTES) << 1;
+        return shared + estimateMemoryUsagePerThread(nodeCount, concurrency) * concurrency;
+    }
+
     private static long estimateMemoryUsagePerThread(long nodeCount, int concurrency) {
         int nodesPerThread = (int) Math.ceil((double) nodeCount / (double) concurrency);
         long partitions = sizeOfIntArray(nodesPerThread) * (long) concurrency;
@@ -456,6 +517,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private final ExecutorService pool;
         private int[][][] scores;
         private final int concurrency;
+        private long fingerprint;
 
         private ComputeSteps(
                 AllocationTracker tracker,
@@ -488,19 +550,138 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         }
 
         private void run(int iterations) {
+            run(iterations, null, null);
+        }
+
+        private Exporter.AsyncWriter run(int iterations, String propertyName, Exporter exporter) {
             final int operations = (iterations << 1) + 1;
             int op = 0;
-            ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+            run(steps);
+            final int completed = resumeFile == null ? 0 : restore(resumeFile);
+            op += Math.min(completed, iterations) << 1;
             getProgressLogger().logProgress(++op, operations, tracker);
-            for (int i = 0; i < iterations && running(); i++) {
-                // calculate scores
-                ParallelUtil.runWithConcurrency(concurrency, steps, pool);
-                getProgressLogger().logProgress(++op, operations, tracker);
-                synchronizeScores();
-                // sync scores
-                ParallelUtil.runWithConcurrency(concurrency, steps, pool);
-                getProgressLogger().logProgress(++op, operations, tracker);
+            // the score arrays are allocated by the first step and updated in place
+            final Exporter.AsyncWriter writer = exporter == null
+                    ? null
+                    : exporter.writeAsync(getPageRank().toProperty(propertyName));
+            if (writer != null && completed >= iterations) {
+                writer.submitAll();
+            }
+            for (int i = completed; i < iterations && running(); i++) {
+                try (Timer.Context timer = ITERATIONS.time()) {
+                    // calculate scores
+                    run(steps);
+                    getProgressLogger().logProgress(++op, operations, tracker);
+                    synchronizeScores();
+                    // sync scores
+                    if (writer != null && i == iterations - 1) {
+                        run(exportingSteps(writer));
+                    } else {
+                        run(steps);
+                    }
+                    getProgressLogger().logProgress(++op, operations, tracker);
+                    timer.withUnits(relationships());
+                }
+                // a stopped iteration leaves partially combined scores behind
+                if (checkpointFile != null
+                        && running()
+                        && ((i + 1) % checkpointInterval == 0 || i == iterations - 1)) {
+                    checkpoint(checkpointFile, i + 1);
+                }
+            }
+            return writer;
+        }
+
+        /**
+         * waits for a free thread instead of dropping steps, every step has to complete
+         * for the scores to be consistent between iterations
+         */
+        private void run(Collection<? extends Runnable> tasks) {
+            ParallelUtil.runWithConcurrency(
+                    concurrency,
+                    tasks,
+                    Integer.MAX_VALUE,
+                    10L,
+                    TimeUnit.MICROSECONDS,
+                    getTerminationFlag(),
+                    pool);
+        }
+
+        private void checkpoint(Path file, int iteration) {
+            try (Checkpoint.Writer writer = Checkpoint.write(
+                    file,
+                    CHECKPOINT_NAME,
+                    idMapping.nodeCount(),
+                    fingerprint(),
+                    iteration)) {
+                // steps cover consecutive node ranges, so the file is in node order
+                for (ComputeStep step : steps) {
+                    writer.writeDoubles(step.pageRank);
+                }
+                for (ComputeStep step : steps) {
+                    writer.writeDoubles(step.deltas);
+                }
+            }
+            if (log != null) {
+                log.debug("PageRank: wrote checkpoint after iteration %d to %s", iteration, file);
+            }
+        }
+
+        private int restore(Path file) {
+            try (Checkpoint.Reader reader = Checkpoint.read(
+                    file,
+                    CHECKPOINT_NAME,
+                    idMapping.nodeCount(),
+                    fingerprint())) {
+                for (ComputeStep step : steps) {
+                    reader.readDoubles(step.pageRank);
+                }
+                for (ComputeStep step : steps) {
+                    reader.readDoubles(step.deltas);
+                }
+                reader.verifyEnd();
+                if (log != null) {
+                    log.info("PageRank: resuming after iteration %d from %s", reader.iteration(), file);
+                }
+                return reader.iteration();
+            }
+        }
+
+        /**
+         * identifies the graph and damping factor a checkpoint belongs to
+         */
+        private long fingerprint() {
+            if (fingerprint == 0L) {
+                long hash = Double.doubleToLongBits(dampingFactor);
+                for (long nodeId = 0L, nodeCount = idMapping.nodeCount(); nodeId < nodeCount; ++nodeId) {
+                    hash = 31L * hash + idMapping.toOriginalNodeId(nodeId);
+                    hash = 31L * hash + degrees.degree(nodeId, Direction.OUTGOING);
+                }
+                fingerprint = hash;
             }
+            return fingerprint;
+        }
+
+        /**
+         * the steps, each submitting its partition to the writer once its scores are final
+         */
+        private List<Runnable> exportingSteps(Exporter.AsyncWriter writer) {
+            final List<Runnable> tasks = new ArrayList<>(steps.size());
+            for (ComputeStep step : steps) {
+                tasks.add(() -> {
+                    step.run();
+                    writer.submit(step.startNode, step.endNode);
+                });
+            }
+            return tasks;
+        }
+
+        private long relationships() {
+            long relationships = 0L;
+            for (ComputeStep step : steps) {
+                relationships += step.relationships;
+            }
+            return relationships;
         }
 
         private void synchronizeScores() {
@@ -533,7 +714,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         }
     }
 
-    private static final class ComputeStep implements Runnable, HugeRelationshipConsumer {
+    private static final class ComputeStep implements Runnable {
         private static final int S_INIT = 0;
         private static final int S_CALC = 1;
         private static final int S_SYNC = 2;
@@ -542,7 +723,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
 
         private long[] starts;
         private int[] lengths;
-        private final HugeRelationshipIterator relationshipIterator;
+        private final HugeAdjacencyCursor adjacency;
         private final HugeDegrees degrees;
         private final AllocationTracker tracker;
 
@@ -558,7 +739,8 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private final long endNode;
         private final int partitionSize;
 
-        private int srcRankDelta = 0;
+        // relationships traversed in the last iteration
+        private long relationships;
 
         ComputeStep(
                 double dampingFactor,
@@ -569,7 +751,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 long startNode) {
             this.dampingFactor = dampingFactor;
             this.alpha = 1.0 - dampingFactor;
-            this.relationshipIterator = relationshipIterator.concurrentCopy();
+            this.adjacency = relationshipIterator.adjacencyCursor();
             this.degrees = degrees;
             this.tracker = tracker;
             this.partitionSize = partitionSize;
@@ -616,28 +798,37 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private void singleIteration() {
             long startNode = this.startNode;
             long endNode = this.endNode;
-            HugeRelationshipIterator rels = this.relationshipIterator;
+            HugeAdjacencyCursor adjacency = this.adjacency;
+            long relationships = 0L;
             for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
                 double delta = deltas[(int) (nodeId - startNode)];
                 if (delta > 0) {
                     int degree = degrees.degree(nodeId, Direction.OUTGOING);
                     if (degree > 0) {
-                        srcRankDelta = (int) (100_000 * (delta / degree));
-                        rels.forEachRelationship(nodeId, Direction.OUTGOING, this);
+                        int srcRankDelta = (int) (100_000 * (delta / degree));
+                        if (srcRankDelta != 0) {
+                            adjacency.init(nodeId, Direction.OUTGOING);
+                            distribute(adjacency, srcRankDelta);
+                            relationships += degree;
+                        }
                     }
                 }
             }
-        }
-
-        @Override
-        public boolean accept(
-                long sourceNodeId,
-                long targetNodeId) {
-            if (srcRankDelta != 0) {
-                int idx = binaryLookup(targetNodeId, starts);
-                nextScores[idx][(int) (targetNodeId - starts[idx])] += srcRankDelta;
+            this.relationships = relationships;
+        }
+
+        private void distribute(HugeAdjacencyCursor adjacency, int srcRankDelta) {
+            long[] starts = this.starts;
+            int[][] nextScores = this.nextScores;
+            int length;
+            while ((length = adjacency.next()) > 0) {
+                long[] targets = adjacency.buffer();
+                for (int i = 0; i < length; i++) {
+                    long targetNodeId = targets[i];
+                    int idx = binaryLookup(targetNodeId, starts);
+                    nextScores[idx][(int) (targetNodeId - starts[idx])] += srcRankDelta;
+                }
             }
-            return true;
         }
 
         void prepareNextIteration(int[][] prevScores) {
@@ -683,6 +874,11 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             exporter.write(propertyName, partitions, this);
         }
 
+        @Override
+        public Exporter.NodeProperty<?> toProperty(final String propertyName) {
+            return Exporter.NodeProperty.of(propertyName, partitions, this);
+        }
+
         @Override
         public double toDouble(final double[][] data, final long nodeId) {
             int idx = binaryLookup(nodeId, starts);
@@ -716,6 +912,11 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                     DoubleArrayTranslator.INSTANCE);
         }
 
+        @Override
+        public Exporter.NodeProperty<?> toProperty(final String propertyName) {
+            return Exporter.NodeProperty.of(propertyName, result, DoubleArrayTranslator.INSTANCE);
+        }
+
         @Override
         public final double score(final long nodeId) {
             return result[(int) nodeId];
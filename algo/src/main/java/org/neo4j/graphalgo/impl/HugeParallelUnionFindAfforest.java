@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.cursors.LongIntCursor;
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicDisjointSetStruct;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * parallel UnionFind on a single shared {@link HugeAtomicDisjointSetStruct}.
+ * <p>
+ * Algorithm based on "Afforest: Optimizing the Space-Efficiency of Connected Components" [1].
+ * Instead of building one struct per task and merging them, all tasks link their
+ * relationships concurrently into the same lock-free struct.
+ * <p>
+ * In the first rounds only the first few relationships of every node are linked,
+ * followed by a compression of all paths. This is usually enough to approximate
+ * the largest component, which is then identified by sampling the set ids of random
+ * nodes. In the final round only the nodes that are not part of the largest component
+ * link their remaining relationships, which skips most relationships of the graph.
+ * Skipping nodes requires that every relationship is seen from both of its nodes,
+ * which is why the graph has to be loaded with {@link Direction#BOTH}.
+ * <p>
+ * [1]: <a href="https://arxiv.org/abs/1805.09767">Afforest</a>
+ */
+public class HugeParallelUnionFindAfforest extends GraphUnionFindAlgo<HugeGraph, HugeAtomicDisjointSetStruct, HugeParallelUnionFindAfforest> {
+
+    // number of relationships per node that are linked before the sampling
+    private static final int NEIGHBOUR_ROUNDS = 2;
+    private static final int SAMPLE_SIZE = 1024;
+    private static final long NO_COMPONENT = -1L;
+
+    private final ExecutorService executor;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+    private final long batchSize;
+    private final int concurrency;
+
+    private HugeAtomicDisjointSetStruct dss;
+
+    HugeParallelUnionFindAfforest(
+            HugeGraph graph,
+            ExecutorService executor,
+            int minBatchSize,
+            int concurrency,
+            AllocationTracker tracker) {
+        super(graph);
+        if (!graph.isBoth()) {
+            throw new IllegalArgumentException(
+                    "Afforest requires a graph that has been loaded with direction BOTH");
+        }
+        this.executor = executor;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+        this.concurrency = concurrency;
+        this.batchSize = ParallelUtil.adjustBatchSize(
+                nodeCount,
+                concurrency,
+                minBatchSize,
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public HugeAtomicDisjointSetStruct compute() {
+        return compute(Double.NaN);
+    }
+
+    /**
+     * compute unions if relationship weight exceeds threshold
+     *
+     * @param threshold the minimum threshold, NaN to take all relationships into account
+     * @return a DSS
+     */
+    @Override
+    public HugeAtomicDisjointSetStruct compute(double threshold) {
+        dss = new HugeAtomicDisjointSetStruct(nodeCount, tracker).reset();
+
+        for (int round = 0; round < NEIGHBOUR_ROUNDS && running(); round++) {
+            final int neighbour = round;
+            run((start, length) -> new LinkTask(start, length, threshold, neighbour, neighbour + 1, NO_COMPONENT));
+            run((start, length) -> new CompressTask(start, length));
+            getProgressLogger().logProgress(round + 1, NEIGHBOUR_ROUNDS + 1);
+        }
+
+        // the final round visits all relationships, so the batches are balanced by degree
+        final long largestComponent = sampleLargestComponent();
+        run(ParallelUtil.degreeBatches(
+                nodeCount,
+                graph,
+                Direction.BOTH,
+                concurrency,
+                executor,
+                (start, length) -> new LinkTask(
+                        start,
+                        length,
+                        threshold,
+                        NEIGHBOUR_ROUNDS,
+                        Integer.MAX_VALUE,
+                        largestComponent)));
+        run((start, length) -> new CompressTask(start, length));
+        getProgressLogger().logDone();
+        return dss;
+    }
+
+    @Override
+    public HugeParallelUnionFindAfforest release() {
+        dss = null;
+        return super.release();
+    }
+
+    /**
+     * @return the most frequent set id among a random sample of nodes
+     */
+    private long sampleLargestComponent() {
+        if (nodeCount == 0L) {
+            return NO_COMPONENT;
+        }
+        final Random random = new Random(42L);
+        final LongIntHashMap counts = new LongIntHashMap();
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            final long node = (long) (random.nextDouble() * nodeCount);
+            counts.addTo(dss.find(node), 1);
+        }
+        long largest = NO_COMPONENT;
+        int maxCount = 0;
+        for (LongIntCursor cursor : counts) {
+            if (cursor.value > maxCount) {
+                largest = cursor.key;
+                maxCount = cursor.value;
+            }
+        }
+        return largest;
+    }
+
+    private void run(LazyBatchCollection.BatchSupplier<Runnable> supplier) {
+        run(LazyBatchCollection.of(nodeCount, batchSize, supplier));
+    }
+
+    private void run(Collection<Runnable> tasks) {
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                Integer.MAX_VALUE,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                executor);
+    }
+
+    /**
+     * links the relationships with index {@code [from, to)} of every node
+     * in the batch, skipping nodes of the {@code skipComponent}.
+     */
+    private final class LinkTask implements Runnable {
+        private final long start;
+        private final long end;
+        private final double threshold;
+        private final int from;
+        private final int to;
+        private final long skipComponent;
+        private final boolean unrestricted;
+        private final HugeAdjacencyCursor adjacency;
+        private int index;
+
+        private LinkTask(long start, long length, double threshold, int from, int to, long skipComponent) {
+            this.start = start;
+            this.end = start + length;
+            this.threshold = threshold;
+            this.from = from;
+            this.to = to;
+            this.skipComponent = skipComponent;
+            this.unrestricted = Double.isNaN(threshold);
+            this.adjacency = graph.adjacencyCursor();
+        }
+
+        @Override
+        public void run() {
+            for (long node = start; node < end; node++) {
+                if (skipComponent != NO_COMPONENT && dss.find(node) == skipComponent) {
+                    continue;
+                }
+                index = 0;
+                if (link(node, Direction.OUTGOING)) {
+                    link(node, Direction.INCOMING);
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if more relationships of the node have to be linked
+         */
+        private boolean link(long node, Direction direction) {
+            final HugeAdjacencyCursor adjacency = this.adjacency.init(node, direction);
+            int length;
+            while ((length = adjacency.next()) > 0) {
+                final long[] targets = adjacency.buffer();
+                for (int i = 0; i < length; i++) {
+                    if (index >= to) {
+                        return false;
+                    }
+                    if (index++ >= from && accepts(node, targets[i], direction)) {
+                        dss.union(node, targets[i]);
+                    }
+                }
+            }
+            return index < to;
+        }
+
+        private boolean accepts(long node, long target, Direction direction) {
+            if (unrestricted) {
+                return true;
+            }
+            final double weight = direction == Direction.OUTGOING
+                    ? graph.weightOf(node, target)
+                    : graph.weightOf(target, node);
+            return weight >= threshold;
+        }
+    }
+
+    private final class CompressTask implements Runnable {
+        private final long start;
+        private final long end;
+
+        private CompressTask(long start, long length) {
+            this.start = start;
+            this.end = start + length;
+        }
+
+        @Override
+        public void run() {
+            for (long node = start; node < end; node++) {
+                dss.compress(node);
+            }
+        }
+    }
+}
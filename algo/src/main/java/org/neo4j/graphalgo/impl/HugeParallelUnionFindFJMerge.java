@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.impl;
 
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
@@ -127,26 +128,27 @@ public class HugeParallelUnionFindFJMerge extends GraphUnionFindAlgo<HugeGraph,
         private final long offset;
         private final long end;
         private final HugeDisjointSetStruct struct;
-        private final HugeRelationshipIterator rels;
+        private final HugeAdjacencyCursor adjacency;
 
         UFProcess(long offset, long length) {
             this.offset = offset;
             this.end = offset + length;
             struct = new HugeDisjointSetStruct(nodeCount, tracker).reset();
-            rels = graph.concurrentCopy();
+            adjacency = graph.adjacencyCursor();
         }
 
         @Override
         public void run() {
             for (long node = offset; node < end && node < nodeCount && running(); node++) {
                 try {
-                    rels.forEachRelationship(
-                            node,
-                            Direction.OUTGOING,
-                            (sourceNodeId, targetNodeId) -> {
-                                struct.union(sourceNodeId, targetNodeId);
-                                return true;
-                            });
+                    adjacency.init(node, Direction.OUTGOING);
+                    int length;
+                    while ((length = adjacency.next()) > 0) {
+                        final long[] targets = adjacency.buffer();
+                        for (int i = 0; i < length; i++) {
+                            struct.union(node, targets[i]);
+                        }
+                    }
                 } catch (Exception e) {
                     System.out.println("exception for nodeid:" + node);
                     e.printStackTrace();
@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.impl;
 
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
@@ -84,12 +85,12 @@ public class HugeParallelUnionFindForkJoin extends GraphUnionFindAlgo<HugeGraph,
 
         private final long offset;
         private final long end;
-        private final HugeRelationshipIterator rels;
+        private final HugeAdjacencyCursor adjacency;
 
         UnionFindTask(long offset) {
             this.offset = offset;
             this.end = Math.min(offset + batchSize, nodeCount);
-            this.rels = graph.concurrentCopy();
+            this.adjacency = graph.adjacencyCursor();
         }
 
         @Override
@@ -107,13 +108,14 @@ public class HugeParallelUnionFindForkJoin extends GraphUnionFindAlgo<HugeGraph,
                     nodeCount,
                     tracker).reset();
             for (long node = offset; node < end && running(); node++) {
-                rels.forEachRelationship(
-                        node,
-                        Direction.OUTGOING,
-                        (sourceNodeId, targetNodeId) -> {
-                            struct.union(sourceNodeId, targetNodeId);
-                            return true;
-                        });
+                adjacency.init(node, Direction.OUTGOING);
+                int length;
+                while ((length = adjacency.next()) > 0) {
+                    final long[] targets = adjacency.buffer();
+                    for (int i = 0; i < length; i++) {
+                        struct.union(node, targets[i]);
+                    }
+                }
             }
             getProgressLogger().logProgress(end - 1, nodeCount - 1);
 
@@ -18,8 +18,8 @@
  */
 package org.neo4j.graphalgo.impl;
 
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeGraph;
-import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeDisjointSetStruct;
@@ -130,13 +130,13 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Hu
 
     private class HugeUnionFindTask implements Runnable {
 
-        private final HugeRelationshipIterator rels;
+        private final HugeAdjacencyCursor adjacency;
         private final BlockingQueue<HugeDisjointSetStruct> queue;
         private final long offset;
         private final long end;
 
         HugeUnionFindTask(BlockingQueue<HugeDisjointSetStruct> queue, long offset) {
-            this.rels = graph.concurrentCopy();
+            this.adjacency = graph.adjacencyCursor();
             this.queue = queue;
             this.offset = offset;
             this.end = Math.min(offset + batchSize, nodeCount);
@@ -147,14 +147,16 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Hu
             final HugeDisjointSetStruct struct = new HugeDisjointSetStruct(
                     nodeCount,
                     tracker).reset();
+            final HugeAdjacencyCursor adjacency = this.adjacency;
             for (long node = offset; node < end; node++) {
-                rels.forEachRelationship(
-                        node,
-                        Direction.OUTGOING,
-                        (sourceNodeId, targetNodeId) -> {
-                            struct.union(sourceNodeId, targetNodeId);
-                            return true;
-                        });
+                adjacency.init(node, Direction.OUTGOING);
+                int length;
+                while ((length = adjacency.next()) > 0) {
+                    final long[] targets = adjacency.buffer();
+                    for (int i = 0; i < length; i++) {
+                        struct.union(node, targets[i]);
+                    }
+                }
             }
             getProgressLogger().logProgress((end - 1.0) / (nodeCount - 1.0));
             try {
@@ -0,0 +1,480 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicLongArray;
+import org.neo4j.graphalgo.core.utils.paged.IntArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Triangle counting for {@link HugeGraph}s based on degree ordering and
+ * sorted set intersection.
+ * <p>
+ * Every undirected relationship is oriented from the lower to the higher
+ * ranked node, where nodes are ranked by {@code (degree, id)}. The forward
+ * adjacency lists are stored in a CSR-like paged structure, are sorted by
+ * node id and contain each neighbour only once. Every triangle is then found
+ * exactly once, from its lowest ranked node {@code u}, by intersecting
+ * {@code fwd(u)} with {@code fwd(v)} for every {@code v} in {@code fwd(u)}.
+ * The orientation bounds every forward list by {@code O(sqrt(m))} which keeps
+ * hub nodes from dominating the runtime.
+ * <p>
+ * Intersections are done with a linear merge or, if one list is much longer
+ * than the other, with a galloping search over the longer list.
+ * Triangle counts are kept as longs: the global count per thread and the
+ * per node counts in a {@link HugeAtomicLongArray}. A thread sums the triangles
+ * of {@code u} and of each node in {@code fwd(u)} locally and adds them to the
+ * shared array once per node after all intersections of {@code u}, so a hub
+ * is updated at most once per node that links to it instead of once per triangle.
+ * <p>
+ * The graph must be loaded undirected ({@code asUndirected(true)}) and
+ * sorted ({@code withSort(true)}) and is traversed using {@link Direction#OUTGOING}.
+ */
+public final class HugeTriangleCount extends Algorithm<HugeTriangleCount> {
+
+    // use a galloping search when one list is at least that many times larger than the other
+    private static final int GALLOP_RATIO = 16;
+    // number of nodes a counting task claims at once
+    private static final int COUNT_BATCH_SIZE = 64;
+    private static final int MIN_BATCH_SIZE = 10_000;
+
+    private HugeGraph graph;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+    private final AtomicLong visitedNodes;
+
+    private IntArray degrees;
+    private LongArray offsets;
+    private LongArray targets;
+    private HugeAtomicLongArray triangles;
+    private DoubleArray coefficients;
+    private long triangleCount;
+    private double averageClusteringCoefficient;
+
+    public HugeTriangleCount(
+            HugeGraph graph,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+        this.visitedNodes = new AtomicLong();
+    }
+
+    public HugeTriangleCount compute() {
+        visitedNodes.set(0L);
+        triangles = HugeAtomicLongArray.newArray(nodeCount, tracker);
+        orient();
+        count();
+        releaseForwardGraph();
+        computeCoefficients();
+        return this;
+    }
+
+    public Stream<TriangleCountBase.Result> resultStream() {
+        return LongStream.range(0L, nodeCount)
+                .mapToObj(i -> new TriangleCountBase.Result(
+                        graph.toOriginalNodeId(i),
+                        triangles.get(i),
+                        coefficients.get(i)));
+    }
+
+    public long getTriangleCount() {
+        return triangleCount;
+    }
+
+    public HugeAtomicLongArray getTriangles() {
+        return triangles;
+    }
+
+    public DoubleArray getClusteringCoefficients() {
+        return coefficients;
+    }
+
+    public double getAverageClusteringCoefficient() {
+        return averageClusteringCoefficient;
+    }
+
+    @Override
+    public HugeTriangleCount me() {
+        return this;
+    }
+
+    @Override
+    public HugeTriangleCount release() {
+        releaseForwardGraph();
+        if (triangles != null) {
+            tracker.remove(triangles.release());
+            triangles = null;
+        }
+        if (coefficients != null) {
+            tracker.remove(coefficients.release());
+            coefficients = null;
+        }
+        graph = null;
+        return this;
+    }
+
+    /**
+     * builds the degree ordered forward adjacency in three passes:
+     * count forward degrees, prefix sum into offsets, fill targets.
+     */
+    private void orient() {
+        degrees = IntArray.newArray(nodeCount, tracker);
+        run(batches((start, length) -> () -> {
+            for (long node = start, end = start + length; node < end; node++) {
+                degrees.set(node, graph.degree(node, Direction.OUTGOING));
+            }
+        }));
+
+        offsets = LongArray.newArray(nodeCount + 1L, tracker);
+        run(degreeBatches((start, length) -> new ForwardDegreeTask(start, length)));
+
+        long sum = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            final long degree = offsets.get(node);
+            offsets.set(node, sum);
+            sum += degree;
+        }
+        offsets.set(nodeCount, sum);
+
+        targets = LongArray.newArray(sum, tracker);
+        run(degreeBatches((start, length) -> new ForwardFillTask(start, length)));
+    }
+
+    private void count() {
+        final AtomicLong nextNode = new AtomicLong();
+        final CountTask[] tasks = new CountTask[Math.max(1, concurrency)];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new CountTask(nextNode);
+        }
+        run(Arrays.asList(tasks));
+        long total = 0L;
+        for (CountTask task : tasks) {
+            total += task.total;
+        }
+        triangleCount = total;
+    }
+
+    private void computeCoefficients() {
+        coefficients = DoubleArray.newArray(nodeCount, tracker);
+        final DoubleAdder sum = new DoubleAdder();
+        run(batches((start, length) -> () -> {
+            double localSum = 0.0;
+            for (long node = start, end = start + length; node < end; node++) {
+                final double coefficient = coefficient(
+                        triangles.get(node),
+                        graph.degree(node, Direction.OUTGOING));
+                coefficients.set(node, coefficient);
+                localSum += coefficient;
+            }
+            sum.add(localSum);
+        }));
+        averageClusteringCoefficient = nodeCount == 0L ? 0.0 : sum.sum() / nodeCount;
+    }
+
+    private static double coefficient(long triangles, long degree) {
+        if (triangles == 0L) {
+            return 0.0;
+        }
+        return (2.0 * triangles) / (degree * (degree - 1L));
+    }
+
+    private void releaseForwardGraph() {
+        if (degrees != null) {
+            tracker.remove(degrees.release());
+            degrees = null;
+        }
+        if (offsets != null) {
+            tracker.remove(offsets.release());
+            offsets = null;
+        }
+        if (targets != null) {
+            tracker.remove(targets.release());
+            targets = null;
+        }
+    }
+
+    private Collection<Runnable> batches(LazyBatchCollection.BatchSupplier<Runnable> supplier) {
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        return LazyBatchCollection.of(nodeCount, batchSize, supplier);
+    }
+
+    private Collection<Runnable> degreeBatches(LazyBatchCollection.BatchSupplier<Runnable> supplier) {
+        return ParallelUtil.degreeBatches(
+                nodeCount,
+                graph,
+                Direction.OUTGOING,
+                concurrency,
+                executor,
+                supplier);
+    }
+
+    private void run(Collection<? extends Runnable> tasks) {
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                Integer.MAX_VALUE,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                executor);
+    }
+
+    /**
+     * @return true if the relationship {@code (source, target)} points
+     * from the lower to the higher ranked node.
+     */
+    private boolean isForward(long source, int sourceDegree, long target) {
+        final int targetDegree = degrees.get(target);
+        return sourceDegree < targetDegree || (sourceDegree == targetDegree && source < target);
+    }
+
+    /**
+     * visits the forward neighbours of a range of nodes, skipping
+     * self loops and duplicate relationships
+     */
+    private abstract class ForwardTask implements Runnable, HugeRelationshipConsumer {
+        private final long start;
+        private final long end;
+        private final HugeRelationshipIterator rels;
+        private int degree;
+        private long previous;
+
+        ForwardTask(long start, long length) {
+            this.start = start;
+            this.end = start + length;
+            this.rels = graph.concurrentCopy();
+        }
+
+        @Override
+        public final void run() {
+            for (long node = start; node < end; node++) {
+                degree = degrees.get(node);
+                previous = -1L;
+                beginNode(node);
+                rels.forEachRelationship(node, Direction.OUTGOING, this);
+            }
+        }
+
+        @Override
+        public final boolean accept(long sourceNodeId, long targetNodeId) {
+            if (targetNodeId != previous
+                    && targetNodeId != sourceNodeId
+                    && isForward(sourceNodeId, degree, targetNodeId)) {
+                forward(sourceNodeId, targetNodeId);
+            }
+            previous = targetNodeId;
+            return true;
+        }
+
+        abstract void beginNode(long node);
+
+        abstract void forward(long source, long target);
+    }
+
+    private final class ForwardDegreeTask extends ForwardTask {
+        ForwardDegreeTask(long start, long length) {
+            super(start, length);
+        }
+
+        @Override
+        void beginNode(long node) {
+        }
+
+        @Override
+        void forward(long source, long target) {
+            offsets.addTo(source, 1L);
+        }
+    }
+
+    private final class ForwardFillTask extends ForwardTask {
+        private long index;
+
+        ForwardFillTask(long start, long length) {
+            super(start, length);
+        }
+
+        @Override
+        void beginNode(long node) {
+            index = offsets.get(node);
+        }
+
+        @Override
+        void forward(long source, long target) {
+            targets.set(index++, target);
+        }
+    }
+
+    private final class CountTask implements Runnable {
+        private final AtomicLong nextNode;
+        private long[] forwardU;
+        private long[] forwardV;
+        // triangles found per forward neighbour of u, aligned with forwardU
+        private long[] countsU;
+        private long total;
+
+        private CountTask(AtomicLong nextNode) {
+            this.nextNode = nextNode;
+            this.forwardU = new long[0];
+            this.forwardV = new long[0];
+            this.countsU = new long[0];
+        }
+
+        @Override
+        public void run() {
+            long start;
+            while ((start = nextNode.getAndAdd(COUNT_BATCH_SIZE)) < nodeCount && running()) {
+                final long end = Math.min(start + COUNT_BATCH_SIZE, nodeCount);
+                for (long node = start; node < end; node++) {
+                    countNode(node);
+                }
+                getProgressLogger().logProgress(visitedNodes.addAndGet(end - start), nodeCount);
+            }
+        }
+
+        /**
+         * Every triangle {@code (u, v, w)} found from {@code u} has both {@code v} and {@code w}
+         * in {@code fwd(u)}, so their counts are accumulated locally per forward neighbour and
+         * published with a single update per node once all intersections of {@code u} are done.
+         */
+        private void countNode(long u) {
+            final int lengthU = loadForward(u, true);
+            if (lengthU < 2) {
+                return;
+            }
+            Arrays.fill(countsU, 0, lengthU, 0L);
+            long trianglesOfU = 0L;
+            for (int i = 0; i < lengthU; i++) {
+                final int lengthV = loadForward(forwardU[i], false);
+                final long found = intersect(lengthU, lengthV);
+                countsU[i] += found;
+                trianglesOfU += found;
+            }
+            if (trianglesOfU > 0L) {
+                for (int i = 0; i < lengthU; i++) {
+                    if (countsU[i] > 0L) {
+                        triangles.add(forwardU[i], countsU[i]);
+                    }
+                }
+                triangles.add(u, trianglesOfU);
+                total += trianglesOfU;
+            }
+        }
+
+        private int loadForward(long node, boolean intoU) {
+            final long offset = offsets.get(node);
+            final int length = (int) (offsets.get(node + 1L) - offset);
+            long[] buffer = intoU ? forwardU : forwardV;
+            if (buffer.length < length) {
+                buffer = new long[length];
+                if (intoU) {
+                    forwardU = buffer;
+                    countsU = new long[length];
+                } else {
+                    forwardV = buffer;
+                }
+            }
+            for (int i = 0; i < length; i++) {
+                buffer[i] = targets.get(offset + i);
+            }
+            return length;
+        }
+
+        private long intersect(int lengthU, int lengthV) {
+            if (lengthV == 0) {
+                return 0L;
+            }
+            if (lengthU <= lengthV) {
+                return lengthV / lengthU >= GALLOP_RATIO
+                        ? gallop(forwardU, lengthU, forwardV, lengthV, true)
+                        : merge(lengthU, lengthV);
+            }
+            return lengthU / lengthV >= GALLOP_RATIO
+                    ? gallop(forwardV, lengthV, forwardU, lengthU, false)
+                    : merge(lengthU, lengthV);
+        }
+
+        private long merge(int lengthU, int lengthV) {
+            final long[] a = forwardU, b = forwardV;
+            long found = 0L;
+            int i = 0, j = 0;
+            while (i < lengthU && j < lengthV) {
+                final long x = a[i], y = b[j];
+                if (x < y) {
+                    ++i;
+                } else if (x > y) {
+                    ++j;
+                } else {
+                    ++countsU[i];
+                    ++found;
+                    ++i;
+                    ++j;
+                }
+            }
+            return found;
+        }
+
+        private long gallop(long[] small, int lengthSmall, long[] large, int lengthLarge, boolean smallIsU) {
+            long found = 0L;
+            int low = 0;
+            for (int i = 0; i < lengthSmall && low < lengthLarge; i++) {
+                final long x = small[i];
+                int high = low;
+                int step = 1;
+                while (high < lengthLarge && large[high] < x) {
+                    low = high + 1;
+                    high += step;
+                    step <<= 1;
+                }
+                final int index = Arrays.binarySearch(large, low, Math.min(high + 1, lengthLarge), x);
+                if (index >= 0) {
+                    ++countsU[smallIsU ? i : index];
+                    ++found;
+                    low = index + 1;
+                } else {
+                    low = -index - 1;
+                }
+            }
+            return found;
+        }
+    }
+}
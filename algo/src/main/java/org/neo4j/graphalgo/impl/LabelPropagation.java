@@ -37,6 +37,8 @@ import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
+
 public final class LabelPropagation extends Algorithm<LabelPropagation> {
 
     private static final int[] EMPTY_INTS = new int[0];
@@ -51,6 +53,13 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
     private long ranIterations;
     private boolean didConverge;
 
+    /**
+     * @return the number of bytes the label of every node occupies
+     */
+    public static long estimateMemoryUsage(int nodeCount) {
+        return sizeOfIntArray(nodeCount);
+    }
+
     public LabelPropagation(
             HeavyGraph graph,
             int batchSize,
@@ -18,9 +18,23 @@
  */
 package org.neo4j.graphalgo.impl;
 
+import org.neo4j.helpers.NamedThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Stream;
 
 public abstract class MSBFSASPAlgorithm<ME extends MSBFSASPAlgorithm<ME>> extends Algorithm<ME> {
 
+    private static final ThreadFactory PRODUCERS = NamedThreadFactory.daemon("algo-asp");
+
     public abstract Stream<AllShortestPaths.Result> resultStream();
+
+    /**
+     * starts the task that fills the bounded result queue on a thread of its own.
+     * The caller is the only consumer of that queue, so it must never run or wait
+     * for the producer, as a saturated pool would make it do on submit.
+     */
+    protected static void startProducer(Runnable producer) {
+        PRODUCERS.newThread(producer).start();
+    }
 }
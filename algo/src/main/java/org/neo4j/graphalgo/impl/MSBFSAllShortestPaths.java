@@ -18,20 +18,15 @@
  */
 package org.neo4j.graphalgo.impl;
 
-import com.carrotsearch.hppc.AbstractIterator;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.queue.BatchedTupleQueue;
 import org.neo4j.graphalgo.impl.AllShortestPaths.Result;
 import org.neo4j.graphalgo.impl.msbfs.MultiSourceBFS;
 import org.neo4j.graphdb.Direction;
 
-import java.util.Iterator;
-import java.util.Spliterators;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * AllShortestPaths:
@@ -39,13 +34,16 @@ import java.util.stream.StreamSupport;
  * multi-source parallel shortest path between each pair of nodes.
  * <p>
  * Due to the high memory footprint the result set would have we emit each result into
- * a blocking queue. The result stream takes elements from the queue while the workers
- * add elements to it.
+ * a bounded {@link BatchedTupleQueue}. Every BFS thread writes chunks of primitive
+ * (source, target, distance) tuples and blocks if the consumer falls behind.
+ * The result stream takes chunks from the queue while the workers add chunks to it.
+ * The BFS is started from a dedicated thread, so that the consuming caller never
+ * blocks on a saturated pool. If the stream gets closed prematurely no further BFS instances are started.
  */
 public class MSBFSAllShortestPaths extends MSBFSASPAlgorithm<MSBFSAllShortestPaths> {
 
     private Graph graph;
-    private BlockingQueue<Result> resultQueue;
+    private BatchedTupleQueue resultQueue;
     private final int concurrency;
     private final ExecutorService executorService;
     private final int nodeCount;
@@ -55,7 +53,6 @@ public class MSBFSAllShortestPaths extends MSBFSASPAlgorithm<MSBFSAllShortestPat
         nodeCount = Math.toIntExact(graph.nodeCount());
         this.concurrency = concurrency;
         this.executorService = executorService;
-        this.resultQueue = new LinkedBlockingQueue<>(); // TODO limit size?
     }
 
     /**
@@ -66,24 +63,9 @@ public class MSBFSAllShortestPaths extends MSBFSASPAlgorithm<MSBFSAllShortestPat
      */
     @Override
     public Stream<Result> resultStream() {
-        executorService.submit(new ShortestPathTask(concurrency, executorService));
-        Iterator<Result> iterator = new AbstractIterator<Result>() {
-            @Override
-            protected Result fetch() {
-                try {
-                    Result result = resultQueue.take();
-                    if (result.sourceNodeId == -1) {
-                        return done();
-                    }
-                    return result;
-                } catch (InterruptedException e1) {
-                    throw new RuntimeException(e1);
-                }
-            }
-        };
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
-                iterator,
-                0), false);
+        resultQueue = new BatchedTupleQueue(3, getTerminationFlag());
+        startProducer(new ShortestPathTask(resultQueue, concurrency, executorService));
+        return resultQueue.stream(Result::fromTuple);
     }
 
     @Override
@@ -94,23 +76,28 @@ public class MSBFSAllShortestPaths extends MSBFSASPAlgorithm<MSBFSAllShortestPat
     @Override
     public MSBFSAllShortestPaths release() {
         graph = null;
-        resultQueue = null;
+        if (resultQueue != null) {
+            resultQueue.close();
+            resultQueue = null;
+        }
         return this;
     }
 
     /**
-     * Dijkstra Task. Takes one element of the counter at a time
-     * and starts dijkstra on it. It starts emitting results to the
-     * queue once all reachable nodes have been visited.
+     * Runs the MS-BFS and signals the end of the result stream
+     * once all sources have been traversed.
      */
     private class ShortestPathTask implements Runnable {
 
+        private final BatchedTupleQueue resultQueue;
         private final int concurrency;
         private final ExecutorService executorService;
 
         private ShortestPathTask(
+                BatchedTupleQueue resultQueue,
                 int concurrency,
                 ExecutorService executorService) {
+            this.resultQueue = resultQueue;
             this.concurrency = concurrency;
             this.executorService = executorService;
         }
@@ -119,30 +106,29 @@ public class MSBFSAllShortestPaths extends MSBFSASPAlgorithm<MSBFSAllShortestPat
         public void run() {
 
             final ProgressLogger progressLogger = getProgressLogger();
-
-            new MultiSourceBFS(
-                    graph,
-                    graph,
-                    Direction.OUTGOING,
-                    (target, distance, sources) -> {
-                        while (sources.hasNext()) {
-                            int source = sources.next();
-                            final Result result = new Result(
-                                    graph.toOriginalNodeId(source),
-                                    graph.toOriginalNodeId(target),
-                                    distance);
-
-                            try {
-                                resultQueue.put(result);
-                            } catch (InterruptedException e) {
-                                throw new RuntimeException(e);
+            Throwable error = null;
+            try {
+                new MultiSourceBFS(
+                        graph,
+                        graph,
+                        Direction.OUTGOING,
+                        (target, distance, sources) -> {
+                            final BatchedTupleQueue.Writer writer = resultQueue.threadLocalWriter();
+                            final long targetId = graph.toOriginalNodeId(target);
+                            while (sources.hasNext()) {
+                                int source = sources.next();
+                                if (!writer.addWeighted(graph.toOriginalNodeId(source), targetId, distance)) {
+                                    return;
+                                }
                             }
+                            progressLogger.logProgress((double) target / (nodeCount - 1));
                         }
-                        progressLogger.logProgress((double) target / (nodeCount - 1));
-                    }
-            ).run(concurrency, executorService);
-
-            resultQueue.add(new Result(-1, -1, -1));
+                ).run(concurrency, resultQueue::isOpen, executorService);
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                resultQueue.finish(error);
+            }
         }
     }
 
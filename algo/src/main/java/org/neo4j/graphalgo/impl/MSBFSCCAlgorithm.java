@@ -40,7 +40,7 @@ public abstract class MSBFSCCAlgorithm<ME extends MSBFSCCAlgorithm<ME>> extends
                 .toArray();
     }
 
-    static double centrality(int f, double k) {
+    public static double centrality(int f, double k) {
         return f > 0 ? k / (double) f : 0D;
     }
 }
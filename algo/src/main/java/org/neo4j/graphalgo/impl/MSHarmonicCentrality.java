@@ -32,6 +32,9 @@ import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfLongArray;
+
 /**
  * Harmonic Centrality Algorithm
  *
@@ -45,6 +48,14 @@ public class MSHarmonicCentrality extends Algorithm<MSHarmonicCentrality> {
     private ExecutorService executorService;
     private final int nodeCount;
 
+    /**
+     * @return the number of bytes the inverse farness and the BFS state of {@code concurrency} threads occupy
+     */
+    public static long estimateMemoryUsage(int nodeCount, int concurrency) {
+        long perThread = sizeOfIntArray(nodeCount) + sizeOfLongArray(nodeCount);
+        return sizeOfLongArray(nodeCount) + perThread * concurrency;
+    }
+
     public MSHarmonicCentrality(Graph graph, int concurrency, ExecutorService executorService) {
         this.graph = graph;
         nodeCount = Math.toIntExact(graph.nodeCount());
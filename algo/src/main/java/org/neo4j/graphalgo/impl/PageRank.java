@@ -26,6 +26,8 @@ import org.neo4j.graphalgo.api.NodeIterator;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.metrics.Metrics;
+import org.neo4j.graphalgo.core.utils.metrics.Timer;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.write.DoubleArrayTranslator;
 import org.neo4j.graphalgo.core.write.Exporter;
@@ -95,6 +97,8 @@ import static org.neo4j.graphalgo.core.utils.ArrayUtil.binaryLookup;
  */
 public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
 
+    private static final Timer ITERATIONS = Metrics.GLOBAL.timer("pagerank.iteration");
+
     private final ComputeSteps computeSteps;
 
     /**
@@ -345,12 +349,23 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             // initialize data structures
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
             for (int i = 0; i < iterations && running(); i++) {
-                // calculate scores
-                ParallelUtil.runWithConcurrency(concurrency, steps, pool);
-                synchronizeScores();
-                // sync scores
-                ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                try (Timer.Context timer = ITERATIONS.time()) {
+                    // calculate scores
+                    ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                    synchronizeScores();
+                    // sync scores
+                    ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                    timer.withUnits(relationships());
+                }
+            }
+        }
+
+        private long relationships() {
+            long relationships = 0L;
+            for (ComputeStep step : steps) {
+                relationships += step.relationships;
             }
+            return relationships;
         }
 
         private void synchronizeScores() {
@@ -405,6 +420,8 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         private final int endNode;
 
         private int srcRankDelta = 0;
+        // relationships traversed in the last iteration
+        private long relationships;
 
         ComputeStep(
                 double dampingFactor,
@@ -456,6 +473,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             int startNode = this.startNode;
             int endNode = this.endNode;
             RelationshipIterator rels = this.relationshipIterator;
+            long relationships = 0L;
             for (int nodeId = startNode; nodeId < endNode; ++nodeId) {
                 double delta = deltas[nodeId - startNode];
                 if (delta > 0) {
@@ -463,9 +481,11 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
                     if (degree > 0) {
                         srcRankDelta = (int) (100_000 * (delta / degree));
                         rels.forEachRelationship(nodeId, Direction.OUTGOING, this);
+                        relationships += degree;
                     }
                 }
             }
+            this.relationships = relationships;
         }
 
         @Override
@@ -21,15 +21,45 @@ package org.neo4j.graphalgo.impl;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.write.Exporter;
 
+import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 
 public interface PageRankAlgorithm {
 
     PageRankAlgorithm compute(int iterations);
 
+    /**
+     * compute pageRank for n iterations and write the scores as {@code propertyName}.
+     * Implementations may write the scores of a node range while the remaining
+     * nodes are still being computed. The returned writer must be closed
+     * to wait for all writes to finish.
+     */
+    default Exporter.AsyncWriter compute(int iterations, String propertyName, Exporter exporter) {
+        compute(iterations);
+        final Exporter.AsyncWriter writer = exporter.writeAsync(result().toProperty(propertyName));
+        writer.submitAll();
+        return writer;
+    }
+
     PageRankResult result();
 
+    /**
+     * write the intermediate scores to {@code file} every {@code interval} iterations,
+     * so that the computation can be {@link #resumeFrom(Path) resumed} later on.
+     */
+    default PageRankAlgorithm withCheckpoint(Path file, int interval) {
+        throw new IllegalArgumentException("Checkpoints are only supported for PageRank on the huge graph");
+    }
+
+    /**
+     * continue the computation from a checkpoint written on the same graph.
+     */
+    default PageRankAlgorithm resumeFrom(Path file) {
+        throw new IllegalArgumentException("Checkpoints are only supported for PageRank on the huge graph");
+    }
+
     Algorithm<?> algorithm();
 
     static PageRankAlgorithm of(
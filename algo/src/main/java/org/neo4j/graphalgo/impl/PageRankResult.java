@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
 
 public interface PageRankResult {
 
@@ -27,4 +28,14 @@ public interface PageRankResult {
     double score(long nodeId);
 
     void export(String propertyName, Exporter exporter);
+
+    /**
+     * the scores as a property for {@link Exporter#writeAsync(Exporter.NodeProperty[])}
+     */
+    default Exporter.NodeProperty<?> toProperty(String propertyName) {
+        return Exporter.NodeProperty.of(
+                propertyName,
+                this,
+                (PropertyTranslator.OfDouble<PageRankResult>) PageRankResult::score);
+    }
 }
@@ -22,7 +22,7 @@ import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphdb.Direction;
 
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -37,7 +37,7 @@ public abstract class TriangleCountBase<Coeff, Self extends TriangleCountBase<Co
     public static final Direction D = Direction.BOTH;
 
     private final AtomicInteger visitedNodes;
-    private AtomicIntegerArray triangles;
+    private AtomicLongArray triangles;
 
     Graph graph;
     final int nodeCount;
@@ -45,7 +45,7 @@ public abstract class TriangleCountBase<Coeff, Self extends TriangleCountBase<Co
     TriangleCountBase(Graph graph) {
         this.graph = graph;
         nodeCount = Math.toIntExact(graph.nodeCount());
-        triangles = new AtomicIntegerArray(nodeCount);
+        triangles = new AtomicLongArray(nodeCount);
         visitedNodes = new AtomicInteger();
     }
 
@@ -59,7 +59,7 @@ public abstract class TriangleCountBase<Coeff, Self extends TriangleCountBase<Co
 
     public abstract long getTriangleCount();
 
-    public final AtomicIntegerArray getTriangles() {
+    public final AtomicLongArray getTriangles() {
         return triangles;
     }
 
@@ -107,11 +107,11 @@ public abstract class TriangleCountBase<Coeff, Self extends TriangleCountBase<Co
         return calculateCoefficient(triangles.get(nodeId), graph.degree(nodeId, direction));
     }
 
-    private double calculateCoefficient(int triangles, int degree) {
-        if (triangles == 0) {
+    private double calculateCoefficient(long triangles, long degree) {
+        if (triangles == 0L) {
             return 0.0;
         }
-        return ((double) (triangles << 1)) / (degree * (degree - 1));
+        return (2.0 * triangles) / (degree * (degree - 1L));
     }
 
     public static class Result {
@@ -26,21 +26,21 @@ import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.api.HugeRelationshipIntersect;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
-import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.queue.BatchedTupleQueue;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.Objects;
-import java.util.Spliterators;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * TriangleCount counts the number of triangles in the Graph as well
  * as the number of triangles that passes through a node
+ * <p>
+ * Every task writes the triangles it finds as primitive triples into its own
+ * buffer of a bounded {@link BatchedTupleQueue}. The consumer blocks until
+ * a chunk of triangles is available, the last finishing task ends the stream.
  *
  * @author mknblch
  */
@@ -54,14 +54,13 @@ public class TriangleStream extends Algorithm<TriangleStream> {
     private final int nodeCount;
     private AtomicInteger visitedNodes;
     private AtomicInteger runningThreads;
-    private BlockingQueue<Result> resultQueue;
+    private BatchedTupleQueue resultQueue;
 
     public TriangleStream(Graph graph, ExecutorService executorService, int concurrency) {
         this.graph = graph;
         this.executorService = executorService;
         this.concurrency = concurrency;
         nodeCount = Math.toIntExact(graph.nodeCount());
-        this.resultQueue = new ArrayBlockingQueue<>(concurrency << 10);
         runningThreads = new AtomicInteger();
         visitedNodes = new AtomicInteger();
         queue = new AtomicInteger();
@@ -76,35 +75,19 @@ public class TriangleStream extends Algorithm<TriangleStream> {
     public TriangleStream release() {
         visitedNodes = null;
         runningThreads = null;
-        resultQueue = null;
+        if (resultQueue != null) {
+            resultQueue.close();
+            resultQueue = null;
+        }
         graph = null;
         executorService = null;
         return this;
     }
 
     public Stream<Result> resultStream() {
+        resultQueue = new BatchedTupleQueue(3, getTerminationFlag());
         submitTasks();
-        final TerminationFlag flag = getTerminationFlag();
-        final Iterator<Result> it = new Iterator<Result>() {
-
-            @Override
-            public boolean hasNext() {
-                return flag.running() && (runningThreads.get() > 0 || !resultQueue.isEmpty());
-            }
-
-            @Override
-            public Result next() {
-                Result result = null;
-                while (hasNext() && result == null) {
-                    result = resultQueue.poll();
-                }
-                return result;
-            }
-        };
-
-        return StreamSupport
-                .stream(Spliterators.spliteratorUnknownSize(it, 0), false)
-                .filter(Objects::nonNull);
+        return resultQueue.stream(Result::fromTuple);
     }
 
     private void submitTasks() {
@@ -122,32 +105,52 @@ public class TriangleStream extends Algorithm<TriangleStream> {
 
     private abstract class BaseTask implements Runnable {
 
+        private final BatchedTupleQueue resultQueue;
+        private final BatchedTupleQueue.Writer writer;
+        private boolean open = true;
+
         BaseTask() {
+            resultQueue = TriangleStream.this.resultQueue;
+            writer = resultQueue.newWriter();
             runningThreads.incrementAndGet();
         }
 
         @Override
         public final void run() {
+            Throwable error = null;
             try {
                 ProgressLogger progressLogger = getProgressLogger();
                 int node;
-                while ((node = queue.getAndIncrement()) < nodeCount && running()) {
+                while (open && (node = queue.getAndIncrement()) < nodeCount) {
                     evaluateNode(node);
+                    open &= resultQueue.isOpen();
                     progressLogger.logProgress(visitedNodes.incrementAndGet(), nodeCount);
                 }
+                writer.flush();
+            } catch (Throwable t) {
+                error = t;
             } finally {
-                runningThreads.decrementAndGet();
+                // the last task signals the end of the stream
+                if (runningThreads.decrementAndGet() == 0 || error != null) {
+                    resultQueue.finish(error);
+                }
             }
         }
 
         abstract void evaluateNode(int nodeId);
 
-        void emit(int nodeA, int nodeB, int nodeC) {
-            Result result = new Result(
+        /**
+         * @return false if the stream has been closed or terminated
+         */
+        boolean emit(int nodeA, int nodeB, int nodeC) {
+            return open = writer.add(
                     graph.toOriginalNodeId(nodeA),
                     graph.toOriginalNodeId(nodeB),
                     graph.toOriginalNodeId(nodeC));
-            resultQueue.offer(result);
+        }
+
+        boolean open() {
+            return open;
         }
     }
 
@@ -168,17 +171,18 @@ public class TriangleStream extends Algorithm<TriangleStream> {
                 if (t > s) {
                     nodes.add(t);
                 }
-                return running();
+                return true;
             });
-            while (!nodes.isEmpty()) {
+            while (!nodes.isEmpty() && open()) {
                 final int node = nodes.pop();
                 graph.forEachRelationship(node, D, (s, t, r) -> {
                     if (t > s && graph.exists(t, nodeId, Direction.BOTH)) {
-                        emit(nodeId, s, t);
+                        return emit(nodeId, s, t);
                     }
-                    return running();
+                    return true;
                 });
             }
+            nodes.clear();
         }
     }
 
@@ -207,10 +211,12 @@ public class TriangleStream extends Algorithm<TriangleStream> {
                 long[] ts = grow(required);
                 final int len = hg.intersect(nodeA, nodeB, ts, 0);
                 for (int i = 0; i < len; i++) {
-                    emit((int) nodeA, (int) nodeB, (int) ts[i]);
+                    if (!emit((int) nodeA, (int) nodeB, (int) ts[i])) {
+                        return false;
+                    }
                 }
             }
-            return running();
+            return true;
         }
 
         private long[] grow(int minSize) {
@@ -230,6 +236,10 @@ public class TriangleStream extends Algorithm<TriangleStream> {
             this.nodeC = nodeC;
         }
 
+        static Result fromTuple(long[] chunk, int offset) {
+            return new Result(chunk[offset], chunk[offset + 1], chunk[offset + 2]);
+        }
+
         @Override
         public String toString() {
             return "Triangle{" +
@@ -22,7 +22,9 @@ import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.HugeDisjointSetStruct;
+import org.neo4j.graphdb.Direction;
 
 import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
@@ -199,11 +201,65 @@ public enum UnionFindAlgo {
             algo.release();
             return new DSSResult(struct);
         }
+    },
+    AFFOREST {
+        @Override
+        DSSResult run(
+                Graph graph,
+                ExecutorService executor,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            // there is no shared atomic DSS for int-indexed graphs
+            return FJ_MERGE.run(
+                    graph,
+                    executor,
+                    minBatchSize,
+                    concurrency,
+                    threshold,
+                    prepare);
+        }
+
+        @Override
+        DSSResult run(
+                HugeGraph hugeGraph,
+                ExecutorService executor,
+                AllocationTracker tracker,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            HugeParallelUnionFindAfforest algo = new HugeParallelUnionFindAfforest(
+                    hugeGraph,
+                    executor,
+                    minBatchSize,
+                    concurrency,
+                    tracker);
+            prepare.accept("CC(HugeParallelUnionFindAfforest)", algo);
+            HugeAtomicDisjointSetStruct struct = Double.isFinite(threshold)
+                    ? algo.compute(threshold)
+                    : algo.compute();
+            algo.release();
+            return new DSSResult(struct);
+        }
+
+        @Override
+        public Direction direction() {
+            return Direction.BOTH;
+        }
     };
 
     public static BiConsumer<String, Algorithm<?>> NOTHING = (s, a) -> {
     };
 
+    /**
+     * @return the direction the graph has to be loaded with
+     */
+    public Direction direction() {
+        return Direction.OUTGOING;
+    }
+
     abstract DSSResult run(
             Graph graph,
             ExecutorService executor,
@@ -27,12 +27,13 @@ import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.HugeDisjointSetStruct;
 import org.neo4j.graphalgo.core.write.DisjointSetStructTranslator;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.HugeAtomicDisjointSetStructTranslator;
 import org.neo4j.graphalgo.core.write.HugeDisjointSetStructTranslator;
 import org.neo4j.graphalgo.results.UnionFindResult;
-import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
@@ -137,7 +138,7 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 .withOptionalRelationshipWeightsFromProperty(
                         config.getWeightProperty(),
                         config.getWeightPropertyDefaultValue(1.0))
-                .withDirection(Direction.OUTGOING)
+                .withDirection(algo(config).direction())
                 .withAllocationTracker(tracker)
                 .load(config.getGraphImpl());
     }
@@ -159,8 +160,7 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
         int concurrency = config.getConcurrency();
         int minBatchSize = config.getBatchSize();
         final double threshold = config.get(CONFIG_THRESHOLD, Double.NaN);
-        UnionFindAlgo uf = concurrency > 1 ? parallel : sequential;
-        return uf.runAny(
+        return algo(config).runAny(
                 graph,
                 Pools.DEFAULT,
                 tracker,
@@ -194,11 +194,17 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 .build();
         if (struct.hugeStruct != null) {
             write(exporter, struct.hugeStruct, configuration);
+        } else if (struct.atomicStruct != null) {
+            write(exporter, struct.atomicStruct, configuration);
         } else {
             write(exporter, struct.struct, configuration);
         }
     }
 
+    private UnionFindAlgo algo(ProcedureConfiguration config) {
+        return config.getConcurrency() > 1 ? parallel : sequential;
+    }
+
     @Override
     public void accept(final String name, final Algorithm<?> algorithm) {
         algorithm.withProgressLogger(ProgressLogger.wrap(log, name))
@@ -229,4 +235,16 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 HugeDisjointSetStructTranslator.INSTANCE);
     }
 
+    private void write(
+            Exporter exporter,
+            HugeAtomicDisjointSetStruct struct,
+            ProcedureConfiguration configuration) {
+        exporter.write(
+                configuration.get(
+                        CONFIG_CLUSTER_PROPERTY,
+                        DEFAULT_CLUSTER_PROPERTY),
+                struct,
+                HugeAtomicDisjointSetStructTranslator.INSTANCE);
+    }
+
 }
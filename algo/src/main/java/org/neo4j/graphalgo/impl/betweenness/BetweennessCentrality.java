@@ -29,6 +29,10 @@ import java.util.Arrays;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfDoubleArray;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfObjectArray;
+
 /**
  * Implements Betweenness Centrality for unweighted graphs
  * as specified in <a href="http://www.algo.uni-konstanz.de/publications/b-fabc-01.pdf">this paper</a>
@@ -50,6 +54,15 @@ public class BetweennessCentrality extends Algorithm<BetweennessCentrality> {
     private Direction direction = Direction.OUTGOING;
     private double divisor = 1.0;
 
+    /**
+     * @return the number of bytes the centrality and the state of the traversal occupy
+     */
+    public static long estimateMemoryUsage(int nodeCount) {
+        return (sizeOfDoubleArray(nodeCount) << 1)
+                + (sizeOfIntArray(nodeCount) << 1)
+                + sizeOfObjectArray(nodeCount);
+    }
+
     public BetweennessCentrality(Graph graph) {
         this.graph = graph;
         nodeCount = Math.toIntExact(graph.nodeCount());
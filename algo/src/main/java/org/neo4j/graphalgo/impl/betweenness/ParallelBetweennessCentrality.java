@@ -21,35 +21,52 @@ package org.neo4j.graphalgo.impl.betweenness;
 import com.carrotsearch.hppc.IntArrayDeque;
 import com.carrotsearch.hppc.IntStack;
 import org.neo4j.graphalgo.api.Graph;
-import org.neo4j.graphalgo.core.utils.AtomicDoubleArray;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.checkpoint.Checkpoint;
 import org.neo4j.graphalgo.core.utils.container.Paths;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeDoubleAccumulator;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.logging.Log;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfDoubleArray;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
+
 /**
  * Implements Betweenness Centrality for unweighted graphs
  * as specified in <a href="http://www.algo.uni-konstanz.de/publications/b-fabc-01.pdf">this paper</a>
  * using node-partitioning
+ * <p>
+ * The centrality is the sum of the contributions of all source nodes. After every
+ * {@code interval} sources the accumulated centrality and the number of processed
+ * sources can be written to a {@link Checkpoint}, so that a run that was stopped
+ * can be {@link #resumeFrom(Path) resumed} with the next unprocessed source.
  *
  * @author mknblch
  */
 public class ParallelBetweennessCentrality extends Algorithm<ParallelBetweennessCentrality> {
 
+    private static final String CHECKPOINT_NAME = "betweenness";
+
     // the graph
     private Graph graph;
-    // AI counts up for every node until nodeCount is reached
+    // AI counts up for every node until sourceEnd is reached
     private volatile AtomicInteger nodeQueue = new AtomicInteger();
-    // atomic double array which supports only atomic-add
-    private AtomicDoubleArray centrality;
+    // end of the source range the tasks currently process
+    private volatile int sourceEnd;
+    // accumulates the centrality of all tasks
+    private HugeDoubleAccumulator centrality;
     // the node count
     private final int nodeCount;
     // global executor service
@@ -58,6 +75,21 @@ public class ParallelBetweennessCentrality extends Algorithm<ParallelBetweenness
     private final int concurrency;
     private Direction direction = Direction.OUTGOING;
     private double divisor = 1.0;
+    private Log log;
+    private Path checkpointFile;
+    private int checkpointInterval;
+    private Path resumeFile;
+    private long fingerprint;
+
+    /**
+     * @return the number of bytes the centrality and the state of {@code concurrency} tasks occupy
+     */
+    public static long estimateMemoryUsage(int nodeCount, int concurrency) {
+        long perTask = (sizeOfIntArray(nodeCount) << 1)
+                + sizeOfDoubleArray(nodeCount)
+                + HugeDoubleAccumulator.estimateLocalMemoryUsage(nodeCount);
+        return HugeDoubleAccumulator.estimateMemoryUsage(nodeCount) + perTask * concurrency;
+    }
 
     /**
      * constructs a parallel centrality solver
@@ -71,7 +103,7 @@ public class ParallelBetweennessCentrality extends Algorithm<ParallelBetweenness
         this.nodeCount = Math.toIntExact(graph.nodeCount());
         this.executorService = executorService;
         this.concurrency = concurrency;
-        this.centrality = new AtomicDoubleArray(nodeCount);
+        this.centrality = HugeDoubleAccumulator.newArray(nodeCount, AllocationTracker.EMPTY);
     }
 
     public ParallelBetweennessCentrality withDirection(Direction direction) {
@@ -80,27 +112,113 @@ public class ParallelBetweennessCentrality extends Algorithm<ParallelBetweenness
         return this;
     }
 
+    /**
+     * write a checkpoint after every {@code interval} source nodes and after the last one
+     */
+    public ParallelBetweennessCentrality withCheckpoint(Path file, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive but was " + interval);
+        }
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+        return this;
+    }
+
+    /**
+     * continue with the first source node that was not processed when the checkpoint was written
+     */
+    public ParallelBetweennessCentrality resumeFrom(Path file) {
+        this.resumeFile = file;
+        return this;
+    }
+
+    @Override
+    public ParallelBetweennessCentrality withLog(Log log) {
+        super.withLog(log);
+        this.log = log;
+        return this;
+    }
+
     /**
      * compute centrality
      *
      * @return itself for method chaining
      */
     public ParallelBetweennessCentrality compute() {
-        nodeQueue.set(0);
-        final ArrayList<Future<?>> futures = new ArrayList<>();
-        for (int i = 0; i < concurrency; i++) {
-            futures.add(executorService.submit(new BCTask()));
+        final int start = resumeFile == null ? 0 : restore(resumeFile);
+        final int interval = checkpointFile == null ? nodeCount : checkpointInterval;
+        final List<BCTask> tasks = new ArrayList<>(concurrency);
+        for (int from = start, to; from < nodeCount && running(); from = to) {
+            to = (int) Math.min((long) from + interval, nodeCount);
+            if (tasks.isEmpty()) {
+                for (int i = 0; i < concurrency; i++) {
+                    tasks.add(new BCTask());
+                }
+            }
+            sourceEnd = to;
+            nodeQueue.set(from);
+            final ArrayList<Future<?>> futures = new ArrayList<>(concurrency);
+            for (BCTask task : tasks) {
+                futures.add(executorService.submit(task));
+            }
+            ParallelUtil.awaitTermination(futures);
+            // a stopped range leaves the contributions of some of its sources behind
+            if (checkpointFile != null && running()) {
+                checkpoint(checkpointFile, to);
+            }
         }
-        ParallelUtil.awaitTermination(futures);
         return this;
     }
 
+    private void checkpoint(Path file, int sources) {
+        try (Checkpoint.Writer writer = Checkpoint.write(
+                file,
+                CHECKPOINT_NAME,
+                nodeCount,
+                fingerprint(),
+                sources)) {
+            writer.writeDoubles(nodeCount, centrality::get);
+        }
+        if (log != null) {
+            log.debug("Betweenness: wrote checkpoint after %d source nodes to %s", sources, file);
+        }
+    }
+
+    private int restore(Path file) {
+        try (Checkpoint.Reader reader = Checkpoint.read(
+                file,
+                CHECKPOINT_NAME,
+                nodeCount,
+                fingerprint())) {
+            reader.readDoubles(nodeCount, centrality::set).verifyEnd();
+            if (log != null) {
+                log.info("Betweenness: resuming after %d source nodes from %s", reader.progress(), file);
+            }
+            return Math.toIntExact(reader.progress());
+        }
+    }
+
+    /**
+     * identifies the graph and direction a checkpoint belongs to
+     */
+    private long fingerprint() {
+        if (fingerprint == 0L) {
+            long hash = direction.ordinal();
+            for (int nodeId = 0; nodeId < nodeCount; ++nodeId) {
+                hash = 31L * hash + graph.toOriginalNodeId(nodeId);
+                hash = 31L * hash + graph.degree(nodeId, direction);
+            }
+            fingerprint = hash;
+        }
+        return fingerprint;
+    }
+
     /**
      * get the centrality array
      *
      * @return array with centrality
      */
-    public AtomicDoubleArray getCentrality() {
+    public HugeDoubleAccumulator getCentrality() {
         return centrality;
     }
 
@@ -131,7 +249,7 @@ public class ParallelBetweennessCentrality extends Algorithm<ParallelBetweenness
 
     /**
      * a BCTask takes one element from the nodeQueue as long as
-     * it is lower then nodeCount and calculates it's centrality
+     * it is lower then sourceEnd and calculates it's centrality
      */
     private class BCTask implements Runnable {
 
@@ -141,8 +259,10 @@ public class ParallelBetweennessCentrality extends Algorithm<ParallelBetweenness
         private final double[] delta;
         private final int[] sigma;
         private final int[] distance;
+        private final HugeDoubleAccumulator.Local local;
 
         private BCTask() {
+            this.local = centrality.newLocal();
             this.paths = new Paths();
             this.stack = new IntStack();
             this.queue = new IntArrayDeque();
@@ -153,10 +273,18 @@ public class ParallelBetweennessCentrality extends Algorithm<ParallelBetweenness
 
         @Override
         public void run() {
+            try {
+                computeAll();
+            } finally {
+                local.flush();
+            }
+        }
+
+        private void computeAll() {
             for (;;) {
                 reset();
                 final int startNodeId = nodeQueue.getAndIncrement();
-                if (startNodeId >= nodeCount || !running()) {
+                if (startNodeId >= sourceEnd || !running()) {
                     return;
                 }
                 getProgressLogger().logProgress((double) startNodeId / (nodeCount - 1));
@@ -186,7 +314,7 @@ public class ParallelBetweennessCentrality extends Algorithm<ParallelBetweenness
                         return true;
                     });
                     if (node != startNodeId) {
-                        centrality.add(node, delta[node] / divisor);
+                        local.add(node, delta[node] / divisor);
                     }
                 }
             }
@@ -21,8 +21,9 @@ package org.neo4j.graphalgo.impl.betweenness;
 import com.carrotsearch.hppc.*;
 import com.carrotsearch.hppc.cursors.IntCursor;
 import org.neo4j.graphalgo.api.Graph;
-import org.neo4j.graphalgo.core.utils.AtomicDoubleArray;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeDoubleAccumulator;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphdb.Direction;
 
@@ -35,6 +36,8 @@ import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
+
 /**
  * Randomized Approximate Brandes
  *
@@ -59,8 +62,8 @@ public class RABrandesBetweennessCentrality extends Algorithm<RABrandesBetweenne
     private Graph graph;
     // AI counts up for every node until nodeCount is reached
     private volatile AtomicInteger nodeQueue = new AtomicInteger();
-    // atomic double array which supports only atomic-add
-    private AtomicDoubleArray centrality;
+    // accumulates the centrality of all tasks
+    private HugeDoubleAccumulator centrality;
     // the node count
     private final int nodeCount;
     private final int expectedNodeCount;
@@ -74,6 +77,15 @@ public class RABrandesBetweennessCentrality extends Algorithm<RABrandesBetweenne
 
     private int maxDepth = Integer.MAX_VALUE;
 
+    /**
+     * @return the number of bytes the centrality and the distances of {@code concurrency} tasks occupy,
+     * without the maps of the selected nodes
+     */
+    public static long estimateMemoryUsage(int nodeCount, int concurrency) {
+        long perTask = sizeOfIntArray(nodeCount) + HugeDoubleAccumulator.estimateLocalMemoryUsage(nodeCount);
+        return HugeDoubleAccumulator.estimateMemoryUsage(nodeCount) + perTask * concurrency;
+    }
+
     /**
      * @param graph the graph iface
      * @param executorService the executor service
@@ -84,7 +96,7 @@ public class RABrandesBetweennessCentrality extends Algorithm<RABrandesBetweenne
         this.executorService = executorService;
         this.concurrency = concurrency;
         this.nodeCount = Math.toIntExact(graph.nodeCount());
-        this.centrality = new AtomicDoubleArray(nodeCount);
+        this.centrality = HugeDoubleAccumulator.newArray(nodeCount, AllocationTracker.EMPTY);
         this.selectionStrategy = selectionStrategy;
         this.expectedNodeCount = selectionStrategy.size();
     }
@@ -120,7 +132,7 @@ public class RABrandesBetweennessCentrality extends Algorithm<RABrandesBetweenne
      *
      * @return array with centrality
      */
-    public AtomicDoubleArray getCentrality() {
+    public HugeDoubleAccumulator getCentrality() {
         return centrality;
     }
 
@@ -161,8 +173,10 @@ public class RABrandesBetweennessCentrality extends Algorithm<RABrandesBetweenne
         private final IntDoubleMap delta;
         private final IntIntMap sigma;
         private final int[] distance;
+        private final HugeDoubleAccumulator.Local local;
 
         private BCTask() {
+            this.local = centrality.newLocal();
             this.paths = new IntObjectScatterMap<>(expectedNodeCount);
             this.stack = new IntStack();
             this.queue = new IntArrayDeque();
@@ -174,6 +188,14 @@ public class RABrandesBetweennessCentrality extends Algorithm<RABrandesBetweenne
 
         @Override
         public void run() {
+            try {
+                computeAll();
+            } finally {
+                local.flush();
+            }
+        }
+
+        private void computeAll() {
             final double f = (nodeCount * divisor) / selectionStrategy.size();
             for (;;) {
                 final int startNodeId = nodeQueue.getAndIncrement();
@@ -226,7 +248,7 @@ public class RABrandesBetweennessCentrality extends Algorithm<RABrandesBetweenne
                         });
                     }
                     if (node != startNodeId) {
-                        centrality.add(node, f * (delta.getOrDefault(node, 0)));
+                        local.add(node, f * (delta.getOrDefault(node, 0)));
                     }
                 }
             }
@@ -20,11 +20,21 @@ package org.neo4j.graphalgo.impl.louvain;
 
 import java.util.stream.Stream;
 
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfDoubleArray;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
+
 /**
  * @author mknblch
  */
 public interface LouvainAlgorithm {
 
+    /**
+     * @return the number of bytes the community, total weight and node weight of every node occupy
+     */
+    static long estimateMemoryUsage(int nodeCount) {
+        return sizeOfIntArray(nodeCount) + (sizeOfDoubleArray(nodeCount) << 1);
+    }
+
     LouvainAlgorithm compute();
 
     int[] getCommunityIds();
@@ -18,10 +18,14 @@
  */
 package org.neo4j.graphalgo.impl.msbfs;
 
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.IntArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
 import org.neo4j.graphdb.Direction;
 
 import java.util.AbstractCollection;
@@ -90,6 +94,13 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
     private long nodeOffset, nodeCount;
     private int sourceNodeCount;
 
+    /**
+     * @return the number of bytes the visited, next and seen sets of a single thread occupy
+     */
+    public static long estimateMemoryUsagePerThread(long nodeCount) {
+        return IntArray.estimateMemoryUsage(nodeCount) + LongArray.estimateMemoryUsage(nodeCount);
+    }
+
     public HugeMultiSourceBFS(
             HugeIdMapping nodeIds,
             HugeRelationshipIterator relationships,
@@ -153,8 +164,46 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
      */
     @Override
     public void run(int concurrency, ExecutorService executor) {
-        final int threads = numberOfThreads();
-        Collection<HugeMultiSourceBFS> bfss = allSourceBfss(threads);
+        run(concurrency, TerminationFlag.RUNNING_TRUE, executor);
+    }
+
+    /**
+     * Runs MS-BFS, possibly in parallel. No further MS-BFS instances are
+     * started once the {@code terminationFlag} signals termination.
+     */
+    public void run(int concurrency, TerminationFlag terminationFlag, ExecutorService executor) {
+        final int threads = numberOfThreads(sourceLength());
+        run(concurrency, threads, allSourceBfss(threads), terminationFlag, executor);
+    }
+
+    /**
+     * Runs MS-BFS from the source nodes {@code [fromNode, toNode)}, possibly in parallel.
+     * Requires that no explicit startNodes were given. No further MS-BFS instances are
+     * started once the {@code terminationFlag} signals termination.
+     */
+    public void run(
+            long fromNode,
+            long toNode,
+            int concurrency,
+            TerminationFlag terminationFlag,
+            ExecutorService executor) {
+        if (startNodes != null) {
+            throw new IllegalStateException("Source ranges are only supported for an MS-BFS from all nodes");
+        }
+        if (fromNode < 0L || fromNode > toNode || toNode > nodeCount) {
+            throw new IllegalArgumentException(
+                    "Invalid source range [" + fromNode + ", " + toNode + ") for " + nodeCount + " nodes");
+        }
+        final int threads = numberOfThreads(toNode - fromNode);
+        run(concurrency, threads, rangeBfss(threads, fromNode, toNode - fromNode), terminationFlag, executor);
+    }
+
+    private void run(
+            int concurrency,
+            int threads,
+            Collection<HugeMultiSourceBFS> bfss,
+            TerminationFlag terminationFlag,
+            ExecutorService executor) {
         if (!ParallelUtil.canRunInParallel(executor)) {
             // fallback to sequentially running all MS-BFS instances
             executor = null;
@@ -165,6 +214,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
                 threads << 2,
                 100L,
                 TimeUnit.MICROSECONDS,
+                terminationFlag,
                 executor);
     }
 
@@ -195,6 +245,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             }
         }
 
+        HugeAdjacencyCursor adjacency = relationships.adjacencyCursor();
         int depth = 0;
 
         while (true) {
@@ -202,13 +253,14 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             while ((nodeId = visit.nextSetNodeId(nodeId + 1)) >= 0) {
                 int nodeVisit = visit.get(nodeId);
                 assert nodeVisit != 0;
-                relationships.forEachRelationship(
-                        nodeId,
-                        direction,
-                        (src, tgt) -> {
-                            nextAndSeen.union(tgt, nodeVisit);
-                            return true;
-                        });
+                adjacency.init(nodeId, direction);
+                int length;
+                while ((length = adjacency.next()) > 0) {
+                    long[] targets = adjacency.buffer();
+                    for (int i = 0; i < length; i++) {
+                        nextAndSeen.union(targets[i], nodeVisit);
+                    }
+                }
             }
 
             depth++;
@@ -239,8 +291,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
         return sourceNodeCount;
     }
 
-    private int numberOfThreads() {
-        long sourceLength = sourceLength();
+    private int numberOfThreads(long sourceLength) {
         long threads = ParallelUtil.threadSize(OMEGA, sourceLength);
         if ((int) threads != threads) {
             throw new IllegalArgumentException("Unable run MS-BFS on " + sourceLength + " sources.");
@@ -251,22 +302,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
     // lazily creates MS-BFS instances for OMEGA sized source chunks
     private Collection<HugeMultiSourceBFS> allSourceBfss(int threads) {
         if (startNodes == null) {
-            long sourceLength = nodeCount;
-            return new ParallelMultiSources(threads, sourceLength) {
-                @Override
-                HugeMultiSourceBFS next(final long from, final int length) {
-                    return new HugeMultiSourceBFS(
-                            nodeIds,
-                            relationships.concurrentCopy(),
-                            direction,
-                            perNodeAction,
-                            from,
-                            length,
-                            visits,
-                            nextAndSeens
-                    );
-                }
-            };
+            return rangeBfss(threads, 0L, nodeCount);
         }
         long[] startNodes = this.startNodes;
         int sourceLength = startNodes.length;
@@ -286,6 +322,25 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
         };
     }
 
+    // lazily creates MS-BFS instances for OMEGA sized chunks of the sources [offset, offset + sourceLength)
+    private Collection<HugeMultiSourceBFS> rangeBfss(int threads, long offset, long sourceLength) {
+        return new ParallelMultiSources(threads, sourceLength) {
+            @Override
+            HugeMultiSourceBFS next(final long from, final int length) {
+                return new HugeMultiSourceBFS(
+                        nodeIds,
+                        relationships.concurrentCopy(),
+                        direction,
+                        perNodeAction,
+                        offset + from,
+                        length,
+                        visits,
+                        nextAndSeens
+                );
+            }
+        };
+    }
+
     @Override
     public String toString() {
         if (startNodes != null && startNodes.length > 0) {
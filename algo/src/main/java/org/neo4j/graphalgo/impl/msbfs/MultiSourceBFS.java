@@ -21,6 +21,7 @@ package org.neo4j.graphalgo.impl.msbfs;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.RelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphdb.Direction;
 
 import java.util.AbstractCollection;
@@ -151,6 +152,14 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
      */
     @Override
     public void run(int concurrency, ExecutorService executor) {
+        run(concurrency, TerminationFlag.RUNNING_TRUE, executor);
+    }
+
+    /**
+     * Runs MS-BFS, possibly in parallel. No further MS-BFS instances are
+     * started once the {@code terminationFlag} signals termination.
+     */
+    public void run(int concurrency, TerminationFlag terminationFlag, ExecutorService executor) {
         int sourceLength = sourceLength();
         int threads = ParallelUtil.threadSize(OMEGA, sourceLength);
         Collection<MultiSourceBFS> bfss = allSourceBfss(threads);
@@ -164,6 +173,7 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
                 threads << 2,
                 100L,
                 TimeUnit.MICROSECONDS,
+                terminationFlag,
                 executor);
     }
 
@@ -0,0 +1,582 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.multistepscc;
+
+import com.carrotsearch.hppc.LongArrayDeque;
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicLongArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphalgo.results.SCCStreamResult;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Multistep: parallel strongly connected component algorithm for {@link HugeGraph}s.
+ * <p>
+ * Follows the same steps as {@link MultistepSCC} but keeps its state in
+ * paged arrays and atomic bit sets and does every step in parallel:
+ * <ol>
+ * <li>Trimming: nodes without incoming or outgoing relationships to unassigned
+ * nodes are trivial SCCs. This is repeated a few times since every
+ * removal may expose new trivial nodes.</li>
+ * <li>Forward-Backward: starting from the node with the highest product of
+ * in- and out-degree, a level synchronous parallel BFS collects the
+ * descendant set, a second BFS using incoming relationships restricted to the
+ * descendant set collects the (most likely) biggest SCC.</li>
+ * <li>Coloring: every remaining node starts with its own id as color, the
+ * highest color is propagated along outgoing relationships until nothing
+ * changes. Each node which kept its own color is the root of an SCC which
+ * consists of all nodes of the same color that reach the root. The roots
+ * are processed in parallel. This is repeated until all nodes are assigned.</li>
+ * </ol>
+ * Every node is assigned to an SCC, the id of an SCC is the id of one of its nodes.
+ */
+public class HugeMultistepSCC extends Algorithm<HugeMultistepSCC> {
+
+    private static final int MIN_BATCH_SIZE = 10_000;
+    // number of frontier nodes a single traversal task processes
+    private static final int FRONTIER_BATCH_SIZE = 4096;
+    private static final int MAX_TRIM_ITERATIONS = 8;
+    private static final long NO_NODE = -1L;
+
+    private HugeGraph graph;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+
+    // nodes that are already assigned to an SCC
+    private HugeAtomicBitSet done;
+    private LongArray components;
+
+    private long setCount;
+    private long minSetSize;
+    private long maxSetSize;
+    private long assignedNodes;
+
+    private long pivot;
+    private long pivotProduct;
+
+    public HugeMultistepSCC(
+            HugeGraph graph,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+    }
+
+    public HugeMultistepSCC compute() {
+        done = HugeAtomicBitSet.create(nodeCount, tracker);
+        components = LongArray.newArray(nodeCount, tracker);
+        components.fill(NO_NODE);
+        setCount = 0L;
+        minSetSize = Long.MAX_VALUE;
+        maxSetSize = 0L;
+        assignedNodes = 0L;
+
+        // V <- trim(V)
+        trim();
+        // SCC(pivot) <- FWBW(V, pivot), V <- V \ SCC(pivot)
+        if (running()) {
+            forwardBackward();
+        }
+        // SCC(c) <- PREDECESSOR(V(c), c), V <- V \ SCC(c)
+        if (running()) {
+            final HugeAtomicLongArray colors = HugeAtomicLongArray.newArray(nodeCount, tracker);
+            final HugeAtomicBitSet inFrontier = HugeAtomicBitSet.create(nodeCount, tracker);
+            while (running() && coloring(colors, inFrontier)) {
+                getProgressLogger().logProgress(assignedNodes, nodeCount);
+            }
+            tracker.remove(colors.release());
+            tracker.remove(inFrontier.release());
+        }
+
+        if (setCount == 0L) {
+            minSetSize = 0L;
+        }
+        tracker.remove(done.release());
+        done = null;
+        return this;
+    }
+
+    /**
+     * @return the SCC id of every node
+     */
+    public LongArray getConnectedComponents() {
+        return components;
+    }
+
+    public Stream<SCCStreamResult> resultStream() {
+        return LongStream.range(0L, nodeCount)
+                .filter(node -> components.get(node) != NO_NODE)
+                .mapToObj(node -> new SCCStreamResult(graph.toOriginalNodeId(node), components.get(node)));
+    }
+
+    public long getSetCount() {
+        return setCount;
+    }
+
+    public long getMinSetSize() {
+        return minSetSize;
+    }
+
+    public long getMaxSetSize() {
+        return maxSetSize;
+    }
+
+    @Override
+    public HugeMultistepSCC me() {
+        return this;
+    }
+
+    @Override
+    public HugeMultistepSCC release() {
+        if (done != null) {
+            tracker.remove(done.release());
+            done = null;
+        }
+        if (components != null) {
+            tracker.remove(components.release());
+            components = null;
+        }
+        graph = null;
+        return this;
+    }
+
+    private synchronized void processSCCs(long sets, long nodes, long min, long max) {
+        if (sets == 0L) {
+            return;
+        }
+        setCount += sets;
+        assignedNodes += nodes;
+        minSetSize = Math.min(minSetSize, min);
+        maxSetSize = Math.max(maxSetSize, max);
+    }
+
+    private synchronized void offerPivot(long node, long product) {
+        if (node != NO_NODE && (pivot == NO_NODE || product > pivotProduct)) {
+            pivot = node;
+            pivotProduct = product;
+        }
+    }
+
+    private void trim() {
+        for (int i = 0; i < MAX_TRIM_ITERATIONS && running(); i++) {
+            final AtomicLong removed = new AtomicLong();
+            run(batches((start, length) -> new TrimTask(start, length, removed)));
+            getProgressLogger().logProgress(assignedNodes, nodeCount);
+            if (removed.get() == 0L) {
+                return;
+            }
+        }
+    }
+
+    private void forwardBackward() {
+        pivot = NO_NODE;
+        pivotProduct = -1L;
+        run(batches((start, length) -> new PivotTask(start, length)));
+        if (pivot == NO_NODE) {
+            return;
+        }
+        final long root = pivot;
+        // D <- BFS(G(V, E(V)), root)
+        final HugeAtomicBitSet descendants = HugeAtomicBitSet.create(nodeCount, tracker);
+        descendants.set(root);
+        traverse(
+                root,
+                (slice, next) -> new ReachTask(slice, next, Direction.OUTGOING, descendants, t -> !done.get(t), null));
+        // SCC <- BFS(G(D, E'(D)), root), claiming the nodes directly
+        done.set(root);
+        components.set(root, root);
+        final long size = 1L + traverse(
+                root,
+                (slice, next) -> new ReachTask(
+                        slice,
+                        next,
+                        Direction.INCOMING,
+                        done,
+                        descendants::get,
+                        t -> components.set(t, root)));
+        tracker.remove(descendants.release());
+        processSCCs(1L, size, size, size);
+        getProgressLogger().logProgress(assignedNodes, nodeCount);
+    }
+
+    /**
+     * one round of coloring and backward traversal
+     *
+     * @return false if all nodes were already assigned
+     */
+    private boolean coloring(HugeAtomicLongArray colors, HugeAtomicBitSet inFrontier) {
+        final List<LongArrayList> frontier = new ArrayList<>();
+        run(batches((start, length) -> () -> {
+            final LongArrayList active = new LongArrayList();
+            for (long node = start, end = start + length; node < end; node++) {
+                if (!done.get(node)) {
+                    colors.set(node, node);
+                    active.add(node);
+                }
+            }
+            if (!active.isEmpty()) {
+                synchronized (frontier) {
+                    frontier.add(active);
+                }
+            }
+        }));
+        if (frontier.isEmpty()) {
+            return false;
+        }
+        // propagate the highest color until no more changes can be made
+        traverse(frontier, (nodes, next) -> new ColorTask(nodes, next, colors, inFrontier));
+        // every node that kept its own color is the root of an SCC
+        run(batches((start, length) -> new PredecessorTask(start, length, colors)));
+        return true;
+    }
+
+    private Collection<Runnable> batches(LazyBatchCollection.BatchSupplier<Runnable> supplier) {
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        return LazyBatchCollection.of(nodeCount, batchSize, supplier);
+    }
+
+    private void run(Collection<? extends Runnable> tasks) {
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                Integer.MAX_VALUE,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                executor);
+    }
+
+    private long traverse(long start, FrontierTaskFactory factory) {
+        final LongArrayList initial = new LongArrayList(1);
+        initial.add(start);
+        final List<LongArrayList> frontier = new ArrayList<>();
+        frontier.add(initial);
+        return traverse(frontier, factory);
+    }
+
+    /**
+     * level synchronous parallel traversal. Every task processes a slice of the
+     * current frontier and collects its part of the next frontier.
+     *
+     * @return the number of nodes added to a frontier (excluding the initial one)
+     */
+    private long traverse(List<LongArrayList> frontier, FrontierTaskFactory factory) {
+        long count = 0L;
+        while (!frontier.isEmpty() && running()) {
+            final List<FrontierTask> tasks = new ArrayList<>();
+            for (LongArrayList nodes : frontier) {
+                for (int offset = 0; offset < nodes.size(); offset += FRONTIER_BATCH_SIZE) {
+                    tasks.add(factory.newTask(
+                            new FrontierSlice(nodes, offset, Math.min(offset + FRONTIER_BATCH_SIZE, nodes.size())),
+                            new LongArrayList()));
+                }
+            }
+            run(tasks);
+            frontier = new ArrayList<>();
+            for (FrontierTask task : tasks) {
+                if (!task.next.isEmpty()) {
+                    frontier.add(task.next);
+                    count += task.next.size();
+                }
+            }
+        }
+        return count;
+    }
+
+    private interface FrontierTaskFactory {
+        FrontierTask newTask(FrontierSlice nodes, LongArrayList next);
+    }
+
+    private static final class FrontierSlice {
+        private final LongArrayList nodes;
+        private final int from;
+        private final int to;
+
+        private FrontierSlice(LongArrayList nodes, int from, int to) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private abstract class FrontierTask implements Runnable, HugeRelationshipConsumer {
+        private final FrontierSlice slice;
+        final LongArrayList next;
+        final HugeRelationshipIterator rels;
+
+        FrontierTask(FrontierSlice slice, LongArrayList next) {
+            this.slice = slice;
+            this.next = next;
+            this.rels = graph.concurrentCopy();
+        }
+
+        @Override
+        public final void run() {
+            final long[] buffer = slice.nodes.buffer;
+            for (int i = slice.from; i < slice.to; i++) {
+                processNode(buffer[i]);
+            }
+        }
+
+        abstract void processNode(long node);
+    }
+
+    /**
+     * visits all unvisited neighbours that match the filter
+     */
+    private final class ReachTask extends FrontierTask {
+        private final Direction direction;
+        private final HugeAtomicBitSet visited;
+        private final LongPredicate filter;
+        private final LongConsumer onVisit;
+
+        private ReachTask(
+                FrontierSlice slice,
+                LongArrayList next,
+                Direction direction,
+                HugeAtomicBitSet visited,
+                LongPredicate filter,
+                LongConsumer onVisit) {
+            super(slice, next);
+            this.direction = direction;
+            this.visited = visited;
+            this.filter = filter;
+            this.onVisit = onVisit;
+        }
+
+        @Override
+        void processNode(long node) {
+            rels.forEachRelationship(node, direction, this);
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId) {
+            if (filter.test(targetNodeId) && visited.trySet(targetNodeId)) {
+                if (onVisit != null) {
+                    onVisit.accept(targetNodeId);
+                }
+                next.add(targetNodeId);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * propagates the color of a node to all its unassigned successors
+     */
+    private final class ColorTask extends FrontierTask {
+        private final HugeAtomicLongArray colors;
+        private final HugeAtomicBitSet inFrontier;
+        private long color;
+
+        private ColorTask(
+                FrontierSlice slice,
+                LongArrayList next,
+                HugeAtomicLongArray colors,
+                HugeAtomicBitSet inFrontier) {
+            super(slice, next);
+            this.colors = colors;
+            this.inFrontier = inFrontier;
+        }
+
+        @Override
+        void processNode(long node) {
+            // allow the node to be scheduled again if its color changes from now on
+            inFrontier.clear(node);
+            color = colors.get(node);
+            rels.forEachRelationship(node, Direction.OUTGOING, this);
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId) {
+            if (done.get(targetNodeId)) {
+                return true;
+            }
+            long current;
+            while ((current = colors.get(targetNodeId)) < color) {
+                if (colors.cas(targetNodeId, current, color)) {
+                    if (inFrontier.trySet(targetNodeId)) {
+                        next.add(targetNodeId);
+                    }
+                    break;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final class TrimTask implements Runnable, HugeRelationshipConsumer {
+        private final long start;
+        private final long end;
+        private final AtomicLong removed;
+        private final HugeRelationshipIterator rels;
+        private boolean found;
+
+        private TrimTask(long start, long length, AtomicLong removed) {
+            this.start = start;
+            this.end = start + length;
+            this.removed = removed;
+            this.rels = graph.concurrentCopy();
+        }
+
+        @Override
+        public void run() {
+            long count = 0L;
+            for (long node = start; node < end; node++) {
+                if (done.get(node)) {
+                    continue;
+                }
+                if (!hasActiveNeighbour(node, Direction.OUTGOING) || !hasActiveNeighbour(node, Direction.INCOMING)) {
+                    if (done.trySet(node)) {
+                        components.set(node, node);
+                        ++count;
+                    }
+                }
+            }
+            removed.addAndGet(count);
+            processSCCs(count, count, 1L, 1L);
+        }
+
+        private boolean hasActiveNeighbour(long node, Direction direction) {
+            found = false;
+            rels.forEachRelationship(node, direction, this);
+            return found;
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId) {
+            if (sourceNodeId != targetNodeId && !done.get(targetNodeId)) {
+                found = true;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * finds the unassigned node with the highest product of in- and out-degree
+     */
+    private final class PivotTask implements Runnable {
+        private final long start;
+        private final long end;
+
+        private PivotTask(long start, long length) {
+            this.start = start;
+            this.end = start + length;
+        }
+
+        @Override
+        public void run() {
+            long best = NO_NODE;
+            long bestProduct = -1L;
+            for (long node = start; node < end; node++) {
+                if (done.get(node)) {
+                    continue;
+                }
+                final long product = (long) graph.degree(node, Direction.OUTGOING)
+                        * graph.degree(node, Direction.INCOMING);
+                if (product > bestProduct) {
+                    best = node;
+                    bestProduct = product;
+                }
+            }
+            offerPivot(best, bestProduct);
+        }
+    }
+
+    /**
+     * collects the SCC of every color root by traversing backwards
+     * through all nodes of the same color
+     */
+    private final class PredecessorTask implements Runnable, HugeRelationshipConsumer {
+        private final long start;
+        private final long end;
+        private final HugeAtomicLongArray colors;
+        private final HugeRelationshipIterator rels;
+        private final LongArrayDeque queue;
+        private long root;
+        private long size;
+
+        private PredecessorTask(long start, long length, HugeAtomicLongArray colors) {
+            this.start = start;
+            this.end = start + length;
+            this.colors = colors;
+            this.rels = graph.concurrentCopy();
+            this.queue = new LongArrayDeque();
+        }
+
+        @Override
+        public void run() {
+            long sets = 0L, nodes = 0L, min = Long.MAX_VALUE, max = 0L;
+            for (long node = start; node < end && running(); node++) {
+                if (done.get(node) || colors.get(node) != node) {
+                    continue;
+                }
+                root = node;
+                size = 1L;
+                done.set(node);
+                components.set(node, node);
+                queue.addLast(node);
+                while (!queue.isEmpty()) {
+                    rels.forEachRelationship(queue.removeFirst(), Direction.INCOMING, this);
+                }
+                ++sets;
+                nodes += size;
+                min = Math.min(min, size);
+                max = Math.max(max, size);
+            }
+            processSCCs(sets, nodes, min, max);
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId) {
+            if (colors.get(targetNodeId) == root && !done.get(targetNodeId) && done.trySet(targetNodeId)) {
+                components.set(targetNodeId, root);
+                queue.addLast(targetNodeId);
+                ++size;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+/**
+ * BFS write result
+ */
+public class BFSResult {
+
+    public final Long loadMillis;
+    public final Long computeMillis;
+    public final Long writeMillis;
+    public final Long nodes;
+    public final Long visitedNodes;
+    public final Long maxLevel;
+
+    public BFSResult(Long loadMillis,
+                     Long computeMillis,
+                     Long writeMillis,
+                     Long nodes,
+                     Long visitedNodes,
+                     Long maxLevel) {
+        this.loadMillis = loadMillis;
+        this.computeMillis = computeMillis;
+        this.writeMillis = writeMillis;
+        this.nodes = nodes;
+        this.visitedNodes = visitedNodes;
+        this.maxLevel = maxLevel;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder extends AbstractResultBuilder<BFSResult> {
+
+        private long nodes;
+        private long visitedNodes;
+        private long maxLevel;
+
+        public Builder withNodeCount(long nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder withVisitedNodes(long visitedNodes) {
+            this.visitedNodes = visitedNodes;
+            return this;
+        }
+
+        public Builder withMaxLevel(long maxLevel) {
+            this.maxLevel = maxLevel;
+            return this;
+        }
+
+        @Override
+        public BFSResult build() {
+            return new BFSResult(loadDuration,
+                    evalDuration,
+                    writeDuration,
+                    nodes,
+                    visitedNodes,
+                    maxLevel);
+        }
+    }
+}
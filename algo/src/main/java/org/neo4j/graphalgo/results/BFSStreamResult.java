@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+/**
+ * basic BFS result VO for streaming
+ */
+public class BFSStreamResult {
+
+    /**
+     * the node id
+     */
+    public final long nodeId;
+
+    /**
+     * the distance in hops from the start node
+     */
+    public final long level;
+
+    /**
+     * the node id of the node from which this node has been discovered,
+     * the start node is its own parent
+     */
+    public final long parentId;
+
+    public BFSStreamResult(long nodeId, long level, long parentId) {
+        this.nodeId = nodeId;
+        this.level = level;
+        this.parentId = parentId;
+    }
+}
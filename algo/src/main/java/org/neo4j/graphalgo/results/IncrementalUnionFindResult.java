@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+public class IncrementalUnionFindResult {
+
+    public final Long loadMillis;
+    public final Long computeMillis;
+    public final Long writeMillis;
+    public final Long relationships;
+    public final Long skippedRelationships;
+    public final Long changedNodes;
+    public final Long setCount;
+
+    private IncrementalUnionFindResult(
+            Long loadMillis,
+            Long computeMillis,
+            Long writeMillis,
+            Long relationships,
+            Long skippedRelationships,
+            Long changedNodes,
+            Long setCount) {
+        this.loadMillis = loadMillis;
+        this.computeMillis = computeMillis;
+        this.writeMillis = writeMillis;
+        this.relationships = relationships;
+        this.skippedRelationships = skippedRelationships;
+        this.changedNodes = changedNodes;
+        this.setCount = setCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder extends AbstractResultBuilder<IncrementalUnionFindResult> {
+
+        private long relationships = 0;
+        private long skippedRelationships = 0;
+        private long changedNodes = 0;
+        private long setCount = 0;
+
+        public Builder withRelationships(long relationships) {
+            this.relationships = relationships;
+            return this;
+        }
+
+        public Builder withSkippedRelationships(long skippedRelationships) {
+            this.skippedRelationships = skippedRelationships;
+            return this;
+        }
+
+        public Builder withChangedNodes(long changedNodes) {
+            this.changedNodes = changedNodes;
+            return this;
+        }
+
+        public Builder withSetCount(long setCount) {
+            this.setCount = setCount;
+            return this;
+        }
+
+        public IncrementalUnionFindResult build() {
+            return new IncrementalUnionFindResult(
+                    loadDuration,
+                    evalDuration,
+                    writeDuration,
+                    relationships,
+                    skippedRelationships,
+                    changedNodes,
+                    setCount);
+        }
+    }
+}
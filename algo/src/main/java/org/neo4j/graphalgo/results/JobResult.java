@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+
+/**
+ * a queued or running algorithm job, memory in bytes, times in epoch millis,
+ * the timeout in millis and the progress between 0 and 1
+ */
+public class JobResult {
+
+    public final long id;
+    public final String name;
+    public final String state;
+    public final long requestedConcurrency;
+    public final long concurrency;
+    public final long estimatedMemory;
+    public final long trackedMemory;
+    public final long queuedAt;
+    public final long startedAt;
+    public final double progress;
+    public final long timeout;
+    public final boolean cancelled;
+
+    public JobResult(Job job) {
+        this.id = job.id();
+        this.name = job.name();
+        this.state = job.state().name();
+        this.requestedConcurrency = job.requestedConcurrency();
+        this.concurrency = job.concurrency();
+        this.estimatedMemory = job.estimatedMemory();
+        this.trackedMemory = job.trackedMemory();
+        this.queuedAt = job.queuedAt();
+        this.startedAt = job.startedAt();
+        this.progress = job.progress();
+        this.timeout = job.timeoutMillis();
+        this.cancelled = job.isCancelled();
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+import org.neo4j.graphalgo.core.utils.metrics.MetricSnapshot;
+
+/**
+ * single metric of the metrics registry, timers report milliseconds
+ * and their rate in processed units per second
+ */
+public class MetricsResult {
+
+    public final String name;
+    public final String type;
+    public final long count;
+    public final double sum;
+    public final double min;
+    public final double max;
+    public final double mean;
+    public final double p50;
+    public final double p99;
+    public final double rate;
+
+    public MetricsResult(String name, MetricSnapshot snapshot) {
+        this.name = name;
+        this.type = snapshot.type;
+        this.count = snapshot.count;
+        this.sum = snapshot.sum;
+        this.min = snapshot.min;
+        this.max = snapshot.max;
+        this.mean = snapshot.mean;
+        this.p50 = snapshot.p50;
+        this.p99 = snapshot.p99;
+        this.rate = snapshot.rate;
+    }
+}
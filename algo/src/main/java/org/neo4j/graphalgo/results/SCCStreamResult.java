@@ -38,4 +38,9 @@ public class SCCStreamResult {
         this.nodeId = nodeId;
         this.partition = clusterId;
     }
+
+    public SCCStreamResult(long nodeId, long clusterId) {
+        this.nodeId = nodeId;
+        this.partition = clusterId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.bench;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.impl.UnionFindAlgo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * runs on generated in-memory graphs, no store or download is required
+ */
+@Threads(1)
+@Fork(value = 1, jvmArgs = {"-Xms16g", "-Xmx16g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GeneratedGraphBenchmark {
+
+    @Param({"RMAT", "BARABASI_ALBERT", "ERDOS_RENYI", "GRID"})
+    public GraphGenerator generator;
+
+    @Param({"1000000", "10000000"})
+    public long nodeCount;
+
+    @Param({"10"})
+    public int averageDegree;
+
+    @Param({"42"})
+    public long seed;
+
+    // afforest requires both directions to be loaded
+    @Param({"BOTH"})
+    public DirectionParam direction;
+
+    private HugeGraph graph;
+
+    @Setup
+    public void setup() {
+        try (ProgressTimer ignored = ProgressTimer.start(l -> System.out.println(
+                "generating " + generator + " graph took " + l + " ms"))) {
+            graph = generator.hugeGraph(
+                    nodeCount,
+                    averageDegree,
+                    seed,
+                    direction.direction,
+                    AllocationTracker.EMPTY);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.release();
+        Pools.DEFAULT.shutdownNow();
+    }
+
+    @Benchmark
+    public Object unionFindQueue() {
+        return UnionFindAlgo.QUEUE.run(
+                graph,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY,
+                100_000,
+                Pools.DEFAULT_CONCURRENCY);
+    }
+
+    @Benchmark
+    public Object unionFindAfforest() {
+        return UnionFindAlgo.AFFOREST.run(
+                graph,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY,
+                100_000,
+                Pools.DEFAULT_CONCURRENCY);
+    }
+}
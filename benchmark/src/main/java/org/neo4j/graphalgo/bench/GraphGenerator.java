@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.bench;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.core.huge.HugeGraphBuilder;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.unsafe.batchinsert.BatchInserter;
+import org.neo4j.unsafe.batchinsert.BatchInserters;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic graphs of arbitrary size without any network access.
+ * The same seed always generates the same relationships in the same order.
+ */
+public enum GraphGenerator {
+
+    /**
+     * Recursive matrix (R-MAT) graph, a Kronecker graph with the usual
+     * skewed partition probabilities, resulting in a power-law degree
+     * distribution and a small diameter.
+     */
+    RMAT {
+        private static final double A = 0.57;
+        private static final double B = 0.19;
+        private static final double C = 0.19;
+
+        @Override
+        void generate(
+                long nodeCount,
+                long relationshipCount,
+                SplittableRandom random,
+                HugeRelationshipConsumer consumer) {
+            final int scale = 64 - Long.numberOfLeadingZeros(Math.max(1L, nodeCount - 1L));
+            for (long i = 0L; i < relationshipCount; ) {
+                long source = 0L;
+                long target = 0L;
+                for (int level = 0; level < scale; level++) {
+                    final double p = random.nextDouble();
+                    source <<= 1;
+                    target <<= 1;
+                    if (p < A) {
+                        continue;
+                    }
+                    if (p < A + B) {
+                        target |= 1L;
+                    } else if (p < A + B + C) {
+                        source |= 1L;
+                    } else {
+                        source |= 1L;
+                        target |= 1L;
+                    }
+                }
+                // node counts that are not a power of two reject the overflow
+                if (source < nodeCount && target < nodeCount) {
+                    if (!consumer.accept(source, target)) {
+                        return;
+                    }
+                    ++i;
+                }
+            }
+        }
+    },
+
+    /**
+     * Barabási-Albert preferential attachment: every new node connects to
+     * {@code averageDegree} existing nodes, chosen proportional to their degree.
+     */
+    BARABASI_ALBERT {
+        @Override
+        void generate(
+                long nodeCount,
+                long relationshipCount,
+                SplittableRandom random,
+                HugeRelationshipConsumer consumer) {
+            final long perNode = Math.max(1L, relationshipCount / Math.max(1L, nodeCount));
+            // every relationship adds both of its nodes, so that
+            // drawing from this array is proportional to the degree
+            final LongArray endpoints = LongArray.newArray(relationshipCount * 2L, AllocationTracker.EMPTY);
+            long endpointCount = 0L;
+            for (long node = 1L; node < nodeCount; node++) {
+                final long links = Math.min(perNode, node);
+                for (long i = 0L; i < links; i++) {
+                    final long target = endpointCount == 0L
+                            ? 0L
+                            : endpoints.get(random.nextLong(endpointCount));
+                    if (!consumer.accept(node, target)) {
+                        return;
+                    }
+                    endpoints.set(endpointCount++, node);
+                    endpoints.set(endpointCount++, target);
+                }
+            }
+        }
+    },
+
+    /**
+     * Erdős-Rényi G(n, m) graph, relationships between uniformly chosen nodes
+     */
+    ERDOS_RENYI {
+        @Override
+        void generate(
+                long nodeCount,
+                long relationshipCount,
+                SplittableRandom random,
+                HugeRelationshipConsumer consumer) {
+            for (long i = 0L; i < relationshipCount; i++) {
+                if (!consumer.accept(random.nextLong(nodeCount), random.nextLong(nodeCount))) {
+                    return;
+                }
+            }
+        }
+    },
+
+    /**
+     * two-dimensional square grid, every node is connected to its right and lower
+     * neighbour. The average degree is ignored, the diameter is large.
+     */
+    GRID {
+        @Override
+        long relationshipCount(long nodeCount, int averageDegree) {
+            return nodeCount * 2L;
+        }
+
+        @Override
+        void generate(
+                long nodeCount,
+                long relationshipCount,
+                SplittableRandom random,
+                HugeRelationshipConsumer consumer) {
+            final long width = (long) Math.ceil(Math.sqrt(nodeCount));
+            for (long node = 0L; node < nodeCount; node++) {
+                if ((node + 1L) % width != 0L && node + 1L < nodeCount) {
+                    if (!consumer.accept(node, node + 1L)) {
+                        return;
+                    }
+                }
+                if (node + width < nodeCount) {
+                    if (!consumer.accept(node, node + width)) {
+                        return;
+                    }
+                }
+            }
+        }
+    };
+
+    /**
+     * generates up to {@code relationshipCount} relationships
+     */
+    abstract void generate(
+            long nodeCount,
+            long relationshipCount,
+            SplittableRandom random,
+            HugeRelationshipConsumer consumer);
+
+    long relationshipCount(long nodeCount, int averageDegree) {
+        return nodeCount * averageDegree;
+    }
+
+    /**
+     * generates relationships and passes them to the consumer
+     */
+    public void generate(
+            long nodeCount,
+            int averageDegree,
+            long seed,
+            HugeRelationshipConsumer consumer) {
+        generate(
+                nodeCount,
+                relationshipCount(nodeCount, averageDegree),
+                new SplittableRandom(seed),
+                consumer);
+    }
+
+    /**
+     * generates a graph directly into memory
+     *
+     * @param direction the direction to load, {@code null} for an undirected graph
+     */
+    public HugeGraph hugeGraph(
+            long nodeCount,
+            int averageDegree,
+            long seed,
+            Direction direction,
+            AllocationTracker tracker) {
+        final HugeGraphBuilder builder = new HugeGraphBuilder(
+                nodeCount,
+                relationshipCount(nodeCount, averageDegree),
+                tracker);
+        generate(nodeCount, averageDegree, seed, builder::add);
+        final HugeGraph graph = direction == null
+                ? builder.buildUndirected(Pools.DEFAULT, Pools.DEFAULT_CONCURRENCY)
+                : builder.build(direction, Pools.DEFAULT, Pools.DEFAULT_CONCURRENCY);
+        builder.release();
+        return graph;
+    }
+
+    /**
+     * writes a generated graph into a new store using the batch inserter,
+     * node ids in the store equal the generated ids
+     */
+    public void writeStore(
+            File storeDir,
+            long nodeCount,
+            int averageDegree,
+            long seed,
+            RelationshipType relationshipType) throws IOException {
+        final BatchInserter inserter = BatchInserters.inserter(storeDir);
+        try {
+            for (long node = 0L; node < nodeCount; node++) {
+                inserter.createNode(node, Collections.emptyMap());
+            }
+            generate(nodeCount, averageDegree, seed, (source, target) -> {
+                inserter.createRelationship(source, target, relationshipType, Collections.emptyMap());
+                return true;
+            });
+        } finally {
+            inserter.shutdown();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.bench;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Visits all relationships through the {@link Graph} API of the graph
+ * implementations, loaded from the same generated store.
+ */
+@Threads(1)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GraphTraversalBenchmark {
+
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+
+    @Param({"HEAVY", "LIGHT", "HUGE"})
+    public GraphImpl graphImpl;
+
+    @Param({"RMAT", "ERDOS_RENYI"})
+    public GraphGenerator generator;
+
+    @Param({"1000000"})
+    public int nodeCount;
+
+    @Param({"10"})
+    public int averageDegree;
+
+    private File storeDir;
+    private GraphDatabaseAPI db;
+    private Graph graph;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Edges {
+        public long edges;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            edges = 0L;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        storeDir = Files.createTempDirectory("traversal").toFile();
+        generator.writeStore(storeDir, nodeCount, averageDegree, 42L, TYPE);
+        db = (GraphDatabaseAPI) new GraphDatabaseFactory()
+                .newEmbeddedDatabaseBuilder(storeDir)
+                .setConfig(GraphDatabaseSettings.pagecache_memory, "2G")
+                .newGraphDatabase();
+        graph = new GraphLoader(db)
+                .withExecutorService(Pools.DEFAULT)
+                .withAnyLabel()
+                .withRelationshipType(TYPE)
+                .withDirection(Direction.OUTGOING)
+                .load(graphImpl.impl);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        graph.release();
+        db.shutdown();
+        Pools.DEFAULT.shutdownNow();
+        FileUtils.deleteRecursively(storeDir);
+    }
+
+    @Benchmark
+    public long forEachRelationship(Edges edges) {
+        final long[] sum = {0L};
+        final int nodeCount = Math.toIntExact(graph.nodeCount());
+        for (int node = 0; node < nodeCount; node++) {
+            graph.forEachRelationship(node, Direction.OUTGOING, (s, t, r) -> {
+                sum[0] += t;
+                ++edges.edges;
+                return true;
+            });
+        }
+        return sum[0];
+    }
+}
@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.bench.GraphGenerator;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the decoding of the same adjacency lists from the three layouts:
+ * delta-encoded {@link ByteArray} (HugeGraph), paged {@link IntArray} (LightGraph)
+ * and {@code int[][]} (HeavyGraph). Every invocation visits all relationships,
+ * the {@code edges} counter reports the decode throughput in edges per second.
+ */
+@Threads(1)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AdjacencyDecodeBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"RMAT", "ERDOS_RENYI", "GRID"})
+    public GraphGenerator generator;
+
+    @Param({"1000000"})
+    public int nodeCount;
+
+    @Param({"4", "32"})
+    public int averageDegree;
+
+    private HugeGraph graph;
+
+    private ByteArray deltaAdjacency;
+    private long[] deltaOffsets;
+
+    private IntArray intAdjacency;
+    private long[] intOffsets;
+
+    private int[][] arrayAdjacency;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Edges {
+        public long edges;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            edges = 0L;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        graph = generator.hugeGraph(nodeCount, averageDegree, 42L, Direction.OUTGOING, AllocationTracker.EMPTY);
+
+        arrayAdjacency = new int[nodeCount][];
+        long relationshipCount = 0L;
+        for (int node = 0; node < nodeCount; node++) {
+            final int[] targets = new int[graph.degree(node, Direction.OUTGOING)];
+            final int[] index = {0};
+            graph.forEachRelationship((long) node, Direction.OUTGOING, (s, t) -> {
+                targets[index[0]++] = (int) t;
+                return true;
+            });
+            arrayAdjacency[node] = targets;
+            relationshipCount += targets.length;
+        }
+
+        intAdjacency = IntArray.newArray(relationshipCount, AllocationTracker.EMPTY);
+        intOffsets = new long[nodeCount + 1];
+        IntArray.BulkAdder intAdder = intAdjacency.newBulkAdder();
+        intAdder.init(0L, relationshipCount);
+
+        deltaAdjacency = ByteArray.newArray(0L, AllocationTracker.EMPTY);
+        deltaAdjacency.skipAllocationRegion(1L);
+        deltaOffsets = new long[nodeCount];
+        ByteArray.LocalAllocator allocator = deltaAdjacency.newAllocator();
+
+        long offset = 0L;
+        for (int node = 0; node < nodeCount; node++) {
+            final int[] targets = arrayAdjacency[node];
+            intOffsets[node] = offset;
+            offset += targets.length;
+            for (int target : targets) {
+                intAdder.add(target);
+            }
+            if (targets.length > 0) {
+                // the adder writes sequentially, the allocation must match exactly
+                long requiredBytes = 4L;
+                long previous = 0L;
+                for (int target : targets) {
+                    requiredBytes += vSize(target - previous);
+                    previous = target;
+                }
+                deltaOffsets[node] = allocator.allocate(requiredBytes);
+                ByteArray.BulkAdder adder = allocator.adder;
+                adder.addUnsignedInt(targets.length);
+                previous = 0L;
+                for (int target : targets) {
+                    adder.addVLong(target - previous);
+                    previous = target;
+                }
+            }
+        }
+        intOffsets[nodeCount] = offset;
+    }
+
+    private static long vSize(long value) {
+        final int bits = 64 - Long.numberOfLeadingZeros(value);
+        return Math.max(1, (bits + 6) / 7);
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.release();
+        deltaAdjacency.release();
+        intAdjacency.release();
+        Pools.DEFAULT.shutdownNow();
+    }
+
+    @Benchmark
+    public long deltaCursorReuse(Edges edges) {
+        final ByteArray.DeltaCursor cursor = deltaAdjacency.newCursor();
+        long sum = 0L;
+        for (int node = 0; node < nodeCount; node++) {
+            final long offset = deltaOffsets[node];
+            if (offset != 0L) {
+                final ByteArray.DeltaCursor targets = deltaAdjacency.deltaCursor(cursor, offset);
+                long target;
+                while ((target = targets.getVLong()) != -1L) {
+                    sum += target;
+                    ++edges.edges;
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long deltaCursorAllocate(Edges edges) {
+        long sum = 0L;
+        for (int node = 0; node < nodeCount; node++) {
+            final long offset = deltaOffsets[node];
+            if (offset != 0L) {
+                final ByteArray.DeltaCursor targets = deltaAdjacency.deltaCursor(
+                        deltaAdjacency.newCursor(),
+                        offset);
+                long target;
+                while ((target = targets.getVLong()) != -1L) {
+                    sum += target;
+                    ++edges.edges;
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long intArrayCursor(Edges edges) {
+        final IntArray.Cursor cursor = intAdjacency.newCursor();
+        long sum = 0L;
+        for (int node = 0; node < nodeCount; node++) {
+            final long offset = intOffsets[node];
+            final long length = intOffsets[node + 1] - offset;
+            if (length > 0L) {
+                intAdjacency.initCursor(offset, length, cursor);
+                while (cursor.next()) {
+                    final int[] array = cursor.array;
+                    final int limit = cursor.limit;
+                    for (int i = cursor.offset; i < limit; i++) {
+                        sum += array[i];
+                    }
+                    edges.edges += limit - cursor.offset;
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long intArrays(Edges edges) {
+        long sum = 0L;
+        for (int[] targets : arrayAdjacency) {
+            for (int target : targets) {
+                sum += target;
+            }
+            edges.edges += targets.length;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long hugeGraphForEach(Edges edges) {
+        final long[] sum = {0L};
+        for (long node = 0L; node < nodeCount; node++) {
+            graph.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                sum[0] += t;
+                ++edges.edges;
+                return true;
+            });
+        }
+        return sum[0];
+    }
+
+    /**
+     * iterates with a {@link HugeGraph#concurrentCopy()} per batch of nodes,
+     * the same way as parallel algorithms do
+     */
+    @Benchmark
+    public long hugeGraphConcurrentCopy(Edges edges) {
+        final long[] sum = {0L};
+        for (long start = 0L; start < nodeCount; start += BATCH_SIZE) {
+            final HugeRelationshipIterator copy = graph.concurrentCopy();
+            final long end = Math.min(start + BATCH_SIZE, nodeCount);
+            for (long node = start; node < end; node++) {
+                copy.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                    sum[0] += t;
+                    ++edges.edges;
+                    return true;
+                });
+            }
+        }
+        return sum[0];
+    }
+
+    @Benchmark
+    public long hugeGraphAdjacencyCursor(Edges edges) {
+        final HugeAdjacencyCursor cursor = graph.adjacencyCursor();
+        long sum = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            cursor.init(node, Direction.OUTGOING);
+            int length;
+            while ((length = cursor.next()) > 0) {
+                final long[] targets = cursor.buffer();
+                for (int i = 0; i < length; i++) {
+                    sum += targets[i];
+                }
+                edges.edges += length;
+            }
+        }
+        return sum;
+    }
+}
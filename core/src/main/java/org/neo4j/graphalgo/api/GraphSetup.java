@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.api;
 
+import org.neo4j.graphalgo.core.NodeOrder;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphdb.Direction;
@@ -79,6 +80,8 @@ public class GraphSetup {
     public final boolean sort;
     // in/out adjacencies are allowed to be merged into an undirected view of the graph
     public final boolean loadAsUndirected;
+    // the order in which nodes get their internal ids
+    public final NodeOrder nodeOrder;
 
     /**
      * main ctor
@@ -98,6 +101,7 @@ public class GraphSetup {
      * @param batchSize batch size for parallel loading
      * @param accumulateWeights true if relationship-weights should be summed within the loader
      * @param sort
+     * @param nodeOrder the order in which nodes are assigned their internal ids
      */
     public GraphSetup(
             String startLabel,
@@ -119,6 +123,7 @@ public class GraphSetup {
             long logMillis,
             boolean sort,
             boolean loadAsUndirected,
+            NodeOrder nodeOrder,
             AllocationTracker tracker) {
 
         this.startLabel = startLabel;
@@ -141,6 +146,7 @@ public class GraphSetup {
         this.logMillis = logMillis;
         this.sort = sort;
         this.loadAsUndirected = loadAsUndirected;
+        this.nodeOrder = nodeOrder;
         this.tracker = tracker;
     }
 
@@ -167,6 +173,7 @@ public class GraphSetup {
         this.logMillis = -1;
         this.sort = false;
         this.loadAsUndirected = false;
+        this.nodeOrder = NodeOrder.NONE;
         this.tracker = AllocationTracker.EMPTY;
     }
 
@@ -196,6 +203,7 @@ public class GraphSetup {
         this.logMillis = -1;
         this.sort = false;
         this.loadAsUndirected = false;
+        this.nodeOrder = NodeOrder.NONE;
         this.tracker = AllocationTracker.EMPTY;
     }
 
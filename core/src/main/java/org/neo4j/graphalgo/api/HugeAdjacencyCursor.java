@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.api;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Pull-based iteration over the adjacency list of a single node.
+ * Instead of calling back into a {@link HugeRelationshipConsumer} for every
+ * relationship, the cursor decodes a block of target ids into {@link #buffer()}
+ * and lets the caller loop over it, which keeps the decoding loop and the
+ * algorithm loop tight and free of megamorphic call sites.
+ * <p>
+ * Usage:
+ * <pre>
+ *     HugeAdjacencyCursor cursor = graph.adjacencyCursor();
+ *     long[] targets = cursor.buffer();
+ *     cursor.init(nodeId, Direction.OUTGOING);
+ *     int length;
+ *     while ((length = cursor.next()) > 0) {
+ *         for (int i = 0; i &lt; length; i++) {
+ *             process(targets[i]);
+ *         }
+ *     }
+ * </pre>
+ * An instance is not thread-safe, every thread has to create its own cursor.
+ * Cursors are meant to be reused for many nodes by calling {@link #init(long, Direction)}.
+ *
+ * @see HugeRelationshipIterator#adjacencyCursor()
+ */
+public interface HugeAdjacencyCursor {
+
+    /**
+     * The maximum number of targets returned by a single call to {@link #next()}
+     * for cursors that decode compressed adjacency lists.
+     */
+    int BLOCK_SIZE = 64;
+
+    /**
+     * Positions the cursor at the start of the adjacency list of {@code nodeId}.
+     * For {@link Direction#BOTH}, incoming targets are returned before outgoing targets.
+     *
+     * @return this cursor
+     */
+    HugeAdjacencyCursor init(long nodeId, Direction direction);
+
+    /**
+     * Decodes the next block of targets into {@link #buffer()}.
+     *
+     * @return the number of targets written to the start of the buffer, 0 if the cursor is exhausted.
+     */
+    int next();
+
+    /**
+     * The buffer the targets are decoded into. The returned array might
+     * be replaced by a larger one during {@link #next()} for cursors that
+     * do not decode in fixed-size blocks, so it should be re-read after each call.
+     */
+    long[] buffer();
+
+    /**
+     * Adapts an arbitrary {@link HugeRelationshipIterator} by collecting
+     * the whole adjacency list of a node into the buffer.
+     */
+    final class Buffered implements HugeAdjacencyCursor, HugeRelationshipConsumer {
+        private final HugeRelationshipIterator relationships;
+        private long[] buffer;
+        private int length;
+
+        public Buffered(HugeRelationshipIterator relationships) {
+            this.relationships = relationships;
+            this.buffer = new long[BLOCK_SIZE];
+        }
+
+        @Override
+        public HugeAdjacencyCursor init(final long nodeId, final Direction direction) {
+            length = 0;
+            relationships.forEachRelationship(nodeId, direction, this);
+            return this;
+        }
+
+        @Override
+        public boolean accept(final long sourceNodeId, final long targetNodeId) {
+            if (length == buffer.length) {
+                buffer = ArrayUtil.grow(buffer, length + 1);
+            }
+            buffer[length++] = targetNodeId;
+            return true;
+        }
+
+        @Override
+        public int next() {
+            int length = this.length;
+            this.length = 0;
+            return length;
+        }
+
+        @Override
+        public long[] buffer() {
+            return buffer;
+        }
+    }
+}
@@ -43,6 +43,14 @@ public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator,
 
     }
 
+    /**
+     * @return {@code true} if every relationship can be traversed from both of its nodes,
+     * i.e. the graph has been loaded with {@link Direction#BOTH}
+     */
+    default boolean isBoth() {
+        return false;
+    }
+
     @Override
     default Collection<PrimitiveIntIterable> batchIterables(int batchSize) {
         return hugeBatchIterables(batchSize)
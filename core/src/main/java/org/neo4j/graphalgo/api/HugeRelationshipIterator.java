@@ -57,4 +57,14 @@ public interface HugeRelationshipIterator {
     default HugeRelationshipIntersect intersectionCopy() {
         throw new UnsupportedOperationException("Not implemented");
     }
+
+    /**
+     * @return a new cursor that iterates adjacency lists in blocks,
+     * independent from other iterations.
+     * The default implementation collects the targets through
+     * {@link #forEachRelationship(long, Direction, HugeRelationshipConsumer)}.
+     */
+    default HugeAdjacencyCursor adjacencyCursor() {
+        return new HugeAdjacencyCursor.Buffered(this);
+    }
 }
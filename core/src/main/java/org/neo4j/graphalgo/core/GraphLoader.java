@@ -21,9 +21,12 @@ package org.neo4j.graphalgo.core;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
+import org.neo4j.graphalgo.core.utils.metrics.Metrics;
+import org.neo4j.graphalgo.core.utils.metrics.Timer;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Label;
@@ -59,6 +62,7 @@ public class GraphLoader {
             void.class,
             GraphDatabaseAPI.class,
             GraphSetup.class);
+    private static final Timer LOAD = Metrics.GLOBAL.timer("load");
 
     private String label = null;
     private String relation = null;
@@ -81,6 +85,7 @@ public class GraphLoader {
     private AllocationTracker tracker = AllocationTracker.EMPTY;
     private boolean sort = false;
     private boolean loadAsUndirected = false;
+    private NodeOrder nodeOrder = NodeOrder.NONE;
 
     /**
      * Creates a new serial GraphLoader.
@@ -138,6 +143,17 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Reorder the nodes while loading to improve the memory locality of traversals.
+     * The original node ids are not affected.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withNodeOrder(NodeOrder nodeOrder) {
+        this.nodeOrder = Objects.requireNonNull(nodeOrder);
+        return this;
+    }
+
     /**
      * Use the given {@link AllocationTracker} to track memory allocations during loading.
      * Can be null, in which case no tracking happens. The same effect can be
@@ -468,7 +484,37 @@ public class GraphLoader {
      */
     public Graph load(Class<? extends GraphFactory> factoryType) {
         final MethodHandle constructor = findConstructor(factoryType);
-        return invokeConstructor(constructor).build();
+        try (Timer.Context timer = LOAD.time()) {
+            final Graph graph = invokeConstructor(constructor).build();
+            timer.withUnits(graph.nodeCount());
+            return graph;
+        }
+    }
+
+    /**
+     * Reads the number of nodes and relationships that {@link #load(Class)} would
+     * import from the count store, without loading anything.
+     * For statement based loading the counts of the whole database are returned.
+     *
+     * @return the dimensions of the graph
+     */
+    public GraphDimensions dimensions() {
+        return new GraphDimensions(api, toSetup()).call();
+    }
+
+    /**
+     * Estimates the number of bytes the graph occupies once it has been loaded
+     * with the provided GraphFactory.
+     *
+     * @param factoryType the implementation that would be used to load the graph
+     * @param dimensions the result of {@link #dimensions()}
+     * @return the estimated number of bytes, or 0 if the implementation provides no estimate
+     */
+    public long estimateMemoryUsage(Class<? extends GraphFactory> factoryType, GraphDimensions dimensions) {
+        if (HugeGraphFactory.class.isAssignableFrom(factoryType)) {
+            return HugeGraphFactory.estimateMemoryUsage(dimensions, toSetup());
+        }
+        return 0L;
     }
 
     private MethodHandle findConstructor(Class<?> factoryType) {
@@ -480,8 +526,19 @@ public class GraphLoader {
     }
 
     private GraphFactory invokeConstructor(MethodHandle constructor) {
+        final GraphSetup setup = toSetup();
+
+        try {
+            return (GraphFactory) constructor.invoke(api, setup);
+        } catch (Throwable throwable) {
+            throw Exceptions.launderedException(
+                    throwable.getMessage(),
+                    throwable);
+        }
+    }
 
-        final GraphSetup setup = new GraphSetup(
+    private GraphSetup toSetup() {
+        return new GraphSetup(
                 label,
                 null,
                 relation,
@@ -501,15 +558,8 @@ public class GraphLoader {
                 logMillis,
                 sort,
                 loadAsUndirected,
+                nodeOrder,
                 tracker);
-
-        try {
-            return (GraphFactory) constructor.invoke(api, setup);
-        } catch (Throwable throwable) {
-            throw Exceptions.launderedException(
-                    throwable.getMessage(),
-                    throwable);
-        }
     }
 
     /**
@@ -559,6 +609,7 @@ public class GraphLoader {
                 .withOptionalLabel(label).withOptionalRelationshipType(relationship)
                 .withConcurrency(config.getConcurrency())
                 .withBatchSize(config.getBatchSize())
+                .withNodeOrder(config.getNodeOrder())
                 .withParams(config.getParams());
     }
 }
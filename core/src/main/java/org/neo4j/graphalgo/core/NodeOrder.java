@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import java.util.Locale;
+
+/**
+ * The order in which loaded nodes are assigned their internal ids.
+ * Algorithms that iterate over all nodes and look up scores of the neighbours
+ * profit from an order where nodes that are connected have nearby ids,
+ * and the delta encoded adjacency lists get smaller.
+ * Currently only honored by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory}.
+ */
+public enum NodeOrder {
+
+    /**
+     * ids are assigned in the order the nodes are scanned from the store
+     */
+    NONE,
+
+    /**
+     * nodes are sorted by descending degree, so that the frequently accessed
+     * high degree nodes share the same few pages
+     */
+    DEGREE,
+
+    /**
+     * Reverse Cuthill-McKee: a breadth first traversal, starting at low degree nodes
+     * and visiting neighbours in ascending degree order, whose order is reversed.
+     * Requires an additional pass over all relationships.
+     */
+    RCM;
+
+    public static NodeOrder parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return NONE;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown node order: " + value + ", expected one of 'none', 'degree' or 'rcm'");
+        }
+    }
+}
@@ -96,6 +96,16 @@ public class ProcedureConfiguration {
         return this;
     }
 
+    /**
+     * override the concurrency, e.g. with the number of threads granted by the scheduler
+     *
+     * @return self
+     */
+    public ProcedureConfiguration overrideConcurrency(int concurrency) {
+        config.put(ProcedureConstants.CONCURRENCY, concurrency);
+        return this;
+    }
+
     /**
      * override property param
      *
@@ -253,6 +263,51 @@ public class ProcedureConfiguration {
         return getConcurrency(Pools.DEFAULT_CONCURRENCY);
     }
 
+    /**
+     * @return the number of results with the highest scores to stream,
+     * or 0 to stream the results of all nodes
+     */
+    public int getTop() {
+        final Number limit = getNumber(ProcedureConstants.LIMIT, 0);
+        return getNumber(ProcedureConstants.TOP, limit).intValue();
+    }
+
+    /**
+     * @return the number of milliseconds after which the algorithm is stopped,
+     * or 0 to run without a time limit
+     */
+    public long getTimeout() {
+        return getNumber(ProcedureConstants.TIMEOUT, 0L).longValue();
+    }
+
+    /**
+     * @return the name of the checkpoint the intermediate state of an algorithm is written to
+     */
+    public Optional<String> getCheckpoint() {
+        return getString(ProcedureConstants.CHECKPOINT);
+    }
+
+    /**
+     * @return the number of iterations or source nodes between two checkpoints
+     */
+    public int getCheckpointInterval(int defaultValue) {
+        return getNumber(ProcedureConstants.CHECKPOINT_INTERVAL, defaultValue).intValue();
+    }
+
+    /**
+     * @return the name of the checkpoint to resume the algorithm from
+     */
+    public Optional<String> getResumeFrom() {
+        return getString(ProcedureConstants.RESUME_FROM);
+    }
+
+    /**
+     * @return the order in which nodes are assigned their ids while loading
+     */
+    public NodeOrder getNodeOrder() {
+        return NodeOrder.parse(getString(ProcedureConstants.NODE_ORDER, null));
+    }
+
     public String getDirectionName() {
         return getDirectionName(ProcedureConstants.DIRECTION_DEFAULT);
     }
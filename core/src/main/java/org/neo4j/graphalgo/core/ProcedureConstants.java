@@ -61,4 +61,18 @@ public class ProcedureConstants {
 
     public static final String CONCURRENCY = "concurrency";
 
+    public static final String NODE_ORDER = "nodeOrder";
+
+    public static final String TOP = "top";
+
+    public static final String LIMIT = "limit";
+
+    public static final String TIMEOUT = "timeout";
+
+    public static final String CHECKPOINT = "checkpoint";
+
+    public static final String CHECKPOINT_INTERVAL = "checkpointInterval";
+
+    public static final String RESUME_FROM = "resumeFrom";
+
 }
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+
+import java.util.Arrays;
+
+/**
+ * Collects the targets of one node at a time and writes them as the adjacency
+ * list read by {@link HugeGraphAdjacencyCursor}: the degree as full int followed
+ * by the sorted targets, delta-encoded as vlongs. Parallel relationships are merged.
+ * The offset of the adjacency list is stored for the node, nodes without targets
+ * keep their offset of 0. An encoder is not thread-safe, every importing thread
+ * uses its own.
+ */
+final class HugeAdjacencyEncoder {
+
+    private static final long[] encodingSizeCache;
+
+    static {
+        encodingSizeCache = new long[66];
+        for (int i = 0; i < 65; i++) {
+            encodingSizeCache[i] = (long) Math.ceil((double) i / 7.0);
+        }
+        encodingSizeCache[65] = 1L;
+    }
+
+    private long[] targets;
+    private int length;
+    private long prevTarget;
+    private boolean isSorted;
+
+    HugeAdjacencyEncoder() {
+        targets = new long[0];
+    }
+
+    /**
+     * number of bytes the vlong encoding of the given value occupies
+     */
+    static long vSize(long value) {
+        int bits = Long.numberOfTrailingZeros(Long.highestOneBit(value)) + 1;
+        return encodingSizeCache[bits];
+    }
+
+    /**
+     * starts the adjacency of the next node, expecting at most {@code degree} targets
+     */
+    void reset(int degree) {
+        length = 0;
+        prevTarget = -1L;
+        isSorted = true;
+        if (targets.length < degree) {
+            targets = new long[ArrayUtil.oversize(degree, Long.BYTES)];
+        }
+    }
+
+    void add(long target) {
+        if (isSorted && target < prevTarget) {
+            isSorted = false;
+        }
+        prevTarget = targets[length++] = target;
+    }
+
+    /**
+     * writes the targets added since the last {@link #reset(int)} for the given node
+     */
+    void write(long node, LongArray offsets, ByteArray.LocalAllocator allocator) {
+        long requiredBytes = applyDelta();
+        if (length == 0) {
+            return;
+        }
+
+        long adjacencyIdx = allocator.allocate(requiredBytes);
+        offsets.set(node, adjacencyIdx);
+
+        ByteArray.BulkAdder bulkAdder = allocator.adder;
+        bulkAdder.addUnsignedInt(length);
+        long[] targets = this.targets;
+        for (int i = 0; i < length; i++) {
+            bulkAdder.addVLong(targets[i]);
+        }
+    }
+
+    private long applyDelta() {
+        int length = this.length;
+        if (length == 0) {
+            return 0L;
+        }
+
+        long[] targets = this.targets;
+        if (!isSorted) {
+            Arrays.sort(targets, 0, length);
+        }
+
+        long delta = targets[0];
+        int writePos = 1;
+        long requiredBytes = 4L + vSize(delta);  // length as full-int
+
+        for (int i = 1; i < length; ++i) {
+            long nextDelta = targets[i];
+            long value = targets[writePos] = nextDelta - delta;
+            if (value > 0L) {
+                ++writePos;
+                requiredBytes += vSize(value);
+                delta = nextDelta;
+            }
+        }
+
+        this.length = writePos;
+        return requiredBytes;
+    }
+}
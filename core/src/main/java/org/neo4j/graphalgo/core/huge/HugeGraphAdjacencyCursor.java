@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Block-wise iteration over the delta encoded adjacency lists of a {@link HugeGraphImpl}.
+ * Targets are decoded in chunks of {@link #BLOCK_SIZE} with {@link ByteArray.DeltaCursor#getVLongs(long[], int, int)}.
+ * Directions that have not been loaded are treated as empty.
+ */
+final class HugeGraphAdjacencyCursor implements HugeAdjacencyCursor {
+
+    private final ByteArray inAdjacency;
+    private final ByteArray outAdjacency;
+    private final LongArray inOffsets;
+    private final LongArray outOffsets;
+    private final ByteArray.DeltaCursor inCursor;
+    private final ByteArray.DeltaCursor outCursor;
+    private final long[] buffer;
+
+    private ByteArray.DeltaCursor current;
+    private ByteArray.DeltaCursor pending;
+
+    HugeGraphAdjacencyCursor(
+            ByteArray inAdjacency,
+            ByteArray outAdjacency,
+            LongArray inOffsets,
+            LongArray outOffsets) {
+        this.inAdjacency = inAdjacency;
+        this.outAdjacency = outAdjacency;
+        this.inOffsets = inOffsets;
+        this.outOffsets = outOffsets;
+        this.inCursor = inAdjacency != null ? inAdjacency.newCursor() : null;
+        this.outCursor = outAdjacency != null ? outAdjacency.newCursor() : null;
+        this.buffer = new long[BLOCK_SIZE];
+    }
+
+    @Override
+    public HugeAdjacencyCursor init(final long nodeId, final Direction direction) {
+        switch (direction) {
+            case INCOMING:
+                current = cursor(nodeId, inCursor, inOffsets, inAdjacency);
+                pending = null;
+                break;
+
+            case OUTGOING:
+                current = cursor(nodeId, outCursor, outOffsets, outAdjacency);
+                pending = null;
+                break;
+
+            case BOTH:
+                current = cursor(nodeId, inCursor, inOffsets, inAdjacency);
+                pending = cursor(nodeId, outCursor, outOffsets, outAdjacency);
+                if (current == null) {
+                    current = pending;
+                    pending = null;
+                }
+                break;
+
+            default:
+                throw new IllegalArgumentException(direction + "");
+        }
+        return this;
+    }
+
+    @Override
+    public int next() {
+        while (current != null) {
+            int read = current.getVLongs(buffer, 0, BLOCK_SIZE);
+            if (read > 0) {
+                return read;
+            }
+            current = pending;
+            pending = null;
+        }
+        return 0;
+    }
+
+    @Override
+    public long[] buffer() {
+        return buffer;
+    }
+
+    private static ByteArray.DeltaCursor cursor(
+            long node,
+            ByteArray.DeltaCursor reuse,
+            LongArray offsets,
+            ByteArray array) {
+        if (array == null) {
+            return null;
+        }
+        final long offset = offsets.get(node);
+        if (offset == 0L) {
+            return null;
+        }
+        return array.deltaCursor(reuse, offset);
+    }
+}
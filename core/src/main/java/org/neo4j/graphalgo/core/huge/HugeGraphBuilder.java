@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.HugeNullWeightMap;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Builds a {@link HugeGraph} from relationships that are not stored in neo4j,
+ * e.g. a generated graph. Node ids are used as they are, i.e. the original
+ * id of every node equals its mapped id.
+ * <p>
+ * Relationships are buffered in insertion order and grouped by node during
+ * {@link #build(Direction)}; parallel relationships are merged, the same as
+ * during an import from the store. The builder is not thread-safe.
+ */
+public final class HugeGraphBuilder {
+
+    private static final int MIN_BATCH_SIZE = 10_000;
+
+    private final long nodeCount;
+    private final long capacity;
+    private final AllocationTracker tracker;
+    private final LongArray sources;
+    private final LongArray targets;
+    private long relationshipCount;
+
+    /**
+     * @param nodeCount            number of nodes, node ids are in {@code [0, nodeCount)}
+     * @param maxRelationshipCount the maximum number of relationships that can be added
+     */
+    public HugeGraphBuilder(
+            long nodeCount,
+            long maxRelationshipCount,
+            AllocationTracker tracker) {
+        this.nodeCount = nodeCount;
+        this.capacity = maxRelationshipCount;
+        this.tracker = tracker;
+        this.sources = LongArray.newArray(maxRelationshipCount, tracker);
+        this.targets = LongArray.newArray(maxRelationshipCount, tracker);
+    }
+
+    public static long estimateMemoryUsage(long maxRelationshipCount) {
+        return LongArray.estimateMemoryUsage(maxRelationshipCount) * 2L;
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    public long relationshipCount() {
+        return relationshipCount;
+    }
+
+    /**
+     * adds a relationship, returns false if the builder is full
+     */
+    public boolean add(long source, long target) {
+        if (relationshipCount >= capacity) {
+            return false;
+        }
+        if (source < 0L || source >= nodeCount || target < 0L || target >= nodeCount) {
+            throw new IllegalArgumentException("node id out of range: (" + source + ", " + target + ")");
+        }
+        sources.set(relationshipCount, source);
+        targets.set(relationshipCount, target);
+        ++relationshipCount;
+        return true;
+    }
+
+    /**
+     * builds a graph with relationships in the given direction, {@link Direction#BOTH} loads
+     * incoming and outgoing relationships.
+     */
+    public HugeGraph build(Direction direction, ExecutorService executor, int concurrency) {
+        LongArray inOffsets = null;
+        LongArray outOffsets = null;
+        ByteArray inAdjacency = null;
+        ByteArray outAdjacency = null;
+        if (direction == Direction.INCOMING || direction == Direction.BOTH) {
+            inOffsets = LongArray.newArray(nodeCount, tracker);
+            inAdjacency = ByteArray.newArray(0, tracker);
+            inAdjacency.skipAllocationRegion(1);
+            encode(targets, sources, false, inOffsets, inAdjacency, executor, concurrency);
+        }
+        if (direction == Direction.OUTGOING || direction == Direction.BOTH) {
+            outOffsets = LongArray.newArray(nodeCount, tracker);
+            outAdjacency = ByteArray.newArray(0, tracker);
+            outAdjacency.skipAllocationRegion(1);
+            encode(sources, targets, false, outOffsets, outAdjacency, executor, concurrency);
+        }
+        return newGraph(inAdjacency, outAdjacency, inOffsets, outOffsets);
+    }
+
+    /**
+     * builds a graph that contains every relationship in both directions, the same
+     * as when importing with {@code asUndirected(true)}.
+     */
+    public HugeGraph buildUndirected(ExecutorService executor, int concurrency) {
+        LongArray offsets = LongArray.newArray(nodeCount, tracker);
+        ByteArray adjacency = ByteArray.newArray(0, tracker);
+        adjacency.skipAllocationRegion(1);
+        encode(sources, targets, true, offsets, adjacency, executor, concurrency);
+        return newGraph(null, adjacency, null, offsets);
+    }
+
+    /**
+     * releases the buffered relationships, graphs that have already
+     * been built are not affected
+     */
+    public void release() {
+        tracker.remove(sources.release());
+        tracker.remove(targets.release());
+        relationshipCount = 0L;
+    }
+
+    private HugeGraph newGraph(
+            ByteArray inAdjacency,
+            ByteArray outAdjacency,
+            LongArray inOffsets,
+            LongArray outOffsets) {
+        HugeIdMap idMap = new HugeIdMap(nodeCount, nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            idMap.add(node);
+        }
+        return new HugeGraphImpl(
+                tracker,
+                idMap,
+                new HugeNullWeightMap(1.0),
+                inAdjacency,
+                outAdjacency,
+                inOffsets,
+                outOffsets);
+    }
+
+    /**
+     * groups the relationships by {@code from} node into a temporary
+     * CSR and encodes the adjacency of every node the same way as an import
+     */
+    private void encode(
+            LongArray from,
+            LongArray to,
+            boolean undirected,
+            LongArray offsets,
+            ByteArray adjacency,
+            ExecutorService executor,
+            int concurrency) {
+        final long size = undirected ? relationshipCount * 2L : relationshipCount;
+
+        // offsets is used to count degrees first and holds the CSR end positions afterwards
+        for (long i = 0L; i < relationshipCount; i++) {
+            offsets.addTo(from.get(i), 1L);
+            if (undirected) {
+                offsets.addTo(to.get(i), 1L);
+            }
+        }
+        long sum = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            sum += offsets.get(node);
+            offsets.set(node, sum);
+        }
+        final LongArray csr = LongArray.newArray(size, tracker);
+        for (long i = relationshipCount - 1L; i >= 0L; i--) {
+            final long source = from.get(i);
+            final long target = to.get(i);
+            csr.set(offsets.get(source) - 1L, target);
+            offsets.addTo(source, -1L);
+            if (undirected) {
+                csr.set(offsets.get(target) - 1L, source);
+                offsets.addTo(target, -1L);
+            }
+        }
+        // offsets now holds the CSR start positions and is overwritten
+        // batch-wise with the adjacency offsets, so a batch must read the
+        // start of its successor before any other batch overwrites it
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        final long batchCount = ParallelUtil.threadSize(batchSize, nodeCount);
+        final LongArray batchEnds = LongArray.newArray(batchCount, tracker);
+        for (long batch = 0L; batch < batchCount; batch++) {
+            final long end = Math.min((batch + 1L) * batchSize, nodeCount);
+            batchEnds.set(batch, end < nodeCount ? offsets.get(end) : size);
+        }
+        ParallelUtil.run(LazyBatchCollection.of(
+                nodeCount,
+                batchSize,
+                (start, length) -> new EncodeTask(
+                        start,
+                        length,
+                        batchEnds.get(start / batchSize),
+                        csr,
+                        offsets,
+                        adjacency.newAllocator())), executor);
+        tracker.remove(batchEnds.release());
+        tracker.remove(csr.release());
+    }
+
+    private static final class EncodeTask implements Runnable {
+        private final long start;
+        private final long end;
+        private final long csrEnd;
+        private final LongArray csr;
+        private final LongArray offsets;
+        private final ByteArray.LocalAllocator allocator;
+        private final HugeAdjacencyEncoder encoder;
+
+        private EncodeTask(
+                long start,
+                long length,
+                long csrEnd,
+                LongArray csr,
+                LongArray offsets,
+                ByteArray.LocalAllocator allocator) {
+            this.start = start;
+            this.end = start + length;
+            this.csrEnd = csrEnd;
+            this.csr = csr;
+            this.offsets = offsets;
+            this.allocator = allocator;
+            this.encoder = new HugeAdjacencyEncoder();
+        }
+
+        @Override
+        public void run() {
+            long from = offsets.get(start);
+            for (long node = start; node < end; node++) {
+                final long to = node + 1L < end ? offsets.get(node + 1L) : csrEnd;
+                final int degree = Math.toIntExact(to - from);
+                offsets.set(node, 0L);
+                if (degree > 0) {
+                    encoder.reset(degree);
+                    for (long i = from; i < to; i++) {
+                        encoder.add(csr.get(i));
+                    }
+                    encoder.write(node, offsets, allocator);
+                }
+                from = to;
+            }
+        }
+    }
+}
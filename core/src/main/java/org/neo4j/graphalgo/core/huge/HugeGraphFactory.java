@@ -18,24 +18,29 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
-import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeWeightMapping;
 import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.HugeWeightMap;
+import org.neo4j.graphalgo.core.NodeOrder;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphalgo.core.utils.StatementTask;
+import org.neo4j.graphalgo.core.utils.metrics.Metrics;
+import org.neo4j.graphalgo.core.utils.metrics.Timer;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongLongDoubleMap;
 import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.impl.api.RelationshipVisitor;
 import org.neo4j.kernel.impl.api.store.RelationshipIterator;
@@ -46,12 +51,50 @@ import java.util.concurrent.atomic.AtomicLong;
 
 public final class HugeGraphFactory extends GraphFactory {
 
+    private static final Timer LOAD_NODES = Metrics.GLOBAL.timer("load.huge.nodes");
+    private static final Timer LOAD_NODE_ORDER = Metrics.GLOBAL.timer("load.huge.nodeOrder");
+    private static final Timer LOAD_RELATIONSHIPS = Metrics.GLOBAL.timer("load.huge.relationships");
+
     public HugeGraphFactory(
             GraphDatabaseAPI api,
             GraphSetup setup) {
         super(api, setup);
     }
 
+    /**
+     * Estimates the number of bytes a huge graph with the given dimensions occupies once loaded.
+     * Every relationship is assumed to need the largest delta that is possible for the node count,
+     * so the estimate is an upper bound of the adjacency lists.
+     */
+    public static long estimateMemoryUsage(GraphDimensions dimensions, GraphSetup setup) {
+        final long nodeCount = dimensions.hugeNodeCount();
+        final long relationshipCount = dimensions.maxRelCount();
+
+        long usage = LongArray.estimateMemoryUsage(nodeCount)
+                + SparseLongArray.estimateMemoryUsage(dimensions.allNodesCount());
+        if (setup.loadAsUndirected) {
+            usage += estimateAdjacencyUsage(nodeCount, relationshipCount * 2L);
+        } else {
+            if (setup.loadIncoming) {
+                usage += estimateAdjacencyUsage(nodeCount, relationshipCount);
+            }
+            if (setup.loadOutgoing) {
+                usage += estimateAdjacencyUsage(nodeCount, relationshipCount);
+            }
+        }
+        if (dimensions.weightId() != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            usage += HugeLongLongDoubleMap.estimateMemoryUsage(relationshipCount);
+        }
+        return usage;
+    }
+
+    private static long estimateAdjacencyUsage(long nodeCount, long relationshipCount) {
+        // degree as full int per node, followed by one vlong per target
+        long bytesPerTarget = HugeAdjacencyEncoder.vSize(Math.max(1L, nodeCount));
+        return LongArray.estimateMemoryUsage(nodeCount)
+                + ByteArray.estimateMemoryUsage(nodeCount * Integer.BYTES + relationshipCount * bytesPerTarget);
+    }
+
     @Override
     public HugeGraph build() {
         try {
@@ -66,12 +109,35 @@ public final class HugeGraphFactory extends GraphFactory {
         int concurrency = setup.concurrency();
         AllocationTracker tracker = setup.tracker;
         HugeWeightMapping weights = hugeWeightMapping(tracker, dimensions.weightId(), setup.relationDefaultWeight);
-        HugeIdMap mapping = loadHugeIdMap(tracker);
-        HugeGraph graph = loadRelationships(dimensions, mapping, weights, concurrency, tracker, progress);
+        HugeIdMap mapping;
+        try (Timer.Context timer = LOAD_NODES.time().withUnits(dimensions.hugeNodeCount())) {
+            mapping = loadHugeIdMap(tracker);
+        }
+        if (setup.nodeOrder != NodeOrder.NONE) {
+            try (Timer.Context timer = LOAD_NODE_ORDER.time().withUnits(mapping.nodeCount())) {
+                reorderNodes(mapping, tracker);
+            }
+        }
+        HugeGraph graph;
+        // relationships of the loaded types according to the count store, i.e. the scanned relationships
+        try (Timer.Context timer = LOAD_RELATIONSHIPS.time().withUnits(dimensions.maxRelCount())) {
+            graph = loadRelationships(dimensions, mapping, weights, concurrency, tracker, progress);
+        }
         progressLogger.logDone(tracker);
         return graph;
     }
 
+    private void reorderNodes(HugeIdMap mapping, AllocationTracker tracker) throws EntityNotFoundException {
+        final LongArray order = new HugeNodeOrdering(
+                api,
+                mapping,
+                setup.nodeOrder,
+                dimensions.relationId(),
+                tracker).call();
+        mapping.reorder(order, tracker);
+        tracker.remove(order.release());
+    }
+
     private HugeGraph loadRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
@@ -376,22 +442,7 @@ public final class HugeGraphFactory extends GraphFactory {
             while (rs.hasNext()) {
                 rs.relationshipVisit(rs.next(), delta);
             }
-
-            long requiredSize = delta.applyDelta();
-            degree = delta.length;
-            if (degree == 0) {
-                return;
-            }
-
-            long adjacencyIdx = allocator.allocate(requiredSize);
-            offsets.set(sourceGraphId, adjacencyIdx);
-
-            ByteArray.BulkAdder bulkAdder = allocator.adder;
-            bulkAdder.addUnsignedInt(degree);
-            long[] targets = delta.targets;
-            for (int i = 0; i < degree; i++) {
-                bulkAdder.addVLong(targets[i]);
-            }
+            delta.encoder.write(sourceGraphId, offsets, allocator);
         }
 
         private void readUndirectedRelationships(
@@ -415,18 +466,7 @@ public final class HugeGraphFactory extends GraphFactory {
                 while (rs.hasNext()) {
                     rs.relationshipVisit(rs.next(), delta);
                 }
-
-                long requiredSize = delta.applyDelta();
-                degree = delta.length;
-                long adjacencyIdx = allocator.allocate(requiredSize);
-                offsets.set(sourceGraphId, adjacencyIdx);
-
-                ByteArray.BulkAdder bulkAdder = allocator.adder;
-                bulkAdder.addUnsignedInt(degree);
-                long[] targets = delta.targets;
-                for (int i = 0; i < degree; i++) {
-                    bulkAdder.addVLong(targets[i]);
-                }
+                delta.encoder.write(sourceGraphId, offsets, allocator);
             }
         }
 
@@ -450,41 +490,23 @@ public final class HugeGraphFactory extends GraphFactory {
     }
 
     private static class DeltaEncodingVisitor implements RelationshipVisitor<EntityNotFoundException> {
-        private static final long[] encodingSizeCache;
-
-        static {
-            encodingSizeCache = new long[66];
-            for (int i = 0; i < 65; i++) {
-                encodingSizeCache[i] = (long) Math.ceil((double) i / 7.0);
-            }
-            encodingSizeCache[65] = 1L;
-        }
-
         private final HugeIdMap idMap;
+        private final HugeAdjacencyEncoder encoder;
         private Direction direction;
 
         long sourceGraphId;
-        private long prevTarget;
-        private boolean isSorted;
-        private long[] targets;
-        private int length;
 
         private DeltaEncodingVisitor(
                 HugeIdMap idMap,
                 Direction direction) {
             this.idMap = idMap;
             this.direction = direction;
-            targets = new long[0];
+            encoder = new HugeAdjacencyEncoder();
         }
 
         final void reset(int degree, long sourceGraphId) {
             this.sourceGraphId = sourceGraphId;
-            length = 0;
-            prevTarget = -1L;
-            isSorted = true;
-            if (targets.length < degree) {
-                targets = new long[ArrayUtil.oversize(degree, Long.BYTES)];
-            }
+            encoder.reset(degree);
         }
 
         final void setDirection(Direction direction) {
@@ -509,45 +531,8 @@ public final class HugeGraphFactory extends GraphFactory {
             if (targetId == -1L) {
                 return -1L;
             }
-
-            if (isSorted && targetId < prevTarget) {
-                isSorted = false;
-            }
-            return prevTarget = targets[length++] = targetId;
-        }
-
-        final long applyDelta() {
-            int length = this.length;
-            if (length == 0) {
-                return 0L;
-            }
-
-            long[] targets = this.targets;
-            if (!isSorted) {
-                Arrays.sort(targets, 0, length);
-            }
-
-            long delta = targets[0];
-            int writePos = 1;
-            long requiredBytes = 4L + vSize(delta);  // length as full-int
-
-            for (int i = 1; i < length; ++i) {
-                long nextDelta = targets[i];
-                long value = targets[writePos] = nextDelta - delta;
-                if (value > 0L) {
-                    ++writePos;
-                    requiredBytes += vSize(value);
-                    delta = nextDelta;
-                }
-            }
-
-            this.length = writePos;
-            return requiredBytes;
-        }
-
-        private long vSize(long value) {
-            int bits = Long.numberOfTrailingZeros(Long.highestOneBit(value)) + 1;
-            return encodingSizeCache[bits];
+            encoder.add(targetId);
+            return targetId;
         }
     }
 
@@ -20,6 +20,7 @@ package org.neo4j.graphalgo.core.huge;
 
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.api.HugeRelationshipIntersect;
@@ -118,6 +119,11 @@ public class HugeGraphImpl implements HugeGraph {
         return idMapping.nodeCount();
     }
 
+    @Override
+    public boolean isBoth() {
+        return isBoth;
+    }
+
     @Override
     public Collection<PrimitiveLongIterable> hugeBatchIterables(final int batchSize) {
         return idMapping.hugeBatchIterables(batchSize);
@@ -312,6 +318,15 @@ public class HugeGraphImpl implements HugeGraph {
         return new HugeGraphIntersectImpl(outAdjacency, outOffsets);
     }
 
+    @Override
+    public HugeAdjacencyCursor adjacencyCursor() {
+        return new HugeGraphAdjacencyCursor(
+                inAdjacency,
+                outAdjacency,
+                inOffsets,
+                outOffsets);
+    }
+
     private ByteArray.DeltaCursor newCursor(final ByteArray adjacency) {
         return adjacency != null ? adjacency.newCursor() : null;
     }
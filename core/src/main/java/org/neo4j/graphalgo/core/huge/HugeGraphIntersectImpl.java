@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.api.HugeRelationshipIntersect;
 import org.neo4j.graphalgo.core.utils.paged.ByteArray;
@@ -31,6 +32,8 @@ class HugeGraphIntersectImpl implements HugeRelationshipIntersect {
     private ByteArray.DeltaCursor cache;
     private ByteArray.DeltaCursor cacheA;
     private ByteArray.DeltaCursor cacheB;
+    private long[] leadTargets;
+    private long[] followTargets;
 
     HugeGraphIntersectImpl(final ByteArray adjacency, final LongArray offsets) {
         assert adjacency != null;
@@ -41,6 +44,8 @@ class HugeGraphIntersectImpl implements HugeRelationshipIntersect {
         cacheA = adjacency.newCursor();
         cacheB = adjacency.newCursor();
         empty = adjacency.newCursor();
+        leadTargets = new long[0];
+        followTargets = new long[0];
     }
 
     @Override
@@ -68,21 +73,34 @@ class HugeGraphIntersectImpl implements HugeRelationshipIntersect {
             follow = aCursor;
         }
 
-        long s = lead.getVLong();
-        while (s < nodeIdB && s != -1L) {
-            s = lead.getVLong();
+        final int leadLength = lead.remaining();
+        final int followLength = follow.remaining();
+        if (leadTargets.length < leadLength) {
+            leadTargets = new long[ArrayUtil.oversize(leadLength, Long.BYTES)];
         }
-        long t = follow.getVLong();
+        if (followTargets.length < followLength) {
+            followTargets = new long[ArrayUtil.oversize(followLength, Long.BYTES)];
+        }
+        final long[] s = leadTargets;
+        final long[] t = followTargets;
+        lead.getVLongs(s, 0, leadLength);
+        follow.getVLongs(t, 0, followLength);
+
+        int i = 0;
+        while (i < leadLength && s[i] < nodeIdB) {
+            ++i;
+        }
+        int j = 0;
         int start = resultOffset;
 
-        while (s != -1L && t != -1L) {
-            while (t < s && t != -1L) {
-                t = follow.getVLong();
+        for (; i < leadLength && j < followLength; ++i) {
+            final long target = s[i];
+            while (j < followLength && t[j] < target) {
+                ++j;
             }
-            if (t == s) {
-                result[resultOffset++] = t;
+            if (j < followLength && t[j] == target) {
+                result[resultOffset++] = target;
             }
-            s = lead.getVLong();
         }
 
         return resultOffset - start;
@@ -70,6 +70,23 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
         graphIds.set(internalId, longValue);
     }
 
+    /**
+     * Reassigns the internal ids, the node with the internal id {@code order[i]} becomes node {@code i}.
+     * Must be called before any relationships are imported.
+     */
+    void reorder(LongArray order, AllocationTracker tracker) {
+        final long nodeCount = nodeCount();
+        final LongArray oldGraphIds = graphIds;
+        final LongArray newGraphIds = LongArray.newArray(nodeCount, tracker);
+        for (long nodeId = 0L; nodeId < nodeCount; nodeId++) {
+            final long originalId = oldGraphIds.get(order.get(nodeId));
+            newGraphIds.set(nodeId, originalId);
+            nodeToGraphIds.set(originalId, nodeId);
+        }
+        tracker.remove(oldGraphIds.release());
+        graphIds = newGraphIds;
+    }
+
     @Override
     public long toHugeMappedNodeId(long nodeId) {
         return nodeToGraphIds.get(nodeId);
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.core.NodeOrder;
+import org.neo4j.graphalgo.core.utils.StatementTask;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.paged.IntArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.api.RelationshipVisitor;
+import org.neo4j.kernel.impl.api.store.RelationshipIterator;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+
+/**
+ * Computes a permutation of the nodes of a {@link HugeIdMap} according to a {@link NodeOrder}.
+ * The result maps the new internal id to the current internal id and is meant
+ * to be applied with {@link HugeIdMap#reorder(LongArray, AllocationTracker)}
+ * before the relationships are imported.
+ * <p>
+ * Degrees are taken for {@link Direction#BOTH} and are read from the store,
+ * {@link NodeOrder#RCM} additionally reads all relationships once.
+ */
+final class HugeNodeOrdering extends StatementTask<LongArray, EntityNotFoundException> {
+
+    // nodes with a larger degree share the last bucket of the counting sort
+    private static final int MAX_DEGREE_BUCKET = 1 << 20;
+
+    private final HugeIdMap idMap;
+    private final NodeOrder order;
+    private final int[] relationId;
+    private final AllocationTracker tracker;
+
+    HugeNodeOrdering(
+            GraphDatabaseAPI api,
+            HugeIdMap idMap,
+            NodeOrder order,
+            int[] relationId,
+            AllocationTracker tracker) {
+        super(api);
+        this.idMap = idMap;
+        this.order = order;
+        this.relationId = relationId;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public String threadName() {
+        return "HugeNodeOrdering";
+    }
+
+    @Override
+    public LongArray apply(final Statement statement) throws EntityNotFoundException {
+        final ReadOperations readOp = statement.readOperations();
+        final long nodeCount = idMap.nodeCount();
+        final IntArray degrees = IntArray.newArray(nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            degrees.set(node, degree(idMap.toOriginalNodeId(node), readOp));
+        }
+        try {
+            switch (order) {
+                case DEGREE:
+                    return sortByDegree(degrees, nodeCount, true);
+                case RCM:
+                    return reverseCuthillMcKee(degrees, nodeCount, readOp);
+                default:
+                    throw new IllegalArgumentException("Unsupported node order: " + order);
+            }
+        } finally {
+            tracker.remove(degrees.release());
+        }
+    }
+
+    /**
+     * stable counting sort of all nodes by their degree
+     */
+    private LongArray sortByDegree(IntArray degrees, long nodeCount, boolean descending) {
+        final long[] buckets = new long[MAX_DEGREE_BUCKET + 1];
+        for (long node = 0L; node < nodeCount; node++) {
+            buckets[bucket(degrees.get(node), descending)]++;
+        }
+        long sum = 0L;
+        for (int i = 0; i < buckets.length; i++) {
+            final long count = buckets[i];
+            buckets[i] = sum;
+            sum += count;
+        }
+        final LongArray sorted = LongArray.newArray(nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            sorted.set(buckets[bucket(degrees.get(node), descending)]++, node);
+        }
+        return sorted;
+    }
+
+    private static int bucket(int degree, boolean descending) {
+        final int bucket = Math.min(degree, MAX_DEGREE_BUCKET);
+        return descending ? MAX_DEGREE_BUCKET - bucket : bucket;
+    }
+
+    /**
+     * Breadth first traversal that uses the result array as its queue.
+     * Every unvisited node, in ascending degree order, starts a new traversal and
+     * the unvisited neighbours of a node are enqueued in ascending degree order.
+     */
+    private LongArray reverseCuthillMcKee(
+            IntArray degrees,
+            long nodeCount,
+            ReadOperations readOp) throws EntityNotFoundException {
+        final LongArray starts = sortByDegree(degrees, nodeCount, false);
+        final LongArray queue = LongArray.newArray(nodeCount, tracker);
+        final HugeAtomicBitSet visited = HugeAtomicBitSet.create(nodeCount, tracker);
+        final NeighbourCollector neighbours = new NeighbourCollector(visited, degrees);
+
+        long head = 0L;
+        long tail = 0L;
+        for (long i = 0L; i < nodeCount; i++) {
+            final long start = starts.get(i);
+            if (visited.get(start)) {
+                continue;
+            }
+            visited.set(start);
+            queue.set(tail++, start);
+            while (head < tail) {
+                final long node = queue.get(head++);
+                neighbours.reset();
+                final RelationshipIterator rels = relationships(idMap.toOriginalNodeId(node), readOp);
+                while (rels.hasNext()) {
+                    rels.relationshipVisit(rels.next(), neighbours);
+                }
+                tail = neighbours.drainTo(queue, tail);
+            }
+        }
+        tracker.remove(starts.release());
+        tracker.remove(visited.release());
+
+        for (long lo = 0L, hi = nodeCount - 1L; lo < hi; lo++, hi--) {
+            final long node = queue.get(lo);
+            queue.set(lo, queue.get(hi));
+            queue.set(hi, node);
+        }
+        return queue;
+    }
+
+    private int degree(long neoId, ReadOperations readOp) throws EntityNotFoundException {
+        return relationId == null
+                ? readOp.nodeGetDegree(neoId, Direction.BOTH)
+                : readOp.nodeGetDegree(neoId, Direction.BOTH, relationId[0]);
+    }
+
+    private RelationshipIterator relationships(long neoId, ReadOperations readOp) throws EntityNotFoundException {
+        return relationId == null
+                ? readOp.nodeGetRelationships(neoId, Direction.BOTH)
+                : readOp.nodeGetRelationships(neoId, Direction.BOTH, relationId);
+    }
+
+    /**
+     * collects the unvisited neighbours of a node and sorts them by degree
+     */
+    private final class NeighbourCollector implements RelationshipVisitor<RuntimeException> {
+        private final HugeAtomicBitSet visited;
+        private final IntArray degrees;
+        private long[] nodes = new long[16];
+        private long[] keys = new long[16];
+        private int length;
+
+        private NeighbourCollector(HugeAtomicBitSet visited, IntArray degrees) {
+            this.visited = visited;
+            this.degrees = degrees;
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        // the node itself is already visited, so only the other node is added
+        @Override
+        public void visit(
+                final long relationshipId,
+                final int typeId,
+                final long startNodeId,
+                final long endNodeId) {
+            long target = idMap.toHugeMappedNodeId(endNodeId);
+            if (target != -1L && !visited.get(target)) {
+                add(target);
+            }
+            target = idMap.toHugeMappedNodeId(startNodeId);
+            if (target != -1L && !visited.get(target)) {
+                add(target);
+            }
+        }
+
+        private void add(long node) {
+            visited.set(node);
+            if (length == nodes.length) {
+                nodes = ArrayUtil.grow(nodes, length + 1);
+                keys = ArrayUtil.grow(keys, length + 1);
+            }
+            keys[length] = ((long) degrees.get(node) << 32) | length;
+            nodes[length] = node;
+            length++;
+        }
+
+        long drainTo(LongArray queue, long tail) {
+            final long[] keys = this.keys;
+            Arrays.sort(keys, 0, length);
+            for (int i = 0; i < length; i++) {
+                queue.set(tail++, nodes[(int) keys[i]]);
+            }
+            return tail;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import com.carrotsearch.hppc.AbstractIterator;
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.HugeDegrees;
+import org.neo4j.graphdb.Direction;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Splits the nodes of a graph into consecutive batches that contain roughly
+ * the same amount of work, where the work of a node is its degree plus one.
+ * On power-law graphs equal-count batches put all supernodes into a few batches
+ * which then dominate the runtime; degree balanced batches avoid that.
+ * <p>
+ * The degrees are summed up in parallel for blocks of {@value #BLOCK_SIZE} nodes.
+ * Batches are cut at block boundaries, only blocks that alone exceed the
+ * batch weight are split node by node.
+ * <p>
+ * There are {@value #BATCHES_PER_THREAD} batches created per thread, so that
+ * {@link ParallelUtil#runWithConcurrency(int, Collection, ExecutorService)},
+ * which hands out the next batch to whichever thread finished first,
+ * can balance the remaining skew between threads.
+ * Like {@link LazyBatchCollection}, the tasks are only created upon iteration.
+ */
+public final class DegreeBatchCollection<T> extends AbstractCollection<T> {
+
+    static final int BLOCK_SIZE = 4096;
+    static final int BATCHES_PER_THREAD = 8;
+
+    public static <T> Collection<T> of(
+            long nodeCount,
+            HugeDegrees degrees,
+            Direction direction,
+            int concurrency,
+            ExecutorService executor,
+            LazyBatchCollection.BatchSupplier<T> supplier) {
+        final long[] bounds = partition(
+                nodeCount,
+                degrees,
+                direction,
+                concurrency,
+                executor);
+        return new DegreeBatchCollection<>(bounds, supplier);
+    }
+
+    /**
+     * @return the batch boundaries, starting with 0 and ending with {@code nodeCount}
+     */
+    static long[] partition(
+            long nodeCount,
+            HugeDegrees degrees,
+            Direction direction,
+            int concurrency,
+            ExecutorService executor) {
+        if (nodeCount <= 0L) {
+            return new long[]{0L};
+        }
+        final int blocks = Math.toIntExact(ParallelUtil.threadSize(BLOCK_SIZE, nodeCount));
+        final long[] blockWeights = new long[blocks];
+        final int blocksPerTask = ParallelUtil.adjustBatchSize(blocks, Math.max(1, concurrency), 1);
+        ParallelUtil.run(LazyBatchCollection.of(blocks, blocksPerTask, (start, length) -> () -> {
+            for (int block = (int) start, end = (int) (start + length); block < end; block++) {
+                final long from = (long) block * BLOCK_SIZE;
+                final long to = Math.min(from + BLOCK_SIZE, nodeCount);
+                long weight = 0L;
+                for (long node = from; node < to; node++) {
+                    weight += weight(degrees, node, direction);
+                }
+                blockWeights[block] = weight;
+            }
+        }), executor);
+
+        long total = 0L;
+        for (long weight : blockWeights) {
+            total += weight;
+        }
+        final long partitions = (long) Math.max(1, concurrency) * BATCHES_PER_THREAD;
+        final long target = Math.max(1L, ParallelUtil.threadSize(partitions, total));
+
+        final LongArrayList bounds = new LongArrayList();
+        bounds.add(0L);
+        long acc = 0L;
+        for (int block = 0; block < blocks; block++) {
+            final long from = (long) block * BLOCK_SIZE;
+            final long to = Math.min(from + BLOCK_SIZE, nodeCount);
+            if (blockWeights[block] > target) {
+                for (long node = from; node < to; node++) {
+                    acc += weight(degrees, node, direction);
+                    if (acc >= target) {
+                        bounds.add(node + 1L);
+                        acc = 0L;
+                    }
+                }
+            } else {
+                acc += blockWeights[block];
+                if (acc >= target) {
+                    bounds.add(to);
+                    acc = 0L;
+                }
+            }
+        }
+        if (bounds.get(bounds.size() - 1) != nodeCount) {
+            bounds.add(nodeCount);
+        }
+        return bounds.toArray();
+    }
+
+    private static long weight(HugeDegrees degrees, long node, Direction direction) {
+        return 1L + degrees.degree(node, direction);
+    }
+
+    private final long[] bounds;
+    private final LazyBatchCollection.BatchSupplier<T> supplier;
+
+    private DegreeBatchCollection(
+            long[] bounds,
+            LazyBatchCollection.BatchSupplier<T> supplier) {
+        this.bounds = bounds;
+        this.supplier = supplier;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new AbstractIterator<T>() {
+            private int i;
+
+            @Override
+            protected T fetch() {
+                int i = this.i++;
+                if (i >= bounds.length - 1) {
+                    return done();
+                }
+                long start = bounds[i];
+                return supplier.newBatch(start, bounds[i + 1] - start);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return bounds.length - 1;
+    }
+}
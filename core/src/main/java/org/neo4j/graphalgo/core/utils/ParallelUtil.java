@@ -22,6 +22,9 @@ import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.graphalgo.api.BatchNodeIterable;
 import org.neo4j.graphalgo.api.HugeBatchNodeIterable;
+import org.neo4j.graphalgo.api.HugeDegrees;
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Exceptions;
 
 import java.util.ArrayList;
@@ -199,6 +202,30 @@ public final class ParallelUtil {
         }
     }
 
+    /**
+     * Creates tasks for batches of consecutive nodes that have roughly the same
+     * number of relationships in the given direction, instead of the same number of nodes.
+     * Meant to be run with one of the {@code runWithConcurrency} methods, which
+     * hand out the remaining batches to threads as they become idle.
+     *
+     * @see DegreeBatchCollection
+     */
+    public static <T> Collection<T> degreeBatches(
+            long nodeCount,
+            HugeDegrees degrees,
+            Direction direction,
+            int concurrency,
+            ExecutorService executor,
+            LazyBatchCollection.BatchSupplier<T> supplier) {
+        return DegreeBatchCollection.of(
+                nodeCount,
+                degrees,
+                direction,
+                concurrency,
+                executor,
+                supplier);
+    }
+
     public static Collection<Runnable> tasks(
             final int concurrency,
             final Supplier<? extends Runnable> newTask) {
@@ -651,6 +678,8 @@ public final class ParallelUtil {
             TerminationFlag terminationFlag,
             ExecutorService executor) {
 
+        terminationFlag = withCurrentJob(terminationFlag);
+
         if (!canRunInParallel(executor)
                 || tasks.size() == 1
                 || concurrency <= 1) {
@@ -717,6 +746,18 @@ public final class ParallelUtil {
         }
     }
 
+    /**
+     * Also stops running when the {@link Job} admitted on the calling thread is
+     * cancelled or times out, even if the caller did not pass on its flag.
+     */
+    private static TerminationFlag withCurrentJob(TerminationFlag terminationFlag) {
+        final Job job = Job.current();
+        if (job == null) {
+            return terminationFlag;
+        }
+        return () -> job.running() && terminationFlag.running();
+    }
+
     private static void finishRunWithConcurrency(
             CompletionService completionService,
             Throwable error) {
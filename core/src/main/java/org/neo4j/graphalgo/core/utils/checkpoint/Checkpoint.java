@@ -0,0 +1,427 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.checkpoint;
+
+import org.neo4j.graphalgo.core.utils.paged.PageUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * A local file holding the intermediate state of an algorithm, so that a run that
+ * was stopped can be resumed from the last completed iteration or range of sources.
+ * <p>
+ * A checkpoint starts with a header describing the algorithm, the graph it was
+ * computed on and its progress, i.e. the number of completed iterations or of
+ * processed source nodes, followed by the state written as a sequence of value
+ * arrays. Values are transferred one page (see {@link PageUtil}) at a time,
+ * independent of how the algorithm partitions them.
+ * <p>
+ * Checkpoints are written to a temporary file which then replaces the previous
+ * checkpoint, so that a crash while writing leaves the last checkpoint intact.
+ * A checkpoint can only be read back against the same graph, identified by its
+ * node count and a fingerprint computed by the algorithm.
+ * <p>
+ * Checkpoints are named by users, but always live in a fixed directory,
+ * see {@link #resolve(Path, String)}. Symbolic links are not followed.
+ */
+public final class Checkpoint {
+
+    /**
+     * the directory within the store directory of the database that holds all checkpoints
+     */
+    public static final String DIRECTORY = "algo-checkpoints";
+
+    private static final int MAGIC = 0x47414350;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES * 3;
+    private static final int PAGE_SIZE_IN_BYTES = PageUtil.pageSizeFor(Double.BYTES) * Double.BYTES;
+
+    /**
+     * Resolves the name of a checkpoint against the directory all checkpoints are kept in.
+     *
+     * @throws IllegalArgumentException if the name is not the name of a single file,
+     *                                  e.g. because it is absolute or contains {@code ..}
+     */
+    public static Path resolve(Path directory, String name) {
+        Path path;
+        try {
+            path = Paths.get(name);
+        } catch (InvalidPathException e) {
+            throw invalidName(name);
+        }
+        if (name.isEmpty()
+                || path.isAbsolute()
+                || path.getNameCount() != 1
+                || name.equals(".")
+                || name.equals("..")
+                || name.endsWith(".tmp")) {
+            throw invalidName(name);
+        }
+        return directory.resolve(path);
+    }
+
+    /**
+     * @return the checkpoint directory of the database stored in {@code storeDir}, created if it does not exist yet
+     */
+    public static Path directory(String storeDir) {
+        Path directory = Paths.get(storeDir, DIRECTORY);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create checkpoint directory " + directory, e);
+        }
+        return directory;
+    }
+
+    private static IllegalArgumentException invalidName(String name) {
+        return new IllegalArgumentException(
+                "Checkpoint must be the name of a file in the checkpoint directory, but was '" + name + "'");
+    }
+
+    /**
+     * starts to write a checkpoint, the directory of {@code file} has to exist
+     *
+     * @param progress the completed iterations or processed source nodes
+     */
+    public static Writer write(
+            Path file,
+            String algorithm,
+            long nodeCount,
+            long fingerprint,
+            long progress) {
+        try {
+            Path absolute = file.toAbsolutePath();
+            Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+            FileChannel channel = FileChannel.open(
+                    temp,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE,
+                    LinkOption.NOFOLLOW_LINKS);
+            Writer writer = new Writer(channel, temp, absolute);
+            try {
+                writer.writeHeader(algorithm, nodeCount, fingerprint, progress);
+            } catch (IOException e) {
+                writer.failed = true;
+                writer.close();
+                throw e;
+            }
+            return writer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the checkpoint was not written
+     *                                  by {@code algorithm} for the same graph
+     */
+    public static Reader read(
+            Path file,
+            String algorithm,
+            long nodeCount,
+            long fingerprint) {
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IllegalArgumentException("Checkpoint " + file + " does not exist");
+        }
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS);
+            Reader reader = new Reader(channel, file);
+            try {
+                reader.readHeader(algorithm, nodeCount, fingerprint);
+            } catch (RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+            return reader;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read checkpoint " + file, e);
+        }
+    }
+
+    private static ByteBuffer newPage() {
+        return ByteBuffer.allocateDirect(PAGE_SIZE_IN_BYTES).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final Path temp;
+        private final Path target;
+        private final ByteBuffer page;
+        private final DoubleBuffer doubles;
+        private boolean failed;
+
+        private Writer(FileChannel channel, Path temp, Path target) {
+            this.channel = channel;
+            this.temp = temp;
+            this.target = target;
+            this.page = newPage();
+            this.doubles = page.asDoubleBuffer();
+        }
+
+        private void writeHeader(
+                String algorithm,
+                long nodeCount,
+                long fingerprint,
+                long progress) throws IOException {
+            byte[] name = algorithm.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + name.length);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(nodeCount)
+                    .putLong(fingerprint)
+                    .putLong(progress)
+                    .putInt(name.length)
+                    .put(name);
+            header.flip();
+            writeFully(header);
+        }
+
+        /**
+         * appends all {@code values} to the checkpoint
+         */
+        public Writer writeDoubles(double[] values) {
+            int offset = 0;
+            try {
+                while (offset < values.length) {
+                    int length = Math.min(doubles.capacity(), values.length - offset);
+                    doubles.clear();
+                    doubles.put(values, offset, length);
+                    page.clear().limit(length * Double.BYTES);
+                    writeFully(page);
+                    offset += length;
+                }
+            } catch (IOException e) {
+                failed = true;
+                throw new UncheckedIOException("Could not write checkpoint " + target, e);
+            }
+            return this;
+        }
+
+        /**
+         * appends the values of the indexes {@code [0, count)} to the checkpoint
+         */
+        public Writer writeDoubles(long count, LongToDoubleFunction values) {
+            long index = 0L;
+            try {
+                while (index < count) {
+                    int length = (int) Math.min(doubles.capacity(), count - index);
+                    doubles.clear();
+                    for (int i = 0; i < length; i++) {
+                        doubles.put(values.applyAsDouble(index++));
+                    }
+                    page.clear().limit(length * Double.BYTES);
+                    writeFully(page);
+                }
+            } catch (IOException e) {
+                failed = true;
+                throw new UncheckedIOException("Could not write checkpoint " + target, e);
+            }
+            return this;
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        /**
+         * Forces the checkpoint to disk and replaces the previous checkpoint with it.
+         */
+        @Override
+        public void close() {
+            try {
+                if (!failed) {
+                    channel.force(true);
+                }
+                channel.close();
+                if (failed) {
+                    Files.deleteIfExists(temp);
+                } else {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write checkpoint " + target, e);
+            }
+        }
+    }
+
+    public static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final Path file;
+        private final ByteBuffer page;
+        private final DoubleBuffer doubles;
+        private long progress;
+
+        private Reader(FileChannel channel, Path file) {
+            this.channel = channel;
+            this.file = file;
+            this.page = newPage();
+            this.doubles = page.asDoubleBuffer();
+        }
+
+        private void readHeader(
+                String algorithm,
+                long nodeCount,
+                long fingerprint) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(header);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw invalid("it is not a checkpoint");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw invalid("its version " + version + " is not supported");
+            }
+            long checkpointNodes = header.getLong();
+            long checkpointFingerprint = header.getLong();
+            progress = header.getLong();
+            int nameLength = header.getInt();
+            if (nameLength < 0 || nameLength > PAGE_SIZE_IN_BYTES) {
+                throw invalid("it is not a checkpoint");
+            }
+            ByteBuffer name = ByteBuffer.allocate(nameLength);
+            readFully(name);
+            String checkpointAlgorithm = new String(name.array(), StandardCharsets.UTF_8);
+            if (!checkpointAlgorithm.equals(algorithm)) {
+                throw invalid("it was written by " + checkpointAlgorithm + " and not by " + algorithm);
+            }
+            if (checkpointNodes != nodeCount || checkpointFingerprint != fingerprint) {
+                throw invalid(String.format(
+                        "it was written for a different graph or configuration (%d nodes instead of %d)",
+                        checkpointNodes,
+                        nodeCount));
+            }
+        }
+
+        /**
+         * @return the number of iterations that were completed when the checkpoint was written
+         */
+        public int iteration() {
+            return Math.toIntExact(progress);
+        }
+
+        /**
+         * @return the number of iterations or source nodes that were completed when the checkpoint was written
+         */
+        public long progress() {
+            return progress;
+        }
+
+        /**
+         * fills {@code values} with the next values of the checkpoint
+         */
+        public Reader readDoubles(double[] values) {
+            int offset = 0;
+            try {
+                while (offset < values.length) {
+                    int length = Math.min(doubles.capacity(), values.length - offset);
+                    page.clear().limit(length * Double.BYTES);
+                    readFully(page);
+                    doubles.clear();
+                    doubles.get(values, offset, length);
+                    offset += length;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read checkpoint " + file, e);
+            }
+            return this;
+        }
+
+        /**
+         * passes the next {@code count} values of the checkpoint with their index to {@code values}
+         */
+        public Reader readDoubles(long count, IndexedDoubleConsumer values) {
+            long index = 0L;
+            try {
+                while (index < count) {
+                    int length = (int) Math.min(doubles.capacity(), count - index);
+                    page.clear().limit(length * Double.BYTES);
+                    readFully(page);
+                    doubles.clear();
+                    for (int i = 0; i < length; i++) {
+                        values.accept(index++, doubles.get());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read checkpoint " + file, e);
+            }
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the checkpoint holds more values than have been read
+         */
+        public void verifyEnd() {
+            try {
+                if (channel.position() != channel.size()) {
+                    throw invalid("it contains more data than expected");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read checkpoint " + file, e);
+            }
+        }
+
+        private void readFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw invalid("it is truncated");
+                }
+            }
+        }
+
+        private IllegalArgumentException invalid(String reason) {
+            return new IllegalArgumentException("Cannot resume from checkpoint " + file + " because " + reason);
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read checkpoint " + file, e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface IndexedDoubleConsumer {
+        void accept(long index, double value);
+    }
+
+    private Checkpoint() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.jobs;
+
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.function.Supplier;
+
+/**
+ * A single algorithm run registered with a {@link JobScheduler}.
+ * A job holds its thread and memory budget from the moment it is admitted
+ * until it is {@link #close() closed}.
+ * <p>
+ * A job stops {@link #running()} when it is {@link #cancel() cancelled}, when its
+ * timeout has passed or when the termination flag it was submitted with stops running.
+ * The algorithm notices this through {@link #terminationFlag()}, which is also checked by
+ * {@link org.neo4j.graphalgo.core.utils.ParallelUtil#runWithConcurrency} for the job
+ * admitted on the calling thread.
+ */
+public final class Job implements AutoCloseable {
+
+    public enum State {
+        QUEUED, RUNNING, DONE
+    }
+
+    private static final ThreadLocal<Job> CURRENT = new ThreadLocal<>();
+
+    private final JobScheduler scheduler;
+    private final long id;
+    private final String name;
+    private final int requestedConcurrency;
+    private final int concurrency;
+    private final long estimatedMemory;
+    private final AllocationTracker tracker;
+    private final TerminationFlag terminationFlag;
+    private final long timeoutMillis;
+    private final long queuedAt;
+
+    private volatile State state = State.QUEUED;
+    private volatile long startedAt;
+    private volatile boolean cancelled;
+    private volatile double progress;
+    private Job previous;
+
+    Job(
+            JobScheduler scheduler,
+            long id,
+            String name,
+            int requestedConcurrency,
+            int concurrency,
+            long estimatedMemory,
+            long timeoutMillis,
+            AllocationTracker tracker,
+            TerminationFlag terminationFlag) {
+        this.scheduler = scheduler;
+        this.id = id;
+        this.name = name;
+        this.requestedConcurrency = requestedConcurrency;
+        this.concurrency = concurrency;
+        this.estimatedMemory = estimatedMemory;
+        this.timeoutMillis = timeoutMillis;
+        this.tracker = tracker;
+        this.terminationFlag = terminationFlag;
+        this.queuedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the job admitted on the calling thread which has not been closed yet, or null
+     */
+    public static Job current() {
+        final Job job = CURRENT.get();
+        // a job closed by another thread is still referenced here
+        return job != null && job.state == State.RUNNING ? job : null;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public int requestedConcurrency() {
+        return requestedConcurrency;
+    }
+
+    /**
+     * @return the number of threads this job has been granted
+     */
+    public int concurrency() {
+        return concurrency;
+    }
+
+    public long estimatedMemory() {
+        return estimatedMemory;
+    }
+
+    /**
+     * @return the tracker that the allocations of this job should be reported to
+     */
+    public AllocationTracker tracker() {
+        return tracker;
+    }
+
+    /**
+     * @return the memory currently reported by the job's {@link AllocationTracker}
+     */
+    public long trackedMemory() {
+        return tracker.tracked();
+    }
+
+    /**
+     * @return the epoch millis at which the job was submitted
+     */
+    public long queuedAt() {
+        return queuedAt;
+    }
+
+    /**
+     * @return the epoch millis at which the job was admitted, or 0 if it is still queued
+     */
+    public long startedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return the number of milliseconds after submission at which the job is stopped, or 0 for no limit
+     */
+    public long timeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * @return the last progress reported through {@link #progressLogger(ProgressLogger)}, between 0 and 1
+     */
+    public double progress() {
+        return progress;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isTimedOut() {
+        return timeoutMillis > 0L && System.currentTimeMillis() - queuedAt > timeoutMillis;
+    }
+
+    /**
+     * @return false once the job has been cancelled, timed out or its termination flag stopped running
+     */
+    public boolean running() {
+        return !cancelled && !isTimedOut() && terminationFlag.running();
+    }
+
+    /**
+     * @return a flag that stops running together with this job
+     */
+    public TerminationFlag terminationFlag() {
+        return this::running;
+    }
+
+    /**
+     * @return a logger that records the progress of this job before passing it on to {@code delegate}
+     */
+    public ProgressLogger progressLogger(ProgressLogger delegate) {
+        return new ProgressLogger() {
+            @Override
+            public void logProgress(double percentDone, Supplier<String> msg) {
+                progress = percentDone;
+                delegate.logProgress(percentDone, msg);
+            }
+
+            @Override
+            public void logDone(Supplier<String> msg) {
+                progress = 1.0;
+                delegate.logDone(msg);
+            }
+        };
+    }
+
+    /**
+     * Requests the job to stop. A queued job is removed from the queue,
+     * a running job stops at its next termination check.
+     *
+     * @return true if the job had not finished yet
+     */
+    public boolean cancel() {
+        return scheduler.cancel(this);
+    }
+
+    /**
+     * Releases the budget of this job and lets queued jobs continue.
+     *
+     * @throws IllegalStateException if the job was cancelled or timed out, because its results are incomplete
+     */
+    @Override
+    public void close() {
+        scheduler.release(this);
+        if (cancelled || isTimedOut()) {
+            throw new IllegalStateException(describeTermination());
+        }
+    }
+
+    /**
+     * @return the memory this job is accounted for, the larger of its estimate and its tracked usage
+     */
+    long committedMemory() {
+        return Math.max(estimatedMemory, tracker.tracked());
+    }
+
+    String describeTermination() {
+        if (cancelled) {
+            return String.format("Job [%d] %s was cancelled", id, name);
+        }
+        if (isTimedOut()) {
+            return String.format("Job [%d] %s timed out after %d ms", id, name, timeoutMillis);
+        }
+        return String.format("Job [%d] %s was terminated", id, name);
+    }
+
+    void markCancelled() {
+        cancelled = true;
+    }
+
+    void start() {
+        startedAt = System.currentTimeMillis();
+        state = State.RUNNING;
+        previous = CURRENT.get();
+        CURRENT.set(this);
+    }
+
+    void finish() {
+        if (state == State.RUNNING && CURRENT.get() == this) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+        state = State.DONE;
+    }
+}
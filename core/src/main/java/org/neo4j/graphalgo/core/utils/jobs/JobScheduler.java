@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.jobs;
+
+import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for algorithm runs that share {@link Pools#DEFAULT}.
+ * <p>
+ * Every run asks for a number of threads and an estimate of the memory it is going to allocate.
+ * Jobs are admitted in submission order once enough threads of the thread budget are free
+ * and their estimate fits next to the memory committed by the running jobs. The memory
+ * of a running job is the larger of its estimate and what its {@link AllocationTracker}
+ * reports, so jobs which allocate more than they announced hold back later jobs.
+ * A job asking for more threads than the budget is granted the whole budget, a job
+ * whose estimate exceeds the memory budget is only admitted while no other job runs.
+ * <p>
+ * Jobs can be {@link Job#cancel() cancelled} and given a timeout, which both stop queued
+ * and running jobs.
+ * <p>
+ * The {@link #GLOBAL} scheduler is exposed with the {@code algo.jobs.list()} and {@code algo.jobs.cancel(id)} procedures.
+ */
+public final class JobScheduler {
+
+    private static final double MEMORY_FRACTION = 0.8;
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    public static final JobScheduler GLOBAL = new JobScheduler(
+            Pools.DEFAULT_CONCURRENCY,
+            (long) (Runtime.getRuntime().maxMemory() * MEMORY_FRACTION));
+
+    private final int maxThreads;
+    private final long maxMemory;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Deque<Job> queued = new ArrayDeque<>();
+    private final List<Job> running = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private int usedThreads;
+
+    public JobScheduler(int maxThreads, long maxMemory) {
+        if (maxThreads <= 0) {
+            throw new IllegalArgumentException("Invalid thread budget: " + maxThreads);
+        }
+        this.maxThreads = maxThreads;
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Registers a job without a memory estimate or timeout and blocks until it is admitted.
+     *
+     * @see #admit(String, int, long, long, AllocationTracker, TerminationFlag)
+     */
+    public Job admit(
+            String name,
+            int concurrency,
+            AllocationTracker tracker,
+            TerminationFlag terminationFlag) {
+        return admit(name, concurrency, 0L, 0L, tracker, terminationFlag);
+    }
+
+    /**
+     * Registers a job for a procedure call and blocks until it is admitted.
+     * The concurrency and timeout are read from the {@code configuration},
+     * the concurrency is then overridden with the number of threads granted to the job.
+     *
+     * @see #admit(String, int, long, long, AllocationTracker, TerminationFlag)
+     */
+    public Job admit(
+            String name,
+            ProcedureConfiguration configuration,
+            long estimatedMemory,
+            AllocationTracker tracker,
+            TerminationFlag terminationFlag) {
+        final Job job = admit(
+                name,
+                configuration.getConcurrency(),
+                estimatedMemory,
+                configuration.getTimeout(),
+                tracker,
+                terminationFlag);
+        configuration.overrideConcurrency(job.concurrency());
+        return job;
+    }
+
+    /**
+     * Registers a job and blocks until it is admitted.
+     * The admitted job becomes the {@link Job#current() current job} of the calling thread.
+     *
+     * @param name the name shown when listing jobs, usually the procedure name
+     * @param concurrency the requested number of threads
+     * @param estimatedMemory the number of bytes the job is expected to allocate, may be 0 if unknown
+     * @param timeoutMillis the number of milliseconds after which the job is stopped, or 0 for no limit
+     * @param tracker the tracker of the job's allocations
+     * @param terminationFlag the job stops running once this flag stops running
+     * @return the admitted job, which must be closed to release its budget
+     * @throws IllegalStateException if the job was cancelled, timed out, terminated or interrupted while waiting
+     */
+    public Job admit(
+            String name,
+            int concurrency,
+            long estimatedMemory,
+            long timeoutMillis,
+            AllocationTracker tracker,
+            TerminationFlag terminationFlag) {
+        final int granted = threadsFor(concurrency);
+        final Job job = new Job(
+                this,
+                ids.incrementAndGet(),
+                name,
+                concurrency,
+                granted,
+                Math.max(0L, estimatedMemory),
+                Math.max(0L, timeoutMillis),
+                tracker == null ? AllocationTracker.EMPTY : tracker,
+                terminationFlag);
+
+        lock.lock();
+        try {
+            queued.addLast(job);
+            while (queued.peekFirst() != job || !fits(job)) {
+                if (!job.running()) {
+                    abandon(job);
+                    throw new IllegalStateException(job.describeTermination() + " while waiting to be admitted");
+                }
+                try {
+                    // tracked memory changes without notice, re-check periodically
+                    changed.awaitNanos(RECHECK_NANOS);
+                } catch (InterruptedException e) {
+                    abandon(job);
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(String.format(
+                            "Job [%d] %s was interrupted while waiting to be admitted",
+                            job.id(),
+                            name), e);
+                }
+            }
+            queued.removeFirst();
+            running.add(job);
+            usedThreads += job.concurrency();
+            job.start();
+            // the next job in line might fit as well
+            changed.signalAll();
+            return job;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return a snapshot of the running jobs followed by the queued jobs in admission order
+     */
+    public List<Job> jobs() {
+        lock.lock();
+        try {
+            final List<Job> jobs = new ArrayList<>(running.size() + queued.size());
+            jobs.addAll(running);
+            jobs.addAll(queued);
+            return jobs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels the queued or running job with the given id.
+     *
+     * @return the cancelled job, or null if no such job is queued or running
+     */
+    public Job cancel(long id) {
+        for (Job job : jobs()) {
+            if (job.id() == id) {
+                return cancel(job) ? job : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of threads a job that requests {@code concurrency} threads is granted once admitted
+     */
+    public int threadsFor(int concurrency) {
+        return Math.max(1, Math.min(concurrency, maxThreads));
+    }
+
+    public int maxThreads() {
+        return maxThreads;
+    }
+
+    public long maxMemory() {
+        return maxMemory;
+    }
+
+    void release(Job job) {
+        lock.lock();
+        try {
+            if (running.remove(job)) {
+                usedThreads -= job.concurrency();
+                job.finish();
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean cancel(Job job) {
+        lock.lock();
+        try {
+            if (job.state() == Job.State.DONE) {
+                return false;
+            }
+            job.markCancelled();
+            // wake up the job if it is still queued
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(Job job) {
+        if (usedThreads + job.concurrency() > maxThreads) {
+            return false;
+        }
+        if (running.isEmpty()) {
+            return true;
+        }
+        long committed = job.estimatedMemory();
+        for (Job other : running) {
+            committed += other.committedMemory();
+        }
+        return committed <= maxMemory;
+    }
+
+    private void abandon(Job job) {
+        queued.remove(job);
+        job.finish();
+        changed.signalAll();
+    }
+}
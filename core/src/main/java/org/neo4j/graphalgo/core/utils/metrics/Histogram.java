@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution of non-negative values over power-of-two buckets.
+ * Percentiles are approximated by the upper bound of the bucket
+ * they fall into, which is at most twice the actual value.
+ */
+public final class Histogram implements Metric {
+
+    public static final String TYPE = "histogram";
+
+    private static final int BUCKETS = 65;
+
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    Histogram() {
+        buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * records a value, negative values are recorded as 0
+     */
+    public void update(long value) {
+        value = Math.max(0L, value);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+        sum.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    public long count() {
+        long count = 0L;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return an upper bound for the value at the given quantile in {@code [0, 1]}
+     */
+    public long percentile(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += (counts[i] = buckets[i].sum());
+        }
+        return percentile(counts, count, quantile);
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public MetricSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += (counts[i] = buckets[i].sum());
+        }
+        if (count == 0L) {
+            return new MetricSnapshot(TYPE, 0L, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+        }
+        double sum = (double) this.sum.sum();
+        return new MetricSnapshot(
+                TYPE,
+                count,
+                sum,
+                (double) min.get(),
+                (double) max.get(),
+                sum / count,
+                (double) percentile(counts, count, 0.5),
+                (double) percentile(counts, count, 0.99),
+                0.0);
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        sum.reset();
+        min.reset();
+        max.reset();
+    }
+
+    private long percentile(long[] counts, long count, double quantile) {
+        long rank = (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * count);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0L) {
+                long upperBound = i == 0 ? 0L : i >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << i) - 1L;
+                return Math.min(upperBound, max.get());
+            }
+        }
+        return max.get();
+    }
+}
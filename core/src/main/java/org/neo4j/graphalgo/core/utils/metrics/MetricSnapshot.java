@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+/**
+ * point in time view of a {@link Metric}.
+ * Fields that do not apply to the type of the metric are 0.
+ */
+public final class MetricSnapshot {
+
+    public final String type;
+    public final long count;
+    public final double sum;
+    public final double min;
+    public final double max;
+    public final double mean;
+    public final double p50;
+    public final double p99;
+    /**
+     * units per second, only set for timers
+     */
+    public final double rate;
+
+    public MetricSnapshot(
+            String type,
+            long count,
+            double sum,
+            double min,
+            double max,
+            double mean,
+            double p50,
+            double p99,
+            double rate) {
+        this.type = type;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of named {@link Counter}s, {@link Timer}s and {@link Histogram}s.
+ * <p>
+ * Metrics are created on first access and live as long as the registry,
+ * callers should look them up once and keep the reference.
+ * The {@link #GLOBAL} registry is exposed with the {@code algo.metrics()}
+ * procedure and as JMX bean {@value #OBJECT_NAME}.
+ * <p>
+ * Names are dot separated, starting with the component, e.g.
+ * {@code load.huge.relationships}, {@code pagerank.iteration} or {@code export.nodes}.
+ */
+public final class Metrics {
+
+    public static final String OBJECT_NAME = "org.neo4j.graphalgo:type=Metrics";
+
+    public static final Metrics GLOBAL = new Metrics().registerMBean(OBJECT_NAME);
+
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    public Metrics() {
+    }
+
+    public Counter counter(String name) {
+        return get(name, Counter.class, Counter::new);
+    }
+
+    public Timer timer(String name) {
+        return get(name, Timer.class, Timer::new);
+    }
+
+    public Histogram histogram(String name) {
+        return get(name, Histogram.class, Histogram::new);
+    }
+
+    /**
+     * @return the current value of every metric, ordered by name
+     */
+    public SortedMap<String, MetricSnapshot> snapshot() {
+        SortedMap<String, MetricSnapshot> snapshot = new TreeMap<>();
+        metrics.forEach((name, metric) -> snapshot.put(name, metric.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * resets all metrics, metric instances stay registered
+     */
+    public void reset() {
+        metrics.values().forEach(Metric::reset);
+    }
+
+    private <M extends Metric> M get(String name, Class<M> type, Supplier<M> create) {
+        Metric metric = metrics.computeIfAbsent(name, ignore -> create.get());
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(String.format(
+                    "Metric %s is a %s and not a %s",
+                    name,
+                    metric.type(),
+                    type.getSimpleName().toLowerCase()));
+        }
+        return type.cast(metric);
+    }
+
+    private Metrics registerMBean(String objectName) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMBean(this), name);
+            }
+        } catch (JMException | SecurityException ignore) {
+            // metrics are still available with the procedure
+        }
+        return this;
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ReflectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Exposes every metric value as read-only attribute {@code <metric>.<field>},
+ * e.g. {@code pagerank.iteration.rate}. The set of attributes grows with the registry.
+ */
+final class MetricsMBean implements DynamicMBean {
+
+    private static final String[] FIELDS = {"count", "sum", "min", "max", "mean", "p50", "p99", "rate"};
+    private static final String RESET = "reset";
+
+    private final Metrics metrics;
+
+    MetricsMBean(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        int split = attribute.lastIndexOf('.');
+        if (split > 0) {
+            MetricSnapshot snapshot = metrics.snapshot().get(attribute.substring(0, split));
+            if (snapshot != null) {
+                Object value = value(snapshot, attribute.substring(split + 1));
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        SortedMap<String, MetricSnapshot> snapshot = metrics.snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            int split = attribute.lastIndexOf('.');
+            MetricSnapshot metric = split > 0 ? snapshot.get(attribute.substring(0, split)) : null;
+            if (metric != null) {
+                Object value = value(metric, attribute.substring(split + 1));
+                if (value != null) {
+                    list.add(new Attribute(attribute, value));
+                }
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if (RESET.equals(actionName)) {
+            metrics.reset();
+            return null;
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Map.Entry<String, MetricSnapshot> entry : metrics.snapshot().entrySet()) {
+            for (String field : FIELDS) {
+                String type = "count".equals(field) ? Long.class.getName() : Double.class.getName();
+                attributes.add(new MBeanAttributeInfo(
+                        entry.getKey() + "." + field,
+                        type,
+                        entry.getValue().type + " " + field,
+                        true,
+                        false,
+                        false));
+            }
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo(
+                RESET,
+                "resets all metrics",
+                new MBeanParameterInfo[0],
+                "void",
+                MBeanOperationInfo.ACTION);
+        return new MBeanInfo(
+                getClass().getName(),
+                "graph algorithm metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]),
+                null,
+                new MBeanOperationInfo[]{reset},
+                null);
+    }
+
+    private static Object value(MetricSnapshot snapshot, String field) {
+        switch (field) {
+            case "count":
+                return snapshot.count;
+            case "sum":
+                return snapshot.sum;
+            case "min":
+                return snapshot.min;
+            case "max":
+                return snapshot.max;
+            case "mean":
+                return snapshot.mean;
+            case "p50":
+                return snapshot.p50;
+            case "p99":
+                return snapshot.p99;
+            case "rate":
+                return snapshot.rate;
+            default:
+                return null;
+        }
+    }
+}
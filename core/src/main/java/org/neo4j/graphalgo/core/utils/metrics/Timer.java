@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durations of a repeated phase, together with the units of work
+ * (e.g. nodes or relationships) processed in that phase.
+ * Snapshots report durations in milliseconds and the rate in units per second.
+ */
+public final class Timer implements Metric {
+
+    public static final String TYPE = "timer";
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder units = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    Timer() {
+    }
+
+    /**
+     * starts a measurement that is recorded when the returned context is closed
+     */
+    public Context time() {
+        return new Context(this);
+    }
+
+    public void record(long nanos, long units) {
+        count.increment();
+        this.nanos.add(nanos);
+        this.units.add(units);
+        min.accumulate(nanos);
+        max.accumulate(nanos);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return nanos.sum();
+    }
+
+    public long units() {
+        return units.sum();
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public MetricSnapshot snapshot() {
+        long count = this.count.sum();
+        if (count == 0L) {
+            return new MetricSnapshot(TYPE, 0L, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+        }
+        long nanos = this.nanos.sum();
+        double millis = toMillis(nanos);
+        double rate = nanos == 0L ? 0.0 : units.sum() * (double) TimeUnit.SECONDS.toNanos(1L) / nanos;
+        return new MetricSnapshot(
+                TYPE,
+                count,
+                millis,
+                toMillis(min.get()),
+                toMillis(max.get()),
+                millis / count,
+                0.0,
+                0.0,
+                rate);
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+        nanos.reset();
+        units.reset();
+        min.reset();
+        max.reset();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+
+    public static final class Context implements AutoCloseable {
+        private final Timer timer;
+        private final long start;
+        private long units;
+
+        private Context(Timer timer) {
+            this.timer = timer;
+            this.start = System.nanoTime();
+        }
+
+        public Context withUnits(long units) {
+            this.units = units;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            timer.record(System.nanoTime() - start, units);
+        }
+    }
+}
@@ -18,7 +18,9 @@
  */
 package org.neo4j.graphalgo.core.utils.paged;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongToIntFunction;
 
 import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.shallowSizeOfInstance;
 import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
@@ -38,6 +40,9 @@ public final class AtomicIntArray extends PagedDataStructure<AtomicIntegerArray>
                 new AtomicIntegerArray[0]);
     }
 
+    public static long estimateMemoryUsage(long size) {
+        return ALLOCATOR_FACTORY.estimateMemoryUsage(size, AtomicIntArray.class);
+    }
 
     public static AtomicIntArray newArray(long size, AllocationTracker tracker) {
         return new AtomicIntArray(size, ALLOCATOR_FACTORY.newAllocator(tracker));
@@ -76,4 +81,42 @@ public final class AtomicIntArray extends PagedDataStructure<AtomicIntegerArray>
         final int indexInPage = indexInPage(index);
         return pages[pageIndex].compareAndSet(indexInPage, expected, update);
     }
+
+    /**
+     * Sets every value up to {@link #size()} to the result of {@code generator}
+     * applied to its index, using at most {@code concurrency} threads.
+     */
+    public void setAll(LongToIntFunction generator, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            for (int i = 0; i < length; i++) {
+                page.set(i, generator.applyAsInt(offset + i));
+            }
+        });
+    }
+
+    /**
+     * Sets every value up to {@link #size()} to {@code value}, using at most {@code concurrency} threads.
+     */
+    public void fill(int value, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            for (int i = 0; i < length; i++) {
+                page.set(i, value);
+            }
+        });
+    }
+
+    /**
+     * Copies all values up to {@link #size()} into {@code target}, using at most {@code concurrency} threads.
+     *
+     * @throws IllegalArgumentException if {@code target} is smaller than this array
+     */
+    public void copyTo(AtomicIntArray target, int concurrency, ExecutorService executor) {
+        checkCopyTarget(target);
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            final AtomicIntegerArray targetPage = target.pages[pageIndex(offset)];
+            for (int i = 0; i < length; i++) {
+                targetPage.set(i, page.get(i));
+            }
+        });
+    }
 }
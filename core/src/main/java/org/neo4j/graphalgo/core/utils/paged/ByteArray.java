@@ -438,6 +438,54 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
             return maxTargets;
         }
 
+        /**
+         * @return number of targets that have not been decoded yet
+         */
+        public int remaining() {
+            return Math.max(0, maxTargets - currentTarget);
+        }
+
+        /**
+         * Decodes up to {@code length} targets into {@code buffer}, starting at {@code offset}.
+         * The varints are decoded in a tight loop as long as the current page contains
+         * enough bytes for the largest possible value.
+         *
+         * @return the number of decoded targets, 0 if the cursor is exhausted
+         */
+        public int getVLongs(long[] buffer, int offset, int length) {
+            final int count = Math.min(length, remaining());
+            if (count <= 0) {
+                return 0;
+            }
+            byte[] array = this.array;
+            int position = this.offset;
+            int limit = this.limit;
+            long delta = this.delta;
+            final int end = offset + count;
+            for (int i = offset; i < end; i++) {
+                if (limit - position >= 9) {
+                    byte b = array[position++];
+                    long value = (long) ((int) b & 0x7F);
+                    for (int shift = 7; ((int) b & 0x80) != 0; shift += 7) {
+                        b = array[position++];
+                        value |= ((long) b & 0x7FL) << shift;
+                    }
+                    buffer[i] = delta += value;
+                } else {
+                    this.offset = position;
+                    this.delta = delta;
+                    buffer[i] = delta = slowGetVLong();
+                    array = this.array;
+                    position = this.offset;
+                    limit = this.limit;
+                }
+            }
+            this.offset = position;
+            this.delta = delta;
+            currentTarget += count;
+            return count;
+        }
+
         public long getVLong() {
             if (currentTarget++ >= maxTargets) {
                 return -1L;
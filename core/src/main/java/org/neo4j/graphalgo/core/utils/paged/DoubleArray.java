@@ -19,6 +19,8 @@
 package org.neo4j.graphalgo.core.utils.paged;
 
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.function.LongToDoubleFunction;
 
 public final class DoubleArray extends PagedDataStructure<double[]> {
 
@@ -59,4 +61,34 @@ public final class DoubleArray extends PagedDataStructure<double[]> {
             Arrays.fill(page, value);
         }
     }
+
+    /**
+     * Sets every value up to {@link #size()} to the result of {@code generator}
+     * applied to its index, using at most {@code concurrency} threads.
+     */
+    public void setAll(LongToDoubleFunction generator, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            for (int i = 0; i < length; i++) {
+                page[i] = generator.applyAsDouble(offset + i);
+            }
+        });
+    }
+
+    /**
+     * Sets every value up to {@link #size()} to {@code value}, using at most {@code concurrency} threads.
+     */
+    public void fill(double value, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> Arrays.fill(page, 0, length, value));
+    }
+
+    /**
+     * Copies all values up to {@link #size()} into {@code target}, using at most {@code concurrency} threads.
+     *
+     * @throws IllegalArgumentException if {@code target} is smaller than this array
+     */
+    public void copyTo(DoubleArray target, int concurrency, ExecutorService executor) {
+        checkCopyTarget(target);
+        forEachPage(concurrency, executor, (page, offset, length) ->
+                System.arraycopy(page, 0, target.pages[pageIndex(offset)], 0, length));
+    }
 }
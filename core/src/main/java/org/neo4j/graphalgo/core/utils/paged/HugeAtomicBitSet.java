@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A long-indexed, thread safe bit set.
+ * The bits are stored in the words of a {@link HugeAtomicLongArray}.
+ */
+public final class HugeAtomicBitSet {
+
+    private final HugeAtomicLongArray words;
+    private final long size;
+    private final long numWords;
+
+    public static long estimateMemoryUsage(long size) {
+        return HugeAtomicLongArray.estimateMemoryUsage(wordsFor(size))
+                + MemoryUsage.shallowSizeOfInstance(HugeAtomicBitSet.class);
+    }
+
+    public static HugeAtomicBitSet create(long size, AllocationTracker tracker) {
+        final long numWords = wordsFor(size);
+        return new HugeAtomicBitSet(HugeAtomicLongArray.newArray(numWords, tracker), size, numWords);
+    }
+
+    private HugeAtomicBitSet(HugeAtomicLongArray words, long size, long numWords) {
+        this.words = words;
+        this.size = size;
+        this.numWords = numWords;
+    }
+
+    /**
+     * @return the state of the bit at {@code index}
+     */
+    public boolean get(long index) {
+        assert index < size;
+        return (words.get(index >>> 6) & (1L << index)) != 0L;
+    }
+
+    /**
+     * set the bit at {@code index}
+     */
+    public void set(long index) {
+        trySet(index);
+    }
+
+    /**
+     * try to set the bit at {@code index}
+     *
+     * @return true if this call changed the bit, false if it was already set
+     */
+    public boolean trySet(long index) {
+        assert index < size;
+        final long wordIndex = index >>> 6;
+        final long mask = 1L << index;
+        long current, value;
+        do {
+            current = words.get(wordIndex);
+            value = current | mask;
+            if (current == value) {
+                return false;
+            }
+        } while (!words.cas(wordIndex, current, value));
+        return true;
+    }
+
+    /**
+     * unset the bit at {@code index}
+     */
+    public void clear(long index) {
+        assert index < size;
+        final long wordIndex = index >>> 6;
+        final long mask = ~(1L << index);
+        long current, value;
+        do {
+            current = words.get(wordIndex);
+            value = current & mask;
+            if (current == value) {
+                return;
+            }
+        } while (!words.cas(wordIndex, current, value));
+    }
+
+    /**
+     * unset all bits, not thread safe
+     */
+    public void clear() {
+        for (long i = 0L; i < numWords; i++) {
+            words.set(i, 0L);
+        }
+    }
+
+    /**
+     * unset all bits using at most {@code concurrency} threads, not thread safe
+     */
+    public void clear(int concurrency, ExecutorService executor) {
+        words.fill(0L, concurrency, executor);
+    }
+
+    /**
+     * @return the number of set bits, not thread safe
+     */
+    public long cardinality() {
+        long count = 0L;
+        for (long i = 0L; i < numWords; i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long release() {
+        return words.release();
+    }
+
+    private static long wordsFor(long size) {
+        return (size + 63L) >>> 6;
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Lock-free disjoint set struct for concurrent unions on a single shared parent array.
+ * <p>
+ * Every set is represented by its smallest element, a root is an element which is
+ * its own parent. {@link #union(long, long)} links the root with the higher id to the
+ * root with the lower id using a CAS on the parent array, so that concurrent unions
+ * can never form a cycle. Path compression is done separately with {@link #compress(long)}
+ * which makes every element point directly to its root once no more unions happen.
+ * <p>
+ * Based on the link and compress steps of
+ * "Afforest: Optimizing the Space-Efficiency of Connected Components" [1].
+ * <p>
+ * [1]: <a href="https://arxiv.org/abs/1805.09767">Afforest</a>
+ */
+public final class HugeAtomicDisjointSetStruct {
+
+    private final HugeAtomicLongArray parent;
+    private final long capacity;
+
+    public HugeAtomicDisjointSetStruct(long capacity, AllocationTracker tracker) {
+        this.parent = HugeAtomicLongArray.newArray(capacity, tracker);
+        this.capacity = capacity;
+    }
+
+    public static long estimateSize(long capacity) {
+        return HugeAtomicLongArray.estimateMemoryUsage(capacity)
+                + MemoryUsage.shallowSizeOfInstance(HugeAtomicDisjointSetStruct.class);
+    }
+
+    /**
+     * make every element its own set, not thread safe
+     */
+    public HugeAtomicDisjointSetStruct reset() {
+        for (long i = 0L; i < capacity; i++) {
+            parent.set(i, i);
+        }
+        return this;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public boolean connected(long p, long q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * find the root of the set of {@code p} without changing the structure
+     */
+    public long find(long p) {
+        long np;
+        while ((np = parent.get(p)) != p) {
+            p = np;
+        }
+        return p;
+    }
+
+    /**
+     * join the sets of {@code p} and {@code q}, thread safe
+     */
+    public void union(long p, long q) {
+        long p1 = parent.get(p);
+        long p2 = parent.get(q);
+        while (p1 != p2) {
+            final long high = Math.max(p1, p2);
+            final long low = Math.min(p1, p2);
+            final long pHigh = parent.get(high);
+            // already linked by another thread
+            if (pHigh == low) {
+                return;
+            }
+            if (pHigh == high && parent.cas(high, high, low)) {
+                return;
+            }
+            p1 = parent.get(parent.get(high));
+            p2 = parent.get(low);
+        }
+    }
+
+    /**
+     * let {@code p} point directly to the root of its set.
+     * Thread safe, but the result is only final if no unions happen concurrently.
+     */
+    public void compress(long p) {
+        long np;
+        while ((np = parent.get(parent.get(p))) != parent.get(p)) {
+            parent.set(p, np);
+        }
+    }
+
+    /**
+     * @return the set id of {@code p}, which is the smallest element of its set
+     */
+    public long setIdOf(long p) {
+        return find(p);
+    }
+
+    public int getSetCount() {
+        long count = 0L;
+        for (long i = 0L; i < capacity; i++) {
+            if (parent.get(i) == i) {
+                ++count;
+            }
+        }
+        return Math.toIntExact(count);
+    }
+
+    public Stream<DisjointSetStruct.Result> resultStream(HugeIdMapping idMapping) {
+        return LongStream.range(HugeIdMapping.START_NODE_ID, idMapping.nodeCount())
+                .mapToObj(mappedId ->
+                        new DisjointSetStruct.Result(
+                                idMapping.toOriginalNodeId(mappedId),
+                                find(mappedId)));
+    }
+
+    public long release() {
+        return parent.release();
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongToDoubleFunction;
+
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.shallowSizeOfInstance;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfLongArray;
+
+/**
+ * A long-indexed array of doubles that supports atomic updates.
+ * Pages are backed by {@link AtomicLongArray}s which store the raw long bits of the values.
+ */
+public final class HugeAtomicDoubleArray extends PagedDataStructure<AtomicLongArray> {
+
+    private static final PageAllocator.Factory<AtomicLongArray> ALLOCATOR_FACTORY;
+
+    static {
+        int pageSize = PageUtil.pageSizeFor(Double.BYTES);
+        long pageUsage = shallowSizeOfInstance(AtomicLongArray.class) + sizeOfLongArray(pageSize);
+
+        ALLOCATOR_FACTORY = PageAllocator.of(
+                pageSize,
+                pageUsage,
+                () -> new AtomicLongArray(pageSize),
+                new AtomicLongArray[0]);
+    }
+
+    public static long estimateMemoryUsage(long size) {
+        return ALLOCATOR_FACTORY.estimateMemoryUsage(size, HugeAtomicDoubleArray.class);
+    }
+
+    public static HugeAtomicDoubleArray newArray(long size, AllocationTracker tracker) {
+        return new HugeAtomicDoubleArray(size, ALLOCATOR_FACTORY.newAllocator(tracker));
+    }
+
+    private HugeAtomicDoubleArray(
+            final long size,
+            final PageAllocator<AtomicLongArray> allocator) {
+        super(size, allocator);
+    }
+
+    public double get(long index) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return Double.longBitsToDouble(pages[pageIndex].get(indexInPage));
+    }
+
+    public void set(long index, double value) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        pages[pageIndex].set(indexInPage, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Atomically adds {@code delta} to the value at {@code index}.
+     *
+     * @return the updated value
+     */
+    public double add(long index, double delta) {
+        assert index < capacity();
+        final AtomicLongArray page = pages[pageIndex(index)];
+        final int indexInPage = indexInPage(index);
+        long current, update;
+        double value;
+        do {
+            current = page.get(indexInPage);
+            value = Double.longBitsToDouble(current) + delta;
+            update = Double.doubleToRawLongBits(value);
+        } while (!page.compareAndSet(indexInPage, current, update));
+        return value;
+    }
+
+    /**
+     * Atomically sets the value at {@code index} to {@code update} if its bits
+     * are identical to the bits of {@code expected}.
+     */
+    public boolean cas(long index, double expected, double update) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].compareAndSet(
+                indexInPage,
+                Double.doubleToRawLongBits(expected),
+                Double.doubleToRawLongBits(update));
+    }
+
+    /**
+     * Sets every value up to {@link #size()} to the result of {@code generator}
+     * applied to its index, using at most {@code concurrency} threads.
+     */
+    public void setAll(LongToDoubleFunction generator, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            for (int i = 0; i < length; i++) {
+                page.set(i, Double.doubleToRawLongBits(generator.applyAsDouble(offset + i)));
+            }
+        });
+    }
+
+    /**
+     * Sets every value up to {@link #size()} to {@code value}, using at most {@code concurrency} threads.
+     */
+    public void fill(double value, int concurrency, ExecutorService executor) {
+        final long bits = Double.doubleToRawLongBits(value);
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            for (int i = 0; i < length; i++) {
+                page.set(i, bits);
+            }
+        });
+    }
+
+    /**
+     * Copies all values up to {@link #size()} into {@code target}, using at most {@code concurrency} threads.
+     *
+     * @throws IllegalArgumentException if {@code target} is smaller than this array
+     */
+    public void copyTo(HugeAtomicDoubleArray target, int concurrency, ExecutorService executor) {
+        checkCopyTarget(target);
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            final AtomicLongArray targetPage = target.pages[pageIndex(offset)];
+            for (int i = 0; i < length; i++) {
+                targetPage.set(i, page.get(i));
+            }
+        });
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongUnaryOperator;
+
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.shallowSizeOfInstance;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfLongArray;
+
+/**
+ * A long-indexed array of longs that supports atomic updates.
+ * Pages are backed by {@link AtomicLongArray}s.
+ */
+public final class HugeAtomicLongArray extends PagedDataStructure<AtomicLongArray> {
+
+    private static final PageAllocator.Factory<AtomicLongArray> ALLOCATOR_FACTORY;
+
+    static {
+        int pageSize = PageUtil.pageSizeFor(Long.BYTES);
+        long pageUsage = shallowSizeOfInstance(AtomicLongArray.class) + sizeOfLongArray(pageSize);
+
+        ALLOCATOR_FACTORY = PageAllocator.of(
+                pageSize,
+                pageUsage,
+                () -> new AtomicLongArray(pageSize),
+                new AtomicLongArray[0]);
+    }
+
+    public static long estimateMemoryUsage(long size) {
+        return ALLOCATOR_FACTORY.estimateMemoryUsage(size, HugeAtomicLongArray.class);
+    }
+
+    public static HugeAtomicLongArray newArray(long size, AllocationTracker tracker) {
+        return new HugeAtomicLongArray(size, ALLOCATOR_FACTORY.newAllocator(tracker));
+    }
+
+    private HugeAtomicLongArray(
+            final long size,
+            final PageAllocator<AtomicLongArray> allocator) {
+        super(size, allocator);
+    }
+
+    public long get(long index) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].get(indexInPage);
+    }
+
+    public void set(long index, long value) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        pages[pageIndex].set(indexInPage, value);
+    }
+
+    public long add(long index, long delta) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].addAndGet(indexInPage, delta);
+    }
+
+    public boolean cas(long index, long expected, long update) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].compareAndSet(indexInPage, expected, update);
+    }
+
+    /**
+     * Sets every value up to {@link #size()} to the result of {@code generator}
+     * applied to its index, using at most {@code concurrency} threads.
+     */
+    public void setAll(LongUnaryOperator generator, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            for (int i = 0; i < length; i++) {
+                page.set(i, generator.applyAsLong(offset + i));
+            }
+        });
+    }
+
+    /**
+     * Sets every value up to {@link #size()} to {@code value}, using at most {@code concurrency} threads.
+     */
+    public void fill(long value, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            for (int i = 0; i < length; i++) {
+                page.set(i, value);
+            }
+        });
+    }
+
+    /**
+     * Copies all values up to {@link #size()} into {@code target}, using at most {@code concurrency} threads.
+     *
+     * @throws IllegalArgumentException if {@code target} is smaller than this array
+     */
+    public void copyTo(HugeAtomicLongArray target, int concurrency, ExecutorService executor) {
+        checkCopyTarget(target);
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            final AtomicLongArray targetPage = target.pages[pageIndex(offset)];
+            for (int i = 0; i < length; i++) {
+                targetPage.set(i, page.get(i));
+            }
+        });
+    }
+}
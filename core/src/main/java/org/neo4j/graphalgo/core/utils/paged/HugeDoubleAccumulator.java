@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.shallowSizeOfInstance;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfDoubleArray;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfLongArray;
+
+/**
+ * A long-indexed array of doubles for concurrent accumulation.
+ * <p>
+ * {@link #add(long, double)} updates the shared value with a CAS loop.
+ * Tasks that add many values should use their own {@link Local} combiner,
+ * which sums the values of an index locally and only publishes the sum
+ * when the entry is evicted or on {@link Local#flush()}. Hot indexes,
+ * e.g. hub nodes, are then updated once per flush instead of once per add.
+ * Values added through a combiner are only visible after it has been flushed.
+ */
+public final class HugeDoubleAccumulator extends PagedDataStructure<AtomicLongArray> {
+
+    private static final int MAX_LOCAL_CAPACITY = 1 << 16;
+
+    private static final PageAllocator.Factory<AtomicLongArray> ALLOCATOR_FACTORY;
+
+    static {
+        int pageSize = PageUtil.pageSizeFor(Long.BYTES);
+        long pageUsage = shallowSizeOfInstance(AtomicLongArray.class) + sizeOfLongArray(pageSize);
+
+        ALLOCATOR_FACTORY = PageAllocator.of(
+                pageSize,
+                pageUsage,
+                () -> new AtomicLongArray(pageSize),
+                new AtomicLongArray[0]);
+    }
+
+    public static long estimateMemoryUsage(long size) {
+        return ALLOCATOR_FACTORY.estimateMemoryUsage(size, HugeDoubleAccumulator.class);
+    }
+
+    /**
+     * @return the number of bytes a {@link #newLocal() combiner} of an accumulator with {@code size} indexes occupies
+     */
+    public static long estimateLocalMemoryUsage(long size) {
+        int capacity = BitUtil.nextHighestPowerOfTwo((int) Math.max(1L, Math.min(size, MAX_LOCAL_CAPACITY)));
+        return shallowSizeOfInstance(Local.class) + sizeOfLongArray(capacity) + sizeOfDoubleArray(capacity);
+    }
+
+    public static HugeDoubleAccumulator newArray(long size, AllocationTracker tracker) {
+        return new HugeDoubleAccumulator(size, ALLOCATOR_FACTORY.newAllocator(tracker));
+    }
+
+    private HugeDoubleAccumulator(
+            final long size,
+            final PageAllocator<AtomicLongArray> allocator) {
+        super(size, allocator);
+    }
+
+    public double get(long index) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return Double.longBitsToDouble(pages[pageIndex].get(indexInPage));
+    }
+
+    public void set(long index, double value) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        pages[pageIndex].set(indexInPage, Double.doubleToLongBits(value));
+    }
+
+    /**
+     * add the value to the shared value at index
+     */
+    public void add(long index, double value) {
+        assert index < capacity();
+        final AtomicLongArray page = pages[pageIndex(index)];
+        final int indexInPage = indexInPage(index);
+        long currentBits, newBits;
+        do {
+            currentBits = page.get(indexInPage);
+            newBits = Double.doubleToLongBits(Double.longBitsToDouble(currentBits) + value);
+        } while (!page.compareAndSet(indexInPage, currentBits, newBits));
+    }
+
+    /**
+     * set all elements to 0
+     */
+    public void clear() {
+        for (AtomicLongArray page : pages) {
+            for (int i = 0, length = page.length(); i < length; i++) {
+                page.set(i, 0L);
+            }
+        }
+    }
+
+    public double[] toArray() {
+        final double[] values = new double[Math.toIntExact(size())];
+        Arrays.setAll(values, this::get);
+        return values;
+    }
+
+    /**
+     * @return a combiner for a single thread that buffers up to {@code 2^16} indexes
+     */
+    public Local newLocal() {
+        return newLocal((int) Math.min(size(), MAX_LOCAL_CAPACITY));
+    }
+
+    /**
+     * @return a combiner for a single thread that buffers up to {@code capacity} indexes, rounded up to a power of two
+     */
+    public Local newLocal(int capacity) {
+        return new Local(BitUtil.nextHighestPowerOfTwo(Math.max(1, capacity)));
+    }
+
+    /**
+     * A direct mapped buffer of partial sums. An index occupies the slot {@code index % capacity},
+     * so that graphs with less nodes than the capacity are accumulated without any eviction.
+     * Not thread-safe.
+     */
+    public final class Local {
+        private static final long EMPTY = -1L;
+
+        private final long[] indexes;
+        private final double[] values;
+        private final int mask;
+
+        private Local(int capacity) {
+            this.indexes = new long[capacity];
+            this.values = new double[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(indexes, EMPTY);
+        }
+
+        public void add(long index, double value) {
+            final int slot = (int) (index & mask);
+            final long current = indexes[slot];
+            if (current == index) {
+                values[slot] += value;
+            } else {
+                if (current != EMPTY) {
+                    HugeDoubleAccumulator.this.add(current, values[slot]);
+                }
+                indexes[slot] = index;
+                values[slot] = value;
+            }
+        }
+
+        /**
+         * publishes all partial sums to the shared array
+         */
+        public void flush() {
+            for (int slot = 0; slot < indexes.length; slot++) {
+                if (indexes[slot] != EMPTY) {
+                    HugeDoubleAccumulator.this.add(indexes[slot], values[slot]);
+                    indexes[slot] = EMPTY;
+                }
+            }
+        }
+    }
+}
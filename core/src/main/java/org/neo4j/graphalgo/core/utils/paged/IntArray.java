@@ -21,7 +21,9 @@ package org.neo4j.graphalgo.core.utils.paged;
 import org.neo4j.collection.pool.MarshlandPool;
 
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
 import java.util.function.IntSupplier;
+import java.util.function.LongToIntFunction;
 
 /**
  * Abstraction of an array of integer values that can contain more than 2B elements.
@@ -102,6 +104,36 @@ public final class IntArray extends PagedDataStructure<int[]> {
         }
     }
 
+    /**
+     * Sets every value up to {@link #size()} to the result of {@code generator}
+     * applied to its index, using at most {@code concurrency} threads.
+     */
+    public void setAll(LongToIntFunction generator, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            for (int i = 0; i < length; i++) {
+                page[i] = generator.applyAsInt(offset + i);
+            }
+        });
+    }
+
+    /**
+     * Sets every value up to {@link #size()} to {@code value}, using at most {@code concurrency} threads.
+     */
+    public void fill(int value, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> Arrays.fill(page, 0, length, value));
+    }
+
+    /**
+     * Copies all values up to {@link #size()} into {@code target}, using at most {@code concurrency} threads.
+     *
+     * @throws IllegalArgumentException if {@code target} is smaller than this array
+     */
+    public void copyTo(IntArray target, int concurrency, ExecutorService executor) {
+        checkCopyTarget(target);
+        forEachPage(concurrency, executor, (page, offset, length) ->
+                System.arraycopy(page, 0, target.pages[pageIndex(offset)], 0, length));
+    }
+
     /**
      * Fill slots between {@code fromIndex} (inclusive) to {@code toIndex} (exclusive) with the value provided by {@code value}.
      * This method does not advance the {@link #size()} or {@link #grow(long)}s the array.
@@ -19,7 +19,9 @@
 package org.neo4j.graphalgo.core.utils.paged;
 
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
 import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
 
 public final class LongArray extends PagedDataStructure<long[]> {
 
@@ -87,6 +89,36 @@ public final class LongArray extends PagedDataStructure<long[]> {
         }
     }
 
+    /**
+     * Sets every value up to {@link #size()} to the result of {@code generator}
+     * applied to its index, using at most {@code concurrency} threads.
+     */
+    public void setAll(LongUnaryOperator generator, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> {
+            for (int i = 0; i < length; i++) {
+                page[i] = generator.applyAsLong(offset + i);
+            }
+        });
+    }
+
+    /**
+     * Sets every value up to {@link #size()} to {@code value}, using at most {@code concurrency} threads.
+     */
+    public void fill(long value, int concurrency, ExecutorService executor) {
+        forEachPage(concurrency, executor, (page, offset, length) -> Arrays.fill(page, 0, length, value));
+    }
+
+    /**
+     * Copies all values up to {@link #size()} into {@code target}, using at most {@code concurrency} threads.
+     *
+     * @throws IllegalArgumentException if {@code target} is smaller than this array
+     */
+    public void copyTo(LongArray target, int concurrency, ExecutorService executor) {
+        checkCopyTarget(target);
+        forEachPage(concurrency, executor, (page, offset, length) ->
+                System.arraycopy(page, 0, target.pages[pageIndex(offset)], 0, length));
+    }
+
     public void fill(
             final long fromIndex,
             final long toIndex,
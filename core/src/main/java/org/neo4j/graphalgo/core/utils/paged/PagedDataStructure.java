@@ -19,13 +19,20 @@
 package org.neo4j.graphalgo.core.utils.paged;
 
 import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class PagedDataStructure<T> {
 
+    private static final int TASKS_PER_THREAD = 4;
+
     final int pageSize;
     final int pageShift;
     final int pageMask;
@@ -115,6 +122,59 @@ public class PagedDataStructure<T> {
         return (int) (index & pageMask);
     }
 
+    /**
+     * Runs {@code action} for every page that holds data up to {@link #size()}.
+     * Pages are grouped into batches which are run with at most {@code concurrency}
+     * threads of the {@code executor}, or sequentially if the executor is not usable.
+     * Each page is visited by exactly one thread.
+     */
+    final void forEachPage(int concurrency, ExecutorService executor, PageAction<T> action) {
+        final long size = size();
+        final int numPages = numPages(size);
+        if (numPages == 0) {
+            return;
+        }
+        final T[] pages = this.pages;
+        final int numTasks = Math.min(numPages, Math.max(1, concurrency) * TASKS_PER_THREAD);
+        final int pagesPerTask = ParallelUtil.threadSize(numTasks, numPages);
+        final List<Runnable> tasks = new ArrayList<>(numTasks);
+        for (int start = 0; start < numPages; start += pagesPerTask) {
+            final int fromPage = start;
+            final int toPage = Math.min(numPages, start + pagesPerTask);
+            tasks.add(() -> {
+                for (int page = fromPage; page < toPage; page++) {
+                    final long offset = capacityFor(page);
+                    action.accept(pages[page], offset, (int) Math.min(pageSize, size - offset));
+                }
+            });
+        }
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                Integer.MAX_VALUE,
+                10L,
+                TimeUnit.MICROSECONDS,
+                executor);
+    }
+
+    /**
+     * Throws if {@code target} cannot hold all values up to {@link #size()}.
+     */
+    final void checkCopyTarget(PagedDataStructure<T> target) {
+        if (target.size() < size()) {
+            throw new IllegalArgumentException(String.format(
+                    "Cannot copy [%d] values into an array of size [%d]",
+                    size(),
+                    target.size()));
+        }
+        if (target.pageSize != pageSize) {
+            throw new IllegalArgumentException(String.format(
+                    "Cannot copy pages of size [%d] into pages of size [%d]",
+                    pageSize,
+                    target.pageSize));
+        }
+    }
+
     /**
      * Grows the page structure to the new size. The existing content will be preserved.
      * If the current size is large enough, this is no-op and no downsizing is happening.
@@ -162,4 +222,14 @@ public class PagedDataStructure<T> {
     T allocateNewPage() {
         return allocator.newPage();
     }
+
+    @FunctionalInterface
+    interface PageAction<T> {
+        /**
+         * @param page the page to process
+         * @param offset the global index of the first value in the page
+         * @param length the number of values in the page which are within the size of the data structure
+         */
+        void accept(T page, long offset, int length);
+    }
 }
@@ -0,0 +1,370 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.helpers.Exceptions;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A bounded hand-off between multiple producers and a single consumer
+ * of fixed-width tuples of primitive longs.
+ * <p>
+ * Producers don't publish single tuples but write them into a
+ * thread-confined {@link Writer} which hands over full chunks of
+ * {@code chunkSize} tuples as a plain {@code long[]}. At most
+ * {@code capacity} chunks are in flight at any time, if the consumer
+ * falls behind, producers block until a chunk has been taken
+ * (backpressure). Consumed chunks are recycled to the writers.
+ * <p>
+ * The consumer signals that it is no longer interested in the results
+ * by calling {@link #close()}; blocked and subsequent writes return
+ * {@code false} so that producers can stop their computation.
+ * The producing side signals the end of the stream by calling
+ * {@link #finish(Throwable)} after all producers are done.
+ * <p>
+ * Doubles can be transported by their raw long bits, see
+ * {@link Double#doubleToRawLongBits(double)}.
+ */
+public final class BatchedTupleQueue implements AutoCloseable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 12;
+    public static final int DEFAULT_CAPACITY = 1 << 6;
+
+    // how long a blocked producer or consumer waits before re-checking the state
+    private static final long WAIT_MILLIS = 100L;
+
+    private static final long[] END_OF_STREAM = new long[0];
+
+    private final int tupleSize;
+    private final int chunkLength;
+    private final BlockingQueue<long[]> chunks;
+    private final BlockingQueue<long[]> recycled;
+    private final TerminationFlag terminationFlag;
+
+    private final AtomicBoolean finished;
+    private final Queue<Writer> localWriters;
+    private final ThreadLocal<Writer> localWriter;
+
+    private volatile boolean open;
+    private volatile Throwable error;
+
+    public BatchedTupleQueue(int tupleSize, TerminationFlag terminationFlag) {
+        this(tupleSize, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY, terminationFlag);
+    }
+
+    public BatchedTupleQueue(
+            int tupleSize,
+            int chunkSize,
+            int capacity,
+            TerminationFlag terminationFlag) {
+        if (tupleSize <= 0 || chunkSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "tupleSize, chunkSize and capacity must be > 0");
+        }
+        this.tupleSize = tupleSize;
+        this.chunkLength = Math.multiplyExact(tupleSize, chunkSize);
+        // +1 to always have room for the end-of-stream marker
+        this.chunks = new ArrayBlockingQueue<>(capacity + 1);
+        this.recycled = new ArrayBlockingQueue<>(capacity);
+        this.terminationFlag = terminationFlag;
+        this.finished = new AtomicBoolean();
+        this.localWriters = new ConcurrentLinkedQueue<>();
+        this.localWriter = ThreadLocal.withInitial(() -> {
+            Writer writer = new Writer();
+            localWriters.add(writer);
+            return writer;
+        });
+        this.open = true;
+    }
+
+    public int tupleSize() {
+        return tupleSize;
+    }
+
+    /**
+     * @return true as long as the consumer is interested in new tuples
+     * and the termination flag has not been triggered
+     */
+    public boolean isOpen() {
+        return open && terminationFlag.running();
+    }
+
+    /**
+     * Creates a new buffer for a single producer. The writer itself is not thread-safe.
+     */
+    public Writer newWriter() {
+        return new Writer();
+    }
+
+    /**
+     * Returns a writer that is bound to the current thread. Useful for
+     * producers that are callbacks invoked from several threads.
+     * Thread-bound writers are flushed by {@link #finish(Throwable)},
+     * which therefore must only be called after all producing threads are done.
+     */
+    public Writer threadLocalWriter() {
+        return localWriter.get();
+    }
+
+    /**
+     * Signals that all producers are done. Any pending data in the writers
+     * must have been {@link Writer#flush() flushed} before. If {@code error}
+     * is not null, it is rethrown on the consumer side after all previously
+     * published chunks have been consumed.
+     * Only the first call ends the stream, errors of subsequent calls are
+     * chained to the first one.
+     */
+    public void finish(Throwable error) {
+        if (error != null) {
+            synchronized (this) {
+                this.error = Exceptions.chain(this.error, error);
+            }
+        }
+        if (finished.getAndSet(true)) {
+            return;
+        }
+        if (error == null) {
+            for (Writer writer : localWriters) {
+                if (!writer.flush()) {
+                    break;
+                }
+            }
+        }
+        localWriters.clear();
+        try {
+            while (!chunks.offer(END_OF_STREAM, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!isOpen()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+        }
+    }
+
+    /**
+     * Stops accepting new tuples and releases all pending chunks.
+     * Called from the consumer side when the result stream is closed.
+     */
+    @Override
+    public void close() {
+        open = false;
+        chunks.clear();
+        recycled.clear();
+    }
+
+    /**
+     * Takes the next chunk of tuples, blocking until one is available.
+     * The returned array may be shorter than {@code chunkSize * tupleSize} but
+     * always contains complete tuples.
+     *
+     * @return the next chunk or {@code null} if the stream has ended or was terminated
+     */
+    public long[] take() {
+        try {
+            long[] chunk;
+            do {
+                if (!isOpen()) {
+                    close();
+                    return null;
+                }
+                chunk = chunks.poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } while (chunk == null);
+            if (chunk == END_OF_STREAM) {
+                open = false;
+                Throwable error = this.error;
+                if (error != null) {
+                    throw Exceptions.launderedException(error);
+                }
+                return null;
+            }
+            return chunk;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            return null;
+        }
+    }
+
+    /**
+     * Returns a chunk that is no longer used to the pool of empty chunks.
+     */
+    public void recycle(long[] chunk) {
+        if (chunk.length == chunkLength) {
+            recycled.offer(chunk);
+        }
+    }
+
+    /**
+     * Creates a stream that maps every tuple to a single element.
+     * The mapper receives the current chunk and the offset of the tuple within it.
+     * Closing the stream closes the queue.
+     */
+    public <T> Stream<T> stream(TupleMapper<T> mapper) {
+        Iterator<T> iterator = new TupleIterator<>(mapper);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL),
+                false
+        ).onClose(this::close);
+    }
+
+    private boolean publish(long[] chunk) {
+        try {
+            while (!chunks.offer(chunk, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!isOpen()) {
+                    return false;
+                }
+            }
+            // consumer may have closed in between
+            return isOpen();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long[] nextChunk() {
+        long[] chunk = recycled.poll();
+        return chunk != null ? chunk : new long[chunkLength];
+    }
+
+    @FunctionalInterface
+    public interface TupleMapper<T> {
+        T map(long[] chunk, int offset);
+    }
+
+    /**
+     * Per-producer buffer, not thread-safe.
+     */
+    public final class Writer {
+        private long[] buffer;
+        private int pos;
+
+        private Writer() {
+            buffer = nextChunk();
+        }
+
+        public boolean add(long a, long b) {
+            assert tupleSize == 2;
+            long[] buffer = this.buffer;
+            int pos = this.pos;
+            buffer[pos] = a;
+            buffer[pos + 1] = b;
+            return advance(pos + 2);
+        }
+
+        public boolean add(long a, long b, long c) {
+            assert tupleSize == 3;
+            long[] buffer = this.buffer;
+            int pos = this.pos;
+            buffer[pos] = a;
+            buffer[pos + 1] = b;
+            buffer[pos + 2] = c;
+            return advance(pos + 3);
+        }
+
+        /**
+         * adds a tuple whose last element is the raw long bits of {@code weight}
+         */
+        public boolean addWeighted(long a, long b, double weight) {
+            return add(a, b, Double.doubleToRawLongBits(weight));
+        }
+
+        /**
+         * Publishes all buffered tuples.
+         *
+         * @return false if the consumer is no longer interested in new tuples
+         */
+        public boolean flush() {
+            if (pos == 0) {
+                return isOpen();
+            }
+            long[] chunk = pos == chunkLength ? buffer : Arrays.copyOf(buffer, pos);
+            if (chunk == buffer) {
+                buffer = nextChunk();
+            }
+            pos = 0;
+            return publish(chunk);
+        }
+
+        private boolean advance(int pos) {
+            this.pos = pos;
+            if (pos == chunkLength) {
+                return flush();
+            }
+            return true;
+        }
+    }
+
+    private final class TupleIterator<T> implements Iterator<T> {
+        private final TupleMapper<T> mapper;
+        private long[] chunk;
+        private int offset;
+        private boolean done;
+
+        private TupleIterator(TupleMapper<T> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (done) {
+                return false;
+            }
+            if (chunk != null && offset < chunk.length) {
+                return true;
+            }
+            if (chunk != null) {
+                recycle(chunk);
+            }
+            chunk = take();
+            offset = 0;
+            if (chunk == null) {
+                done = true;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = mapper.map(chunk, offset);
+            offset += tupleSize;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * A bounded heap of node ids and their scores that keeps the {@code k} nodes
+ * with the highest scores. Ties are broken by preferring the lower node id.
+ * The heap is backed by primitive arrays and does not allocate after construction.
+ */
+public final class TopKHeap {
+
+    private static final int MIN_BATCH_SIZE = 10_000;
+
+    private final int capacity;
+    private final long[] nodes;
+    private final double[] scores;
+    private int size;
+
+    public TopKHeap(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative, but was " + k);
+        }
+        this.capacity = k;
+        this.nodes = new long[k];
+        this.scores = new double[k];
+    }
+
+    /**
+     * select the {@code k} nodes with the highest scores, using one heap per batch of nodes
+     *
+     * @return the selected node ids, ordered by descending score
+     */
+    public static long[] select(
+            long nodeCount,
+            int k,
+            LongToDoubleFunction score,
+            int concurrency,
+            ExecutorService executor) {
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        final int batchCount = (int) ParallelUtil.threadSize(batchSize, nodeCount);
+        final TopKHeap[] heaps = new TopKHeap[batchCount];
+        final List<Runnable> tasks = new ArrayList<>(batchCount);
+        for (int i = 0; i < batchCount; i++) {
+            final long start = i * batchSize;
+            final long end = Math.min(nodeCount, start + batchSize);
+            final TopKHeap heap = new TopKHeap((int) Math.min(k, end - start));
+            heaps[i] = heap;
+            tasks.add(() -> {
+                for (long node = start; node < end; node++) {
+                    heap.offer(node, score.applyAsDouble(node));
+                }
+            });
+        }
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                Integer.MAX_VALUE,
+                10L,
+                TimeUnit.MICROSECONDS,
+                TerminationFlag.RUNNING_TRUE,
+                executor);
+
+        final TopKHeap result = new TopKHeap((int) Math.min(k, nodeCount));
+        for (TopKHeap heap : heaps) {
+            result.addAll(heap);
+        }
+        return result.nodesDescending();
+    }
+
+    /**
+     * adds the node if it is among the top k nodes seen so far
+     */
+    public void offer(long node, double score) {
+        if (size < capacity) {
+            nodes[size] = node;
+            scores[size] = score;
+            upHeap(size++);
+        } else if (capacity > 0 && lessThan(nodes[0], scores[0], node, score)) {
+            nodes[0] = node;
+            scores[0] = score;
+            downHeap(0);
+        }
+    }
+
+    public void addAll(TopKHeap other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.nodes[i], other.scores[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * empties the heap
+     *
+     * @return the node ids, ordered by descending score
+     */
+    public long[] nodesDescending() {
+        final long[] result = new long[size];
+        while (size > 0) {
+            result[size - 1] = nodes[0];
+            --size;
+            nodes[0] = nodes[size];
+            scores[0] = scores[size];
+            downHeap(0);
+        }
+        return result;
+    }
+
+    /**
+     * orders by score and prefers lower node ids for equal scores
+     */
+    private static boolean lessThan(long node1, double score1, long node2, double score2) {
+        final int cmp = Double.compare(score1, score2);
+        return cmp < 0 || (cmp == 0 && node1 > node2);
+    }
+
+    private void upHeap(int index) {
+        final long node = nodes[index];
+        final double score = scores[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!lessThan(node, score, nodes[parent], scores[parent])) {
+                break;
+            }
+            nodes[index] = nodes[parent];
+            scores[index] = scores[parent];
+            index = parent;
+        }
+        nodes[index] = node;
+        scores[index] = score;
+    }
+
+    private void downHeap(int index) {
+        final long node = nodes[index];
+        final double score = scores[index];
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && lessThan(nodes[child + 1], scores[child + 1], nodes[child], scores[child])) {
+                ++child;
+            }
+            if (!lessThan(nodes[child], scores[child], node, score)) {
+                break;
+            }
+            nodes[index] = nodes[child];
+            scores[index] = scores[child];
+            index = child;
+        }
+        nodes[index] = node;
+        scores[index] = score;
+    }
+}
@@ -0,0 +1,412 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.traverse;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicLongArray;
+import org.neo4j.graphalgo.core.utils.paged.IntArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * parallel, level synchronous breadth first search that switches between
+ * top-down and bottom-up steps.
+ * <p>
+ * A top-down step pushes from every node of the frontier to its unvisited neighbours.
+ * A bottom-up step lets every unvisited node look for a neighbour in the frontier,
+ * using the reverse direction, and stops at the first one found.
+ * In the middle levels of low-diameter graphs the frontier contains a large part of the graph
+ * and most relationships of a top-down step lead to already visited nodes, which is
+ * when the bottom-up step examines far less relationships.
+ * <p>
+ * The switch is decided with the heuristic of [1]: go bottom-up once the relationships
+ * of the frontier exceed {@code 1/ALPHA} of the relationships of the unvisited nodes,
+ * and go back top-down once the frontier shrinks below {@code 1/BETA} of all nodes.
+ * Every step produces the next frontier as a queue and as a bitset, so that switching
+ * does not require a conversion.
+ * <p>
+ * The bottom-up step requires the reverse direction to be loaded, e.g. loading the graph
+ * with {@link Direction#BOTH} when traversing {@link Direction#OUTGOING}.
+ * <p>
+ * [1]: <a href="https://doi.org/10.1109/SC.2012.50">Direction-Optimizing Breadth-First Search</a>
+ */
+public final class HugeDirectionOptimizingBFS {
+
+    public static final int NOT_VISITED = -1;
+
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int MIN_BATCH_SIZE = 256;
+
+    private final HugeGraph graph;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+
+    private IntArray levels;
+    // parent + 1, so that 0 marks unvisited nodes
+    private HugeAtomicLongArray parents;
+    private LongArray queue;
+    private LongArray nextQueue;
+    private HugeAtomicBitSet frontier;
+    private HugeAtomicBitSet nextFrontier;
+
+    private final AtomicLong nextQueueSize = new AtomicLong();
+    private final LongAdder nextEdges = new LongAdder();
+
+    private Direction pushDirection;
+    private Direction pullDirection;
+    private int depth;
+    private long queueSize;
+    private long visitedNodes;
+    private int bottomUpSteps;
+
+    public HugeDirectionOptimizingBFS(
+            HugeGraph graph,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.executor = executor;
+        this.concurrency = Math.max(1, concurrency);
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+    }
+
+    /**
+     * traverses from {@code startNode} in the given direction, using the reverse direction for bottom-up steps
+     */
+    public HugeDirectionOptimizingBFS compute(
+            long startNode,
+            Direction direction,
+            TerminationFlag terminationFlag) {
+        return compute(startNode, direction, reverse(direction), terminationFlag);
+    }
+
+    /**
+     * traverses from {@code startNode} using {@code pushDirection} for top-down steps
+     * and {@code pullDirection} for bottom-up steps. Using {@link Direction#OUTGOING}
+     * for both directions is suitable for graphs loaded as undirected.
+     */
+    public HugeDirectionOptimizingBFS compute(
+            long startNode,
+            Direction pushDirection,
+            Direction pullDirection,
+            TerminationFlag terminationFlag) {
+        if (startNode < 0L || startNode >= nodeCount) {
+            throw new IllegalArgumentException("Start node " + startNode + " is not part of the graph");
+        }
+        this.pushDirection = pushDirection;
+        this.pullDirection = pullDirection;
+        allocate();
+
+        depth = 0;
+        bottomUpSteps = 0;
+        levels.set(startNode, 0);
+        parents.set(startNode, startNode + 1L);
+        queue.set(0L, startNode);
+        frontier.set(startNode);
+        queueSize = 1L;
+        visitedNodes = 1L;
+
+        long frontierEdges = graph.degree(startNode, pushDirection);
+        long unvisitedEdges = totalEdges() - frontierEdges;
+        long previousQueueSize = 0L;
+        boolean bottomUp = false;
+        Collection<Runnable> bottomUpTasks = null;
+
+        while (queueSize > 0L && terminationFlag.running()) {
+            if (!bottomUp) {
+                bottomUp = frontierEdges > unvisitedEdges / ALPHA;
+            } else if (queueSize < previousQueueSize && queueSize < nodeCount / BETA) {
+                bottomUp = false;
+            }
+            previousQueueSize = queueSize;
+
+            depth++;
+            nextQueueSize.set(0L);
+            nextEdges.reset();
+            nextFrontier.clear(concurrency, executor);
+            if (bottomUp) {
+                if (bottomUpTasks == null) {
+                    bottomUpTasks = ParallelUtil.degreeBatches(
+                            nodeCount,
+                            graph,
+                            pullDirection,
+                            concurrency,
+                            executor,
+                            (start, length) -> new BottomUpTask(start, length));
+                }
+                run(bottomUpTasks, terminationFlag);
+                bottomUpSteps++;
+            } else {
+                final long batchSize = ParallelUtil.adjustBatchSize(queueSize, concurrency, MIN_BATCH_SIZE);
+                run(LazyBatchCollection.of(
+                        queueSize,
+                        batchSize,
+                        (start, length) -> new TopDownTask(start, length)),
+                        terminationFlag);
+            }
+
+            swapFrontiers();
+            frontierEdges = nextEdges.sum();
+            unvisitedEdges -= frontierEdges;
+            visitedNodes += queueSize;
+        }
+        releaseFrontiers();
+        return this;
+    }
+
+    /**
+     * @return the level of the node, {@link #NOT_VISITED} if it could not be reached
+     */
+    public int level(long nodeId) {
+        return levels.get(nodeId);
+    }
+
+    /**
+     * @return the node from which the node was discovered, itself for the start node,
+     * or {@link #NOT_VISITED} if it could not be reached
+     */
+    public long parent(long nodeId) {
+        return parents.get(nodeId) - 1L;
+    }
+
+    /**
+     * @return the levels of all nodes, {@link #NOT_VISITED} for nodes that could not be reached
+     */
+    public IntArray levels() {
+        return levels;
+    }
+
+    public long visitedNodes() {
+        return visitedNodes;
+    }
+
+    /**
+     * @return the highest level of any visited node
+     */
+    public int maxLevel() {
+        return Math.max(0, depth - 1);
+    }
+
+    public int bottomUpSteps() {
+        return bottomUpSteps;
+    }
+
+    public void release() {
+        releaseFrontiers();
+        if (levels != null) {
+            tracker.remove(levels.release());
+            levels = null;
+        }
+        if (parents != null) {
+            tracker.remove(parents.release());
+            parents = null;
+        }
+    }
+
+    private void allocate() {
+        release();
+        levels = IntArray.newArray(nodeCount, tracker);
+        levels.fill(NOT_VISITED, concurrency, executor);
+        parents = HugeAtomicLongArray.newArray(nodeCount, tracker);
+        queue = LongArray.newArray(nodeCount, tracker);
+        nextQueue = LongArray.newArray(nodeCount, tracker);
+        frontier = HugeAtomicBitSet.create(nodeCount, tracker);
+        nextFrontier = HugeAtomicBitSet.create(nodeCount, tracker);
+    }
+
+    private void releaseFrontiers() {
+        if (queue != null) {
+            tracker.remove(queue.release());
+            tracker.remove(nextQueue.release());
+            tracker.remove(frontier.release());
+            tracker.remove(nextFrontier.release());
+            queue = null;
+            nextQueue = null;
+            frontier = null;
+            nextFrontier = null;
+        }
+    }
+
+    private void swapFrontiers() {
+        LongArray queue = this.queue;
+        this.queue = nextQueue;
+        nextQueue = queue;
+        HugeAtomicBitSet frontier = this.frontier;
+        this.frontier = nextFrontier;
+        nextFrontier = frontier;
+        queueSize = nextQueueSize.get();
+    }
+
+    private long totalEdges() {
+        final LongAdder edges = new LongAdder();
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        run(LazyBatchCollection.of(nodeCount, batchSize, (start, length) -> () -> {
+            long sum = 0L;
+            for (long node = start, end = start + length; node < end; node++) {
+                sum += graph.degree(node, pushDirection);
+            }
+            edges.add(sum);
+        }), TerminationFlag.RUNNING_TRUE);
+        return edges.sum();
+    }
+
+    private void run(Collection<? extends Runnable> tasks, TerminationFlag terminationFlag) {
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                Integer.MAX_VALUE,
+                10L,
+                TimeUnit.MICROSECONDS,
+                terminationFlag,
+                executor);
+    }
+
+    private static Direction reverse(Direction direction) {
+        switch (direction) {
+            case OUTGOING:
+                return Direction.INCOMING;
+            case INCOMING:
+                return Direction.OUTGOING;
+            default:
+                return Direction.BOTH;
+        }
+    }
+
+    /**
+     * collects newly discovered nodes and appends them to the next queue in one go
+     */
+    private abstract class StepTask implements Runnable {
+        final long start;
+        final long end;
+        final int level;
+        final HugeAdjacencyCursor cursor;
+        private long[] discovered;
+        private int length;
+        private long edges;
+
+        StepTask(long start, long length) {
+            this.start = start;
+            this.end = start + length;
+            this.level = depth;
+            this.cursor = graph.adjacencyCursor();
+            this.discovered = new long[64];
+        }
+
+        @Override
+        public final void run() {
+            step();
+            if (length > 0) {
+                final LongArray nextQueue = HugeDirectionOptimizingBFS.this.nextQueue;
+                long index = nextQueueSize.getAndAdd(length);
+                for (int i = 0; i < length; i++) {
+                    nextQueue.set(index++, discovered[i]);
+                }
+            }
+            nextEdges.add(edges);
+        }
+
+        abstract void step();
+
+        final void visit(long node) {
+            levels.set(node, level);
+            nextFrontier.set(node);
+            if (length == discovered.length) {
+                discovered = ArrayUtil.grow(discovered, length + 1);
+            }
+            discovered[length++] = node;
+            edges += graph.degree(node, pushDirection);
+        }
+    }
+
+    private final class TopDownTask extends StepTask {
+
+        TopDownTask(long start, long length) {
+            super(start, length);
+        }
+
+        @Override
+        void step() {
+            final LongArray queue = HugeDirectionOptimizingBFS.this.queue;
+            final HugeAtomicLongArray parents = HugeDirectionOptimizingBFS.this.parents;
+            for (long i = start; i < end; i++) {
+                final long node = queue.get(i);
+                cursor.init(node, pushDirection);
+                int length;
+                while ((length = cursor.next()) > 0) {
+                    final long[] targets = cursor.buffer();
+                    for (int j = 0; j < length; j++) {
+                        final long target = targets[j];
+                        if (parents.get(target) == 0L && parents.cas(target, 0L, node + 1L)) {
+                            visit(target);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private final class BottomUpTask extends StepTask {
+
+        BottomUpTask(long start, long length) {
+            super(start, length);
+        }
+
+        @Override
+        void step() {
+            final HugeAtomicLongArray parents = HugeDirectionOptimizingBFS.this.parents;
+            final HugeAtomicBitSet frontier = HugeDirectionOptimizingBFS.this.frontier;
+            for (long node = start; node < end; node++) {
+                if (parents.get(node) != 0L) {
+                    continue;
+                }
+                cursor.init(node, pullDirection);
+                int length;
+                search:
+                while ((length = cursor.next()) > 0) {
+                    final long[] sources = cursor.buffer();
+                    for (int j = 0; j < length; j++) {
+                        final long source = sources[j];
+                        if (frontier.get(source)) {
+                            parents.set(node, source + 1L);
+                            visit(node);
+                            break search;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -29,18 +29,33 @@ import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
 import org.neo4j.graphalgo.core.utils.StatementApi;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.metrics.Histogram;
+import org.neo4j.graphalgo.core.utils.metrics.Metrics;
+import org.neo4j.graphalgo.core.utils.metrics.Timer;
+import org.neo4j.graphdb.TransientFailureException;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.api.DataWriteOperations;
 import org.neo4j.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.api.properties.NumberProperty;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.function.IntFunction;
 import java.util.function.LongUnaryOperator;
 
@@ -48,14 +63,28 @@ public final class Exporter extends StatementApi {
 
     private static final long MIN_BATCH_SIZE = 10_000L;
     private static final long MAX_BATCH_SIZE = 100_000L;
+    // rough estimate of record and transaction state bytes per written property
+    private static final long PROPERTY_BYTES = 64L;
+    private static final long MAX_TRANSACTION_BYTES = MAX_BATCH_SIZE * PROPERTY_BYTES;
+    // write in store order only if at least 1/SPARSE_ID_FACTOR of the node id space has been loaded
+    private static final long SPARSE_ID_FACTOR = 8L;
+    // more partitions than threads to balance skewed source node distributions
+    private static final int PARTITIONS_PER_THREAD = 4;
+    private static final int MAX_WRITE_ATTEMPTS = 10;
     public static final String TASK_EXPORT = "EXPORT";
 
+    private static final Timer EXPORT_NODES = Metrics.GLOBAL.timer("export.nodes");
+    private static final Timer EXPORT_RELATIONSHIPS = Metrics.GLOBAL.timer("export.relationships");
+    // duration of a single write transaction in microseconds
+    private static final Histogram EXPORT_BATCH = Metrics.GLOBAL.histogram("export.batchMicros");
+
     private final TerminationFlag terminationFlag;
     private final ExecutorService executorService;
     private final ProgressLogger progressLogger;
     private final int concurrency;
     private final long nodeCount;
     private final LongUnaryOperator toOriginalId;
+    private final LongUnaryOperator toMappedId;
 
     public static Builder of(GraphDatabaseAPI db, Graph graph) {
         if (graph instanceof HugeGraph) {
@@ -72,6 +101,7 @@ public final class Exporter extends StatementApi {
 
         private final GraphDatabaseAPI db;
         private final LongUnaryOperator toOriginalId;
+        private final LongUnaryOperator toMappedId;
         private final long nodeCount;
         private TerminationFlag terminationFlag;
         private ExecutorService executorService;
@@ -83,6 +113,8 @@ public final class Exporter extends StatementApi {
             this.db = Objects.requireNonNull(db);
             this.nodeCount = idMapping.nodeCount();
             this.toOriginalId = (n) -> idMapping.toOriginalNodeId((int) n);
+            // the reverse lookup of some mappings adds unknown ids, write in node order
+            this.toMappedId = null;
         }
 
         private Builder(GraphDatabaseAPI db, HugeIdMapping idMapping) {
@@ -90,6 +122,7 @@ public final class Exporter extends StatementApi {
             this.db = Objects.requireNonNull(db);
             this.nodeCount = idMapping.nodeCount();
             this.toOriginalId = idMapping::toOriginalNodeId;
+            this.toMappedId = idMapping::toHugeMappedNodeId;
         }
 
         public Builder withLog(Log log) {
@@ -123,7 +156,7 @@ public final class Exporter extends StatementApi {
             TerminationFlag flag = terminationFlag == null
                     ? TerminationFlag.RUNNING_TRUE
                     : terminationFlag;
-            return new Exporter(db, nodeCount, toOriginalId, flag, progressLogger, concurrency, executorService);
+            return new Exporter(db, nodeCount, toOriginalId, toMappedId, flag, progressLogger, concurrency, executorService);
         }
     }
 
@@ -131,10 +164,45 @@ public final class Exporter extends StatementApi {
         void accept(DataWriteOperations ops, long nodeId) throws KernelException;
     }
 
+    /**
+     * a property to write for every node, see {@link #write(NodeProperty[])}
+     */
+    public static final class NodeProperty<T> {
+        private final String property;
+        private final T data;
+        private final PropertyTranslator<T> translator;
+
+        private NodeProperty(String property, T data, PropertyTranslator<T> translator) {
+            this.property = Objects.requireNonNull(property);
+            this.data = data;
+            this.translator = Objects.requireNonNull(translator);
+        }
+
+        public static <T> NodeProperty<T> of(String property, T data, PropertyTranslator<T> translator) {
+            return new NodeProperty<>(property, data, translator);
+        }
+
+        private DefinedProperty toProperty(int propertyId, long nodeId) {
+            return translator.toProperty(propertyId, data, nodeId);
+        }
+    }
+
+    /**
+     * a stream of relationships between mapped node ids
+     */
+    public interface RelationshipStream {
+        void forEachRelationship(RelationshipConsumer consumer);
+    }
+
+    public interface RelationshipConsumer {
+        void accept(long sourceNodeId, long targetNodeId, double weight);
+    }
+
     private Exporter(
             GraphDatabaseAPI db,
             long nodeCount,
             LongUnaryOperator toOriginalId,
+            LongUnaryOperator toMappedId,
             TerminationFlag terminationFlag,
             ProgressLogger log,
             int concurrency,
@@ -142,6 +210,7 @@ public final class Exporter extends StatementApi {
         super(db);
         this.nodeCount = nodeCount;
         this.toOriginalId = toOriginalId;
+        this.toMappedId = toMappedId;
         this.terminationFlag = terminationFlag;
         this.progressLogger = log;
         this.concurrency = concurrency;
@@ -156,11 +225,7 @@ public final class Exporter extends StatementApi {
         if (propertyId == -1) {
             throw new IllegalStateException("no write property id is set");
         }
-        if (ParallelUtil.canRunInParallel(executorService)) {
-            writeParallel(propertyId, data, translator);
-        } else {
-            writeSequential(propertyId, data, translator);
-        }
+        write((ops, nodeId) -> doWrite(propertyId, data, translator, ops, nodeId));
     }
 
     public <T, U> void write(
@@ -170,19 +235,37 @@ public final class Exporter extends StatementApi {
             String property2,
             U data2,
             PropertyTranslator<U> translator2) {
-        final int propertyId1 = getOrCreatePropertyId(property1);
-        if (propertyId1 == -1) {
-            throw new IllegalStateException("no write property id is set");
-        }
-        final int propertyId2 = getOrCreatePropertyId(property2);
-        if (propertyId2 == -1) {
-            throw new IllegalStateException("no write property id is set");
+        write(NodeProperty.of(property1, data1, translator1), NodeProperty.of(property2, data2, translator2));
+    }
+
+    /**
+     * writes all properties of a node within the same transaction, using a single pass over all nodes
+     */
+    public void write(NodeProperty<?>... properties) {
+        final NodeProperty<?>[] props = properties.clone();
+        final int[] propertyIds = new int[props.length];
+        for (int i = 0; i < props.length; i++) {
+            propertyIds[i] = getOrCreatePropertyId(props[i].property);
+            if (propertyIds[i] == -1) {
+                throw new IllegalStateException("no write property id is set");
+            }
         }
-        if (ParallelUtil.canRunInParallel(executorService)) {
-            writeParallel(propertyId1, data1, translator1, propertyId2, data2, translator2);
-        } else {
-            writeSequential(propertyId1, data1, translator1, propertyId2, data2, translator2);
+        write((ops, nodeId) -> doWrite(propertyIds, props, ops, nodeId));
+    }
+
+    /**
+     * starts an asynchronous write of the given properties, see {@link AsyncWriter}
+     */
+    public AsyncWriter writeAsync(NodeProperty<?>... properties) {
+        final NodeProperty<?>[] props = properties.clone();
+        final int[] propertyIds = new int[props.length];
+        for (int i = 0; i < props.length; i++) {
+            propertyIds[i] = getOrCreatePropertyId(props[i].property);
+            if (propertyIds[i] == -1) {
+                throw new IllegalStateException("no write property id is set");
+            }
         }
+        return new AsyncWriter((ops, nodeId) -> doWrite(propertyIds, props, ops, nodeId));
     }
 
     public void write(String property, IntFunction<WriteConsumer> createWriter) {
@@ -191,11 +274,10 @@ public final class Exporter extends StatementApi {
             throw new IllegalStateException("no write property id is set");
         }
         final WriteConsumer writer = createWriter.apply(propertyId);
-        if (ParallelUtil.canRunInParallel(executorService)) {
-            writeParallel(writer);
-        } else {
-            writeSequential(writer);
-        }
+        write((ops, nodeId) -> {
+            writer.accept(ops, nodeId);
+            return PROPERTY_BYTES;
+        });
     }
 
     public void writeRelationships(String property, WriteConsumer writer) {
@@ -213,93 +295,175 @@ public final class Exporter extends StatementApi {
         }
     }
 
-    private <T> void writeSequential(
-            int propertyId,
-            T data,
-            PropertyTranslator<T> translator) {
-        writeSequential((ops, offset) -> doWrite(propertyId, data, translator, ops, offset));
-    }
+    /**
+     * writes all relationships of the stream, optionally with their weight
+     * as {@code weightProperty}. The relationships are buffered and partitioned
+     * by source node, every partition is written by one task using transactions
+     * of at most {@link #MAX_BATCH_SIZE} relationships. Transactions that fail
+     * due to deadlocks between partitions are retried.
+     */
+    public void writeRelationships(
+            String relationshipType,
+            String weightProperty,
+            RelationshipStream relationships) {
+        final int typeId = getOrCreateRelationshipId(relationshipType);
+        if (typeId == -1) {
+            throw new IllegalStateException("no write property id is set");
+        }
+        final int weightPropertyId;
+        if (weightProperty != null) {
+            weightPropertyId = getOrCreatePropertyId(weightProperty);
+            if (weightPropertyId == -1) {
+                throw new IllegalStateException("no write property id is set");
+            }
+        } else {
+            weightPropertyId = -1;
+        }
 
-    private <T, U> void writeSequential(
-            int propertyId1,
-            T data1,
-            PropertyTranslator<T> translator1,
-            int propertyId2,
-            U data2,
-            PropertyTranslator<U> translator2) {
-        writeSequential((ops, offset) -> doWrite(propertyId1, data1, translator1, propertyId2, data2, translator2, ops, offset));
-    }
+        final RelationshipPartitions buffer = new RelationshipPartitions(
+                nodeCount,
+                concurrency * PARTITIONS_PER_THREAD,
+                weightPropertyId != -1);
+        relationships.forEachRelationship(buffer);
+        final long relationshipCount = buffer.relationshipCount();
 
-    private <T> void writeParallel(
-            int propertyId,
-            T data,
-            PropertyTranslator<T> translator) {
-        writeParallel((ops, offset) -> doWrite(propertyId, data, translator, ops, offset));
+        final AtomicLong progress = new AtomicLong(0L);
+        final List<Runnable> tasks = new ArrayList<>();
+        for (RelationshipPartitions.Partition partition : buffer.partitions()) {
+            if (partition.size() > 0L) {
+                tasks.add(() -> writeRelationships(typeId, weightPropertyId, partition, relationshipCount, progress));
+            }
+        }
+        try (Timer.Context timer = EXPORT_RELATIONSHIPS.time().withUnits(relationshipCount)) {
+            ParallelUtil.runWithConcurrency(
+                    concurrency,
+                    tasks,
+                    Integer.MAX_VALUE,
+                    10L,
+                    TimeUnit.MICROSECONDS,
+                    terminationFlag,
+                    executorService
+            );
+        }
     }
 
-    private <T, U> void writeParallel(
-            int propertyId1,
-            T data1,
-            PropertyTranslator<T> translator1,
-            int propertyId2,
-            U data2,
-            PropertyTranslator<U> translator2) {
-        writeParallel((ops, offset) -> doWrite(propertyId1, data1, translator1, propertyId2, data2, translator2, ops, offset));
+    private void writeRelationships(
+            int typeId,
+            int weightPropertyId,
+            RelationshipPartitions.Partition partition,
+            long relationshipCount,
+            AtomicLong progress) {
+        final long size = partition.size();
+        for (long start = 0L; start < size && terminationFlag.running(); start += MAX_BATCH_SIZE) {
+            final long end = Math.min(start + MAX_BATCH_SIZE, size);
+            final long batchStartTime = System.nanoTime();
+            writeRelationships(typeId, weightPropertyId, partition, start, end);
+            EXPORT_BATCH.update(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - batchStartTime));
+            progressLogger.logProgress(progress.addAndGet(end - start), relationshipCount);
+        }
     }
 
-    private void writeSequential(WriteConsumer writer) {
-        try {
-            acceptInTransaction(stmt -> {
-                long progress = 0L;
-                DataWriteOperations ops = stmt.dataWriteOperations();
-                for (long i = 0L; i < nodeCount; i++) {
-                    writer.accept(ops, i);
-                    progressLogger.logProgress(++progress, nodeCount);
+    private void writeRelationships(
+            int typeId,
+            int weightPropertyId,
+            RelationshipPartitions.Partition partition,
+            long start,
+            long end) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                acceptInTransaction(stmt -> {
+                    DataWriteOperations ops = stmt.dataWriteOperations();
+                    for (long i = start; i < end; i++) {
+                        final long relationshipId = ops.relationshipCreate(
+                                typeId,
+                                toOriginalId.applyAsLong(partition.source(i)),
+                                toOriginalId.applyAsLong(partition.target(i)));
+                        if (weightPropertyId != -1) {
+                            ops.relationshipSetProperty(
+                                    relationshipId,
+                                    DefinedProperty.doubleProperty(weightPropertyId, partition.weight(i)));
+                        }
+                    }
+                });
+                return;
+            } catch (TransientFailureException e) {
+                // concurrent partitions lock the same nodes, the transaction has been rolled back
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw e;
                 }
-            });
-        } catch (KernelException e) {
-            throw Exceptions.launderedException(e);
+            } catch (KernelException e) {
+                throw Exceptions.launderedException(e);
+            }
+        }
+    }
+
+    /**
+     * writes all nodes in batches, one batch per task. Batches of huge graphs
+     * cover a range of original node ids, so that every transaction touches
+     * a narrow, ascending range of the node store, regardless of the order
+     * in which the nodes have been loaded.
+     */
+    private void write(PropertyWriter writer) {
+        final AtomicLong progress = new AtomicLong(0L);
+        final Collection<Runnable> batches = batches(writer, progress);
+        try (Timer.Context timer = EXPORT_NODES.time().withUnits(nodeCount)) {
+            ParallelUtil.runWithConcurrency(
+                    concurrency,
+                    batches,
+                    Integer.MAX_VALUE,
+                    10L,
+                    TimeUnit.MICROSECONDS,
+                    terminationFlag,
+                    executorService
+            );
         }
     }
 
-    private void writeParallel(WriteConsumer writer) {
+    private Collection<Runnable> batches(PropertyWriter writer, AtomicLong progress) {
         final long batchSize = ParallelUtil.adjustBatchSize(
                 nodeCount,
                 concurrency,
                 MIN_BATCH_SIZE,
                 MAX_BATCH_SIZE);
-        final AtomicLong progress = new AtomicLong(0L);
-        final Collection<Runnable> runnables = LazyBatchCollection.of(
+        if (toMappedId != null && nodeCount > 0L) {
+            final long idSpace = maxOriginalId() + 1L;
+            if (idSpace / SPARSE_ID_FACTOR <= nodeCount) {
+                // expect batchSize nodes per range of original ids
+                final long idBatchSize = Math.max(1L, batchSize * idSpace / nodeCount);
+                return LazyBatchCollection.of(
+                        idSpace,
+                        idBatchSize,
+                        (start, length) -> new StoreOrderBatch(start, start + length, writer, progress));
+            }
+        }
+        return LazyBatchCollection.of(
                 nodeCount,
                 batchSize,
-                (start, len) -> () -> {
-                    try {
-                        acceptInTransaction(stmt -> {
-                            long end = start + len;
-                            DataWriteOperations ops = stmt.dataWriteOperations();
-                            for (long j = start; j < end; j++) {
-                                writer.accept(ops, j);
-                                progressLogger.logProgress(
-                                        progress.incrementAndGet(),
-                                        nodeCount);
-                            }
-                        });
-                    } catch (KernelException e) {
-                        throw Exceptions.launderedException(e);
-                    }
-                });
+                (start, length) -> new NodeOrderBatch(start, start + length, writer, progress));
+    }
+
+    private long maxOriginalId() {
+        final LongAccumulator max = new LongAccumulator(Math::max, -1L);
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
         ParallelUtil.runWithConcurrency(
                 concurrency,
-                runnables,
+                LazyBatchCollection.of(nodeCount, batchSize, (start, length) -> () -> {
+                    long localMax = -1L;
+                    for (long node = start, end = start + length; node < end; node++) {
+                        localMax = Math.max(localMax, toOriginalId.applyAsLong(node));
+                    }
+                    max.accumulate(localMax);
+                }),
                 Integer.MAX_VALUE,
                 10L,
                 TimeUnit.MICROSECONDS,
-                terminationFlag,
+                TerminationFlag.RUNNING_TRUE,
                 executorService
         );
+        return max.get();
     }
 
-    private <T> void doWrite(
+    private <T> long doWrite(
             int propertyId,
             T data,
             PropertyTranslator<T> trans,
@@ -311,26 +475,228 @@ public final class Exporter extends StatementApi {
                     toOriginalId.applyAsLong(nodeId),
                     prop
             );
+            return sizeOf(prop);
         }
+        return 0L;
     }
 
-    private <T, U> void doWrite(
-            int propertyId1,
-            T data1,
-            PropertyTranslator<T> translator1,
-            int propertyId2,
-            U data2,
-            PropertyTranslator<U> translator2,
+    private long doWrite(
+            int[] propertyIds,
+            NodeProperty<?>[] properties,
             DataWriteOperations ops,
             long nodeId) throws KernelException {
         final long originalNodeId = toOriginalId.applyAsLong(nodeId);
-        DefinedProperty prop1 = translator1.toProperty(propertyId1, data1, nodeId);
-        if (prop1 != null) {
-            ops.nodeSetProperty(originalNodeId, prop1);
+        long bytes = 0L;
+        for (int i = 0; i < properties.length; i++) {
+            DefinedProperty prop = properties[i].toProperty(propertyIds[i], nodeId);
+            if (prop != null) {
+                ops.nodeSetProperty(originalNodeId, prop);
+                bytes += sizeOf(prop);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * rough estimate of store and transaction state bytes of a written property
+     */
+    private static long sizeOf(DefinedProperty property) {
+        if (property instanceof NumberProperty) {
+            return PROPERTY_BYTES;
+        }
+        final Object value = property.value();
+        if (value instanceof String) {
+            return PROPERTY_BYTES + (long) Character.BYTES * ((String) value).length();
+        }
+        if (value != null && value.getClass().isArray()) {
+            return PROPERTY_BYTES + (long) Long.BYTES * Array.getLength(value);
+        }
+        return PROPERTY_BYTES;
+    }
+
+    private interface PropertyWriter {
+        /**
+         * @return the estimated number of bytes written
+         */
+        long write(DataWriteOperations ops, long nodeId) throws KernelException;
+    }
+
+    /**
+     * writes the nodes of a batch in transactions of at most {@link #MAX_TRANSACTION_BYTES}
+     * and reports progress once per transaction
+     */
+    private abstract class WriteBatch implements Runnable {
+        private final PropertyWriter writer;
+        private final AtomicLong progress;
+
+        WriteBatch(PropertyWriter writer, AtomicLong progress) {
+            this.writer = writer;
+            this.progress = progress;
+        }
+
+        /**
+         * @return the next node of this batch or -1 if there are no more nodes
+         */
+        abstract long nextNode();
+
+        @Override
+        public final void run() {
+            long node = nextNode();
+            while (node != -1L && terminationFlag.running()) {
+                final long start = System.nanoTime();
+                final long[] written = {0L};
+                node = writeTransaction(node, written);
+                EXPORT_BATCH.update(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                progressLogger.logProgress(progress.addAndGet(written[0]), nodeCount);
+            }
+        }
+
+        private long writeTransaction(long firstNode, long[] written) {
+            try {
+                return applyInTransaction(stmt -> {
+                    DataWriteOperations ops = stmt.dataWriteOperations();
+                    long bytes = 0L;
+                    long count = 0L;
+                    long node = firstNode;
+                    do {
+                        bytes += writer.write(ops, node);
+                        ++count;
+                        node = nextNode();
+                    } while (node != -1L && bytes < MAX_TRANSACTION_BYTES);
+                    written[0] = count;
+                    return node;
+                });
+            } catch (KernelException e) {
+                throw Exceptions.launderedException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes ranges of nodes while their values are still being computed for other nodes.
+     * Submitted ranges must be final, they are queued and written by up to {@code concurrency}
+     * tasks of the executor. If the queue is full, the submitting thread writes the range
+     * itself, so that neither the computation nor the writers block a thread of the pool.
+     * {@link #close()} writes the remaining ranges and waits for all writers to finish.
+     */
+    public final class AsyncWriter implements AutoCloseable {
+        private final PropertyWriter writer;
+        private final BlockingQueue<long[]> ranges;
+        private final AtomicInteger workers;
+        private final Queue<Future<?>> futures;
+        private final AtomicLong progress;
+        private final Timer.Context timer;
+
+        private AsyncWriter(PropertyWriter writer) {
+            this.writer = writer;
+            this.ranges = new ArrayBlockingQueue<>(Math.max(1, concurrency));
+            this.workers = new AtomicInteger();
+            this.futures = new ConcurrentLinkedQueue<>();
+            this.progress = new AtomicLong();
+            this.timer = EXPORT_NODES.time().withUnits(nodeCount);
+        }
+
+        /**
+         * schedules the nodes {@code [startNode, endNode)} to be written
+         */
+        public void submit(long startNode, long endNode) {
+            if (startNode >= endNode) {
+                return;
+            }
+            if (!ranges.offer(new long[]{startNode, endNode})) {
+                write(startNode, endNode);
+                return;
+            }
+            startWorker();
+        }
+
+        /**
+         * schedules all nodes to be written
+         */
+        public void submitAll() {
+            submit(0L, nodeCount);
+        }
+
+        @Override
+        public void close() {
+            try {
+                long[] range;
+                while ((range = ranges.poll()) != null) {
+                    write(range[0], range[1]);
+                }
+                ParallelUtil.awaitTerminations(futures);
+            } finally {
+                timer.close();
+            }
+        }
+
+        private void startWorker() {
+            if (!ParallelUtil.canRunInParallel(executorService)) {
+                return;
+            }
+            int active;
+            do {
+                active = workers.get();
+                if (active >= concurrency) {
+                    return;
+                }
+            } while (!workers.compareAndSet(active, active + 1));
+            futures.add(executorService.submit(this::drain));
+        }
+
+        private void drain() {
+            try {
+                long[] range;
+                while ((range = ranges.poll()) != null) {
+                    write(range[0], range[1]);
+                }
+            } finally {
+                workers.decrementAndGet();
+            }
         }
-        DefinedProperty prop2 = translator2.toProperty(propertyId2, data2, nodeId);
-        if (prop2 != null) {
-            ops.nodeSetProperty(originalNodeId, prop2);
+
+        private void write(long startNode, long endNode) {
+            new NodeOrderBatch(startNode, endNode, writer, progress).run();
+        }
+    }
+
+    private final class NodeOrderBatch extends WriteBatch {
+        private final long end;
+        private long next;
+
+        NodeOrderBatch(long start, long end, PropertyWriter writer, AtomicLong progress) {
+            super(writer, progress);
+            this.next = start;
+            this.end = end;
+        }
+
+        @Override
+        long nextNode() {
+            return next < end ? next++ : -1L;
+        }
+    }
+
+    private final class StoreOrderBatch extends WriteBatch {
+        private final long end;
+        private long nextOriginalId;
+
+        StoreOrderBatch(long start, long end, PropertyWriter writer, AtomicLong progress) {
+            super(writer, progress);
+            this.nextOriginalId = start;
+            this.end = end;
+        }
+
+        @Override
+        long nextNode() {
+            while (nextOriginalId < end) {
+                final long originalId = nextOriginalId++;
+                final long node = toMappedId.applyAsLong(originalId);
+                // the reverse lookup may report unmapped ids as any node, verify the mapping
+                if (node >= 0L && node < nodeCount && toOriginalId.applyAsLong(node) == originalId) {
+                    return node;
+                }
+            }
+            return -1L;
         }
     }
 
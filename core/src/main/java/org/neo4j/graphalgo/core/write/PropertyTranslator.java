@@ -108,4 +108,23 @@ public interface PropertyTranslator<T> {
             );
         }
     }
+
+    interface OfOptionalLong<T> extends PropertyTranslator<T> {
+        long toLong(final T data, final long nodeId);
+
+        @Override
+        default DefinedProperty toProperty(
+                int propertyId,
+                T data,
+                long nodeId) {
+            final long value = toLong(data, nodeId);
+            if (value >= 0L) {
+                return DefinedProperty.longProperty(
+                        propertyId,
+                        value
+                );
+            }
+            return null;
+        }
+    }
 }
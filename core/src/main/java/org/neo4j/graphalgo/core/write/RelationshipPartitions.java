@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.write;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffers a stream of {@code (source, target, weight)} triples in primitive
+ * chunks, partitioned by ranges of the source node id, so that every partition
+ * can be written by its own thread and the transactions of a partition touch
+ * only a narrow range of source nodes.
+ */
+final class RelationshipPartitions implements Exporter.RelationshipConsumer {
+
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long nodesPerPartition;
+    private final Partition[] partitions;
+    private long relationshipCount;
+
+    RelationshipPartitions(long nodeCount, int partitionCount, boolean withWeights) {
+        final int count = (int) Math.max(1L, Math.min(partitionCount, nodeCount));
+        this.nodesPerPartition = Math.max(1L, (nodeCount + count - 1L) / count);
+        this.partitions = new Partition[count];
+        for (int i = 0; i < count; i++) {
+            partitions[i] = new Partition(withWeights);
+        }
+    }
+
+    @Override
+    public void accept(long sourceNodeId, long targetNodeId, double weight) {
+        final int index = (int) Math.min(sourceNodeId / nodesPerPartition, partitions.length - 1L);
+        partitions[index].add(sourceNodeId, targetNodeId, weight);
+        ++relationshipCount;
+    }
+
+    Partition[] partitions() {
+        return partitions;
+    }
+
+    long relationshipCount() {
+        return relationshipCount;
+    }
+
+    static final class Partition {
+        private final List<long[]> sources = new ArrayList<>();
+        private final List<long[]> targets = new ArrayList<>();
+        private final List<double[]> weights;
+        private long size;
+
+        private Partition(boolean withWeights) {
+            this.weights = withWeights ? new ArrayList<>() : null;
+        }
+
+        private void add(long source, long target, double weight) {
+            final int offset = (int) (size & CHUNK_MASK);
+            if (offset == 0) {
+                sources.add(new long[CHUNK_SIZE]);
+                targets.add(new long[CHUNK_SIZE]);
+                if (weights != null) {
+                    weights.add(new double[CHUNK_SIZE]);
+                }
+            }
+            final int chunk = (int) (size >>> CHUNK_SHIFT);
+            sources.get(chunk)[offset] = source;
+            targets.get(chunk)[offset] = target;
+            if (weights != null) {
+                weights.get(chunk)[offset] = weight;
+            }
+            ++size;
+        }
+
+        long size() {
+            return size;
+        }
+
+        long source(long index) {
+            return sources.get((int) (index >>> CHUNK_SHIFT))[(int) (index & CHUNK_MASK)];
+        }
+
+        long target(long index) {
+            return targets.get((int) (index >>> CHUNK_SHIFT))[(int) (index & CHUNK_MASK)];
+        }
+
+        double weight(long index) {
+            return weights.get((int) (index >>> CHUNK_SHIFT))[(int) (index & CHUNK_MASK)];
+        }
+    }
+}
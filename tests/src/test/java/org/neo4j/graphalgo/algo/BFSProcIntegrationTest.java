@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.BFSProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *  (a)-->(b)-->(c)-->(d)   (x)
+ *    \               ^
+ *     `---->(e)------'
+ */
+public final class BFSProcIntegrationTest {
+
+    private static GraphDatabaseAPI api;
+
+    @BeforeClass
+    public static void setup() throws KernelException {
+        final String cypher =
+                "CREATE (a:Node {name:'a'})\n" +
+                        "CREATE (b:Node {name:'b'})\n" +
+                        "CREATE (c:Node {name:'c'})\n" +
+                        "CREATE (d:Node {name:'d'})\n" +
+                        "CREATE (e:Node {name:'e'})\n" +
+                        "CREATE (x:Node {name:'x'})\n" +
+                        "CREATE" +
+                        " (a)-[:TYPE]->(b),\n" +
+                        " (b)-[:TYPE]->(c),\n" +
+                        " (c)-[:TYPE]->(d),\n" +
+                        " (a)-[:TYPE]->(e),\n" +
+                        " (e)-[:TYPE]->(d)";
+
+        api = TestDatabaseCreator.createTestDatabase();
+
+        api.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(BFSProc.class);
+
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        if (api != null) api.shutdown();
+    }
+
+    @Test
+    public void testStream() {
+        final String cypher = "MATCH (n:Node {name:'a'}) " +
+                "CALL algo.bfs.stream(n, 'Node', 'TYPE') YIELD nodeId, level, parentId " +
+                "RETURN nodeId, level, parentId";
+
+        final Map<String, Long> levels = new HashMap<>();
+        final Map<String, String> parents = new HashMap<>();
+        api.execute(cypher).accept(row -> {
+            String name = name(row.getNumber("nodeId").longValue());
+            levels.put(name, row.getNumber("level").longValue());
+            parents.put(name, name(row.getNumber("parentId").longValue()));
+            return true;
+        });
+
+        assertEquals(5, levels.size());
+        assertEquals(0L, (long) levels.get("a"));
+        assertEquals(1L, (long) levels.get("b"));
+        assertEquals(1L, (long) levels.get("e"));
+        assertEquals(2L, (long) levels.get("c"));
+        assertEquals(2L, (long) levels.get("d"));
+        assertEquals("a", parents.get("a"));
+        assertEquals("b", parents.get("c"));
+        assertEquals("e", parents.get("d"));
+    }
+
+    @Test
+    public void testIncomingStream() {
+        final String cypher = "MATCH (n:Node {name:'d'}) " +
+                "CALL algo.bfs.stream(n, 'Node', 'TYPE', {direction:'INCOMING'}) YIELD nodeId, level " +
+                "RETURN nodeId, level";
+
+        final Map<String, Long> levels = new HashMap<>();
+        api.execute(cypher).accept(row -> {
+            levels.put(name(row.getNumber("nodeId").longValue()), row.getNumber("level").longValue());
+            return true;
+        });
+
+        assertEquals(5, levels.size());
+        assertEquals(0L, (long) levels.get("d"));
+        assertEquals(1L, (long) levels.get("c"));
+        assertEquals(1L, (long) levels.get("e"));
+        assertEquals(2L, (long) levels.get("a"));
+        assertEquals(2L, (long) levels.get("b"));
+    }
+
+    @Test
+    public void testWrite() {
+        final String cypher = "MATCH (n:Node {name:'a'}) " +
+                "CALL algo.bfs(n, 'Node', 'TYPE', {write:true, writeProperty:'bfsLevel', parentProperty:'bfsParent'}) " +
+                "YIELD nodes, visitedNodes, maxLevel, writeMillis " +
+                "RETURN nodes, visitedNodes, maxLevel, writeMillis";
+
+        api.execute(cypher).accept(row -> {
+            assertEquals(6L, row.getNumber("nodes").longValue());
+            assertEquals(5L, row.getNumber("visitedNodes").longValue());
+            assertEquals(2L, row.getNumber("maxLevel").longValue());
+            return true;
+        });
+
+        try (Transaction tx = api.beginTx()) {
+            assertEquals(2, api.findNode(Label.label("Node"), "name", "d").getProperty("bfsLevel"));
+            assertEquals(0, api.findNode(Label.label("Node"), "name", "a").getProperty("bfsLevel"));
+            assertFalse(api.findNode(Label.label("Node"), "name", "x").hasProperty("bfsLevel"));
+            assertEquals(
+                    api.findNode(Label.label("Node"), "name", "e").getId(),
+                    api.findNode(Label.label("Node"), "name", "d").getProperty("bfsParent"));
+            assertFalse(api.findNode(Label.label("Node"), "name", "x").hasProperty("bfsParent"));
+            tx.success();
+        }
+    }
+
+    private static String name(long nodeId) {
+        try (Transaction tx = api.beginTx()) {
+            Node node = api.getNodeById(nodeId);
+            String name = (String) node.getProperty("name");
+            tx.success();
+            return name;
+        }
+    }
+}
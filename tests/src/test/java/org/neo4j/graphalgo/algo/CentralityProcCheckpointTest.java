@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.BetweennessCentralityProc;
+import org.neo4j.graphalgo.ClosenessCentralityProc;
+import org.neo4j.graphalgo.core.utils.checkpoint.Checkpoint;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class CentralityProcCheckpointTest {
+
+    private static final String DB_CYPHER = "" +
+            "UNWIND range(0, 99) AS i CREATE (:Node {id: i})\n" +
+            "WITH 1 AS _\n" +
+            "MATCH (a:Node), (b:Node) WHERE (a.id * 7 + b.id * 13) % 11 = 0 AND a <> b\n" +
+            "CREATE (a)-[:TYPE]->(b)";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException exceptions = ExpectedException.none();
+
+    private GraphDatabaseAPI db;
+    private File storeDir;
+
+    @Before
+    public void setup() throws Exception {
+        storeDir = folder.newFolder("graph.db");
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder(storeDir)
+                .newGraphDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+        Procedures procedures = db.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(BetweennessCentralityProc.class);
+        procedures.registerProcedure(ClosenessCentralityProc.class);
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldCheckpointBetweennessOfSequentialRun() {
+        Map<Long, Double> expected = stream("algo.betweenness.stream", "{concurrency:1}");
+        Map<Long, Double> checkpointed = stream(
+                "algo.betweenness.stream",
+                "{concurrency:1, checkpoint:'betweenness.ckpt', checkpointInterval:30}");
+        assertTrue(Files.isRegularFile(checkpoint("betweenness.ckpt")));
+        assertCentrality(expected, checkpointed);
+
+        // all sources have been processed, the resumed run only restores the centrality
+        Map<Long, Double> resumed = stream("algo.betweenness.stream", "{concurrency:4, resumeFrom:'betweenness.ckpt'}");
+        assertCentrality(expected, resumed);
+    }
+
+    @Test
+    public void shouldCheckpointClosenessOnHugeGraph() {
+        Map<Long, Double> expected = stream("algo.closeness.stream", "{graph:'huge'}");
+        Map<Long, Double> checkpointed = stream(
+                "algo.closeness.stream",
+                "{graph:'huge', checkpoint:'closeness.ckpt', checkpointInterval:40}");
+        assertTrue(Files.isRegularFile(checkpoint("closeness.ckpt")));
+        assertCentrality(expected, checkpointed);
+
+        Map<Long, Double> resumed = stream("algo.closeness.stream", "{graph:'huge', resumeFrom:'closeness.ckpt'}");
+        assertCentrality(expected, resumed);
+    }
+
+    @Test
+    public void shouldRejectClosenessCheckpointOnHeavyGraph() {
+        exceptions.expect(QueryExecutionException.class);
+        exceptions.expectMessage("huge graph");
+        try {
+            stream("algo.closeness.stream", "{graph:'heavy', checkpoint:'closeness.ckpt'}");
+        } finally {
+            assertTrue(Files.notExists(checkpoint("closeness.ckpt")));
+        }
+    }
+
+    @Test
+    public void shouldRejectBetweennessCheckpointOutsideOfTheCheckpointDirectory() {
+        exceptions.expect(QueryExecutionException.class);
+        exceptions.expectMessage("checkpoint directory");
+        stream("algo.betweenness.stream", "{checkpoint:'../outside.ckpt'}");
+    }
+
+    private Path checkpoint(String name) {
+        return storeDir.toPath().resolve(Checkpoint.DIRECTORY).resolve(name);
+    }
+
+    private static void assertCentrality(Map<Long, Double> expected, Map<Long, Double> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        // the parallel algorithm adds up the contributions in a different order
+        expected.forEach((node, centrality) -> assertEquals(
+                centrality,
+                actual.get(node),
+                Math.max(1e-9, Math.abs(centrality) * 1e-12)));
+    }
+
+    private Map<Long, Double> stream(String procedure, String config) {
+        Map<Long, Double> centralities = new HashMap<>();
+        db.execute("CALL " + procedure + "('Node', 'TYPE', " + config + ") YIELD nodeId, centrality")
+                .accept(row -> {
+                    centralities.put(row.getNumber("nodeId").longValue(), row.getNumber("centrality").doubleValue());
+                    return true;
+                });
+        return centralities;
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.IncrementalUnionFindProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.UnionFindProc;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IncrementalUnionFindProcTest {
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() throws KernelException {
+        String createGraph =
+                "CREATE (nA:Node {name:'a'})\n" +
+                "CREATE (nB:Node {name:'b'})\n" +
+                "CREATE (nC:Node {name:'c'})\n" +
+                "CREATE (nD:Node {name:'d'})\n" +
+                "CREATE (nE:Node {name:'e'})\n" +
+                "CREATE\n" +
+                "  (nA)-[:TYPE]->(nB),\n" +
+                "  (nC)-[:TYPE]->(nD)\n" +
+                "CREATE (wA:Weighted {name:'a'})\n" +
+                "CREATE (wB:Weighted {name:'b'})\n" +
+                "CREATE (wC:Weighted {name:'c'})\n" +
+                "CREATE (wD:Weighted {name:'d'})\n" +
+                "CREATE\n" +
+                "  (wA)-[:WEIGHTED {w:7.0}]->(wB),\n" +
+                "  (wC)-[:WEIGHTED {w:1.0}]->(wD)";
+
+        db = TestDatabaseCreator.createTestDatabase();
+
+        try (Transaction tx = db.beginTx()) {
+            db.execute(createGraph).close();
+            tx.success();
+        }
+
+        db.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(IncrementalUnionFindProc.class);
+        db.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(UnionFindProc.class);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testIncrementalUpdates() throws Exception {
+        db.execute("CALL algo.unionFind.incremental.init('cc', 'Node', 'TYPE') YIELD nodes, setCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(5L, row.getNumber("nodes"));
+                    assertEquals(3L, row.getNumber("setCount"));
+                    return true;
+                });
+        assertNotEquals(partition("a"), partition("c"));
+
+        // absorb new relationships by id range
+        final long highId = db.execute("MATCH ()-[r]->() RETURN max(id(r)) + 1 AS id")
+                .<Number>columnAs("id").next().longValue();
+        db.execute("MATCH (b:Node {name:'b'}), (c:Node {name:'c'}) CREATE (b)-[:TYPE]->(c)").close();
+        db.execute("CALL algo.unionFind.incremental('cc', 'TYPE', {minRelationshipId:" + highId + "}) " +
+                "YIELD relationships, skippedRelationships, changedNodes, setCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(1L, row.getNumber("relationships"));
+                    assertEquals(0L, row.getNumber("skippedRelationships"));
+                    assertEquals(2L, row.getNumber("changedNodes"));
+                    assertEquals(2L, row.getNumber("setCount"));
+                    return true;
+                });
+        assertEquals(partition("a"), partition("d"));
+
+        // absorb new relationships from a query, new nodes are skipped
+        db.execute("MATCH (d:Node {name:'d'}), (e:Node {name:'e'}) " +
+                "CREATE (d)-[:TYPE {added:42}]->(e), (e)-[:TYPE {added:42}]->(:Node {name:'f'})").close();
+        final Map<String, Object> params = new HashMap<>();
+        params.put("query", "MATCH (s)-[r:TYPE]->(t) WHERE r.added = 42 RETURN id(s) AS source, id(t) AS target");
+        db.execute("CALL algo.unionFind.incremental('cc', $query, {graph:'cypher'}) " +
+                "YIELD relationships, skippedRelationships, changedNodes, setCount", params)
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(1L, row.getNumber("relationships"));
+                    assertEquals(1L, row.getNumber("skippedRelationships"));
+                    assertEquals(1L, row.getNumber("changedNodes"));
+                    assertEquals(1L, row.getNumber("setCount"));
+                    return true;
+                });
+        assertEquals(partition("a"), partition("e"));
+
+        db.execute("CALL algo.unionFind.incremental.drop('cc') YIELD nodes, setCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(5L, row.getNumber("nodes"));
+                    assertEquals(1L, row.getNumber("setCount"));
+                    return true;
+                });
+    }
+
+    @Test
+    public void testUpdatesApplyTheThresholdOfTheInitialization() throws Exception {
+        final String config = "{weightProperty:'w', threshold:5.0, defaultValue:0.0, concurrency:1, partitionProperty:'wp'}";
+        db.execute("CALL algo.unionFind.incremental.init('weighted', 'Weighted', 'WEIGHTED', " + config + ") " +
+                "YIELD setCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(3L, row.getNumber("setCount"));
+                    return true;
+                });
+
+        // by id range, only the heavy relationship is added
+        final long highId = db.execute("MATCH ()-[r]->() RETURN max(id(r)) + 1 AS id")
+                .<Number>columnAs("id").next().longValue();
+        db.execute("MATCH (a:Weighted {name:'a'}), (c:Weighted {name:'c'}) CREATE (a)-[:WEIGHTED {w:1.0}]->(c)").close();
+        db.execute("MATCH (b:Weighted {name:'b'}), (d:Weighted {name:'d'}) CREATE (b)-[:WEIGHTED {w:9.0}]->(d)").close();
+        db.execute("CALL algo.unionFind.incremental('weighted', 'WEIGHTED', {minRelationshipId:" + highId + ", partitionProperty:'wp'}) " +
+                "YIELD relationships, skippedRelationships, setCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(1L, row.getNumber("relationships"));
+                    assertEquals(1L, row.getNumber("skippedRelationships"));
+                    assertEquals(2L, row.getNumber("setCount"));
+                    return true;
+                });
+        assertEquals(weightedPartition("a"), weightedPartition("d"));
+        assertNotEquals(weightedPartition("a"), weightedPartition("c"));
+
+        // a fresh computation with the same configuration agrees
+        db.execute("CALL algo.unionFind('Weighted', 'WEIGHTED', " + config + ") YIELD setCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(2L, row.getNumber("setCount"));
+                    return true;
+                });
+
+        // by query, rows are weighted by their weight column
+        final Map<String, Object> params = new HashMap<>();
+        params.put("query", "MATCH (s:Weighted {name:'a'}), (t:Weighted {name:'c'}) " +
+                "RETURN id(s) AS source, id(t) AS target, 2.0 AS weight");
+        db.execute("CALL algo.unionFind.incremental('weighted', $query, {graph:'cypher', partitionProperty:'wp'}) " +
+                "YIELD relationships, skippedRelationships, setCount", params)
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(0L, row.getNumber("relationships"));
+                    assertEquals(1L, row.getNumber("skippedRelationships"));
+                    assertEquals(2L, row.getNumber("setCount"));
+                    return true;
+                });
+
+        db.execute("CALL algo.unionFind.incremental.drop('weighted')").close();
+    }
+
+    @Test
+    public void testNodesOfAFailedWriteAreWrittenAgain() throws Exception {
+        db.execute("CREATE (a:Part {name:'a'})-[:PART]->(b:Part {name:'b'}), (:Part:Unique {name:'c'})").close();
+        db.execute("CREATE CONSTRAINT ON (n:Unique) ASSERT n.fp IS UNIQUE").close();
+        db.execute("CALL algo.unionFind.incremental.init('failing', 'Part', 'PART', {concurrency:1, partitionProperty:'fp'})").close();
+        final long setId = partPartition("a");
+        assertEquals(setId, partPartition("b"));
+        assertNotEquals(setId, partPartition("c"));
+
+        // the new set id of c violates the constraint and the write is rolled back
+        final Map<String, Object> params = new HashMap<>();
+        params.put("query", "MATCH (s:Part {name:'c'}), (t:Part {name:'b'}) RETURN id(s) AS source, id(t) AS target");
+        db.execute("CREATE (:Unique {fp:" + setId + "})").close();
+        try {
+            db.execute("CALL algo.unionFind.incremental('failing', $query, {graph:'cypher', partitionProperty:'fp'})", params).close();
+            fail("write must violate the constraint");
+        } catch (QueryExecutionException e) {
+            assertNotEquals(setId, partPartition("c"));
+        }
+
+        // once the conflict is gone, the next update writes c again
+        db.execute("MATCH (n:Unique) WHERE NOT n:Part DELETE n").close();
+        params.put("query", "MATCH (n:Part) WHERE false RETURN id(n) AS source, id(n) AS target");
+        db.execute("CALL algo.unionFind.incremental('failing', $query, {graph:'cypher', partitionProperty:'fp'}) " +
+                "YIELD relationships, changedNodes, setCount", params)
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(0L, row.getNumber("relationships"));
+                    assertEquals(1L, row.getNumber("changedNodes"));
+                    assertEquals(1L, row.getNumber("setCount"));
+                    return true;
+                });
+        assertEquals(setId, partPartition("c"));
+
+        db.execute("CALL algo.unionFind.incremental.drop('failing')").close();
+    }
+
+    @Test
+    public void testStructsArePerDatabase() throws Exception {
+        final GraphDatabaseAPI other = TestDatabaseCreator.createTestDatabase();
+        try {
+            try (Transaction tx = other.beginTx()) {
+                other.execute("CREATE (:Node)-[:TYPE]->(:Node)").close();
+                tx.success();
+            }
+            other.getDependencyResolver()
+                    .resolveDependency(Procedures.class)
+                    .registerProcedure(IncrementalUnionFindProc.class);
+            db.execute("CALL algo.unionFind.incremental.init('shared', 'Node', 'TYPE', {write:false})").close();
+            try {
+                other.execute("CALL algo.unionFind.incremental('shared', 'TYPE')").close();
+                fail("struct of another database must not be visible");
+            } catch (QueryExecutionException e) {
+                assertTrue(e.getMessage().contains("No UnionFind with name `shared` found"));
+            }
+            other.execute("CALL algo.unionFind.incremental.init('shared', 'Node', 'TYPE', {write:false})").close();
+        } finally {
+            other.shutdown();
+        }
+
+        // shutting down the other database leaves the structs of this one alone
+        final long nodes = db.execute("MATCH (n:Node) RETURN count(n) AS nodes")
+                .<Number>columnAs("nodes").next().longValue();
+        db.execute("CALL algo.unionFind.incremental.drop('shared') YIELD nodes")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(nodes, row.getNumber("nodes").longValue());
+                    return true;
+                });
+    }
+
+    private static long partPartition(String name) {
+        return db.execute("MATCH (n:Part {name:'" + name + "'}) RETURN n.fp AS p")
+                .<Number>columnAs("p").next().longValue();
+    }
+
+    private static long weightedPartition(String name) {
+        return db.execute("MATCH (n:Weighted {name:'" + name + "'}) RETURN n.wp AS p")
+                .<Number>columnAs("p").next().longValue();
+    }
+
+    private static long partition(String name) {
+        return db.execute("MATCH (n:Node {name:'" + name + "'}) RETURN n.partition AS p")
+                .<Number>columnAs("p").next().longValue();
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.JobsProc;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.jobs.Job;
+import org.neo4j.graphalgo.core.utils.jobs.JobScheduler;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class JobsProcTest {
+
+    private static GraphDatabaseAPI api;
+
+    @BeforeClass
+    public static void setup() throws KernelException {
+        final String cypher =
+                "CREATE (a:Node {name:'a'})\n" +
+                        "CREATE (b:Node {name:'b'})\n" +
+                        "CREATE (a)-[:TYPE]->(b)";
+
+        api = TestDatabaseCreator.createTestDatabase();
+
+        Procedures procedures = api.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(JobsProc.class);
+        procedures.registerProcedure(PageRankProc.class);
+
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        if (api != null) api.shutdown();
+    }
+
+    @Test
+    public void testListsRunningJobs() {
+        try (Job job = JobScheduler.GLOBAL.admit("test", 1, 42L, 0L, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE)) {
+            final List<Object> states = new ArrayList<>();
+            api.execute("CALL algo.jobs() YIELD id, name, state, concurrency, estimatedMemory " +
+                    "WHERE name = 'test' RETURN id, state, concurrency, estimatedMemory")
+                    .accept(row -> {
+                        assertEquals(job.id(), row.getNumber("id").longValue());
+                        assertEquals(1L, row.getNumber("concurrency").longValue());
+                        assertEquals(42L, row.getNumber("estimatedMemory").longValue());
+                        states.add(row.getString("state"));
+                        return true;
+                    });
+            assertEquals(1, states.size());
+            assertEquals("RUNNING", states.get(0));
+        }
+    }
+
+    @Test
+    public void testCancelsJobs() {
+        final Job job = JobScheduler.GLOBAL.admit("cancelled", 1, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE);
+        final List<Object> cancelled = new ArrayList<>();
+        api.execute("CALL algo.jobs.cancel($id) YIELD id, cancelled RETURN id, cancelled", singletonMap("id", job.id()))
+                .accept(row -> {
+                    assertEquals(job.id(), row.getNumber("id").longValue());
+                    return cancelled.add(row.getBoolean("cancelled"));
+                });
+        assertEquals(1, cancelled.size());
+        assertEquals(true, cancelled.get(0));
+        assertFalse(job.running());
+        try {
+            job.close();
+            fail("closing a cancelled job should fail");
+        } catch (IllegalStateException expected) {
+        }
+
+        assertEquals(0L, api.execute("CALL algo.jobs.cancel($id)", singletonMap("id", job.id())).stream().count());
+    }
+
+    @Test
+    public void testListsJobsWithProgress() {
+        try (Job job = JobScheduler.GLOBAL.admit("progress", 1, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE)) {
+            job.progressLogger(ProgressLogger.NULL_LOGGER).logProgress(0.5);
+            final List<Object> progress = new ArrayList<>();
+            api.execute("CALL algo.jobs.list() YIELD name, progress WHERE name = 'progress' RETURN progress")
+                    .accept(row -> progress.add(row.getNumber("progress").doubleValue()));
+            assertEquals(1, progress.size());
+            assertEquals(0.5, progress.get(0));
+        }
+    }
+
+    @Test
+    public void testTimeoutStopsQueuedProcedures() {
+        final JobScheduler scheduler = JobScheduler.GLOBAL;
+        try (Job ignored = scheduler.admit("blocking", scheduler.maxThreads(), AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE)) {
+            api.execute("CALL algo.pageRank('Node', 'TYPE', {graph:'huge', write:false, timeout:200})").close();
+            fail("the procedure should time out while waiting for the blocking job");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("timed out"));
+        }
+        assertEquals(0, scheduler.jobs().size());
+    }
+
+    @Test
+    public void testProceduresWaitForTheMemoryOfTheirEstimate() {
+        final JobScheduler scheduler = JobScheduler.GLOBAL;
+        // leaves all threads but none of the memory to the procedure
+        try (Job ignored = scheduler.admit("memory", 1, scheduler.maxMemory(), 0L, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE)) {
+            api.execute("CALL algo.pageRank('Node', 'TYPE', {graph:'huge', write:false, timeout:200})").close();
+            fail("the procedure should time out while waiting for the memory of the blocking job");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("timed out"));
+        }
+        assertEquals(0, scheduler.jobs().size());
+
+        api.execute("CALL algo.pageRank('Node', 'TYPE', {graph:'huge', write:false})").close();
+    }
+
+    @Test
+    public void testReleasesJobsOfFinishedProcedures() {
+        api.execute("CALL algo.pageRank('Node', 'TYPE', {graph:'huge', iterations:5, write:true})").close();
+        api.execute("CALL algo.pageRank.stream('Node', 'TYPE', {graph:'huge', iterations:5})").close();
+
+        final List<Object> names = new ArrayList<>();
+        api.execute("CALL algo.jobs() YIELD name WHERE name STARTS WITH 'algo.pageRank' RETURN name")
+                .accept(row -> names.add(row.getString("name")));
+        assertEquals(0, names.size());
+    }
+}
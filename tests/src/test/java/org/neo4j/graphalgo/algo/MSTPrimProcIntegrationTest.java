@@ -107,4 +107,29 @@ public class MSTPrimProcIntegrationTest {
             return true;
         });
     }
+
+    @Test
+    public void testMsf() throws Exception {
+
+        db.execute("CALL algo.msf('cost', {relationship:'TYPE', write:true, stats:true, writeProperty:'msf'}) " +
+                "YIELD writeMillis, weightSum, weightMin, weightMax, relationshipCount " +
+                "RETURN writeMillis, weightSum, weightMin, weightMax, relationshipCount").accept(res -> {
+
+            assertNotEquals(-1L, res.getNumber("writeMillis").longValue());
+            assertEquals(12.0, res.getNumber("weightSum").doubleValue(), 0.01);
+            assertEquals(1.0, res.getNumber("weightMin").doubleValue(), 0.01);
+            assertEquals(5.0, res.getNumber("weightMax").doubleValue(), 0.01);
+            assertEquals(4, res.getNumber("relationshipCount").intValue());
+
+            return true;
+        });
+
+        db.execute("MATCH ()-[r:msf]->() RETURN count(r) AS count").accept(res -> {
+            assertEquals(4, res.getNumber("count").intValue());
+            return true;
+        });
+
+        // keep the graph unchanged for the other tests
+        db.execute("MATCH ()-[r:msf]->() DELETE r").close();
+    }
 }
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.MetricsProc;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class MetricsProcTest {
+
+    private static GraphDatabaseAPI api;
+
+    @BeforeClass
+    public static void setup() throws KernelException {
+        final String cypher =
+                "CREATE (a:Node {name:'a'})\n" +
+                        "CREATE (b:Node {name:'b'})\n" +
+                        "CREATE (c:Node {name:'c'})\n" +
+                        "CREATE" +
+                        " (a)-[:TYPE]->(b),\n" +
+                        " (b)-[:TYPE]->(c),\n" +
+                        " (c)-[:TYPE]->(a)";
+
+        api = TestDatabaseCreator.createTestDatabase();
+
+        Procedures procedures = api.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(MetricsProc.class);
+        procedures.registerProcedure(PageRankProc.class);
+
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        if (api != null) api.shutdown();
+    }
+
+    @Test
+    public void testLoadComputeAndWriteMetrics() {
+        api.execute("CALL algo.metrics.reset()").close();
+        api.execute("CALL algo.pageRank('Node', 'TYPE', {graph:'huge', iterations:5, write:true})").close();
+
+        final Map<String, Map<String, Object>> metrics = new HashMap<>();
+        api.execute("CALL algo.metrics() YIELD name, type, count, sum, rate RETURN name, type, count, sum, rate")
+                .accept(row -> {
+                    Map<String, Object> values = new HashMap<>();
+                    values.put("type", row.getString("type"));
+                    values.put("count", row.getNumber("count").longValue());
+                    values.put("rate", row.getNumber("rate").doubleValue());
+                    metrics.put(row.getString("name"), values);
+                    return true;
+                });
+
+        assertEquals(1L, metrics.get("load").get("count"));
+        assertEquals(1L, metrics.get("load.huge.nodes").get("count"));
+        assertEquals(1L, metrics.get("load.huge.relationships").get("count"));
+        assertEquals("timer", metrics.get("pagerank.iteration").get("type"));
+        assertEquals(5L, metrics.get("pagerank.iteration").get("count"));
+        assertTrue((Double) metrics.get("pagerank.iteration").get("rate") > 0.0);
+        assertEquals(1L, metrics.get("export.nodes").get("count"));
+        assertTrue((Long) metrics.get("export.batchMicros").get("count") >= 1L);
+    }
+
+    @Test
+    public void testFilterByName() {
+        api.execute("CALL algo.metrics('pagerank') YIELD name RETURN name").accept(row -> {
+            assertTrue(row.getString("name").contains("pagerank"));
+            return true;
+        });
+    }
+}
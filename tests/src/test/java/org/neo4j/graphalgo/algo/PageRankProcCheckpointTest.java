@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.core.utils.checkpoint.Checkpoint;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class PageRankProcCheckpointTest {
+
+    private static final String DB_CYPHER = "" +
+            "UNWIND range(0, 99) AS i CREATE (:Node {id: i})\n" +
+            "WITH 1 AS _\n" +
+            "MATCH (a:Node), (b:Node) WHERE (a.id * 7 + b.id * 13) % 11 = 0 AND a <> b\n" +
+            "CREATE (a)-[:TYPE]->(b)";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException exceptions = ExpectedException.none();
+
+    private GraphDatabaseAPI db;
+    private File storeDir;
+
+    @Before
+    public void setup() throws Exception {
+        storeDir = folder.newFolder("graph.db");
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder(storeDir)
+                .newGraphDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+        db.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(PageRankProc.class);
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldWriteCheckpointsToTheCheckpointDirectory() {
+        Map<Long, Double> expected = stream("{graph:'huge', iterations:10}");
+        stream("{graph:'huge', iterations:4, checkpoint:'pagerank.ckpt', checkpointInterval:2}");
+
+        Path checkpoint = storeDir.toPath().resolve(Checkpoint.DIRECTORY).resolve("pagerank.ckpt");
+        assertTrue(Files.isRegularFile(checkpoint));
+
+        Map<Long, Double> resumed = stream("{graph:'huge', iterations:10, resumeFrom:'pagerank.ckpt'}");
+        assertEquals(expected.keySet(), resumed.keySet());
+        expected.forEach((node, score) -> assertEquals(score, resumed.get(node), 1e-9));
+    }
+
+    @Test
+    public void shouldRejectAbsoluteCheckpoint() {
+        File outside = new File(folder.getRoot(), "outside.ckpt");
+        exceptions.expect(QueryExecutionException.class);
+        exceptions.expectMessage("checkpoint directory");
+        try {
+            stream("{graph:'huge', checkpoint:'" + outside.getAbsolutePath().replace("\\", "\\\\") + "'}");
+        } finally {
+            assertFalse(outside.exists());
+        }
+    }
+
+    @Test
+    public void shouldRejectCheckpointOutsideOfTheCheckpointDirectory() {
+        exceptions.expect(QueryExecutionException.class);
+        exceptions.expectMessage("checkpoint directory");
+        try {
+            stream("{graph:'huge', checkpoint:'../outside.ckpt'}");
+        } finally {
+            assertFalse(Files.exists(storeDir.toPath().resolve("outside.ckpt")));
+        }
+    }
+
+    @Test
+    public void shouldRejectResumingFromOutsideOfTheCheckpointDirectory() {
+        exceptions.expect(QueryExecutionException.class);
+        exceptions.expectMessage("checkpoint directory");
+        stream("{graph:'huge', resumeFrom:'../neostore'}");
+    }
+
+    private Map<Long, Double> stream(String config) {
+        Map<Long, Double> scores = new HashMap<>();
+        db.execute("CALL algo.pageRank.stream('Node', 'TYPE', " + config + ") YIELD nodeId, score")
+                .accept(row -> {
+                    scores.put(row.getNumber("nodeId").longValue(), row.getNumber("score").doubleValue());
+                    return true;
+                });
+        return scores;
+    }
+}
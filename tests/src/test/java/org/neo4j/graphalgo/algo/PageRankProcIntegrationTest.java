@@ -33,12 +33,15 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -149,6 +152,25 @@ public class PageRankProcIntegrationTest {
         assertMapEquals(expected, actual);
     }
 
+    @Test
+    public void testPageRankStreamTop() throws Exception {
+        final List<Long> actual = new ArrayList<>();
+        runQuery(
+                "CALL algo.pageRank.stream('Label1', 'TYPE1', {top:2, graph:'"+graphImpl+"'}) YIELD node, score",
+                row -> {
+                    final long nodeId = row.getNode("node").getId();
+                    assertEquals(expected.get(nodeId), (Double) row.get("score"), 0.1);
+                    actual.add(nodeId);
+                });
+
+        final List<Long> expectedTop = expected.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(2)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        assertEquals(expectedTop, actual);
+    }
+
     @Test
     public void testPageRankWriteBack() throws Exception {
         runQuery(
@@ -27,6 +27,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.neo4j.graphalgo.UnionFindProc;
+import org.neo4j.graphalgo.UnionFindProc5;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.kernel.api.exceptions.KernelException;
@@ -88,6 +89,9 @@ public class UnionFindProcIntegrationTest {
         db.getDependencyResolver()
                 .resolveDependency(Procedures.class)
                 .registerProcedure(UnionFindProc.class);
+        db.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(UnionFindProc5.class);
     }
 
     @AfterClass
@@ -170,6 +174,28 @@ public class UnionFindProcIntegrationTest {
         assertMapContains(map, 1, 2, 7);
     }
 
+    @Test
+    public void testAfforestStream() throws Exception {
+        final IntIntScatterMap map = new IntIntScatterMap(11);
+        db.execute("CALL algo.unionFind.afforest.stream('', 'TYPE', {graph:'"+graphImpl+"'}) YIELD setId")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    map.addTo(row.getNumber("setId").intValue(), 1);
+                    return true;
+                });
+        assertMapContains(map, 1, 2, 7);
+    }
+
+    @Test
+    public void testThresholdAfforestStream() throws Exception {
+        final IntIntScatterMap map = new IntIntScatterMap(11);
+        db.execute("CALL algo.unionFind.afforest.stream('', 'TYPE', {weightProperty:'cost', defaultValue:10.0, threshold:5.0, concurrency:4, graph:'"+graphImpl+"'}) YIELD setId")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    map.addTo(row.getNumber("setId").intValue(), 1);
+                    return true;
+                });
+        assertMapContains(map, 4, 3, 2, 1);
+    }
+
     private static void assertMapContains(IntIntMap map, int... values) {
         assertEquals("set count does not match", values.length, map.size());
         for (int count : values) {
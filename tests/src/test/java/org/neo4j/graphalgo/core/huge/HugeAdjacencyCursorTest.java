@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeAdjacencyCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeAdjacencyCursorTest {
+
+    private static final Direction[] DIRECTIONS = {Direction.OUTGOING, Direction.INCOMING, Direction.BOTH};
+
+    @Test
+    public void testCursorMatchesForEach() {
+        final long nodeCount = 500L;
+        HugeGraphBuilder builder = new HugeGraphBuilder(nodeCount, 20_000L, AllocationTracker.EMPTY);
+        Random random = new Random(42L);
+        for (int i = 0; i < 5_000; i++) {
+            builder.add(random.nextInt((int) nodeCount), random.nextInt((int) nodeCount));
+        }
+        // a hub with more targets than fit into a single block
+        for (long target = 1L; target < nodeCount; target += 2L) {
+            builder.add(0L, target);
+        }
+        HugeGraph graph = builder.build(Direction.BOTH, Pools.DEFAULT, 4);
+        assertTrue(graph.degree(0L, Direction.OUTGOING) > HugeAdjacencyCursor.BLOCK_SIZE);
+
+        HugeAdjacencyCursor cursor = graph.adjacencyCursor();
+        for (Direction direction : DIRECTIONS) {
+            for (long node = 0L; node < nodeCount; node++) {
+                assertArrayEquals(
+                        "node " + node + " " + direction,
+                        forEach(graph, node, direction),
+                        drain(cursor.init(node, direction)));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyAndUnloadedDirections() {
+        HugeGraphBuilder builder = new HugeGraphBuilder(3L, 2L, AllocationTracker.EMPTY);
+        builder.add(0L, 1L);
+        builder.add(0L, 2L);
+        HugeGraph graph = builder.build(Direction.OUTGOING, Pools.DEFAULT, 1);
+
+        HugeAdjacencyCursor cursor = graph.adjacencyCursor();
+        assertArrayEquals(new long[]{1L, 2L}, drain(cursor.init(0L, Direction.OUTGOING)));
+        assertArrayEquals(new long[]{1L, 2L}, drain(cursor.init(0L, Direction.BOTH)));
+        assertArrayEquals(new long[0], drain(cursor.init(1L, Direction.OUTGOING)));
+        assertArrayEquals(new long[0], drain(cursor.init(1L, Direction.INCOMING)));
+        assertEquals(0, cursor.next());
+    }
+
+    @Test
+    public void testBufferedFallback() {
+        HugeRelationshipIterator iterator = (nodeId, direction, consumer) -> {
+            for (long i = 0L; i < 100L; i++) {
+                if (!consumer.accept(nodeId, nodeId + i)) {
+                    return;
+                }
+            }
+        };
+        HugeAdjacencyCursor cursor = iterator.adjacencyCursor();
+        long[] expected = new long[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = 7L + i;
+        }
+        assertArrayEquals(expected, drain(cursor.init(7L, Direction.OUTGOING)));
+        assertArrayEquals(expected, drain(cursor.init(7L, Direction.OUTGOING)));
+    }
+
+    private static long[] drain(HugeAdjacencyCursor cursor) {
+        LongArrayList targets = new LongArrayList();
+        int length;
+        while ((length = cursor.next()) > 0) {
+            targets.add(cursor.buffer(), 0, length);
+        }
+        return targets.toArray();
+    }
+
+    private static long[] forEach(HugeGraph graph, long node, Direction direction) {
+        LongArrayList targets = new LongArrayList();
+        graph.forEachRelationship(node, direction, (s, t) -> {
+            targets.add(t);
+            return true;
+        });
+        return targets.toArray();
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeGraphBuilderTest {
+
+    @Test
+    public void testBuildBothDirections() {
+        HugeGraph graph = smallGraph().build(Direction.BOTH, Pools.DEFAULT, 4);
+
+        assertEquals(4L, graph.nodeCount());
+        assertArrayEquals(new long[]{1L, 2L}, targets(graph, 0L, Direction.OUTGOING));
+        assertArrayEquals(new long[]{}, targets(graph, 1L, Direction.OUTGOING));
+        assertArrayEquals(new long[]{0L}, targets(graph, 2L, Direction.OUTGOING));
+        assertArrayEquals(new long[]{3L}, targets(graph, 3L, Direction.OUTGOING));
+        assertArrayEquals(new long[]{2L}, targets(graph, 0L, Direction.INCOMING));
+        assertArrayEquals(new long[]{0L}, targets(graph, 1L, Direction.INCOMING));
+        assertEquals(2, graph.degree(0L, Direction.OUTGOING));
+        assertEquals(3L, graph.toOriginalNodeId(3L));
+    }
+
+    @Test
+    public void testBuildUndirected() {
+        HugeGraph graph = smallGraph().buildUndirected(Pools.DEFAULT, 4);
+
+        assertArrayEquals(new long[]{1L, 2L}, targets(graph, 0L, Direction.OUTGOING));
+        assertArrayEquals(new long[]{0L}, targets(graph, 1L, Direction.OUTGOING));
+        assertArrayEquals(new long[]{0L}, targets(graph, 2L, Direction.OUTGOING));
+        assertArrayEquals(new long[]{3L}, targets(graph, 3L, Direction.OUTGOING));
+    }
+
+    @Test
+    public void testBuildInBatches() {
+        final long nodeCount = 100_000L;
+        HugeGraphBuilder builder = new HugeGraphBuilder(nodeCount, nodeCount, AllocationTracker.EMPTY);
+        for (long node = nodeCount - 1L; node > 0L; node--) {
+            assertTrue(builder.add(node - 1L, node));
+        }
+        HugeGraph graph = builder.build(Direction.OUTGOING, Pools.DEFAULT, 4);
+        builder.release();
+
+        for (long node = 0L; node < nodeCount - 1L; node++) {
+            assertArrayEquals(new long[]{node + 1L}, targets(graph, node, Direction.OUTGOING));
+        }
+        assertEquals(0, graph.degree(nodeCount - 1L, Direction.OUTGOING));
+    }
+
+    private static HugeGraphBuilder smallGraph() {
+        HugeGraphBuilder builder = new HugeGraphBuilder(4L, 5L, AllocationTracker.EMPTY);
+        builder.add(0L, 2L);
+        builder.add(0L, 1L);
+        builder.add(0L, 1L);
+        builder.add(2L, 0L);
+        builder.add(3L, 3L);
+        assertFalse(builder.add(1L, 2L));
+        assertEquals(5L, builder.relationshipCount());
+        return builder;
+    }
+
+    private static long[] targets(HugeGraph graph, long node, Direction direction) {
+        LongArrayList targets = new LongArrayList();
+        graph.forEachRelationship(node, direction, (s, t) -> {
+            targets.add(t);
+            return true;
+        });
+        return targets.toArray();
+    }
+}
@@ -23,6 +23,7 @@ import org.junit.Test;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
 import org.neo4j.graphdb.Direction;
@@ -35,6 +36,7 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.test.rule.ImpermanentDatabaseRule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public final class HugeGraphWeightTest {
 
@@ -69,6 +71,21 @@ public final class HugeGraphWeightTest {
         loadGraph(db);
     }
 
+    @Test
+    public void shouldEstimateAtLeastTheTrackedMemory() throws Exception {
+        mkDb(WEIGHT_BATCH_SIZE << 1, 2);
+        AllocationTracker tracker = AllocationTracker.create();
+        GraphLoader loader = loader(db).withAllocationTracker(tracker);
+
+        long estimate = loader.estimateMemoryUsage(HugeGraphFactory.class, loader.dimensions());
+        loader.load(HugeGraphFactory.class);
+
+        assertTrue(tracker.tracked() > 0L);
+        assertTrue(
+                "estimate of " + estimate + " bytes is less than the tracked " + tracker.tracked() + " bytes",
+                estimate >= tracker.tracked());
+    }
+
     private void mkDb(final int nodes, final int relsPerNode) {
         db.executeAndCommit(__ -> {
             try (Statement st = db.statement()) {
@@ -105,12 +122,15 @@ public final class HugeGraphWeightTest {
     }
 
     private HugeGraph loadGraph(final GraphDatabaseAPI db) {
-        return (HugeGraph) new GraphLoader(db)
+        return (HugeGraph) loader(db).load(HugeGraphFactory.class);
+    }
+
+    private GraphLoader loader(final GraphDatabaseAPI db) {
+        return new GraphLoader(db)
                 .withRelationshipWeightsFromProperty("weight", 0)
                 .withDirection(Direction.OUTGOING)
                 .withExecutorService(Pools.DEFAULT)
-                .withBatchSize(BATCH_SIZE)
-                .load(HugeGraphFactory.class);
+                .withBatchSize(BATCH_SIZE);
     }
 
     private interface NewRel {
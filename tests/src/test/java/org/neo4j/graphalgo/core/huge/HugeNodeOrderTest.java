@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.NodeOrder;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeNodeOrderTest {
+
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Test
+    public void testDegreeOrder() {
+        // hubs are created in order of increasing degree, before the leaves
+        try (Transaction tx = db.beginTx()) {
+            List<Node> hubs = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                hubs.add(db.createNode());
+            }
+            for (int i = 0; i < 30; i++) {
+                Node leaf = db.createNode();
+                for (int j = i / 3; j < hubs.size(); j++) {
+                    hubs.get(j).createRelationshipTo(leaf, TYPE);
+                }
+            }
+            tx.success();
+        }
+
+        HugeGraph graph = load(NodeOrder.DEGREE);
+        assertSameRelationships(load(NodeOrder.NONE), graph);
+        for (long node = 1L; node < graph.nodeCount(); node++) {
+            assertTrue(graph.degree(node - 1L, Direction.BOTH) >= graph.degree(node, Direction.BOTH));
+        }
+        assertEquals(30, graph.degree(0L, Direction.OUTGOING));
+    }
+
+    @Test
+    public void testRcmOrderOnShuffledPath() {
+        final int nodeCount = 200;
+        try (Transaction tx = db.beginTx()) {
+            List<Node> nodes = new ArrayList<>();
+            for (int i = 0; i < nodeCount; i++) {
+                nodes.add(db.createNode());
+            }
+            Collections.shuffle(nodes, new Random(42L));
+            for (int i = 1; i < nodeCount; i++) {
+                nodes.get(i - 1).createRelationshipTo(nodes.get(i), TYPE)
+                        .setProperty("weight", (double) nodes.get(i).getId());
+            }
+            tx.success();
+        }
+
+        HugeGraph none = load(NodeOrder.NONE);
+        HugeGraph graph = load(NodeOrder.RCM);
+        assertSameRelationships(none, graph);
+
+        // a path is ordered with a bandwidth of 1
+        graph.forEachNode((long node) -> {
+            graph.forEachOutgoing(node, (s, t) -> {
+                assertEquals(1L, Math.abs(s - t));
+                assertEquals(
+                        (double) graph.toOriginalNodeId(t),
+                        graph.weightOf(s, t),
+                        1e-6);
+                return true;
+            });
+            return true;
+        });
+    }
+
+    private HugeGraph load(NodeOrder order) {
+        return (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.BOTH)
+                .withOptionalRelationshipWeightsFromProperty("weight", 0.0)
+                .withNodeOrder(order)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static void assertSameRelationships(HugeGraph expected, HugeGraph actual) {
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        assertEquals(originalRelationships(expected), originalRelationships(actual));
+    }
+
+    private static Set<String> originalRelationships(HugeGraph graph) {
+        Set<String> rels = new HashSet<>();
+        graph.forEachNode((long node) -> {
+            graph.forEachOutgoing(node, (s, t) -> {
+                rels.add(graph.toOriginalNodeId(s) + "->" + graph.toOriginalNodeId(t));
+                return true;
+            });
+            return true;
+        });
+        return rels;
+    }
+}
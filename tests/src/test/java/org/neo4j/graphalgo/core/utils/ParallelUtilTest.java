@@ -24,6 +24,8 @@ import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveIntStack;
 import org.neo4j.function.ThrowingConsumer;
 import org.neo4j.graphalgo.api.BatchNodeIterable;
+import org.neo4j.graphalgo.api.HugeDegrees;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Exceptions;
 
 import java.util.Arrays;
@@ -278,6 +280,41 @@ public final class ParallelUtilTest extends RandomizedTest {
         verify(pool, times(11)).getActiveCount();
     }
 
+    @Test
+    public void shouldBalanceBatchesByDegree() throws Exception {
+        final long nodeCount = 100_000L;
+        final int concurrency = 4;
+        // a few supernodes at the start followed by a long tail of degree 1 nodes
+        final HugeDegrees degrees = (nodeId, direction) -> nodeId < 10L ? 100_000 : 1;
+        final long total = 10L * 100_001L + (nodeCount - 10L) * 2L;
+        final long target = total / (concurrency * DegreeBatchCollection.BATCHES_PER_THREAD);
+
+        withPool(concurrency, pool -> {
+            Collection<long[]> batches = ParallelUtil.degreeBatches(
+                    nodeCount,
+                    degrees,
+                    Direction.OUTGOING,
+                    concurrency,
+                    pool,
+                    (start, length) -> new long[]{start, length});
+
+            long expectedStart = 0L;
+            for (long[] batch : batches) {
+                assertEquals(expectedStart, batch[0]);
+                assertTrue(batch[1] > 0L);
+                long weight = 0L;
+                for (long node = batch[0]; node < batch[0] + batch[1]; node++) {
+                    weight += 1L + degrees.degree(node, Direction.OUTGOING);
+                }
+                // a batch exceeds the target by at most one block or one node
+                assertTrue(weight < target + Math.max(100_001L, 2L * DegreeBatchCollection.BLOCK_SIZE));
+                expectedStart += batch[1];
+            }
+            assertEquals(nodeCount, expectedStart);
+            assertTrue(batches.size() >= 10);
+        });
+    }
+
     private static void withPool(
             int nThreads,
             ThrowingConsumer<ExecutorService, ? extends Throwable> block) {
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.checkpoint;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public final class CheckpointTest {
+
+    private static final String ALGORITHM = "test";
+    private static final long NODES = 10_000L;
+    private static final long FINGERPRINT = 42L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadWhatWasWritten() {
+        Path file = folder.getRoot().toPath().resolve("test.ckpt");
+        double[] values = values();
+
+        write(file, values);
+
+        double[] read = new double[values.length];
+        try (Checkpoint.Reader reader = Checkpoint.read(file, ALGORITHM, NODES, FINGERPRINT)) {
+            reader.readDoubles(read);
+            reader.verifyEnd();
+            assertEquals(7, reader.iteration());
+        }
+        assertArrayEquals(values, read, 0.0);
+        assertFalse(Files.exists(folder.getRoot().toPath().resolve("test.ckpt.tmp")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTrailingData() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("test.ckpt");
+        double[] values = values();
+        write(file, values);
+        Files.write(file, new byte[Double.BYTES], StandardOpenOption.APPEND);
+
+        try (Checkpoint.Reader reader = Checkpoint.read(file, ALGORITHM, NODES, FINGERPRINT)) {
+            reader.readDoubles(new double[values.length]);
+            reader.verifyEnd();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTruncatedData() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("test.ckpt");
+        double[] values = values();
+        write(file, values);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - Double.BYTES);
+        }
+
+        try (Checkpoint.Reader reader = Checkpoint.read(file, ALGORITHM, NODES, FINGERPRINT)) {
+            reader.readDoubles(new double[values.length]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOtherGraph() {
+        Path file = folder.getRoot().toPath().resolve("test.ckpt");
+        write(file, values());
+
+        Checkpoint.read(file, ALGORITHM, NODES, FINGERPRINT + 1L).close();
+    }
+
+    @Test
+    public void shouldResolveNamesWithinTheDirectory() {
+        Path directory = folder.getRoot().toPath();
+        assertEquals(directory.resolve("pagerank.ckpt"), Checkpoint.resolve(directory, "pagerank.ckpt"));
+
+        String absolute = directory.resolve("pagerank.ckpt").toString();
+        for (String name : new String[]{absolute, "..", ".", "../pagerank.ckpt", "sub/pagerank.ckpt", "", "pagerank.ckpt.tmp"}) {
+            try {
+                Checkpoint.resolve(directory, name);
+                fail("should have rejected '" + name + "'");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    private static void write(Path file, double[] values) {
+        try (Checkpoint.Writer writer = Checkpoint.write(file, ALGORITHM, NODES, FINGERPRINT, 7)) {
+            writer.writeDoubles(values);
+        }
+    }
+
+    private static double[] values() {
+        // spans several pages
+        double[] values = new double[(int) NODES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i / 3.0;
+        }
+        return values;
+    }
+}
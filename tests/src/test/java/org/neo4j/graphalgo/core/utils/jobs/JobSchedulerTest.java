@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.jobs;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class JobSchedulerTest {
+
+    @Test
+    public void testGrantsAtMostTheThreadBudget() {
+        final JobScheduler scheduler = new JobScheduler(4, Long.MAX_VALUE);
+        try (Job job = scheduler.admit("a", 8, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE)) {
+            assertEquals(8, job.requestedConcurrency());
+            assertEquals(4, job.concurrency());
+            assertEquals(Job.State.RUNNING, job.state());
+            assertEquals(1, scheduler.jobs().size());
+        }
+        assertEquals(0, scheduler.jobs().size());
+    }
+
+    @Test
+    public void testQueuesUntilThreadsAreReleased() throws Exception {
+        final JobScheduler scheduler = new JobScheduler(4, Long.MAX_VALUE);
+        final Job first = scheduler.admit("first", 3, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE);
+        final CompletableFuture<Job> second = CompletableFuture.supplyAsync(() ->
+                scheduler.admit("second", 2, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE));
+
+        assertNotAdmitted(second);
+        assertEquals(Job.State.QUEUED, scheduler.jobs().get(1).state());
+
+        first.close();
+        try (Job job = second.get(10L, TimeUnit.SECONDS)) {
+            assertEquals(2, job.concurrency());
+            assertEquals(Job.State.DONE, first.state());
+        }
+    }
+
+    @Test
+    public void testQueuesWhileTrackedMemoryExceedsTheBudget() throws Exception {
+        final JobScheduler scheduler = new JobScheduler(4, 1000L);
+        final AllocationTracker tracker = AllocationTracker.create();
+        final Job first = scheduler.admit("first", 1, 100L, 0L, tracker, TerminationFlag.RUNNING_TRUE);
+        tracker.add(950L);
+        final CompletableFuture<Job> second = CompletableFuture.supplyAsync(() ->
+                scheduler.admit("second", 1, 100L, 0L, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE));
+
+        assertNotAdmitted(second);
+
+        tracker.remove(900L);
+        try (Job job = second.get(10L, TimeUnit.SECONDS)) {
+            assertEquals(Job.State.RUNNING, job.state());
+        }
+        first.close();
+    }
+
+    @Test
+    public void testAbandonsTerminatedJobs() throws Exception {
+        final JobScheduler scheduler = new JobScheduler(1, Long.MAX_VALUE);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        try (Job ignored = scheduler.admit("first", 1, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE)) {
+            final CompletableFuture<Job> second = CompletableFuture.supplyAsync(() ->
+                    scheduler.admit("second", 1, AllocationTracker.EMPTY, running::get));
+            assertNotAdmitted(second);
+
+            running.set(false);
+            try {
+                second.get(10L, TimeUnit.SECONDS);
+                fail("terminated job should not be admitted");
+            } catch (ExecutionException e) {
+                assertEquals(IllegalStateException.class, e.getCause().getClass());
+            }
+            assertEquals(1, scheduler.jobs().size());
+        }
+    }
+
+    @Test
+    public void testCancelsQueuedJobs() throws Exception {
+        final JobScheduler scheduler = new JobScheduler(1, Long.MAX_VALUE);
+        try (Job first = scheduler.admit("first", 1, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE)) {
+            final CompletableFuture<Job> second = CompletableFuture.supplyAsync(() ->
+                    scheduler.admit("second", 1, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE));
+            assertNotAdmitted(second);
+
+            final long id = scheduler.jobs().get(1).id();
+            assertEquals(id, scheduler.cancel(id).id());
+            try {
+                second.get(10L, TimeUnit.SECONDS);
+                fail("cancelled job should not be admitted");
+            } catch (ExecutionException e) {
+                assertEquals(IllegalStateException.class, e.getCause().getClass());
+            }
+            assertNull(scheduler.cancel(id));
+            assertTrue(first.running());
+        }
+    }
+
+    @Test
+    public void testCancelledJobsStopRunningAndFailOnClose() {
+        final JobScheduler scheduler = new JobScheduler(2, Long.MAX_VALUE);
+        final Job job = scheduler.admit("job", 2, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE);
+        assertSame(job, Job.current());
+        assertTrue(job.terminationFlag().running());
+
+        assertTrue(job.cancel());
+        assertFalse(job.terminationFlag().running());
+        try {
+            job.close();
+            fail("closing a cancelled job should fail");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("cancelled"));
+        }
+        assertNull(Job.current());
+        assertEquals(Job.State.DONE, job.state());
+        assertFalse(job.cancel());
+        assertEquals(0, scheduler.jobs().size());
+    }
+
+    @Test
+    public void testJobsStopRunningAfterTheirTimeout() throws Exception {
+        final JobScheduler scheduler = new JobScheduler(1, Long.MAX_VALUE);
+        final Job job = scheduler.admit("job", 1, 0L, 50L, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE);
+        assertTrue(job.running());
+        Thread.sleep(100L);
+        assertTrue(job.isTimedOut());
+        assertFalse(job.running());
+        try {
+            job.close();
+            fail("closing a timed out job should fail");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("timed out"));
+        }
+    }
+
+    @Test
+    public void testRunWithConcurrencyStopsWhenTheCurrentJobIsCancelled() {
+        final JobScheduler scheduler = new JobScheduler(1, Long.MAX_VALUE);
+        final Job job = scheduler.admit("job", 1, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE);
+        final AtomicInteger ran = new AtomicInteger();
+        final List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(() -> {
+                if (ran.incrementAndGet() == 3) {
+                    job.cancel();
+                }
+            });
+        }
+        ParallelUtil.runWithConcurrency(1, tasks, null);
+        assertEquals(3, ran.get());
+        try {
+            job.close();
+            fail("closing a cancelled job should fail");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void testRecordsProgress() {
+        final JobScheduler scheduler = new JobScheduler(1, Long.MAX_VALUE);
+        try (Job job = scheduler.admit("job", 1, AllocationTracker.EMPTY, TerminationFlag.RUNNING_TRUE)) {
+            final ProgressLogger logger = job.progressLogger(ProgressLogger.NULL_LOGGER);
+            logger.logProgress(1, 4);
+            assertEquals(0.25, job.progress(), 0.0);
+            logger.logDone();
+            assertEquals(1.0, job.progress(), 0.0);
+        }
+    }
+
+    private static void assertNotAdmitted(CompletableFuture<Job> job) throws Exception {
+        try {
+            job.get(300L, TimeUnit.MILLISECONDS);
+            fail("job should be queued");
+        } catch (TimeoutException expected) {
+            assertFalse(job.isDone());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public final class MetricsTest {
+
+    @Test
+    public void testCounterFromManyThreads() {
+        Metrics metrics = new Metrics();
+        Counter counter = metrics.counter("test.counter");
+        IntStream.range(0, 10_000).parallel().forEach(i -> counter.add(2L));
+        assertEquals(20_000L, counter.count());
+        assertSame(counter, metrics.counter("test.counter"));
+
+        MetricSnapshot snapshot = metrics.snapshot().get("test.counter");
+        assertEquals(Counter.TYPE, snapshot.type);
+        assertEquals(20_000L, snapshot.count);
+
+        metrics.reset();
+        assertEquals(0L, counter.count());
+    }
+
+    @Test
+    public void testTimerRate() {
+        Metrics metrics = new Metrics();
+        Timer timer = metrics.timer("test.timer");
+        timer.record(TimeUnit.MILLISECONDS.toNanos(100L), 1_000L);
+        timer.record(TimeUnit.MILLISECONDS.toNanos(300L), 3_000L);
+
+        MetricSnapshot snapshot = metrics.snapshot().get("test.timer");
+        assertEquals(2L, snapshot.count);
+        assertEquals(400.0, snapshot.sum, 1e-9);
+        assertEquals(100.0, snapshot.min, 1e-9);
+        assertEquals(300.0, snapshot.max, 1e-9);
+        assertEquals(200.0, snapshot.mean, 1e-9);
+        assertEquals(10_000.0, snapshot.rate, 1e-6);
+
+        try (Timer.Context context = timer.time()) {
+            context.withUnits(5L);
+        }
+        assertEquals(3L, timer.count());
+        assertEquals(4_005L, timer.units());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        Metrics metrics = new Metrics();
+        Histogram histogram = metrics.histogram("test.histogram");
+        for (int i = 1; i <= 100; i++) {
+            histogram.update(i);
+        }
+        assertEquals(100L, histogram.count());
+
+        MetricSnapshot snapshot = histogram.snapshot();
+        assertEquals(1.0, snapshot.min, 0.0);
+        assertEquals(100.0, snapshot.max, 0.0);
+        assertEquals(50.5, snapshot.mean, 1e-9);
+        // bucket upper bounds are at most twice the actual value
+        assertTrue(snapshot.p50 >= 50.0 && snapshot.p50 <= 100.0);
+        assertEquals(100.0, snapshot.p99, 0.0);
+        assertEquals(1L, histogram.percentile(0.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeMismatch() {
+        Metrics metrics = new Metrics();
+        metrics.counter("test.metric");
+        metrics.timer("test.metric");
+    }
+
+    @Test
+    public void testGlobalMetricsAreExposedWithJmx() throws Exception {
+        Metrics.GLOBAL.counter("test.jmx").add(42L);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertTrue(((Long) server.getAttribute(name, "test.jmx.count")) >= 42L);
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class ByteArrayTest {
+
+    private static final int LISTS = 2_000;
+    private static final int MAX_LENGTH = 200;
+
+    @Test
+    public void testBulkDecodeMatchesSingleDecode() {
+        final Random random = new Random(42L);
+        final ByteArray array = ByteArray.newArray(0L, AllocationTracker.EMPTY);
+        array.skipAllocationRegion(1L);
+        final ByteArray.LocalAllocator allocator = array.newAllocator();
+
+        final long[][] lists = new long[LISTS][];
+        final long[] offsets = new long[LISTS];
+        for (int i = 0; i < LISTS; i++) {
+            final long[] targets = new long[1 + random.nextInt(MAX_LENGTH)];
+            long value = 0L;
+            for (int j = 0; j < targets.length; j++) {
+                // mix of small and large deltas, so that lists cross page boundaries at any byte
+                value += 1L + (random.nextBoolean() ? random.nextInt(100) : (random.nextLong() >>> 30));
+                targets[j] = value;
+            }
+            lists[i] = targets;
+            offsets[i] = encode(allocator, targets);
+        }
+
+        final ByteArray.DeltaCursor cursor = array.newCursor();
+        final long[] buffer = new long[MAX_LENGTH];
+        for (int i = 0; i < LISTS; i++) {
+            final long[] expected = lists[i];
+
+            array.deltaCursor(cursor, offsets[i]);
+            assertEquals(expected.length, cursor.remaining());
+            assertEquals(expected.length, cursor.getVLongs(buffer, 0, buffer.length));
+            assertArrayEquals(expected, Arrays.copyOf(buffer, expected.length));
+            assertEquals(0, cursor.remaining());
+            assertEquals(0, cursor.getVLongs(buffer, 0, buffer.length));
+
+            // blocks mixed with single values
+            array.deltaCursor(cursor, offsets[i]);
+            int decoded = 0;
+            while (cursor.remaining() > 0) {
+                if (decoded % 2 == 0) {
+                    decoded += cursor.getVLongs(buffer, decoded, 7);
+                } else {
+                    buffer[decoded++] = cursor.getVLong();
+                }
+            }
+            assertEquals(-1L, cursor.getVLong());
+            assertArrayEquals(expected, Arrays.copyOf(buffer, decoded));
+        }
+    }
+
+    private static long encode(ByteArray.LocalAllocator allocator, long[] targets) {
+        long requiredBytes = 4L;
+        long previous = 0L;
+        for (long target : targets) {
+            requiredBytes += vSize(target - previous);
+            previous = target;
+        }
+        final long offset = allocator.allocate(requiredBytes);
+        final ByteArray.BulkAdder adder = allocator.adder;
+        adder.addUnsignedInt(targets.length);
+        previous = 0L;
+        for (long target : targets) {
+            adder.addVLong(target - previous);
+            previous = target;
+        }
+        return offset;
+    }
+
+    private static long vSize(long value) {
+        final int bits = 64 - Long.numberOfLeadingZeros(value);
+        return Math.max(1, (bits + 6) / 7);
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class HugeDoubleAccumulatorTest {
+
+    @Test
+    public void testLocalIsOnlyVisibleAfterFlush() {
+        final HugeDoubleAccumulator array = HugeDoubleAccumulator.newArray(10L, AllocationTracker.EMPTY);
+        final HugeDoubleAccumulator.Local local = array.newLocal();
+        local.add(3L, 1.5);
+        local.add(3L, 2.5);
+        assertEquals(0.0, array.get(3L), 0.0);
+        local.flush();
+        assertEquals(4.0, array.get(3L), 0.0);
+        local.flush();
+        assertEquals(4.0, array.get(3L), 0.0);
+    }
+
+    @Test
+    public void testEvictsCollidingIndexes() {
+        final HugeDoubleAccumulator array = HugeDoubleAccumulator.newArray(100L, AllocationTracker.EMPTY);
+        final HugeDoubleAccumulator.Local local = array.newLocal(4);
+        local.add(1L, 1.0);
+        local.add(5L, 2.0);
+        assertEquals(1.0, array.get(1L), 0.0);
+        assertEquals(0.0, array.get(5L), 0.0);
+        local.flush();
+        assertEquals(2.0, array.get(5L), 0.0);
+    }
+
+    @Test
+    public void testConcurrentAccumulation() {
+        final int nodeCount = 1_000;
+        final int threads = 4;
+        final HugeDoubleAccumulator array = HugeDoubleAccumulator.newArray(nodeCount, AllocationTracker.EMPTY);
+        final List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                final HugeDoubleAccumulator.Local local = array.newLocal(64);
+                for (int i = 0; i < 100_000; i++) {
+                    // every third add goes to the hub at index 0
+                    local.add(i % 3 == 0 ? 0L : i % nodeCount, 1.0);
+                    array.add(nodeCount - 1, 0.5);
+                }
+                local.flush();
+            });
+        }
+        ParallelUtil.run(tasks, Pools.DEFAULT);
+
+        final double[] expected = new double[nodeCount];
+        for (int i = 0; i < 100_000; i++) {
+            expected[i % 3 == 0 ? 0 : i % nodeCount] += threads;
+        }
+        expected[nodeCount - 1] += threads * 100_000 * 0.5;
+        assertArrayEquals(expected, array.toArray(), 1e-6);
+
+        array.clear();
+        assertArrayEquals(new double[nodeCount], array.toArray(), 0.0);
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.Pools;
+
+import static org.junit.Assert.assertEquals;
+
+public final class PagedArraysParallelTest {
+
+    // spans many pages and leaves the last page partially filled
+    private static final long SIZE = 100_003L;
+    private static final int CONCURRENCY = 4;
+
+    @Test
+    public void testLongArray() {
+        final LongArray array = LongArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.setAll(i -> i * 2L, CONCURRENCY, Pools.DEFAULT);
+        final LongArray copy = LongArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.copyTo(copy, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(i * 2L, copy.get(i));
+        }
+        array.fill(42L, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(42L, array.get(i));
+        }
+    }
+
+    @Test
+    public void testIntArray() {
+        final IntArray array = IntArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.setAll(i -> (int) (i % 7L), CONCURRENCY, Pools.DEFAULT);
+        final IntArray copy = IntArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.copyTo(copy, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(i % 7L, copy.get(i));
+        }
+        array.fill(-1, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(-1, array.get(i));
+        }
+    }
+
+    @Test
+    public void testDoubleArray() {
+        final DoubleArray array = DoubleArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.setAll(i -> i / 2.0, CONCURRENCY, Pools.DEFAULT);
+        final DoubleArray copy = DoubleArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.copyTo(copy, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(i / 2.0, copy.get(i), 0.0);
+        }
+        array.fill(0.15, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(0.15, array.get(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testAtomicIntArray() {
+        final AtomicIntArray array = AtomicIntArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.setAll(i -> (int) i, CONCURRENCY, Pools.DEFAULT);
+        final AtomicIntArray copy = AtomicIntArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.copyTo(copy, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(i, copy.get(i));
+        }
+        array.fill(3, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(3, array.get(i));
+        }
+    }
+
+    @Test
+    public void testHugeAtomicLongArray() {
+        final HugeAtomicLongArray array = HugeAtomicLongArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.setAll(i -> SIZE - i, CONCURRENCY, Pools.DEFAULT);
+        final HugeAtomicLongArray copy = HugeAtomicLongArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.copyTo(copy, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(SIZE - i, copy.get(i));
+        }
+        array.fill(-1L, CONCURRENCY, Pools.DEFAULT);
+        for (long i = 0L; i < SIZE; i++) {
+            assertEquals(-1L, array.get(i));
+        }
+    }
+
+    @Test
+    public void testHugeAtomicDoubleArray() {
+        final HugeAtomicDoubleArray array = HugeAtomicDoubleArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.setAll(i -> i * 0.5, CONCURRENCY, Pools.DEFAULT);
+        assertEquals(1.5, array.add(1L, 1.0), 0.0);
+        assertEquals(true, array.cas(2L, 1.0, 4.0));
+        assertEquals(false, array.cas(2L, 1.0, 8.0));
+        final HugeAtomicDoubleArray copy = HugeAtomicDoubleArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.copyTo(copy, CONCURRENCY, Pools.DEFAULT);
+        assertEquals(0.0, copy.get(0L), 0.0);
+        assertEquals(1.5, copy.get(1L), 0.0);
+        assertEquals(4.0, copy.get(2L), 0.0);
+        for (long i = 3L; i < SIZE; i++) {
+            assertEquals(i * 0.5, copy.get(i), 0.0);
+        }
+        array.fill(Double.NaN, CONCURRENCY, Pools.DEFAULT);
+        assertEquals(Double.NaN, array.get(SIZE - 1L), 0.0);
+    }
+
+    @Test
+    public void testHugeAtomicBitSetClear() {
+        final HugeAtomicBitSet bitSet = HugeAtomicBitSet.create(SIZE * 64L, AllocationTracker.EMPTY);
+        for (long i = 0L; i < bitSet.size(); i += 1_001L) {
+            bitSet.set(i);
+        }
+        assertEquals((bitSet.size() + 1_000L) / 1_001L, bitSet.cardinality());
+        bitSet.clear(CONCURRENCY, Pools.DEFAULT);
+        assertEquals(0L, bitSet.cardinality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCopyToSmallerArrayFails() {
+        final LongArray array = LongArray.newArray(SIZE, AllocationTracker.EMPTY);
+        array.copyTo(LongArray.newArray(SIZE - 1L, AllocationTracker.EMPTY), CONCURRENCY, Pools.DEFAULT);
+    }
+}
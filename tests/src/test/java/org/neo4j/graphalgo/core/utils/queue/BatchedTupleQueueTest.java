@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class BatchedTupleQueueTest {
+
+    @Test
+    public void shouldStreamAllTuplesOfAllWriters() throws Exception {
+        final BatchedTupleQueue queue = new BatchedTupleQueue(3, 7, 2, TerminationFlag.RUNNING_TRUE);
+        final int writers = 4, tuplesPerWriter = 1000;
+        final Collection<Runnable> tasks = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final BatchedTupleQueue.Writer writer = queue.newWriter();
+            final long id = w;
+            tasks.add(() -> {
+                for (int i = 0; i < tuplesPerWriter; i++) {
+                    writer.addWeighted(id, i, i / 2.0);
+                }
+                writer.flush();
+            });
+        }
+        final ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+        pool.submit(() -> {
+            ParallelUtil.run(tasks, pool);
+            queue.finish(null);
+        });
+
+        final List<double[]> tuples = queue
+                .stream((chunk, offset) -> new double[]{
+                        chunk[offset],
+                        chunk[offset + 1],
+                        Double.longBitsToDouble(chunk[offset + 2])})
+                .collect(Collectors.toList());
+
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+
+        assertEquals(writers * tuplesPerWriter, tuples.size());
+        for (double[] tuple : tuples) {
+            assertEquals(tuple[1] / 2.0, tuple[2], 1e-9);
+        }
+    }
+
+    @Test
+    public void shouldBlockWritersWhenFull() throws Exception {
+        final BatchedTupleQueue queue = new BatchedTupleQueue(2, 1, 1, TerminationFlag.RUNNING_TRUE);
+        final BatchedTupleQueue.Writer writer = queue.newWriter();
+        // capacity + end-of-stream slot
+        assertTrue(writer.add(0, 0));
+        assertTrue(writer.add(1, 1));
+        final Future<Boolean> blocked = Pools.DEFAULT.submit(() -> writer.add(2, 2));
+        Thread.sleep(200);
+        assertFalse(blocked.isDone());
+        assertEquals(0, queue.take()[0]);
+        assertTrue(blocked.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldStopWritersWhenClosed() throws Exception {
+        final BatchedTupleQueue queue = new BatchedTupleQueue(2, 1, 1, TerminationFlag.RUNNING_TRUE);
+        final BatchedTupleQueue.Writer writer = queue.newWriter();
+        final Future<Integer> written = Pools.DEFAULT.submit(() -> {
+            int count = 0;
+            while (writer.add(count, count)) {
+                count++;
+            }
+            return count;
+        });
+        try (Stream<long[]> stream = queue.stream((chunk, offset) -> chunk)) {
+            assertEquals(3, stream.limit(3).count());
+        }
+        assertTrue(written.get(1, TimeUnit.SECONDS) >= 3);
+        assertFalse(queue.isOpen());
+    }
+
+    @Test
+    public void shouldStopOnTermination() throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final BatchedTupleQueue queue = new BatchedTupleQueue(2, 1, 1, running::get);
+        final BatchedTupleQueue.Writer writer = queue.newWriter();
+        assertTrue(writer.add(0, 0));
+        running.set(false);
+        assertFalse(writer.add(1, 1));
+        assertNull(queue.take());
+    }
+
+    @Test
+    public void shouldRethrowProducerErrors() throws Exception {
+        final BatchedTupleQueue queue = new BatchedTupleQueue(2, TerminationFlag.RUNNING_TRUE);
+        final BatchedTupleQueue.Writer writer = queue.threadLocalWriter();
+        writer.add(1, 2);
+        queue.finish(new IllegalStateException("boom"));
+        try {
+            queue.take();
+            fail("should have thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldFlushThreadLocalWritersOnFinish() throws Exception {
+        final BatchedTupleQueue queue = new BatchedTupleQueue(2, TerminationFlag.RUNNING_TRUE);
+        queue.threadLocalWriter().add(1, 2);
+        queue.threadLocalWriter().add(3, 4);
+        queue.finish(null);
+        final long[] chunk = queue.take();
+        assertEquals(4, chunk.length);
+        assertNull(queue.take());
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.Pools;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class TopKHeapTest {
+
+    @Test
+    public void testKeepsHighestScores() throws Exception {
+        final TopKHeap heap = new TopKHeap(3);
+        heap.offer(0L, 1.0);
+        heap.offer(1L, 5.0);
+        heap.offer(2L, 3.0);
+        heap.offer(3L, 4.0);
+        heap.offer(4L, 2.0);
+        assertEquals(3, heap.size());
+        assertArrayEquals(new long[]{1L, 3L, 2L}, heap.nodesDescending());
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    public void testPrefersLowerNodeIdsOnTies() throws Exception {
+        final TopKHeap heap = new TopKHeap(2);
+        for (long node = 5L; node >= 0L; node--) {
+            heap.offer(node, 1.0);
+        }
+        assertArrayEquals(new long[]{0L, 1L}, heap.nodesDescending());
+    }
+
+    @Test
+    public void testEmptyHeap() throws Exception {
+        final TopKHeap heap = new TopKHeap(0);
+        heap.offer(0L, 1.0);
+        assertEquals(0, heap.nodesDescending().length);
+    }
+
+    @Test
+    public void testSelectInParallel() throws Exception {
+        final Random random = new Random(42L);
+        final int nodeCount = 50_000 + random.nextInt(50_000);
+        final int k = 1 + random.nextInt(200);
+        final double[] scores = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            scores[i] = random.nextInt(1000);
+        }
+
+        final long[] expected = LongStream.range(0L, nodeCount)
+                .boxed()
+                .sorted(Comparator.<Long>comparingDouble(n -> -scores[n.intValue()]).thenComparing(n -> n))
+                .limit(k)
+                .mapToLong(Long::longValue)
+                .toArray();
+        final long[] actual = TopKHeap.select(nodeCount, k, n -> scores[(int) n], 4, Pools.DEFAULT);
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testSelectMoreThanNodeCount() throws Exception {
+        final long[] actual = TopKHeap.select(3L, 10, n -> (double) n, 4, Pools.DEFAULT);
+        assertArrayEquals(new long[]{2L, 1L, 0L}, actual);
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.traverse;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphBuilder;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeDirectionOptimizingBFSTest {
+
+    private static final Direction[] DIRECTIONS = {Direction.OUTGOING, Direction.INCOMING, Direction.BOTH};
+
+    @Test
+    public void testSparseGraphMatchesSequentialBFS() {
+        HugeGraph graph = randomGraph(2_000, 3_000, 42L);
+        for (Direction direction : DIRECTIONS) {
+            assertMatchesSequentialBFS(graph, 0L, direction);
+            assertMatchesSequentialBFS(graph, 1_234L, direction);
+        }
+    }
+
+    @Test
+    public void testDenseGraphUsesBottomUpSteps() {
+        HugeGraph graph = randomGraph(2_000, 40_000, 1337L);
+        for (Direction direction : DIRECTIONS) {
+            HugeDirectionOptimizingBFS bfs = assertMatchesSequentialBFS(graph, 7L, direction);
+            assertTrue(direction.name(), bfs.bottomUpSteps() > 0);
+        }
+    }
+
+    @Test
+    public void testPath() {
+        HugeGraphBuilder builder = new HugeGraphBuilder(5L, 4L, AllocationTracker.EMPTY);
+        for (long node = 0L; node < 4L; node++) {
+            builder.add(node, node + 1L);
+        }
+        HugeGraph graph = builder.build(Direction.BOTH, Pools.DEFAULT, 1);
+
+        HugeDirectionOptimizingBFS bfs = new HugeDirectionOptimizingBFS(graph, Pools.DEFAULT, 2, AllocationTracker.EMPTY)
+                .compute(2L, Direction.OUTGOING, TerminationFlag.RUNNING_TRUE);
+        assertEquals(HugeDirectionOptimizingBFS.NOT_VISITED, bfs.level(0L));
+        assertEquals(HugeDirectionOptimizingBFS.NOT_VISITED, bfs.level(1L));
+        assertEquals(0, bfs.level(2L));
+        assertEquals(1, bfs.level(3L));
+        assertEquals(2, bfs.level(4L));
+        assertEquals(HugeDirectionOptimizingBFS.NOT_VISITED, bfs.parent(0L));
+        assertEquals(2L, bfs.parent(2L));
+        assertEquals(3L, bfs.parent(4L));
+        assertEquals(3L, bfs.visitedNodes());
+        assertEquals(2, bfs.maxLevel());
+    }
+
+    private static HugeGraph randomGraph(int nodeCount, int relationshipCount, long seed) {
+        HugeGraphBuilder builder = new HugeGraphBuilder(nodeCount, relationshipCount, AllocationTracker.EMPTY);
+        Random random = new Random(seed);
+        for (int i = 0; i < relationshipCount; i++) {
+            builder.add(random.nextInt(nodeCount), random.nextInt(nodeCount));
+        }
+        return builder.build(Direction.BOTH, Pools.DEFAULT, 4);
+    }
+
+    private static HugeDirectionOptimizingBFS assertMatchesSequentialBFS(
+            HugeGraph graph,
+            long startNode,
+            Direction direction) {
+        int[] expected = sequentialBFS(graph, startNode, direction);
+        HugeDirectionOptimizingBFS bfs = new HugeDirectionOptimizingBFS(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .compute(startNode, direction, TerminationFlag.RUNNING_TRUE);
+
+        long visited = 0L;
+        int maxLevel = 0;
+        for (int node = 0; node < expected.length; node++) {
+            assertEquals("level of " + node, expected[node], bfs.level(node));
+            if (expected[node] == HugeDirectionOptimizingBFS.NOT_VISITED) {
+                continue;
+            }
+            visited++;
+            maxLevel = Math.max(maxLevel, expected[node]);
+            long parent = bfs.parent(node);
+            if (node == startNode) {
+                assertEquals(startNode, parent);
+            } else {
+                assertEquals("parent level of " + node, expected[node] - 1, bfs.level(parent));
+                assertTrue("parent of " + node, graph.exists(parent, node, direction));
+            }
+        }
+        assertEquals(visited, bfs.visitedNodes());
+        assertEquals(maxLevel, bfs.maxLevel());
+        return bfs;
+    }
+
+    private static int[] sequentialBFS(HugeGraph graph, long startNode, Direction direction) {
+        int[] levels = new int[Math.toIntExact(graph.nodeCount())];
+        Arrays.fill(levels, HugeDirectionOptimizingBFS.NOT_VISITED);
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        levels[(int) startNode] = 0;
+        queue.add(startNode);
+        while (!queue.isEmpty()) {
+            long node = queue.poll();
+            int level = levels[(int) node] + 1;
+            graph.forEachRelationship(node, direction, (source, target) -> {
+                if (levels[(int) target] == HugeDirectionOptimizingBFS.NOT_VISITED) {
+                    levels[(int) target] = level;
+                    queue.add(target);
+                }
+                return true;
+            });
+        }
+        return levels;
+    }
+}
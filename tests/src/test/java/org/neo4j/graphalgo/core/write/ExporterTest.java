@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.write;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.NodeOrder;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class ExporterTest {
+
+    private static final Label LABEL = Label.label("Node");
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+    private static final int NODE_COUNT = 30_000;
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Test
+    public void testWritesReorderedGraphInStoreOrder() {
+        createGraph(1);
+        HugeGraph graph = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withLabel(LABEL.name())
+                .withRelationshipType(TYPE.name())
+                .withNodeOrder(NodeOrder.DEGREE)
+                .load(HugeGraphFactory.class);
+        assertTrue(graph.toOriginalNodeId(0L) > graph.toOriginalNodeId(1L));
+
+        LongArrayList written = new LongArrayList();
+        Exporter.of(db, graph)
+                .build()
+                .write("order", propertyId -> (ops, nodeId) -> written.add(graph.toOriginalNodeId(nodeId)));
+        assertEquals(NODE_COUNT, written.size());
+        for (int i = 1; i < written.size(); i++) {
+            assertTrue(written.get(i - 1) < written.get(i));
+        }
+
+        assertWritesAllNodes(graph, 1);
+    }
+
+    @Test
+    public void testWritesLabelSubsetInParallel() {
+        createGraph(3);
+        assertWritesAllNodes(new GraphLoader(db, Pools.DEFAULT)
+                .withLabel(LABEL.name())
+                .withRelationshipType(TYPE.name())
+                .withNodeOrder(NodeOrder.DEGREE)
+                .load(HugeGraphFactory.class), 3);
+    }
+
+    @Test
+    public void testWritesIntMappedGraph() {
+        createGraph(2);
+        assertWritesAllNodes(new GraphLoader(db, Pools.DEFAULT)
+                .withLabel(LABEL.name())
+                .withRelationshipType(TYPE.name())
+                .load(HeavyGraphFactory.class), 2);
+    }
+
+    @Test
+    public void testWritesManyPropertiesInOnePass() {
+        createGraph(1);
+        HugeGraph graph = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withLabel(LABEL.name())
+                .withRelationshipType(TYPE.name())
+                .load(HugeGraphFactory.class);
+
+        Exporter.of(db, graph)
+                .parallel(Pools.DEFAULT, 4, null)
+                .build()
+                .write(
+                        Exporter.NodeProperty.of("id", graph, (PropertyTranslator.OfLong<HugeGraph>) HugeGraph::toOriginalNodeId),
+                        Exporter.NodeProperty.of("half", graph, (PropertyTranslator.OfDouble<HugeGraph>) (data, nodeId) -> data.toOriginalNodeId(nodeId) / 2.0),
+                        Exporter.NodeProperty.of("odd", graph, (PropertyTranslator.OfOptionalInt<HugeGraph>) (data, nodeId) -> {
+                            long id = data.toOriginalNodeId(nodeId);
+                            return id % 2L == 1L ? (int) id : -1;
+                        }));
+
+        try (Transaction tx = db.beginTx()) {
+            for (Node node : db.getAllNodes()) {
+                assertEquals(node.getId(), node.getProperty("id"));
+                assertEquals(node.getId() / 2.0, (double) node.getProperty("half"), 0.0);
+                assertEquals(node.getId() % 2L == 1L, node.hasProperty("odd"));
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void testWritesSubmittedRangesAsynchronously() {
+        createGraph(1);
+        HugeGraph graph = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withLabel(LABEL.name())
+                .withRelationshipType(TYPE.name())
+                .load(HugeGraphFactory.class);
+
+        try (Exporter.AsyncWriter writer = Exporter.of(db, graph)
+                .parallel(Pools.DEFAULT, 2, null)
+                .build()
+                .writeAsync(Exporter.NodeProperty.of("id", graph, (PropertyTranslator.OfLong<HugeGraph>) HugeGraph::toOriginalNodeId))) {
+            // more ranges than the queue can hold, in reverse order
+            for (long end = NODE_COUNT; end > 0L; end -= 1_000L) {
+                writer.submit(Math.max(0L, end - 1_000L), end);
+            }
+        }
+
+        try (Transaction tx = db.beginTx()) {
+            for (Node node : db.getAllNodes()) {
+                assertEquals(node.getId(), node.getProperty("id"));
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void testWritesRelationshipsInParallel() {
+        createGraph(2);
+        HugeGraph graph = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withLabel(LABEL.name())
+                .withRelationshipType(TYPE.name())
+                .withNodeOrder(NodeOrder.DEGREE)
+                .load(HugeGraphFactory.class);
+
+        Exporter.of(db, graph)
+                .parallel(Pools.DEFAULT, 4, null)
+                .build()
+                .writeRelationships("REVERSED", "weight", consumer -> graph.forEachNode((long node) -> {
+                    graph.forEachRelationship(node, Direction.OUTGOING, (source, target) -> {
+                        consumer.accept(target, source, graph.toOriginalNodeId(source));
+                        return true;
+                    });
+                    return true;
+                }));
+
+        try (Transaction tx = db.beginTx()) {
+            Set<List<Long>> expected = new HashSet<>();
+            for (Relationship rel : db.getAllRelationships()) {
+                if (rel.isType(TYPE)) {
+                    expected.add(Arrays.asList(rel.getEndNodeId(), rel.getStartNodeId()));
+                }
+            }
+            long reversed = 0L;
+            for (Relationship rel : db.getAllRelationships()) {
+                if (rel.isType(RelationshipType.withName("REVERSED"))) {
+                    assertTrue(expected.contains(Arrays.asList(rel.getStartNodeId(), rel.getEndNodeId())));
+                    assertEquals((double) rel.getEndNodeId(), (double) rel.getProperty("weight"), 0.0);
+                    reversed++;
+                }
+            }
+            assertEquals(expected.size(), reversed);
+            tx.success();
+        }
+    }
+
+    private void assertWritesAllNodes(Graph graph, int labelEvery) {
+        Exporter.of(db, graph)
+                .parallel(Pools.DEFAULT, 4, null)
+                .build()
+                .write("id", graph, new PropertyTranslator.OfLong<Graph>() {
+                    @Override
+                    public long toLong(Graph data, long nodeId) {
+                        return data.toOriginalNodeId((int) nodeId);
+                    }
+                });
+
+        try (Transaction tx = db.beginTx()) {
+            long labeled = 0L;
+            for (Node node : db.getAllNodes()) {
+                if (node.hasLabel(LABEL)) {
+                    assertEquals(node.getId(), node.getProperty("id"));
+                    labeled++;
+                } else {
+                    assertFalse(node.hasProperty("id"));
+                }
+            }
+            assertEquals(NODE_COUNT, labeled);
+            tx.success();
+        }
+    }
+
+    /**
+     * creates {@code NODE_COUNT * labelEvery} nodes where only every {@code labelEvery}th node has a label,
+     * the last node is a hub
+     */
+    private void createGraph(int labelEvery) {
+        try (Transaction tx = db.beginTx()) {
+            List<Node> nodes = new ArrayList<>();
+            for (int i = 0; i < NODE_COUNT * labelEvery; i++) {
+                Node node = db.createNode();
+                if (i % labelEvery == 0) {
+                    node.addLabel(LABEL);
+                    nodes.add(node);
+                }
+            }
+            for (int i = 1; i < nodes.size(); i++) {
+                nodes.get(i).createRelationshipTo(nodes.get(i - 1), TYPE);
+                if (i % 100 == 0) {
+                    nodes.get(nodes.size() - 1).createRelationshipTo(nodes.get(i), TYPE);
+                }
+            }
+            tx.success();
+        }
+    }
+}
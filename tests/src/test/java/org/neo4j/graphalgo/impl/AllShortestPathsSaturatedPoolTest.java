@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphBuilder;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.queue.BatchedTupleQueue;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The result stream of the all shortest paths algorithms is consumed by the
+ * thread that starts them. A saturated pool whose rejection policy makes the
+ * caller wait for the task must not block that thread, otherwise nobody drains
+ * the bounded result queue once it is full.
+ */
+public class AllShortestPathsSaturatedPoolTest {
+
+    // a complete graph yields several chunks of results
+    private static final int NODE_COUNT = 128;
+    private static final long RESULT_COUNT = (long) NODE_COUNT * (NODE_COUNT - 1);
+
+    private HugeGraph graph;
+    private ThreadPoolExecutor pool;
+    private ExecutorService consumer;
+    private CountDownLatch saturation;
+
+    @Before
+    public void setup() {
+        HugeGraphBuilder builder = new HugeGraphBuilder(
+                NODE_COUNT,
+                (long) NODE_COUNT * NODE_COUNT,
+                AllocationTracker.EMPTY);
+        for (long source = 0L; source < NODE_COUNT; source++) {
+            for (long target = 0L; target < NODE_COUNT; target++) {
+                if (source != target) {
+                    builder.add(source, target);
+                }
+            }
+        }
+        graph = builder.build(Direction.OUTGOING, null, 1);
+        builder.release();
+        assertEquals(true, RESULT_COUNT > 3L * BatchedTupleQueue.DEFAULT_CHUNK_SIZE);
+
+        // like Pools.DEFAULT, a rejected task is run by the pool while the submitter waits for it
+        pool = new ThreadPoolExecutor(
+                2,
+                2,
+                30L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1),
+                (task, executor) -> {
+                    try {
+                        executor.getQueue().put(task);
+                        ((Future<?>) task).get();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+        consumer = Executors.newSingleThreadExecutor();
+        saturation = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            pool.execute(() -> {
+                try {
+                    saturation.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    @After
+    public void tearDown() {
+        saturation.countDown();
+        consumer.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    // MS-BFS gives up submitting to a pool that stays saturated, only the stream has to end
+
+    @Test
+    public void testMSBFSOnSaturatedPool() throws Exception {
+        streamOnSaturatedPool(executor -> new MSBFSAllShortestPaths(graph, 2, executor));
+    }
+
+    @Test
+    public void testHugeMSBFSOnSaturatedPool() throws Exception {
+        streamOnSaturatedPool(executor -> new HugeMSBFSAllShortestPaths(graph, AllocationTracker.EMPTY, 2, executor));
+    }
+
+    @Test
+    public void testDijkstraOnSaturatedPool() throws Exception {
+        // the dijkstra variant also emits every source itself with a distance of 0
+        assertEquals(
+                RESULT_COUNT + NODE_COUNT,
+                streamOnSaturatedPool(executor -> new AllShortestPaths(graph, executor, 2)));
+    }
+
+    private long streamOnSaturatedPool(
+            Function<ExecutorService, MSBFSASPAlgorithm<?>> algo) throws Exception {
+        // starting the algorithm must return while the pool is still saturated
+        final Stream<AllShortestPaths.Result> results = consumer
+                .submit(() -> algo.apply(pool).resultStream())
+                .get(10L, TimeUnit.SECONDS);
+        saturation.countDown();
+        return consumer.submit(results::count).get(30L, TimeUnit.SECONDS);
+    }
+}
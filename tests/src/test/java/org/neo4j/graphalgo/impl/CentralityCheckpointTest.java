@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphBuilder;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.impl.betweenness.ParallelBetweennessCentrality;
+import org.neo4j.graphdb.Direction;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.LongToDoubleFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A centrality run that is stopped right after its first checkpoint and then
+ * resumed from it has to end up with the same result as an uninterrupted run.
+ */
+public class CentralityCheckpointTest {
+
+    private static final int NODE_COUNT = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HugeGraph graph;
+
+    @Before
+    public void setup() {
+        HugeGraphBuilder builder = new HugeGraphBuilder(
+                NODE_COUNT,
+                (long) NODE_COUNT * NODE_COUNT,
+                AllocationTracker.EMPTY);
+        for (long source = 0L; source < NODE_COUNT; source++) {
+            for (long target = 0L; target < NODE_COUNT; target++) {
+                if (source != target && (source * 7 + target * 13) % 23 == 0) {
+                    builder.add(source, target);
+                }
+            }
+        }
+        graph = builder.build(Direction.OUTGOING, null, 1);
+        builder.release();
+    }
+
+    @Test
+    public void betweennessResumesWithTheFirstUnprocessedSource() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("betweenness.ckpt");
+        ParallelBetweennessCentrality expected = betweenness().compute();
+
+        ParallelBetweennessCentrality stopped = betweenness()
+                .withCheckpoint(checkpoint, 50)
+                .withTerminationFlag(() -> !Files.exists(checkpoint));
+        stopped.compute();
+        assertTrue(Files.isRegularFile(checkpoint));
+        assertNotEquals(sum(expected.getCentrality()::get), sum(stopped.getCentrality()::get), 1e-9);
+
+        ParallelBetweennessCentrality resumed = betweenness()
+                .resumeFrom(checkpoint)
+                .compute();
+        for (long node = 0L; node < NODE_COUNT; node++) {
+            assertEquals(expected.getCentrality().get(node), resumed.getCentrality().get(node), 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void betweennessRejectsCheckpointOfCloseness() {
+        Path checkpoint = folder.getRoot().toPath().resolve("closeness.ckpt");
+        closeness().withCheckpoint(checkpoint, 64).compute();
+        betweenness().resumeFrom(checkpoint).compute();
+    }
+
+    @Test
+    public void closenessResumesWithTheFirstUnprocessedSource() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("closeness.ckpt");
+        HugeMSClosenessCentrality expected = closeness().compute();
+
+        HugeMSClosenessCentrality stopped = closeness()
+                .withCheckpoint(checkpoint, 64)
+                .withTerminationFlag(() -> !Files.exists(checkpoint));
+        stopped.compute();
+        assertTrue(Files.isRegularFile(checkpoint));
+        assertNotEquals(sum(expected.farness()::applyAsInt), sum(stopped.farness()::applyAsInt), 1e-9);
+
+        HugeMSClosenessCentrality resumed = closeness()
+                .resumeFrom(checkpoint)
+                .compute();
+        for (long node = 0L; node < NODE_COUNT; node++) {
+            assertEquals(expected.farness().applyAsInt(node), resumed.farness().applyAsInt(node));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveInterval() {
+        closeness().withCheckpoint(folder.getRoot().toPath().resolve("closeness.ckpt"), 0);
+    }
+
+    private ParallelBetweennessCentrality betweenness() {
+        return new ParallelBetweennessCentrality(graph, Pools.DEFAULT, 4);
+    }
+
+    private HugeMSClosenessCentrality closeness() {
+        return new HugeMSClosenessCentrality(graph, AllocationTracker.EMPTY, 4, Pools.DEFAULT);
+    }
+
+    private static double sum(LongToDoubleFunction values) {
+        double sum = 0.0;
+        for (long node = 0L; node < NODE_COUNT; node++) {
+            sum += values.applyAsDouble(node);
+        }
+        return sum;
+    }
+}
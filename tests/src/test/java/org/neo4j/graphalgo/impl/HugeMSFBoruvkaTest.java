@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeDisjointSetStruct;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests if HugeMSFBoruvka returns a valid MSF for each component
+ *
+ *         a                a
+ *     1 /   \ 2          /  \
+ *      /     \          /    \
+ *     b --3-- c        b      c
+ *     |       |   =>   |      |
+ *     4       5        |      |
+ *     |       |        |      |
+ *     d --6-- e        d      e
+ *
+ *     f --7-- g        f --- g
+ *
+ *     h                h
+ *
+ *     k1 .. k5 fully connected with equal weights
+ */
+public class HugeMSFBoruvkaTest {
+
+    private static GraphDatabaseAPI db;
+    private static HugeGraph graph;
+
+    @BeforeClass
+    public static void setup() {
+        final String cypher =
+                "CREATE (a:Node {name:'a'}) " +
+                "CREATE (b:Node {name:'b'}) " +
+                "CREATE (c:Node {name:'c'}) " +
+                "CREATE (d:Node {name:'d'}) " +
+                "CREATE (e:Node {name:'e'}) " +
+                "CREATE (f:Node {name:'f'}) " +
+                "CREATE (g:Node {name:'g'}) " +
+                "CREATE (h:Node {name:'h'}) " +
+                "CREATE (a)-[:TYPE {cost:1.0}]->(b) " +
+                "CREATE (a)-[:TYPE {cost:2.0}]->(c) " +
+                "CREATE (b)-[:TYPE {cost:3.0}]->(c) " +
+                "CREATE (b)-[:TYPE {cost:4.0}]->(d) " +
+                "CREATE (c)-[:TYPE {cost:5.0}]->(e) " +
+                "CREATE (d)-[:TYPE {cost:6.0}]->(e) " +
+                "CREATE (f)-[:TYPE {cost:7.0}]->(g) " +
+                "WITH 1 AS ignored " +
+                "UNWIND range(1, 5) AS i CREATE (:Node {name:'k' + i}) " +
+                "WITH 1 AS ignored " +
+                "MATCH (x:Node), (y:Node) WHERE x.name STARTS WITH 'k' AND y.name STARTS WITH 'k' AND x.name < y.name " +
+                "CREATE (x)-[:TYPE {cost:1.0}]->(y)";
+
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(cypher).close();
+            tx.success();
+        }
+
+        graph = (HugeGraph) new GraphLoader(db)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withRelationshipWeightsFromProperty("cost", 1.0)
+                .withSort(true)
+                .asUndirected(true)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testSequential() {
+        verify(new HugeMSFBoruvka(graph, null, 1, AllocationTracker.EMPTY).compute());
+    }
+
+    @Test
+    public void testParallel() {
+        verify(new HugeMSFBoruvka(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY).compute());
+    }
+
+    private void verify(HugeMSFBoruvka msf) {
+        // 4 + 1 + 0 + 4
+        assertEquals(9L, msf.relationshipCount());
+
+        final HugeMSFBoruvka.Aggregator aggregator = msf.aggregate();
+        assertEquals(9L, aggregator.getCount());
+        assertEquals(12.0 + 7.0 + 4.0, aggregator.getSum(), 0.01);
+        assertEquals(1.0, aggregator.getMin(), 0.01);
+        assertEquals(7.0, aggregator.getMax(), 0.01);
+
+        final Set<String> relationships = new HashSet<>();
+        msf.forEachRelationship((source, target, weight) -> {
+            final String s = name(source), t = name(target);
+            if (!s.startsWith("k")) {
+                relationships.add(s.compareTo(t) < 0 ? s + t : t + s);
+            }
+            return true;
+        });
+        final Set<String> expected = new HashSet<>();
+        expected.add("ab");
+        expected.add("ac");
+        expected.add("bd");
+        expected.add("ce");
+        expected.add("fg");
+        assertEquals(expected, relationships);
+
+        final HugeDisjointSetStruct components = msf.getComponents();
+        assertTrue(components.connected(id("a"), id("e")));
+        assertTrue(components.connected(id("f"), id("g")));
+        assertTrue(components.connected(id("k1"), id("k5")));
+        assertFalse(components.connected(id("a"), id("f")));
+        assertFalse(components.connected(id("a"), id("h")));
+        assertFalse(components.connected(id("k1"), id("h")));
+    }
+
+    private String name(long mappedId) {
+        try (Transaction tx = db.beginTx()) {
+            final String name = (String) db.getNodeById(graph.toOriginalNodeId(mappedId)).getProperty("name");
+            tx.success();
+            return name;
+        }
+    }
+
+    private long id(String name) {
+        try (Transaction tx = db.beginTx()) {
+            final long id = db.findNode(Label.label("Node"), "name", name).getId();
+            tx.success();
+            return graph.toHugeMappedNodeId(id);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.impl.multistepscc.HugeMultistepSCC;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**        _______
+ *        /       \
+ *      (0)--(1) (3)--(4)
+ *        \  /     \ /
+ *        (2)  (6) (5)
+ *             / \
+ *           (7)-(8)     (x)
+ *
+ */
+public class HugeMultistepSCCTest {
+
+    private static GraphDatabaseAPI api;
+
+    private static HugeGraph graph;
+
+    @BeforeClass
+    public static void setup() {
+        final String cypher =
+                "CREATE (a:Node {name:'a'})\n" +
+                        "CREATE (b:Node {name:'b'})\n" +
+                        "CREATE (c:Node {name:'c'})\n" +
+                        "CREATE (d:Node {name:'d'})\n" +
+                        "CREATE (e:Node {name:'e'})\n" +
+                        "CREATE (f:Node {name:'f'})\n" +
+                        "CREATE (g:Node {name:'g'})\n" +
+                        "CREATE (h:Node {name:'h'})\n" +
+                        "CREATE (i:Node {name:'i'})\n" +
+                        "CREATE (x:Node {name:'x'})\n" +
+                        "CREATE" +
+                        " (a)-[:TYPE]->(b),\n" +
+                        " (b)-[:TYPE]->(c),\n" +
+                        " (c)-[:TYPE]->(a),\n" +
+
+                        " (d)-[:TYPE]->(e),\n" +
+                        " (e)-[:TYPE]->(f),\n" +
+                        " (f)-[:TYPE]->(d),\n" +
+
+                        " (a)-[:TYPE]->(d),\n" +
+
+                        " (g)-[:TYPE]->(h),\n" +
+                        " (h)-[:TYPE]->(i),\n" +
+                        " (i)-[:TYPE]->(g),\n" +
+
+                        " (x)-[:TYPE]->(g)";
+
+        api = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+
+        graph = (HugeGraph) new GraphLoader(api)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withoutRelationshipWeights()
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (api != null) api.shutdown();
+        graph = null;
+    }
+
+    private static long getMappedNodeId(String name) {
+        final Node[] node = new Node[1];
+        api.execute("MATCH (n:Node) WHERE n.name = '" + name + "' RETURN n").accept(row -> {
+            node[0] = row.getNode("n");
+            return false;
+        });
+        return graph.toHugeMappedNodeId(node[0].getId());
+    }
+
+    @Test
+    public void testSequential() throws Exception {
+        final HugeMultistepSCC multistep = new HugeMultistepSCC(graph, Pools.DEFAULT, 1, AllocationTracker.EMPTY)
+                .compute();
+        assertResult(multistep);
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        final HugeMultistepSCC multistep = new HugeMultistepSCC(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .compute();
+        assertResult(multistep);
+    }
+
+    private void assertResult(HugeMultistepSCC multistep) {
+        final LongArray components = multistep.getConnectedComponents();
+        assertBelongSameSet(components, getMappedNodeId("a"), getMappedNodeId("b"), getMappedNodeId("c"));
+        assertBelongSameSet(components, getMappedNodeId("d"), getMappedNodeId("e"), getMappedNodeId("f"));
+        assertBelongSameSet(components, getMappedNodeId("g"), getMappedNodeId("h"), getMappedNodeId("i"));
+        assertBelongSameSet(components, getMappedNodeId("x"));
+
+        assertEquals(3, multistep.getMaxSetSize());
+        assertEquals(1, multistep.getMinSetSize());
+        assertEquals(4, multistep.getSetCount());
+    }
+
+    private static void assertBelongSameSet(LongArray data, Long... expected) {
+        // check if all belong to same set
+        final long needle = data.get(expected[0]);
+        for (long i : expected) {
+            assertEquals(needle, data.get(i));
+        }
+
+        final List<Long> exp = Arrays.asList(expected);
+        // check no other element belongs to this set
+        for (long i = 0; i < graph.nodeCount(); i++) {
+            if (exp.contains(i)) {
+                continue;
+            }
+            assertNotEquals(needle, data.get(i));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs HugePageRank on a pool whose threads are all taken by other work
+ * when the computation starts, so that no step can be submitted right away.
+ */
+public final class HugePageRankBusyPoolTest {
+
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+    private static final int NODE_COUNT = 500;
+    private static final int DEGREE = 4;
+    private static final int THREADS = 2;
+    private static final int ITERATIONS = 10;
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    private static HugeGraph graph;
+
+    @BeforeClass
+    public static void setupGraph() {
+        DB.executeAndCommit(db -> {
+            Random random = new Random(42L);
+            Node[] nodes = new Node[NODE_COUNT];
+            for (int i = 0; i < NODE_COUNT; i++) {
+                nodes[i] = db.createNode();
+            }
+            for (Node node : nodes) {
+                for (int i = 0; i < DEGREE; i++) {
+                    node.createRelationshipTo(nodes[random.nextInt(NODE_COUNT)], TYPE);
+                }
+            }
+        });
+        graph = (HugeGraph) new GraphLoader(DB)
+                .withAnyLabel()
+                .withRelationshipType(TYPE)
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+    }
+
+    @Test
+    public void shouldRunAllStepsWhenThePoolIsBusy() throws Exception {
+        PageRankResult expected = pageRank(null).compute(ITERATIONS).result();
+
+        PageRankResult actual = whileBusy(pool -> pageRank(pool).compute(ITERATIONS).result());
+
+        for (long nodeId = 0L; nodeId < NODE_COUNT; nodeId++) {
+            assertEquals("Node#" + nodeId, expected.score(nodeId), actual.score(nodeId), 1e-9);
+        }
+    }
+
+    @Test
+    public void shouldWriteAllPartitionsWhenThePoolIsBusy() throws Exception {
+        PageRankResult expected = pageRank(null).compute(ITERATIONS).result();
+
+        whileBusy(pool -> {
+            try (Exporter.AsyncWriter writer = pageRank(pool).compute(
+                    ITERATIONS,
+                    "busyRank",
+                    Exporter.of(DB, graph).build())) {
+                return writer;
+            }
+        });
+
+        try (Transaction tx = DB.beginTx()) {
+            for (long nodeId = 0L; nodeId < NODE_COUNT; nodeId++) {
+                Node node = DB.getNodeById(graph.toOriginalNodeId(nodeId));
+                assertEquals(
+                        "Node#" + nodeId,
+                        expected.score(nodeId),
+                        (double) node.getProperty("busyRank", Double.NaN),
+                        1e-9);
+            }
+            tx.success();
+        }
+    }
+
+    private static PageRankAlgorithm pageRank(ExecutorService pool) {
+        return PageRankAlgorithm.of(graph, 0.85, pool, THREADS, 1);
+    }
+
+    /**
+     * starts the computation while all threads of the pool are blocked
+     * and frees them only after the computation had the chance to drop its steps
+     */
+    private static <T> T whileBusy(Function<ExecutorService, T> computation) throws Exception {
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(THREADS);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                pool.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            while (pool.getActiveCount() < THREADS) {
+                Thread.sleep(1L);
+            }
+            Future<T> result = caller.submit(() -> computation.apply(pool));
+            Thread.sleep(100L);
+            release.countDown();
+            return result.get(30L, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            caller.shutdownNow();
+            pool.shutdownNow();
+        }
+    }
+}
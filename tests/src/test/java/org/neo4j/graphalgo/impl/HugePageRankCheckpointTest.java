@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugePageRankCheckpointTest {
+
+    private static final String DB_CYPHER = "" +
+            "UNWIND range(0, 199) AS i CREATE (:Node {id: i})\n" +
+            "WITH 1 AS _\n" +
+            "MATCH (a:Node), (b:Node) WHERE (a.id * 7 + b.id * 13) % 17 = 0 AND a <> b\n" +
+            "CREATE (a)-[:TYPE]->(b)";
+
+    private static GraphDatabaseAPI db;
+    private static Graph graph;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+        graph = new GraphLoader(db)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldResumeWithTheSameScores() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("pagerank.ckpt");
+
+        PageRankResult expected = pageRank(0.85, 4)
+                .compute(20)
+                .result();
+
+        pageRank(0.85, 4)
+                .withCheckpoint(checkpoint, 3)
+                .compute(8);
+        assertTrue(checkpoint.toFile().isFile());
+
+        // resuming with another partitioning reads the scores in node order
+        PageRankResult resumed = pageRank(0.85, 2)
+                .resumeFrom(checkpoint)
+                .compute(20)
+                .result();
+
+        for (long nodeId = 0L; nodeId < graph.nodeCount(); nodeId++) {
+            assertEquals("Node#" + nodeId, expected.score(nodeId), resumed.score(nodeId), 1e-9);
+        }
+    }
+
+    @Test
+    public void shouldNotRunIterationsBeyondTheCheckpoint() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("pagerank.ckpt");
+
+        PageRankResult expected = pageRank(0.85, 4)
+                .withCheckpoint(checkpoint, 5)
+                .compute(5)
+                .result();
+        PageRankResult fewerIterations = pageRank(0.85, 4)
+                .compute(2)
+                .result();
+
+        PageRankResult resumed = pageRank(0.85, 4)
+                .resumeFrom(checkpoint)
+                .compute(2)
+                .result();
+
+        boolean differs = false;
+        for (long nodeId = 0L; nodeId < graph.nodeCount(); nodeId++) {
+            assertEquals("Node#" + nodeId, expected.score(nodeId), resumed.score(nodeId), 1e-9);
+            differs |= Math.abs(fewerIterations.score(nodeId) - resumed.score(nodeId)) > 1e-9;
+        }
+        assertTrue(differs);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCheckpointOfAnotherConfiguration() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("pagerank.ckpt");
+
+        pageRank(0.85, 4)
+                .withCheckpoint(checkpoint, 1)
+                .compute(2);
+
+        pageRank(0.5, 4)
+                .resumeFrom(checkpoint)
+                .compute(5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingCheckpoint() throws Exception {
+        pageRank(0.85, 4)
+                .resumeFrom(folder.getRoot().toPath().resolve("missing.ckpt"))
+                .compute(5);
+    }
+
+    private static PageRankAlgorithm pageRank(double dampingFactor, int concurrency) {
+        return PageRankAlgorithm.of(graph, dampingFactor, Pools.DEFAULT, concurrency, 1);
+    }
+}
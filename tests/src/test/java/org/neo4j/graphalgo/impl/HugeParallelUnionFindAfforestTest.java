@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNodeIterator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class HugeParallelUnionFindAfforestTest {
+
+    private static final RelationshipType RELATIONSHIP_TYPE = RelationshipType.withName("TYPE");
+
+    // more than the relationships that are linked before the sampling
+    private static final int DEGREE = 5;
+
+    private static final int LARGE_COMPONENT = 300;
+    private static final int SMALL_COMPONENTS = 4;
+    private static final int SMALL_COMPONENT = 20;
+    private static final int SATELLITE = 10;
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    @BeforeClass
+    public static void setupGraph() {
+        DB.executeAndCommit(db -> {
+            Random random = new Random(42L);
+            Node[] large = createCluster(db, random, LARGE_COMPONENT);
+            for (int i = 0; i < SMALL_COMPONENTS; i++) {
+                createCluster(db, random, SMALL_COMPONENT);
+            }
+            // created last, so that the bridge is the last relationship of its source
+            // and only linked in the final round, where the source is skipped
+            Node[] satellite = createCluster(db, random, SATELLITE);
+            large[0].createRelationshipTo(satellite[0], RELATIONSHIP_TYPE);
+        });
+    }
+
+    private static Node[] createCluster(GraphDatabaseService db, Random random, int size) {
+        Node[] nodes = new Node[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i] = db.createNode();
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < DEGREE; j++) {
+                int target = random.nextInt(size - 1);
+                nodes[i].createRelationshipTo(
+                        nodes[target >= i ? target + 1 : target],
+                        RELATIONSHIP_TYPE);
+            }
+        }
+        return nodes;
+    }
+
+    @Test
+    public void shouldFindTheSameComponentsAsSequentialUnionFind() {
+        HugeGraph graph = load(Direction.BOTH);
+
+        DSSResult expected = UnionFindAlgo.SEQ.run(
+                graph,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY,
+                SMALL_COMPONENT,
+                Pools.DEFAULT_CONCURRENCY);
+        DSSResult actual = UnionFindAlgo.AFFOREST.run(
+                graph,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY,
+                SMALL_COMPONENT,
+                Pools.DEFAULT_CONCURRENCY);
+
+        assertEquals(1 + SMALL_COMPONENTS, expected.getSetCount());
+        assertEquals(expected.getSetCount(), actual.getSetCount());
+
+        // every set of afforest maps to exactly one set of the sequential union find
+        Map<Long, Long> sets = new HashMap<>();
+        actual.forEach((HugeNodeIterator) graph, (nodeId, setId) -> {
+            long expectedSet = expected.hugeStruct.find(nodeId);
+            long mappedSet = sets.computeIfAbsent(setId, s -> expectedSet);
+            assertEquals("Node " + nodeId + " in unexpected set", mappedSet, expectedSet);
+            return true;
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectGraphWithoutIncomingRelationships() {
+        UnionFindAlgo.AFFOREST.run(
+                load(Direction.OUTGOING),
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY,
+                SMALL_COMPONENT,
+                Pools.DEFAULT_CONCURRENCY);
+    }
+
+    private static HugeGraph load(Direction direction) {
+        return (HugeGraph) new GraphLoader(DB)
+                .withExecutorService(Pools.DEFAULT)
+                .withAnyLabel()
+                .withRelationshipType(RELATIONSHIP_TYPE)
+                .withDirection(direction)
+                .load(HugeGraphFactory.class);
+    }
+}
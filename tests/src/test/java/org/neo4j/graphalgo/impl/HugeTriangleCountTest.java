@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicLongArray;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the per node counts of HugeTriangleCount with TriangleCountQueue on a
+ * clique of hubs with many low degree nodes attached, so that the forward lists
+ * differ enough in length to intersect with both the merge and the galloping search.
+ */
+public final class HugeTriangleCountTest {
+
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+    private static final int HUBS = 48;
+    private static final int LEAVES = 600;
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    @BeforeClass
+    public static void setup() {
+        final Random random = new Random(42L);
+        try (Transaction tx = DB.beginTx()) {
+            final Node[] hubs = new Node[HUBS];
+            for (int i = 0; i < HUBS; i++) {
+                hubs[i] = DB.createNode();
+                for (int j = 0; j < i; j++) {
+                    hubs[j].createRelationshipTo(hubs[i], TYPE);
+                }
+            }
+            // every leaf links to two hubs, some also to the previous leaf and its hubs
+            Node previous = null;
+            int previousFirst = -1, previousSecond = -1;
+            for (int i = 0; i < LEAVES; i++) {
+                final Node leaf = DB.createNode();
+                final int first = random.nextInt(HUBS);
+                final int second = (first + 1 + random.nextInt(HUBS - 1)) % HUBS;
+                leaf.createRelationshipTo(hubs[first], TYPE);
+                leaf.createRelationshipTo(hubs[second], TYPE);
+                if (previous != null && random.nextInt(4) == 0) {
+                    leaf.createRelationshipTo(previous, TYPE);
+                    if (first != previousFirst && first != previousSecond) {
+                        previous.createRelationshipTo(hubs[first], TYPE);
+                    }
+                }
+                previous = leaf;
+                previousFirst = first;
+                previousSecond = second;
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void testCountsPerNodeMatchTheQueueImplementation() {
+        final Graph expectedGraph = load(HeavyGraphFactory.class);
+        final TriangleCountQueue expected = new TriangleCountQueue(expectedGraph, Pools.DEFAULT, 1);
+        expected.compute();
+
+        final HugeGraph graph = (HugeGraph) load(HugeGraphFactory.class);
+        final HugeTriangleCount algo = new HugeTriangleCount(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY);
+        algo.compute();
+
+        assertTrue(algo.getTriangleCount() > 0L);
+        assertEquals(expected.getTriangleCount(), algo.getTriangleCount());
+
+        final AtomicLongArray expectedTriangles = expected.getTriangles();
+        final HugeAtomicLongArray triangles = algo.getTriangles();
+        for (long node = 0L; node < graph.nodeCount(); node++) {
+            final long nodeId = graph.toOriginalNodeId(node);
+            assertEquals(
+                    "triangles of node " + nodeId,
+                    expectedTriangles.get(expectedGraph.toMappedNodeId(nodeId)),
+                    triangles.get(node));
+        }
+    }
+
+    private static Graph load(Class<? extends GraphFactory> graphImpl) {
+        return new GraphLoader(DB)
+                .withAnyLabel()
+                .withRelationshipType(TYPE)
+                .withoutRelationshipWeights()
+                .withoutNodeWeights()
+                .withSort(true)
+                .asUndirected(true)
+                .load(graphImpl);
+    }
+}
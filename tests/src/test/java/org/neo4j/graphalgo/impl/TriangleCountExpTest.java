@@ -19,16 +19,21 @@
 package org.neo4j.graphalgo.impl;
 
 import org.junit.BeforeClass;
+import org.junit.Assume;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.lightweight.LightGraphFactory;
 import org.neo4j.graphalgo.core.utils.AtomicDoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicLongArray;
 import org.neo4j.graphalgo.helper.graphbuilder.DefaultBuilder;
 import org.neo4j.graphalgo.helper.graphbuilder.GraphBuilder;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
@@ -41,7 +46,7 @@ import org.neo4j.test.rule.ImpermanentDatabaseRule;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static org.junit.Assert.assertEquals;
 
@@ -156,7 +161,41 @@ public class TriangleCountExpTest {
         assertEquals(EXPECTED_COEFFICIENT, algo.getAverageClusteringCoefficient(), 0.001);
     }
 
-    private void assertTriangles(AtomicIntegerArray triangles) {
+    @Test
+    public void testHuge() {
+        Assume.assumeTrue(graph instanceof HugeGraph);
+        final HugeTriangleCount algo = new HugeTriangleCount((HugeGraph) graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY);
+        try (ProgressTimer start = ProgressTimer.start(l -> System.out.println("took " + l + "ms"))) {
+            algo.compute();
+        }
+        assertEquals(TRIANGLE_COUNT, algo.getTriangleCount());
+        assertTriangles(algo.getTriangles());
+        assertClusteringCoefficient(algo.getClusteringCoefficients());
+        assertEquals(EXPECTED_COEFFICIENT, algo.getAverageClusteringCoefficient(), 0.001);
+    }
+
+    private void assertTriangles(HugeAtomicLongArray triangles) {
+        final long centerMapped = graph.toMappedNodeId(centerId);
+        assertEquals(TRIANGLE_COUNT, triangles.get(centerMapped));
+        for (long i = 0; i < graph.nodeCount(); i++) {
+            if (i == centerMapped) {
+                continue;
+            }
+            assertEquals(2, triangles.get(i));
+        }
+    }
+
+    private void assertClusteringCoefficient(DoubleArray coefficients) {
+        final long centerMapped = graph.toMappedNodeId(centerId);
+        for (long i = 0; i < graph.nodeCount(); i++) {
+            if (i == centerMapped) {
+                continue;
+            }
+            assertEquals(EXPECTED_COEFFICIENT, coefficients.get(i), 0.01);
+        }
+    }
+
+    private void assertTriangles(AtomicLongArray triangles) {
         final int centerMapped = graph.toMappedNodeId(centerId);
         assertEquals(TRIANGLE_COUNT, triangles.get(centerMapped));
         for (int i = 0; i < triangles.length(); i++) {
@@ -77,16 +77,13 @@ public class UnionFindsTest {
         }
     }
 
+    private final Class<? extends GraphFactory> graphImpl;
     private Graph graph;
 
     public UnionFindsTest(
             Class<? extends GraphFactory> graphImpl,
             String name) {
-        graph = new GraphLoader(DB)
-                .withExecutorService(Pools.DEFAULT)
-                .withAnyLabel()
-                .withRelationshipType(RELATIONSHIP_TYPE)
-                .load(graphImpl);
+        this.graphImpl = graphImpl;
     }
 
     private static void createTestGraph(int... setSizes) {
@@ -126,6 +123,11 @@ public class UnionFindsTest {
         test(UnionFindAlgo.FJ_MERGE);
     }
 
+    @Test
+    public void testAfforest() {
+        test(UnionFindAlgo.AFFOREST);
+    }
+
 
     private void test(UnionFindAlgo uf) {
         DSSResult result = run(uf);
@@ -156,6 +158,12 @@ public class UnionFindsTest {
     }
 
     private DSSResult run(final UnionFindAlgo uf) {
+        graph = new GraphLoader(DB)
+                .withExecutorService(Pools.DEFAULT)
+                .withAnyLabel()
+                .withRelationshipType(RELATIONSHIP_TYPE)
+                .withDirection(uf.direction())
+                .load(graphImpl);
         return uf.runAny(
                 graph,
                 Pools.DEFAULT,